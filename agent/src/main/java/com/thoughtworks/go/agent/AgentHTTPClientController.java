@@ -30,6 +30,7 @@ import com.thoughtworks.go.publishers.GoArtifactsManipulator;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.AgentInstruction;
 import com.thoughtworks.go.remote.work.AgentWorkContext;
+import com.thoughtworks.go.remote.work.NoWork;
 import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.util.SubprocessLogger;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -41,6 +42,7 @@ import org.springframework.stereotype.Component;
 import java.lang.management.ManagementFactory;
 
 import static com.thoughtworks.go.remote.AgentInstruction.NONE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @Component
 public class AgentHTTPClientController extends AgentController {
@@ -132,6 +134,7 @@ public class AgentHTTPClientController extends AgentController {
         LOG.debug("[Agent Loop] {} is checking for work from Go", agentIdentifier);
         try {
             getAgentRuntimeInfo().idle();
+            long startedAt = System.nanoTime();
             Work work = client.getWork(getAgentRuntimeInfo());
             if (LOG.isDebugEnabled()) {
                 LOG.debug("[Agent Loop] Got work from server: [{}]", work.description());
@@ -141,6 +144,10 @@ public class AgentHTTPClientController extends AgentController {
                 new AgentWorkContext(agentIdentifier, client, manipulator, getAgentRuntimeInfo(), scmExtension, taskExtension, artifactExtension, pluginRequestProcessorRegistry)
             );
             LOG.debug("[Agent Loop] Successfully executed work.");
+            if (work instanceof NoWork && waitedForWork(startedAt)) {
+                // the server already held on to the request for as long as asked, no need to back off before asking again
+                return WorkAttempt.OK;
+            }
             return WorkAttempt.fromWork(work);
         } catch (UnregisteredAgentException e) {
             LOG.warn("[Agent Loop] Agent is not registered. [{}] Registering with server on next iteration.", e.getMessage());
@@ -151,6 +158,11 @@ public class AgentHTTPClientController extends AgentController {
         }
     }
 
+    private boolean waitedForWork(long startedAt) {
+        long waitMillis = client.getWorkWaitMillis();
+        return waitMillis > 0 && NANOSECONDS.toMillis(System.nanoTime() - startedAt) >= waitMillis;
+    }
+
     private JobRunner cacheRunner() {
         if (runner == null) {
             LOG.info("Go Agent took {} ms (post-bootstrap) to get to first work request.", ManagementFactory.getRuntimeMXBean().getUptime());
@@ -27,6 +27,7 @@ import com.thoughtworks.go.remote.Serialization;
 import com.thoughtworks.go.remote.request.*;
 import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.NoHttpResponseException;
@@ -44,11 +45,12 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import static com.thoughtworks.go.agent.ResponseHelpers.readBodyAsString;
 import static com.thoughtworks.go.agent.ResponseHelpers.readBodyAsStringOrElse;
-import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_AUTH;
-import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_UUID;
+import static com.thoughtworks.go.remote.StandardHeaders.*;
+import static com.thoughtworks.go.util.SystemEnvironment.AGENT_GET_WORK_LONG_POLL_TIMEOUT_IN_MILLIS;
 import static java.lang.String.format;
 
 @Component
@@ -58,12 +60,14 @@ public class RemotingClient implements BuildRepositoryRemote {
     private final GoAgentServerHttpClient client;
     private final DefaultAgentRegistry agent;
     private final URLService urls;
+    private final SystemEnvironment systemEnvironment;
 
     @Autowired
-    public RemotingClient(GoAgentServerHttpClient client, DefaultAgentRegistry agent, URLService urls) {
+    public RemotingClient(GoAgentServerHttpClient client, DefaultAgentRegistry agent, URLService urls, SystemEnvironment systemEnvironment) {
         this.client = client;
         this.agent = agent;
         this.urls = urls;
+        this.systemEnvironment = systemEnvironment;
     }
 
     @Override
@@ -73,7 +77,17 @@ public class RemotingClient implements BuildRepositoryRemote {
 
     @Override
     public Work getWork(AgentRuntimeInfo info) {
-        return Serialization.fromJson(post("get_work", new GetWorkRequest(info)), Work.class);
+        long waitMillis = getWorkWaitMillis();
+        Map<String, String> headers = waitMillis > 0 ? Map.of(REQUEST_GET_WORK_WAIT_MILLIS, String.valueOf(waitMillis)) : Map.of();
+        return Serialization.fromJson(post("get_work", new GetWorkRequest(info), headers), Work.class);
+    }
+
+    /**
+     * @return how long the server is asked to hold on to a get_work request while there is no work, 0 if the agent
+     * does not long-poll for work
+     */
+    public long getWorkWaitMillis() {
+        return systemEnvironment.get(AGENT_GET_WORK_LONG_POLL_TIMEOUT_IN_MILLIS);
     }
 
     @Override
@@ -103,11 +117,14 @@ public class RemotingClient implements BuildRepositoryRemote {
     }
 
     private String post(final String action, final AgentRequest payload) {
+        return post(action, payload, Map.of());
+    }
+
+    private String post(final String action, final AgentRequest payload, final Map<String, String> headers) {
         try {
-            try (CloseableHttpResponse response = client.execute(
-                    injectCredentials(
-                            postRequestFor(action, payload)
-                    ))) {
+            HttpRequestBase request = injectCredentials(postRequestFor(action, payload));
+            headers.forEach(request::setHeader);
+            try (CloseableHttpResponse response = client.execute(request)) {
                 validateResponse(response, action);
                 return readBodyAsString(response);
             }
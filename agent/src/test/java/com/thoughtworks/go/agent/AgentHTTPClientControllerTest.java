@@ -147,6 +147,21 @@ public class AgentHTTPClientControllerTest {
         assertThat(agentController.tryDoWork()).isEqualTo(WorkAttempt.NOTHING_TO_DO);
     }
 
+    @Test
+    void shouldAskForWorkAgainRightAwayWhenTheServerHeldOnToTheRequestForAsLongAsAsked() throws Exception {
+        work = mock(NoWork.class);
+        when(loopServer.getWorkWaitMillis()).thenReturn(1L);
+        when(loopServer.getWork(any())).thenAnswer(invocation -> {
+            Thread.sleep(5);
+            return work;
+        });
+        when(agentRegistry.uuid()).thenReturn(agentUuid);
+        agentController = createAgentController();
+        agentController.init();
+
+        assertThat(agentController.tryDoWork()).isEqualTo(WorkAttempt.OK);
+    }
+
     private void prepareForWork() {
         when(loopServer.getWork(any())).thenReturn(work);
         when(agentRegistry.uuid()).thenReturn(agentUuid);
@@ -36,6 +36,7 @@ import org.mockito.junit.jupiter.MockitoSettings
 import org.mockito.quality.Strictness
 
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory
+import static org.mockito.Mockito.never
 import static org.mockito.Mockito.verify
 import static org.mockito.Mockito.when
 
@@ -335,6 +336,29 @@ class InternalAgentControllerV1Test implements ControllerTrait<InternalAgentCont
               .hasBodyContaining(WorkRepresenter.toJSON(new NoWork()))
     }
 
+    @Test
+    void 'should wait for work when the agent asks to'() {
+      def agent = new Agent("uuid", "localhost", "176.19.4.1")
+      def runtimeInfo = AgentRuntimeInfo.fromAgent(agent.getAgentIdentifier(), AgentRuntimeStatus.Idle, currentWorkingDirectory(),
+              "20.1.0", "20.9.0", () -> "Mac OS X")
+
+      when(buildRepositoryMessageProducer.getWork(runtimeInfo, 15000L)).thenReturn(new NoWork())
+
+      def headers = [
+              'accept'                      : controller.mimeType,
+              'content-type'                : 'application/json',
+              'X-Agent-GUID'                : 'uuid',
+              'X-Agent-Get-Work-Wait-Millis': '15000'
+      ]
+      postWithApiHeader(controller.controllerPath("/get_work"), headers, GetWorkRequestRepresenter.toJSON(
+              new GetWorkRequest(runtimeInfo)))
+
+      assertThatResponse()
+              .isOk()
+              .hasBodyContaining(WorkRepresenter.toJSON(new NoWork()))
+      verify(buildRepositoryMessageProducer, never()).getWork(runtimeInfo)
+    }
+
     @Test
     void 'ensure agent is making a request for itself'() {
       def agent = new Agent("different_agent_uuid", "localhost", "176.19.4.1")
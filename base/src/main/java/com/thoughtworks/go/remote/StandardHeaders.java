@@ -23,6 +23,7 @@ public interface StandardHeaders {
 
     String REQUEST_UUID = "X-Agent-GUID";
     String REQUEST_AUTH = "Authorization";
+    String REQUEST_GET_WORK_WAIT_MILLIS = "X-Agent-Get-Work-Wait-Millis";
 
     String RESPONSE_CONTENT_MD5 = "Content-MD5";
 
@@ -128,6 +128,12 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Boolean> GO_SERVER_SESSION_COOKIE_SECURE = new GoBooleanSystemProperty("go.sessioncookie.secure", false);
     public static final GoSystemProperty<String> AGENT_EXTRA_PROPERTIES = new GoStringSystemProperty("gocd.agent.extra.properties", "");
     public static final GoSystemProperty<Long> JMS_LISTENER_BACKOFF_TIME_IN_MILLIS = new GoLongSystemProperty("go.jms.listener.backoff.time.in.milliseconds", SECONDS.toMillis(5));
+    // "activemq" uses the embedded ActiveMQ broker instead of handing messages from queue to listener within the server
+    public static final GoSystemProperty<String> GO_MESSAGING_BACKEND = new GoStringSystemProperty("go.messaging.backend", "memory");
+    // messages waiting on a queue (or for a topic listener) beyond this make senders wait, like producer flow control
+    public static final GoSystemProperty<Integer> GO_MESSAGING_QUEUE_CAPACITY = new GoIntSystemProperty("go.messaging.queue.capacity", 10_000);
+    // virtual listener threads report no CPU time to the daemon thread stats, and are left out of the thread dumps in server support info
+    public static final GoSystemProperty<Boolean> GO_MESSAGING_VIRTUAL_THREADS = new GoBooleanSystemProperty("go.messaging.virtual.threads", false);
 
     public static final GoSystemProperty<Integer> GO_SERVER_AUTHORIZATION_EXTENSION_CALLS_CACHE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("go.server.authorization.extension.calls.cache.timeout.in.secs", 60);
 
@@ -147,6 +153,38 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_CREATE_AGENT_THREADS = new GoIntSystemProperty("go.elasticplugin.createagent.threads", 5);
     public static final GoSystemProperty<Integer> GO_ELASTIC_PLUGIN_SERVER_PING_THREADS = new GoIntSystemProperty("go.elasticplugin.serverping.threads", 1);
+
+    // 0 disables long polling from the agent, the server caps both the wait and the number of agents waiting at once
+    public static final GoSystemProperty<Long> AGENT_GET_WORK_LONG_POLL_TIMEOUT_IN_MILLIS = new GoLongSystemProperty("agent.get.work.long.poll.timeout", 0L);
+    public static final GoSystemProperty<Long> GO_GET_WORK_LONG_POLL_MAX_WAIT_IN_MILLIS = new GoLongSystemProperty("go.get.work.long.poll.max.wait", SECONDS.toMillis(20));
+    public static final GoSystemProperty<Integer> GO_GET_WORK_LONG_POLL_MAX_WAITING_AGENTS = new GoIntSystemProperty("go.get.work.long.poll.max.waiting.agents", 100);
+    // folders downloaded as zips are cached on disk, least recently downloaded ones are evicted beyond these limits
+    public static final GoSystemProperty<Integer> GO_ARTIFACT_ZIP_CACHE_THREADS = new GoIntSystemProperty("go.artifact.zip.cache.threads", 2);
+    public static final GoSystemProperty<Long> GO_ARTIFACT_ZIP_CACHE_MAX_SIZE_IN_MB = new GoLongSystemProperty("go.artifact.zip.cache.max.size.mb", 10 * 1024L);
+    public static final GoSystemProperty<Long> GO_ARTIFACT_ZIP_CACHE_MAX_AGE_IN_MILLIS = new GoLongSystemProperty("go.artifact.zip.cache.max.age", DAYS.toMillis(7));
+    // zip folders straight into the response as they are downloaded instead of caching them
+    public static final GoSystemProperty<Boolean> GO_ARTIFACT_ZIP_STREAMING = new GoBooleanSystemProperty("go.artifact.zip.streaming", false);
+    // "caffeine" sizes what is cached by each of these classes separately, see go.cache.region.<class>.max.entries and .ttl.seconds
+    public static final GoSystemProperty<String> GO_CACHE_BACKEND = new GoStringSystemProperty("go.cache.backend", "ehcache");
+    public static final GoSystemProperty<String> GO_CACHE_REGIONS = new GoStringSystemProperty("go.cache.regions", "MaterialRepository,StageSqlMapDao,PipelineSqlMapDao,JobInstanceSqlMapDao");
+    // the pipeline timeline is restored from this file on startup instead of being loaded from the database, blank disables it
+    public static final GoSystemProperty<String> GO_PIPELINE_TIMELINE_SNAPSHOT = new GoStringSystemProperty("go.pipeline.timeline.snapshot", "db/pipeline-timeline.snapshot");
+    // access tokens which were verified once are not digested again while they are remembered, 0 disables it
+    public static final GoSystemProperty<Integer> GO_ACCESS_TOKEN_CACHE_SIZE = new GoIntSystemProperty("go.access.token.cache.size", 10_000);
+    public static final GoSystemProperty<Integer> GO_ACCESS_TOKEN_CACHE_TTL_SECONDS = new GoIntSystemProperty("go.access.token.cache.ttl.seconds", 3600);
+    // pipelines whose last schedule check took at least this long are checked after the others, and only on up to half of the material.check.threads at a time
+    public static final GoSystemProperty<Long> GO_SCHEDULE_CHECK_SLOW_PIPELINE_MILLIS = new GoLongSystemProperty("go.schedule.check.slow.pipeline.millis", 5000L);
+    // pipeline groups and templates are validated concurrently on the common fork-join pool when saving the whole config
+    public static final GoSystemProperty<Boolean> GO_CONFIG_VALIDATION_PARALLEL = new GoBooleanSystemProperty("go.config.validation.parallel", true);
+    // agents upload artifact folders larger than this as several zips of whole files, up to this many at a time
+    public static final GoSystemProperty<Long> GO_ARTIFACT_UPLOAD_CHUNK_SIZE_IN_MB = new GoLongSystemProperty("go.artifact.upload.chunk.size.mb", 256L);
+    public static final GoSystemProperty<Integer> GO_ARTIFACT_UPLOAD_THREADS = new GoIntSystemProperty("go.artifact.upload.threads", 4);
+    // uploaded artifact files are hard linked to a single copy of their content under artifacts/blobs, needs a unix file system
+    public static final GoSystemProperty<Boolean> GO_ARTIFACT_DEDUPLICATION = new GoBooleanSystemProperty("go.artifact.deduplication", false);
+    // the number of stages whose artifacts are purged at the same time when the disk is low
+    public static final GoSystemProperty<Integer> GO_ARTIFACT_PURGE_THREADS = new GoIntSystemProperty("go.artifact.purge.threads", 4);
+    // purging starts this far (in percent) of the way from the purge start limit to the purge upto limit, before the disk is actually low
+    public static final GoSystemProperty<Integer> GO_ARTIFACT_PURGE_PROACTIVE_PERCENT = new GoIntSystemProperty("go.artifact.purge.proactive.percent", 25);
     public static final GoSystemProperty<Integer> GO_ENCRYPTION_API_MAX_REQUESTS = new GoIntSystemProperty("go.encryption.api.max.requests", 30);
 
     public static final GoSystemProperty<String> GO_ANALYTICS_PLUGIN_EXTERNAL_ASSETS = new GoStringSystemProperty("go.analytics.plugin.external.assets", "./analytics-assets");
@@ -168,6 +206,8 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Boolean> CONSOLE_OUT_TO_STDOUT = new GoBooleanSystemProperty("go.console.stdout", false);
     private static final GoSystemProperty<String> CONSOLE_LOG_CHARSET = new GoStringSystemProperty("go.console.log.charset", "utf-8");
     public static final GoSystemProperty<Integer> CONSOLE_LOG_MAX_LINE_LENGTH = new GoIntSystemProperty("go.console.log.max.line.length", 1_000_000);
+    public static final GoSystemProperty<Integer> CONSOLE_OUT_FLUSH_THRESHOLD_BYTES = new GoIntSystemProperty("go.console.out.flush.threshold.bytes", 256 * 1024);
+    public static final GoSystemProperty<Integer> CONSOLE_OUT_MAX_BUFFERED_BYTES = new GoIntSystemProperty("go.console.out.max.buffered.bytes", 4 * 1024 * 1024);
     private static final GoSystemProperty<Boolean> AGENT_STATUS_API_ENABLED = new GoBooleanSystemProperty("go.agent.status.api.enabled", true);
     private static final GoSystemProperty<String> AGENT_STATUS_API_BIND_HOST = new GoStringSystemProperty("go.agent.status.api.bind.host", "localhost");
     private static final GoSystemProperty<Integer> AGENT_STATUS_API_BIND_PORT = new GoIntSystemProperty("go.agent.status.api.bind.port", 8152);
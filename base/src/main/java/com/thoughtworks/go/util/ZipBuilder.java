@@ -20,7 +20,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 public class ZipBuilder {
@@ -29,6 +33,7 @@ public class ZipBuilder {
     private final OutputStream destinationStream;
     private final boolean excludeRootDir;
     private final Map<String, File> toAdd = new HashMap<>();
+    private boolean recompress = true;
 
     public ZipBuilder(ZipUtil zipUtil, int level, OutputStream destinationStream, boolean excludeRootDir) {
         this.zipUtil = zipUtil;
@@ -42,8 +47,18 @@ public class ZipBuilder {
         return this;
     }
 
+    /**
+     * Stores files which are already compressed (archives, images and the like) without deflating them again, since
+     * they barely get any smaller for all the effort.
+     */
+    public ZipBuilder withoutRecompressing() {
+        this.recompress = false;
+        return this;
+    }
+
     public void done() throws IOException {
-        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(destinationStream))) {
+        BufferedOutputStream output = new BufferedOutputStream(destinationStream);
+        try (ZipOutputStream zip = recompress ? new ZipOutputStream(output) : new NoRecompressionZipOutputStream(output, level)) {
             zip.setLevel(level);
             for (Map.Entry<String, File> zipDirToSourceFileEntry : toAdd.entrySet()) {
                 File sourceFileToZip = zipDirToSourceFileEntry.getValue();
@@ -53,4 +68,30 @@ public class ZipBuilder {
             zip.flush();
         }
     }
+
+    private static class NoRecompressionZipOutputStream extends ZipOutputStream {
+        private static final Set<String> COMPRESSED_EXTENSIONS = Set.of(
+            "zip", "jar", "war", "ear", "nupkg", "whl", "apk",
+            "gz", "tgz", "bz2", "tbz2", "xz", "txz", "zst", "lz4", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4", "woff", "woff2"
+        );
+
+        private final int level;
+
+        NoRecompressionZipOutputStream(OutputStream output, int level) {
+            super(output);
+            this.level = level;
+        }
+
+        @Override
+        public void putNextEntry(ZipEntry entry) throws IOException {
+            super.putNextEntry(entry);
+            setLevel(isCompressed(entry.getName()) ? Deflater.NO_COMPRESSION : level);
+        }
+
+        static boolean isCompressed(String name) {
+            int dot = name.lastIndexOf('.');
+            return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+        }
+    }
 }
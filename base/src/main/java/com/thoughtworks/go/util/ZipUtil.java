@@ -19,6 +19,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -54,6 +57,39 @@ public class ZipUtil {
         zipContents(file, output, level, false);
     }
 
+    /**
+     * Zips only the given files and folders within the source straight into the output, naming them just as zipping the
+     * whole source would, and closes the output. The content of every file is read through the given source of entries.
+     */
+    public void zip(File source, Collection<File> filesWithinSource, OutputStream output, int level, ZipEntrySource entrySource) throws IOException {
+        Path parent = source.getAbsoluteFile().toPath().getParent();
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(output))) {
+            zip.setLevel(level);
+            for (File file : filesWithinSource) {
+                String name = parent.relativize(file.getAbsoluteFile().toPath()).toString().replace(File.separatorChar, '/');
+                if (file.isDirectory()) {
+                    zip.putNextEntry(new ZipEntry(name + "/"));
+                    continue;
+                }
+                ZipEntry zipEntry = new ZipEntry(name);
+                zipEntry.setTime(file.lastModified());
+                zip.putNextEntry(zipEntry);
+                try (InputStream inputStream = entrySource.open(zipEntry, file)) {
+                    inputStream.transferTo(zip);
+                }
+            }
+        }
+    }
+
+    public File zipWithoutRecompressing(File source, File destZipFile, int level) throws IOException {
+        zipWithoutRecompressing(source, new FileOutputStream(destZipFile), level);
+        return destZipFile;
+    }
+
+    public void zipWithoutRecompressing(File file, OutputStream output, int level) throws IOException {
+        new ZipBuilder(this, level, output, false).add("", file).withoutRecompressing().done();
+    }
+
     private void zipContents(File file, OutputStream output, int level, boolean excludeRootDir) throws IOException {
         new ZipBuilder(this, level, output, excludeRootDir).add("", file).done();
     }
@@ -128,6 +164,10 @@ public class ZipUtil {
         }
         try {
             FileUtil.mkdirsParentQuietly(outputFile);
+            // replaced rather than overwritten, so that the content of files hard linked from elsewhere is left alone
+            if (outputFile.isFile()) {
+                Files.delete(outputFile.toPath());
+            }
             try (FileOutputStream os = new FileOutputStream(outputFile)) {
                 entryInputStream.transferTo(os);
                 if (zipEntryHandler != null) {
@@ -169,4 +209,8 @@ public class ZipUtil {
         void handleEntry(ZipEntry entry, InputStream stream) throws IOException;
     }
 
+    public interface ZipEntrySource {
+        InputStream open(ZipEntry entry, File file) throws IOException;
+    }
+
 }
@@ -63,4 +63,10 @@ public abstract class CommandArgument implements Serializable, SecretRedactor {
         }
         return toRedact;
     }
+
+    @Override
+    public Replacement replacement() {
+        String secret = originalArgument();
+        return secret == null || secret.isEmpty() ? null : new Replacement(secret, forDisplay());
+    }
 }
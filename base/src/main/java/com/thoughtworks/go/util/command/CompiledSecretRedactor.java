@@ -0,0 +1,228 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Understands redacting many secrets from a line at once. The secrets of redactors which only replace a secret with
+ * a mask (see {@link SecretRedactor#replacement()}) are compiled into an Aho-Corasick automaton, which finds all of them
+ * in a single scan of the line, however many there are. Other redactors are applied one after the other, first.
+ * <p>
+ * Where secrets overlap, the whole overlapping text is replaced by the mask of the secret which starts first, so that
+ * no part of either secret is left behind. Lines without any secrets in them are returned as they are.
+ */
+public final class CompiledSecretRedactor implements SecretRedactor {
+    private static final int ROOT = 0;
+    private static final int NO_MATCH = -1;
+
+    private final List<SecretRedactor> others = new ArrayList<>();
+    private final String[] masks;
+    private final int[] secretLengths;
+
+    private final int[] asciiClasses = new int[128];
+    private final char[] otherChars;
+    private final int[] otherClasses;
+    private final int width;
+    private final int[] transitions;
+    private final int[] matches;
+
+    /**
+     * @param redactors the redactors to apply, in order
+     */
+    @SafeVarargs
+    public static CompiledSecretRedactor of(List<? extends SecretRedactor>... redactors) {
+        return new CompiledSecretRedactor(Stream.of(redactors).flatMap(List::stream).toList());
+    }
+
+    private CompiledSecretRedactor(List<? extends SecretRedactor> redactors) {
+        Map<String, String> replacements = new LinkedHashMap<>();
+        for (SecretRedactor redactor : redactors) {
+            Replacement replacement = redactor.replacement();
+            if (replacement == null) {
+                others.add(redactor);
+            } else if (replacement.mask() != null && !replacement.secret().equals(replacement.mask())) {
+                replacements.putIfAbsent(replacement.secret(), replacement.mask());
+            }
+        }
+
+        String[] secrets = replacements.keySet().toArray(new String[0]);
+        this.masks = replacements.values().toArray(new String[0]);
+        this.secretLengths = Arrays.stream(secrets).mapToInt(String::length).toArray();
+
+        SortedSet<Character> nonAsciiChars = new TreeSet<>();
+        int classes = 1;
+        int totalLength = 0;
+        for (String secret : secrets) {
+            totalLength += secret.length();
+            for (int i = 0; i < secret.length(); i++) {
+                char c = secret.charAt(i);
+                if (c < asciiClasses.length) {
+                    if (asciiClasses[c] == 0) {
+                        asciiClasses[c] = classes++;
+                    }
+                } else {
+                    nonAsciiChars.add(c);
+                }
+            }
+        }
+        this.otherChars = new char[nonAsciiChars.size()];
+        this.otherClasses = new int[nonAsciiChars.size()];
+        int index = 0;
+        for (char c : nonAsciiChars) {
+            otherChars[index] = c;
+            otherClasses[index++] = classes++;
+        }
+
+        this.width = classes;
+        int maximumStates = totalLength + 1;
+        this.transitions = new int[maximumStates * width];
+        this.matches = new int[maximumStates];
+        int states = buildTrie(secrets);
+        linkFailures(states);
+    }
+
+    private int buildTrie(String[] secrets) {
+        Arrays.fill(transitions, NO_MATCH);
+        Arrays.fill(matches, NO_MATCH);
+        int states = 1;
+        for (int secret = 0; secret < secrets.length; secret++) {
+            int state = ROOT;
+            for (int i = 0; i < secrets[secret].length(); i++) {
+                int slot = state * width + classOf(secrets[secret].charAt(i));
+                if (transitions[slot] == NO_MATCH) {
+                    transitions[slot] = states++;
+                }
+                state = transitions[slot];
+            }
+            matches[state] = secret;
+        }
+        return states;
+    }
+
+    /**
+     * Turns the trie into an automaton: every missing transition goes where the longest suffix of the text seen so far
+     * that is still the start of some secret would go, and every state matches the longest secret ending there.
+     */
+    private void linkFailures(int states) {
+        int[] failures = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+        for (int c = 0; c < width; c++) {
+            int child = transitions[ROOT * width + c];
+            if (child == NO_MATCH) {
+                transitions[ROOT * width + c] = ROOT;
+            } else {
+                failures[child] = ROOT;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            int state = queue[head++];
+            if (matches[state] == NO_MATCH) {
+                matches[state] = matches[failures[state]];
+            }
+            for (int c = 0; c < width; c++) {
+                int slot = state * width + c;
+                int child = transitions[slot];
+                int fallback = transitions[failures[state] * width + c];
+                if (child == NO_MATCH) {
+                    transitions[slot] = fallback;
+                } else {
+                    failures[child] = fallback;
+                    queue[tail++] = child;
+                }
+            }
+        }
+    }
+
+    @Override
+    public @NotNull Redactable redactFrom(@NotNull Redactable toRedact) {
+        Redactable redacted = toRedact;
+        for (SecretRedactor other : others) {
+            redacted = other.redactFrom(redacted);
+        }
+        return redacted.value() == null ? redacted : redacted.next(redactCompiled(redacted.value()));
+    }
+
+    /**
+     * @return the line with all secrets replaced, or the very same line if there were none in it
+     */
+    public String redact(String line) {
+        if (others.isEmpty()) {
+            return redactCompiled(line);
+        }
+        return redactFrom(Redactable.of(line)).value();
+    }
+
+    private String redactCompiled(String line) {
+        if (line == null || masks.length == 0) {
+            return line;
+        }
+        int[] found = null;
+        int count = 0;
+        int state = ROOT;
+        for (int i = 0; i < line.length(); i++) {
+            state = transitions[state * width + classOf(line.charAt(i))];
+            int secret = matches[state];
+            if (secret == NO_MATCH) {
+                continue;
+            }
+            int start = i + 1 - secretLengths[secret];
+            int end = i + 1;
+            // matches are found in order of where they end, so only the last ones can overlap this one
+            while (count > 0 && found[(count - 1) * 3 + 1] > start) {
+                count--;
+                if (found[count * 3] < start) {
+                    start = found[count * 3];
+                    secret = found[count * 3 + 2];
+                }
+            }
+            if (found == null) {
+                found = new int[12];
+            } else if ((count + 1) * 3 > found.length) {
+                found = Arrays.copyOf(found, found.length * 2);
+            }
+            found[count * 3] = start;
+            found[count * 3 + 1] = end;
+            found[count * 3 + 2] = secret;
+            count++;
+        }
+        if (count == 0) {
+            return line;
+        }
+
+        StringBuilder redacted = new StringBuilder(line.length());
+        int position = 0;
+        for (int match = 0; match < count; match++) {
+            redacted.append(line, position, found[match * 3]).append(masks[found[match * 3 + 2]]);
+            position = found[match * 3 + 1];
+        }
+        return redacted.append(line, position, line.length()).toString();
+    }
+
+    private int classOf(char c) {
+        if (c < asciiClasses.length) {
+            return asciiClasses[c];
+        }
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? 0 : otherClasses[index];
+    }
+}
@@ -33,6 +33,17 @@ public interface SecretRedactor {
         return redactFrom(Redactable.of(toRedact));
     }
 
+    /**
+     * @return the secret this redactor replaces wherever it appears and what it is replaced with, if that is all this
+     * redactor does, so that it can be redacted along with other secrets in a single pass; null otherwise
+     */
+    default Replacement replacement() {
+        return null;
+    }
+
+    record Replacement(String secret, String mask) {
+    }
+
     record Redactable(String value, boolean wasRedacted) {
         @Override
         public @NotNull String toString() {
@@ -89,6 +89,23 @@ public class ZipUtilTest {
         assertThat(fileContent(actual2)).isEqualTo(fileContent(file2));
     }
 
+    @Test
+    void shouldStoreAlreadyCompressedFilesWithoutDeflatingThemAgain() throws IOException {
+        String compressible = "all work and no play makes jack a dull boy\n".repeat(1000);
+        Files.writeString(srcDir.toPath().resolve("report.txt"), compressible, UTF_8);
+        Files.writeString(srcDir.toPath().resolve("report.tar.GZ"), compressible, UTF_8);
+
+        zipFile = zipUtil.zipWithoutRecompressing(srcDir, createFileInTempDir(), Deflater.BEST_SPEED);
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            ZipEntry text = zip.getEntry(srcDir.getName() + "/report.txt");
+            ZipEntry archive = zip.getEntry(srcDir.getName() + "/report.tar.GZ");
+            assertThat(text.getCompressedSize()).isLessThan(text.getSize() / 10);
+            assertThat(archive.getCompressedSize()).isGreaterThanOrEqualTo(archive.getSize());
+            assertThat(new String(zip.getInputStream(archive).readAllBytes(), UTF_8)).isEqualTo(compressible);
+        }
+    }
+
     private File createFileInTempDir() throws IOException {
         return Files.createFile(tempDir.resolve("file.txt")).toFile();
     }
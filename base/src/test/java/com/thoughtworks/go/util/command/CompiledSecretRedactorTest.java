@@ -0,0 +1,96 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util.command;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledSecretRedactorTest {
+
+    @Test
+    void shouldRedactEverySecretWhereverItAppears() {
+        CompiledSecretRedactor redactor = CompiledSecretRedactor.of(List.of(secret("password")), List.of(secret("t0ken"), secret("ключ")));
+
+        assertThat(redactor.redact("password=password token=t0ken key=ключ")).isEqualTo("******=****** token=****** key=******");
+    }
+
+    @Test
+    void shouldReturnTheSameLineWhenThereIsNothingToRedact() {
+        String line = "nothing to see here, not even a passwor";
+
+        assertThat(CompiledSecretRedactor.of(List.of(secret("password"))).redact(line)).isSameAs(line);
+        assertThat(CompiledSecretRedactor.of(List.of()).redact(line)).isSameAs(line);
+        assertThat(CompiledSecretRedactor.of(List.of(secret("password"))).redactFrom(SecretRedactor.Redactable.of(line)).wasRedacted()).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreArgumentsWhichAreNotSecret() {
+        String line = "git clone repo";
+
+        assertThat(CompiledSecretRedactor.of(List.of(new StringArgument("clone"), secret(""))).redact(line)).isSameAs(line);
+    }
+
+    @Test
+    void shouldRedactSecretsWhichAreWithinOrOverlapOtherSecrets() {
+        CompiledSecretRedactor redactor = CompiledSecretRedactor.of(List.of(secret("bc"), secret("abcd"), secret("def"), secret("xy")));
+
+        assertThat(redactor.redact("abcdefg")).isEqualTo("******g");
+        assertThat(redactor.redact("abc xyxy")).isEqualTo("a****** ************");
+    }
+
+    @Test
+    void shouldApplyOtherRedactorsBeforeReplacingSecrets() {
+        SecretRedactor upperCase = toRedact -> toRedact.next(toRedact.value().toUpperCase());
+        CompiledSecretRedactor redactor = CompiledSecretRedactor.of(List.of(upperCase), List.of(secret("SECRET")));
+
+        assertThat(redactor.redact("a secret")).isEqualTo("A ******");
+        assertThat(redactor.redactFrom(SecretRedactor.Redactable.of("a secret")).wasRedacted()).isTrue();
+    }
+
+    @Test
+    void shouldRedactTheSameWayAsRedactingOneSecretAtATime() {
+        List<CommandArgument> secrets = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            secrets.add(secret("secret-" + i + "-value"));
+        }
+        String line = "using secret-7-value, secret-42-value and secret-199-value but not secret-200-value";
+
+        assertThat(CompiledSecretRedactor.of(secrets).redact(line)).isEqualTo(SecretRedactor.redact(line, secrets, List.of()));
+    }
+
+    private static CommandArgument secret(String secret) {
+        return new CommandArgument() {
+            @Override
+            public String originalArgument() {
+                return secret;
+            }
+
+            @Override
+            public String forDisplay() {
+                return "******";
+            }
+
+            @Override
+            public String forCommandLine() {
+                return secret;
+            }
+        };
+    }
+}
@@ -22,6 +22,7 @@ public class SafeOutputStreamConsumer implements ConsoleOutputStreamConsumer {
     private final List<CommandArgument> arguments = new ArrayList<>();
     private final List<SecretRedactor> secrets = new ArrayList<>();
     private final ConsoleOutputStreamConsumer consumer;
+    private volatile CompiledSecretRedactor redactor;
 
     public SafeOutputStreamConsumer(ConsoleOutputStreamConsumer consumer) {
         this.consumer = consumer;
@@ -29,6 +30,7 @@ public class SafeOutputStreamConsumer implements ConsoleOutputStreamConsumer {
 
     public void addArgument(CommandArgument argument) {
         arguments.add(argument);
+        redactor = null;
     }
 
     @Override
@@ -52,14 +54,21 @@ public class SafeOutputStreamConsumer implements ConsoleOutputStreamConsumer {
     }
 
     private String redactSecretsFrom(String line) {
-        return SecretRedactor.redact(line, arguments, secrets);
+        CompiledSecretRedactor redactor = this.redactor;
+        if (redactor == null) {
+            redactor = CompiledSecretRedactor.of(arguments, secrets);
+            this.redactor = redactor;
+        }
+        return redactor.redact(line);
     }
 
     public void addArguments(List<CommandArgument> arguments) {
         this.arguments.addAll(arguments);
+        redactor = null;
     }
 
     public void addSecrets(List<SecretRedactor> secrets) {
         this.secrets.addAll(secrets);
+        redactor = null;
     }
 }
@@ -25,20 +25,39 @@ import com.thoughtworks.go.util.SystemTimeClock;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.LineIterator;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Understands reading the lines written to a stream, typically the output of a process, and handing them to a
+ * consumer. Each pumper reads on a virtual thread of its own, so that the many short-lived processes run to poll
+ * materials do not each cost two platform threads.
+ * <p>
+ * For encodings in which line breaks are the bytes they are in ASCII, and those bytes never occur within another
+ * character (which holds for UTF-8 and most other encodings in use), lines are split on those bytes before being
+ * decoded; otherwise the stream is decoded as a whole. Either way, a line ends at a line feed, a carriage return, or
+ * both.
+ */
 public class StreamPumper implements Runnable {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
 
-    private Reader in;
-
-    private boolean completed;
+    private final InputStream in;
+    private final Charset encoding;
+    private final CountDownLatch completed = new CountDownLatch(1);
     private final StreamConsumer streamConsumer;
     private final String prefix;
-    private long lastHeard;
+    private volatile long lastHeard;
     private final Clock clock;
 
     private StreamPumper(InputStream in, StreamConsumer streamConsumer, String prefix, Charset encoding) {
@@ -47,28 +66,102 @@ public class StreamPumper implements Runnable {
 
     StreamPumper(InputStream in, StreamConsumer streamConsumer, String prefix, Charset encoding, Clock clock) {
         this.streamConsumer = streamConsumer;
-        this.prefix = prefix;
+        this.prefix = prefix == null || prefix.isBlank() ? null : prefix;
         this.clock = clock;
         this.lastHeard = System.currentTimeMillis();
-        this.in = new InputStreamReader(in, encoding);
+        this.in = in;
+        this.encoding = encoding;
     }
 
     @Override
     public void run() {
-        try (LineIterator lineIterator = IOUtils.lineIterator(in)) {
-            while (lineIterator.hasNext()) {
-                consumeLine(lineIterator.next());
+        try {
+            if (breaksLinesLikeAscii(encoding)) {
+                pumpBytes();
+            } else {
+                pumpChars();
             }
         } catch (Exception ignore) {
         } finally {
-            completed = true;
+            completed.countDown();
+        }
+    }
+
+    private void pumpBytes() throws IOException {
+        try (in) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] line = new byte[BUFFER_SIZE];
+            int lineLength = 0;
+            boolean afterCarriageReturn = false;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b != LF && b != CR) {
+                        afterCarriageReturn = false;
+                        continue;
+                    }
+                    if (b == LF && afterCarriageReturn) {
+                        // the second half of a CRLF, whose line was already consumed at the CR
+                        afterCarriageReturn = false;
+                        start = i + 1;
+                        continue;
+                    }
+                    if (lineLength == 0) {
+                        consumeLine(new String(buffer, start, i - start, encoding));
+                    } else {
+                        line = append(line, lineLength, buffer, start, i - start);
+                        consumeLine(new String(line, 0, lineLength + i - start, encoding));
+                        lineLength = 0;
+                    }
+                    afterCarriageReturn = b == CR;
+                    start = i + 1;
+                }
+                if (start < read) {
+                    line = append(line, lineLength, buffer, start, read - start);
+                    lineLength += read - start;
+                }
+            }
+            if (lineLength > 0) {
+                consumeLine(new String(line, 0, lineLength, encoding));
+            }
+        }
+    }
+
+    private void pumpChars() throws IOException {
+        try (LineIterator lineIterator = IOUtils.lineIterator(new InputStreamReader(in, encoding))) {
+            while (lineIterator.hasNext()) {
+                consumeLine(lineIterator.next());
+            }
+        }
+    }
+
+    private static byte[] append(byte[] line, int lineLength, byte[] buffer, int start, int length) {
+        byte[] target = lineLength + length > line.length ? Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length)) : line;
+        System.arraycopy(buffer, start, target, lineLength, length);
+        return target;
+    }
+
+    static boolean breaksLinesLikeAscii(Charset encoding) {
+        if (!encoding.canEncode()) {
+            return false;
+        }
+        try {
+            CharsetEncoder encoder = encoding.newEncoder();
+            ByteBuffer lineBreaks = encoder.encode(CharBuffer.wrap("\r\n"));
+            ByteBuffer letter = encoder.encode(CharBuffer.wrap("a"));
+            // encodings with a byte order mark or wider code units, such as UTF-16, encode these differently
+            return lineBreaks.remaining() == 2 && lineBreaks.get(0) == CR && lineBreaks.get(1) == LF && letter.remaining() == 1;
+        } catch (CharacterCodingException e) {
+            return false;
         }
     }
 
     private void consumeLine(String line) {
         lastHeard = System.currentTimeMillis();
         if (streamConsumer != null) {
-            if (prefix == null || prefix.isBlank()) {
+            if (prefix == null) {
                 streamConsumer.consumeLine(line);
             } else {
                 streamConsumer.consumeLine(prefix + line);
@@ -76,19 +169,24 @@ public class StreamPumper implements Runnable {
         }
     }
 
-
     public void readToEnd() {
-        while (!completed) {
+        boolean interrupted = false;
+        while (true) {
             try {
-                clock.sleepForMillis(100);
-            } catch (InterruptedException ignored) {
+                completed.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
             }
         }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public static StreamPumper pump(InputStream stream, StreamConsumer streamConsumer, String prefix, Charset encoding) {
         StreamPumper pumper = new StreamPumper(stream, streamConsumer, prefix, encoding);
-        new Thread(pumper).start();
+        Thread.ofVirtual().name("stream-pumper").start(pumper);
         return pumper;
     }
 
@@ -98,7 +196,7 @@ public class StreamPumper implements Runnable {
     }
 
     public boolean didTimeout(long duration, TimeUnit unit) {
-        if (completed) {
+        if (completed.getCount() == 0) {
             return false;
         }
         return timeSinceLastLine(unit) > duration;
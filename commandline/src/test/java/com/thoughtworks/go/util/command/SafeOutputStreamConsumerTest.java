@@ -17,6 +17,8 @@ package com.thoughtworks.go.util.command;
 
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class SafeOutputStreamConsumerTest {
@@ -32,6 +34,20 @@ public class SafeOutputStreamConsumerTest {
         assertThat(actualConsumer.getAllOutput()).doesNotContain("secret");
     }
 
+    @Test
+    public void shouldReplaceSecretsAddedAfterSomeOutput() {
+        InMemoryStreamConsumer actualConsumer = ProcessOutputStreamConsumer.inMemoryConsumer();
+        SafeOutputStreamConsumer streamConsumer = new SafeOutputStreamConsumer(actualConsumer);
+        streamConsumer.addArgument(commandArgumentWhichHasASecret("secret"));
+        streamConsumer.stdOutput("first secret");
+
+        streamConsumer.addSecrets(List.of(commandArgumentWhichHasASecret("password")));
+        streamConsumer.errOutput("second secret and password");
+
+        assertThat(actualConsumer.getStdOut()).isEqualTo("first ******");
+        assertThat(actualConsumer.getStdError()).isEqualTo("second ****** and ******");
+    }
+
     private CommandArgument commandArgumentWhichHasASecret(final String secret) {
         return new CommandArgument() {
             @Override
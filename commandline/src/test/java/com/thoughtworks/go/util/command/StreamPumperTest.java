@@ -23,13 +23,16 @@ import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static com.thoughtworks.go.util.TestUtils.sleepQuietly;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 public class StreamPumperTest {
 
@@ -85,6 +88,27 @@ public class StreamPumperTest {
         assertThat(pumper.didTimeout(1L, TimeUnit.SECONDS)).isFalse();
     }
 
+    @Test
+    public void shouldSplitLinesTheSameWayAsReadingThemWouldWhateverTheLineEndings() {
+        String lines = "unix\nwindows\r\nold mac\rünïcödé 😀\n\n\r\nlast";
+
+        for (Charset encoding : List.of(StandardCharsets.UTF_8, StandardCharsets.UTF_16, StandardCharsets.ISO_8859_1)) {
+            List<String> consumed = new ArrayList<>();
+            StreamPumper pumper = new StreamPumper(new ByteArrayInputStream(lines.getBytes(encoding)), consumed::add, "prefix: ", encoding, new SystemTimeClock());
+            pumper.run();
+
+            assertThat(consumed).containsExactlyElementsOf(new String(lines.getBytes(encoding), encoding).lines().map(line -> "prefix: " + line).toList());
+        }
+    }
+
+    @Test
+    public void shouldReadToEndAsSoonAsTheStreamIsConsumed() {
+        StreamPumper pumper = StreamPumper.pump(new ByteArrayInputStream("line1\n".getBytes()), new TestConsumer(), "", StandardCharsets.UTF_8);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), pumper::readToEnd);
+        assertThat(pumper.didTimeout(0, TimeUnit.SECONDS)).isFalse();
+    }
+
     /**
      * Used by the test to track whether a line actually got consumed or not.
      */
@@ -18,24 +18,28 @@ package com.thoughtworks.go.agent;
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
 import com.thoughtworks.go.config.AgentRegistry;
 import com.thoughtworks.go.domain.FetchHandler;
+import com.thoughtworks.go.publishers.ArtifactUploadChunk;
 import com.thoughtworks.go.util.GoConstants;
 import com.thoughtworks.go.util.PerfTimer;
+import org.apache.commons.io.function.IOConsumer;
 import org.apache.http.HttpEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.MIME;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
-import org.apache.http.entity.mime.content.ByteArrayBody;
-import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.AbstractContentBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.util.Properties;
 
 import static com.thoughtworks.go.remote.StandardHeaders.*;
 
@@ -56,28 +60,22 @@ public class HttpService {
         this.agentRegistry = agentRegistry;
     }
 
-    public int upload(String url, long size, File artifactFile, Properties artifactChecksums) throws IOException {
-        String absolutePath = artifactFile.getAbsolutePath();
-        if (!artifactFile.exists()) {
-            String message = "Failed to find file [" + absolutePath + "]";
-            LOGGER.error(message);
-            throw new FileNotFoundException(message);
-        }
-        LOGGER.info("Uploading file [{}] to url [{}]", absolutePath, url);
+    public int upload(String url, ArtifactUploadChunk artifact) throws IOException {
+        LOGGER.info("Uploading [{}] to url [{}]", artifact, url);
 
-        try (CloseableHttpResponse response = execute(createHttpPostForUpload(url, size, artifactFile, artifactChecksums))) {
+        try (CloseableHttpResponse response = execute(createHttpPostForUpload(url, artifact))) {
             return response.getStatusLine().getStatusCode();
         } catch (IOException e) {
-            LOGGER.error("Error while uploading file [{}]", artifactFile.getAbsolutePath(), e);
+            LOGGER.error("Error while uploading [{}]", artifact, e);
             throw e;
         }
     }
 
-    private HttpPost createHttpPostForUpload(String url, long size, File artifactFile, Properties artifactChecksums) throws IOException {
+    private HttpPost createHttpPostForUpload(String url, ArtifactUploadChunk artifact) {
         HttpPost filePost = httpClientFactory.createPost(url);
-        setSizeHeader(filePost, size);
+        setSizeHeader(filePost, artifact.size());
         filePost.setHeader(REQUEST_CONFIRM_MODIFICATION, "true");
-        filePost.setEntity(httpClientFactory.createMultipartRequestEntity(artifactFile, artifactChecksums));
+        filePost.setEntity(httpClientFactory.createMultipartRequestEntity(artifact));
         return filePost;
     }
 
@@ -141,15 +139,45 @@ public class HttpService {
             return new HttpGet(url);
         }
 
-        public HttpEntity createMultipartRequestEntity(File artifact, Properties artifactChecksums) throws IOException {
+        /**
+         * The zip is streamed as it is written, so the checksums of the files in it follow it rather than precede it.
+         */
+        public HttpEntity createMultipartRequestEntity(ArtifactUploadChunk artifact) {
             MultipartEntityBuilder entityBuilder = MultipartEntityBuilder.create();
-            entityBuilder.addPart(GoConstants.ZIP_MULTIPART_FILENAME, new FileBody(artifact));
-            if (artifactChecksums != null) {
-                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-                artifactChecksums.store(outputStream, "");
-                entityBuilder.addPart(GoConstants.CHECKSUM_MULTIPART_FILENAME, new ByteArrayBody(outputStream.toByteArray(), "checksum_file"));
-            }
+            entityBuilder.addPart(GoConstants.ZIP_MULTIPART_FILENAME, new StreamedBody(artifact.fileName(), artifact::writeTo));
+            entityBuilder.addPart(GoConstants.CHECKSUM_MULTIPART_FILENAME, new StreamedBody("checksum_file", output -> artifact.checksums().store(output, "")));
             return entityBuilder.build();
         }
     }
+
+    private static class StreamedBody extends AbstractContentBody {
+        private final String filename;
+        private final IOConsumer<OutputStream> writer;
+
+        StreamedBody(String filename, IOConsumer<OutputStream> writer) {
+            super(ContentType.DEFAULT_BINARY);
+            this.filename = filename;
+            this.writer = writer;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            writer.accept(out);
+        }
+
+        @Override
+        public String getTransferEncoding() {
+            return MIME.ENC_BINARY;
+        }
+
+        @Override
+        public long getContentLength() {
+            return -1;
+        }
+    }
 }
@@ -16,6 +16,7 @@
 package com.thoughtworks.go.domain;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.function.Consumer;
 
 /**
@@ -24,6 +25,14 @@ import java.util.function.Consumer;
 public interface ConsoleConsumer extends AutoCloseable {
     long stream(Consumer<String> action) throws IOException;
 
+    /**
+     * Like {@link #stream(Consumer)}, but hands over runs of whole lines as they are stored in the console log, each
+     * line terminated by a newline, without decoding them. A buffer is only valid until the action returns.
+     *
+     * @return the number of lines streamed by this invocation
+     */
+    long streamBytes(Consumer<ByteBuffer> action) throws IOException;
+
     long totalLinesConsumed();
 
     @Override
@@ -0,0 +1,108 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A sparse index of where lines start in a console log, remembering the byte offset of every
+ * {@value #LINES_PER_ENTRY}th line. Finding where a line starts only has to scan the log from the closest indexed
+ * line, instead of from the beginning. The index is extended lazily, as far as it is asked to, and can be shared by
+ * everyone reading the same console log since console logs are only ever appended to.
+ */
+public class ConsoleLogIndex {
+    static final int LINES_PER_ENTRY = 1024;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private long[] offsets = new long[16];
+    private int entries = 1;
+    private long scannedLines;
+    private long scannedBytes;
+
+    /**
+     * @return the byte offset at which the given (zero based) line starts, or -1 if the console log does not have
+     * that many complete lines yet
+     */
+    public synchronized long offsetOfLine(FileChannel channel, long line) throws IOException {
+        if (channel.size() < scannedBytes) {
+            // not the log this index was built from anymore
+            reset();
+        }
+
+        if (line > scannedLines) {
+            long[] reached = scan(channel, scannedBytes, scannedLines, line, true);
+            scannedLines = reached[0];
+            scannedBytes = reached[1];
+            if (line > scannedLines) {
+                return -1;
+            }
+        }
+
+        int entry = (int) Math.min(line / LINES_PER_ENTRY, entries - 1);
+        long[] reached = scan(channel, offsets[entry], (long) entry * LINES_PER_ENTRY, line, false);
+        return reached[1];
+    }
+
+    synchronized long indexedLines() {
+        return scannedLines;
+    }
+
+    synchronized int entries() {
+        return entries;
+    }
+
+    private long[] scan(FileChannel channel, long fromOffset, long fromLine, long toLine, boolean extendIndex) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long line = fromLine;
+        long lineStart = fromOffset;
+        long position = fromOffset;
+        while (line < toLine) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read && line < toLine; i++) {
+                if (buffer.get(i) == '\n') {
+                    line++;
+                    lineStart = position + i + 1;
+                    if (extendIndex && line % LINES_PER_ENTRY == 0) {
+                        addEntry(lineStart);
+                    }
+                }
+            }
+            position += read;
+        }
+        return new long[]{line, lineStart};
+    }
+
+    private void addEntry(long offset) {
+        if (entries == offsets.length) {
+            offsets = Arrays.copyOf(offsets, entries * 2);
+        }
+        offsets[entries++] = offset;
+    }
+
+    private void reset() {
+        offsets = new long[16];
+        entries = 1;
+        scannedLines = 0;
+        scannedBytes = 0;
+    }
+}
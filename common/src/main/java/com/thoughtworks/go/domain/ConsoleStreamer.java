@@ -18,27 +18,41 @@ package com.thoughtworks.go.domain;
 import com.thoughtworks.go.util.SystemEnvironment;
 
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.function.Consumer;
-import java.util.stream.Stream;
+
+import static java.nio.file.StandardOpenOption.READ;
 
 /**
  * Encapsulates a stream of lines from a console log file while keeping track of the number of lines processed
- * as well as the starting line to read.
+ * as well as the starting line to read. The starting line is found through a {@link ConsoleLogIndex}, and lines are
+ * read as raw bytes, so starting late in a large console log does not decode everything before it.
  */
 public class ConsoleStreamer implements ConsoleConsumer, AutoCloseable {
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_READ_BUFFER_SIZE = 16 * 1024 * 1024;
+
     private final Path path;
-    private Stream<String> stream;
-    private Iterator<String> iterator;
+    private final ConsoleLogIndex index;
+    private FileChannel channel;
+    private ByteBuffer buffer;
+    private long position = -1L;
 
     private final long start;
     private long count = 0L;
 
     public ConsoleStreamer(Path path, long start) {
+        this(path, start, new ConsoleLogIndex());
+    }
+
+    public ConsoleStreamer(Path path, long start, ConsoleLogIndex index) {
         this.path = path;
         this.start = Math.max(start, 0L);
+        this.index = index;
     }
 
     /**
@@ -52,32 +66,102 @@ public class ConsoleStreamer implements ConsoleConsumer, AutoCloseable {
      */
     @Override
     public long stream(Consumer<String> action) throws IOException {
+        Charset charset = new SystemEnvironment().consoleLogCharset();
+        return streamBytes(lines -> {
+            int lineStart = lines.position();
+            for (int i = lineStart; i < lines.limit(); i++) {
+                if (lines.get(i) == '\n') {
+                    int lineEnd = i > lineStart && lines.get(i - 1) == '\r' ? i - 1 : i;
+                    action.accept(charset.decode(lines.slice(lineStart, lineEnd - lineStart)).toString());
+                    lineStart = i + 1;
+                }
+            }
+        });
+    }
+
+    @Override
+    public long streamBytes(Consumer<ByteBuffer> action) throws IOException {
+        if (!seekToStart()) {
+            return 0L;
+        }
+
         long linesStreamed = 0L;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+
+            ByteBuffer lines;
+            int lastNewline = lastNewline(buffer, read);
+            if (lastNewline >= 0) {
+                lines = buffer.slice(0, lastNewline + 1);
+                position += lastNewline + 1;
+            } else if (read == buffer.capacity() && read < MAX_READ_BUFFER_SIZE) {
+                // a single line longer than the buffer, read it again with more room
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                continue;
+            } else {
+                // the last line of the log, which is not terminated (yet), or a line too long to read in one go
+                byte[] terminated = Arrays.copyOf(buffer.array(), read + 1);
+                terminated[read] = '\n';
+                lines = ByteBuffer.wrap(terminated);
+                position += read;
+            }
 
-        if (null == stream) {
-            stream = Files.lines(path, new SystemEnvironment().consoleLogCharset()).skip(start);
+            long linesRead = countNewlines(lines);
+            action.accept(lines);
+            linesStreamed += linesRead;
+            count += linesRead;
         }
-        if (null == iterator) {
-            iterator = stream.iterator();
+
+        return linesStreamed;
+    }
+
+    private boolean seekToStart() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, READ);
+            buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        }
+        if (position < 0) {
+            position = index.offsetOfLine(channel, start);
         }
+        return position >= 0;
+    }
 
-        while (iterator.hasNext()) {
-            action.accept(iterator.next());
-            ++linesStreamed;
-            ++count;
+    private static int lastNewline(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
         }
+        return -1;
+    }
 
-        return linesStreamed;
+    private static long countNewlines(ByteBuffer lines) {
+        long newlines = 0L;
+        for (int i = lines.position(); i < lines.limit(); i++) {
+            if (lines.get(i) == '\n') {
+                newlines++;
+            }
+        }
+        return newlines;
     }
 
     @Override
     public void close() {
-        if (stream != null) {
-            stream.close();
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // nothing to do, we only ever read from it
+            }
         }
 
-        stream = null;
-        iterator = null;
+        channel = null;
+        buffer = null;
+        position = -1L;
     }
 
     @Override
@@ -0,0 +1,139 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.publishers;
+
+import com.thoughtworks.go.util.ZipUtil;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.lang3.Strings;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Understands zipping some of the files of an artifact straight into an upload, working out the MD5 checksum of every
+ * file while it is being compressed, so that each file is read only once and no zip has to be written to disk first.
+ * Artifact folders larger than the chunk size are split into several chunks of whole files, each of them a zip of its
+ * own, so that the server unzips every one of them into the same destination, whichever order they arrive in.
+ */
+public class ArtifactUploadChunk {
+    private final ZipUtil zipUtil;
+    private final File source;
+    private final String destPath;
+    private final List<File> files;
+    private final long size;
+    private Properties checksums;
+
+    ArtifactUploadChunk(ZipUtil zipUtil, File source, String destPath, List<File> files, long size) {
+        this.zipUtil = zipUtil;
+        this.source = source;
+        this.destPath = destPath;
+        this.files = files;
+        this.size = size;
+    }
+
+    /**
+     * @return the chunks to upload the source in, the first of which creates all of its folders
+     */
+    public static List<ArtifactUploadChunk> chunksOf(ZipUtil zipUtil, File source, String destPath, long chunkSize) throws IOException {
+        if (!source.isDirectory()) {
+            return List.of(new ArtifactUploadChunk(zipUtil, source, destPath, List.of(source), source.length()));
+        }
+        List<File> folders = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(source.toPath(), FileVisitOption.FOLLOW_LINKS)) {
+            paths.sorted().map(Path::toFile).forEach(file -> (file.isDirectory() ? folders : files).add(file));
+        }
+
+        List<ArtifactUploadChunk> chunks = new ArrayList<>();
+        List<File> chunk = new ArrayList<>(folders);
+        int filesInChunk = 0;
+        long chunkLength = 0;
+        for (File file : files) {
+            long length = file.length();
+            if (filesInChunk > 0 && chunkLength + length > chunkSize) {
+                chunks.add(new ArtifactUploadChunk(zipUtil, source, destPath, chunk, chunkLength));
+                chunk = new ArrayList<>();
+                filesInChunk = 0;
+                chunkLength = 0;
+            }
+            chunk.add(file);
+            filesInChunk++;
+            chunkLength += length;
+        }
+        chunks.add(new ArtifactUploadChunk(zipUtil, source, destPath, chunk, chunkLength));
+        return chunks;
+    }
+
+    /**
+     * Zips the files of this chunk into the output, without closing it.
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        zipUtil.zip(source, files, CloseShieldOutputStream.wrap(output), Deflater.BEST_SPEED, (entry, file) -> {
+            MessageDigest md5 = DigestUtils.getMd5Digest();
+            digests.put(entry.getName(), md5);
+            return new DigestInputStream(new FileInputStream(file), md5);
+        });
+
+        Properties checksums = new Properties();
+        digests.forEach((name, md5) -> checksums.setProperty(effectiveFileName(name), Hex.encodeHexString(md5.digest())));
+        this.checksums = checksums;
+    }
+
+    /**
+     * @return the checksums of the files as they were when this chunk was last written
+     */
+    public Properties checksums() {
+        if (checksums == null) {
+            throw new IllegalStateException("Checksums of " + this + " are only known once it has been written");
+        }
+        return checksums;
+    }
+
+    public String fileName() {
+        return source.getName() + ".zip";
+    }
+
+    /**
+     * @return the uncompressed size of the files in this chunk
+     */
+    public long size() {
+        return size;
+    }
+
+    private String effectiveFileName(String entryName) {
+        File artifactDest = destPath.isEmpty() ? new File(entryName) : new File(destPath, entryName);
+        return Strings.CS.removeStart(FilenameUtils.separatorsToUnix(artifactDest.getPath()), "/");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d files and folders, %d bytes)", source.getAbsolutePath(), files.size(), size);
+    }
+}
@@ -24,30 +24,34 @@ import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.ConsoleOutputTransmitter;
 import com.thoughtworks.go.remote.work.RemoteConsoleAppender;
 import com.thoughtworks.go.util.ArtifactUtil;
-import com.thoughtworks.go.util.FileUtil;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.SystemTimeClock;
 import com.thoughtworks.go.util.ZipUtil;
 import com.thoughtworks.go.work.DefaultGoPublisher;
-import org.apache.commons.codec.digest.DigestUtils;
-import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.lang3.Strings;
+import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.nio.charset.Charset;
-import java.util.Collection;
-import java.util.Properties;
-import java.util.zip.Deflater;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 import static com.thoughtworks.go.util.GoConstants.PUBLISH_MAX_RETRIES;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_UPLOAD_CHUNK_SIZE_IN_MB;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_UPLOAD_THREADS;
 import static com.thoughtworks.go.util.command.TaggedStreamConsumer.PUBLISH;
 import static com.thoughtworks.go.util.command.TaggedStreamConsumer.PUBLISH_ERR;
 import static org.apache.commons.lang3.StringUtils.isEmpty;
@@ -57,13 +61,23 @@ public class GoArtifactsManipulator {
     private final HttpService httpService;
     private final URLService urlService;
     private final ZipUtil zipUtil;
+    private final long uploadChunkSize;
+    private final int uploadThreads;
     private static final Logger LOGGER = LoggerFactory.getLogger(GoArtifactsManipulator.class);
+    private static final int UPLOAD_STOP_TIMEOUT_SECONDS = 30;
 
     @Autowired
     public GoArtifactsManipulator(HttpService httpService, URLService urlService, ZipUtil zipUtil) {
+        this(httpService, urlService, zipUtil, new SystemEnvironment().get(GO_ARTIFACT_UPLOAD_CHUNK_SIZE_IN_MB) * 1024 * 1024, new SystemEnvironment().get(GO_ARTIFACT_UPLOAD_THREADS));
+    }
+
+    @VisibleForTesting
+    GoArtifactsManipulator(HttpService httpService, URLService urlService, ZipUtil zipUtil, long uploadChunkSize, int uploadThreads) {
         this.httpService = httpService;
         this.urlService = urlService;
         this.zipUtil = zipUtil;
+        this.uploadChunkSize = uploadChunkSize;
+        this.uploadThreads = Math.max(1, uploadThreads);
     }
 
     public void publish(DefaultGoPublisher goPublisher, String destPath, File source, JobIdentifier jobIdentifier) {
@@ -73,96 +87,112 @@ public class GoArtifactsManipulator {
             bomb(message);
         }
 
-        int publishingAttempts = 0;
-        Throwable lastException = null;
-        while (publishingAttempts < PUBLISH_MAX_RETRIES) {
-            File tmpDir = null;
-            try {
-                publishingAttempts++;
-
-                tmpDir = FileUtil.createTempFolder();
-                File dataToUpload = new File(tmpDir, source.getName() + ".zip");
-                zipUtil.zip(source, dataToUpload, Deflater.BEST_SPEED);
-
-                long size;
-                if (source.isDirectory()) {
-                    size = FileUtils.sizeOfDirectory(source);
-                } else {
-                    size = source.length();
-                }
-
-                goPublisher.taggedConsumeLineWithPrefix(PUBLISH, "Uploading artifacts from " + source.getAbsolutePath() + " to " + getDestPath(destPath));
-
-                String normalizedDestPath = FilenameUtils.separatorsToUnix(destPath);
-                String url = urlService.getUploadUrlOfAgent(jobIdentifier, normalizedDestPath, publishingAttempts);
+        String normalizedDestPath = FilenameUtils.separatorsToUnix(destPath);
+        List<ArtifactUploadChunk> chunks;
+        try {
+            chunks = ArtifactUploadChunk.chunksOf(zipUtil, source, normalizedDestPath, uploadChunkSize);
+        } catch (IOException e) {
+            String message = "Failed to upload " + source.getAbsolutePath();
+            LOGGER.error(message, e);
+            goPublisher.taggedConsumeLineWithPrefix(PUBLISH_ERR, message);
+            throw new RuntimeException(e);
+        }
+        long size = chunks.stream().mapToLong(ArtifactUploadChunk::size).sum();
 
-                int statusCode = httpService.upload(url, size, dataToUpload, artifactChecksums(source, normalizedDestPath));
+        String parts = chunks.size() > 1 ? " in " + chunks.size() + " parts" : "";
+        goPublisher.taggedConsumeLineWithPrefix(PUBLISH, "Uploading artifacts from " + source.getAbsolutePath() + " to " + getDestPath(destPath) + parts);
+        if (chunks.size() == 1) {
+            upload(goPublisher, source, size, chunks.get(0), jobIdentifier, normalizedDestPath);
+        } else {
+            uploadConcurrently(goPublisher, source, size, chunks, jobIdentifier, normalizedDestPath);
+        }
+    }
 
-                if (statusCode == HttpURLConnection.HTTP_ENTITY_TOO_LARGE) {
-                    String message = String.format("Artifact upload for file %s (Size: %s) was denied by the server. This usually happens when server runs out of disk space.",
-                            source.getAbsolutePath(), size);
-                    goPublisher.taggedConsumeLineWithPrefix(PUBLISH_ERR, message);
-                    LOGGER.error("[Artifact Upload] Artifact upload was denied by the server. This usually happens when server runs out of disk space.");
-                    publishingAttempts = PUBLISH_MAX_RETRIES;
-                    bomb(message + ".  HTTP return code is " + statusCode);
-                }
-                if (statusCode < HttpURLConnection.HTTP_OK || statusCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
-                    bomb("Failed to upload " + source.getAbsolutePath() + ".  HTTP return code is " + statusCode);
+    private void uploadConcurrently(DefaultGoPublisher goPublisher, File source, long size, List<ArtifactUploadChunk> chunks, JobIdentifier jobIdentifier, String destPath) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(uploadThreads, chunks.size()));
+        try {
+            CompletionService<Void> uploads = new ExecutorCompletionService<>(executor);
+            for (ArtifactUploadChunk chunk : chunks) {
+                uploads.submit(() -> upload(goPublisher, source, size, chunk, jobIdentifier, destPath), null);
+            }
+            // parts are waited for in the order they finish, so that the first one to fail stops the others
+            for (int i = 0; i < chunks.size(); i++) {
+                try {
+                    uploads.take().get();
+                } catch (ExecutionException e) {
+                    stopUploads(executor);
+                    throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException(e.getCause());
                 }
-                return;
-            } catch (Throwable e) {
-                String message = "Failed to upload " + source.getAbsolutePath();
-                LOGGER.error(message, e);
-                goPublisher.taggedConsumeLineWithPrefix(PUBLISH_ERR, message);
-                lastException = e;
-            } finally {
-                FileUtils.deleteQuietly(tmpDir);
             }
+        } catch (InterruptedException e) {
+            stopUploads(executor);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
         }
-        throw new RuntimeException(lastException);
     }
 
-    private Properties artifactChecksums(File source, String destPath) throws IOException {
-        if (source.isDirectory()) {
-            return computeChecksumForContentsOfDirectory(source, destPath);
-        }
-
-        Properties properties;
-        try (FileInputStream inputStream = new FileInputStream(source)) {
-            properties = computeChecksumForFile(source.getName(), DigestUtils.md5Hex(inputStream), destPath);
+    /**
+     * Interrupts the parts still being uploaded and waits for them to give up, so that none of them carries on
+     * uploading once the artifact has failed to upload.
+     */
+    private void stopUploads(ExecutorService executor) {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(UPLOAD_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LOGGER.warn("[Artifact Upload] Parts of an artifact were still being uploaded {} seconds after they were stopped", UPLOAD_STOP_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        return properties;
     }
 
-    private Properties computeChecksumForContentsOfDirectory(File directory, String destPath) throws IOException {
-        Collection<File> fileStructure = FileUtils.listFiles(directory, null, true);
-        Properties checksumProperties = new Properties();
-        for (File file : fileStructure) {
-            String filePath = Strings.CS.removeStart(file.getAbsolutePath(), directory.getParentFile().getAbsolutePath());
-            try (FileInputStream inputStream = new FileInputStream(file)) {
-                checksumProperties.setProperty(getEffectiveFileName(destPath, FilenameUtils.separatorsToUnix(filePath)), DigestUtils.md5Hex(inputStream));
+    private void upload(DefaultGoPublisher goPublisher, File source, long size, ArtifactUploadChunk chunk, JobIdentifier jobIdentifier, String destPath) {
+        int publishingAttempts = 0;
+        Throwable lastException = null;
+        while (publishingAttempts < PUBLISH_MAX_RETRIES) {
+            if (Thread.currentThread().isInterrupted()) {
+                // the other parts failed to upload, so there is no point uploading this one
+                throw new RuntimeException("Stopped uploading " + source.getAbsolutePath(), lastException);
             }
-        }
-        return checksumProperties;
-    }
+            publishingAttempts++;
 
-    private Properties computeChecksumForFile(String sourceName, String md5, String destPath) {
-        String effectiveFileName = getEffectiveFileName(destPath, sourceName);
-        Properties properties = new Properties();
-        properties.setProperty(effectiveFileName, md5);
-        return properties;
-    }
+            int statusCode;
+            try {
+                String url = urlService.getUploadUrlOfAgent(jobIdentifier, destPath, publishingAttempts);
+                statusCode = httpService.upload(url, chunk);
+            } catch (InterruptedIOException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Stopped uploading " + source.getAbsolutePath(), e);
+            } catch (Throwable e) {
+                lastException = failedToUpload(goPublisher, source, e);
+                continue;
+            }
 
-    private String getEffectiveFileName(String computedDestPath, String filePath) {
-        File artifactDest = computedDestPath.isEmpty() ? new File(filePath) : new File(computedDestPath, filePath);
-        return removeLeadingSlash(artifactDest);
+            if (statusCode == HttpURLConnection.HTTP_ENTITY_TOO_LARGE) {
+                String message = String.format("Artifact upload for file %s (Size: %s) was denied by the server. This usually happens when server runs out of disk space.",
+                        source.getAbsolutePath(), size);
+                goPublisher.taggedConsumeLineWithPrefix(PUBLISH_ERR, message);
+                LOGGER.error("[Artifact Upload] Artifact upload was denied by the server. This usually happens when server runs out of disk space.");
+                throw bomb(message + ".  HTTP return code is " + statusCode);
+            }
+            if (statusCode < HttpURLConnection.HTTP_OK || statusCode >= HttpURLConnection.HTTP_MULT_CHOICE) {
+                lastException = failedToUpload(goPublisher, source, new RuntimeException("Failed to upload " + source.getAbsolutePath() + ".  HTTP return code is " + statusCode));
+                continue;
+            }
+            return;
+        }
+        throw new RuntimeException(lastException);
     }
 
-    private String removeLeadingSlash(File artifactDest) {
-        return Strings.CS.removeStart(FilenameUtils.separatorsToUnix(artifactDest.getPath()), "/");
+    private Throwable failedToUpload(DefaultGoPublisher goPublisher, File source, Throwable e) {
+        String message = "Failed to upload " + source.getAbsolutePath();
+        LOGGER.error(message, e);
+        goPublisher.taggedConsumeLineWithPrefix(PUBLISH_ERR, message);
+        return e;
     }
 
-
     public void fetch(DefaultGoPublisher goPublisher, FetchArtifactBuilder fetchArtifactBuilder) {
         try {
             String fetchMsg = String.format("Fetching artifact [%s] from [%s]", fetchArtifactBuilder.getSrc(),
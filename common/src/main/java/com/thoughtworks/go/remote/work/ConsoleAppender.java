@@ -16,7 +16,21 @@
 package com.thoughtworks.go.remote.work;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 public interface ConsoleAppender {
     void append(String content) throws IOException;
+
+    /**
+     * Appends {@code length} bytes of console output, encoded with {@link #charset()}. Appenders that can send bytes as
+     * they are should override this to avoid decoding the content into a String first.
+     */
+    default void append(byte[] content, int length) throws IOException {
+        append(new String(content, 0, length, charset()));
+    }
+
+    default Charset charset() {
+        return StandardCharsets.UTF_8;
+    }
 }
@@ -17,36 +17,61 @@ package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.TaggedStreamConsumer;
-import org.apache.commons.collections4.queue.CircularFifoQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static java.lang.String.format;
+import static com.thoughtworks.go.util.SystemEnvironment.CONSOLE_OUT_FLUSH_THRESHOLD_BYTES;
+import static com.thoughtworks.go.util.SystemEnvironment.CONSOLE_OUT_MAX_BUFFERED_BYTES;
 
+/**
+ * Buffers console output of a job as bytes and sends it to the server in chunks, either on a timer or as soon as
+ * enough output has been buffered. Lines are written into one buffer while the other one is being sent. When the
+ * server cannot keep up and the buffer is full, whoever is writing lines is made to wait instead of output being
+ * dropped.
+ */
 public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleOutputTransmitter.class);
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+    private static final String UNTAGGED = "  ";
 
-    private final CircularFifoQueue<String> buffer = new CircularFifoQueue<>(10 * 1024); // maximum 10k lines
     private final ConsoleAppender consoleAppender;
+    private final Charset charset;
     private final ScheduledThreadPoolExecutor executor;
+    private final int flushThresholdBytes;
+    private final int maxBufferedBytes;
+
+    private final Object bufferLock = new Object();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private ConsoleBuffer filling;
+    private ConsoleBuffer sending;
+    private boolean closed;
 
     public ConsoleOutputTransmitter(ConsoleAppender consoleAppender) {
         this(consoleAppender, new SystemEnvironment().getConsolePublishIntervalSeconds(), TimeUnit.SECONDS, new ScheduledThreadPoolExecutor(1));
     }
 
     ConsoleOutputTransmitter(ConsoleAppender consoleAppender, long consolePublishInterval, TimeUnit consumePublishIntervalUnit, ScheduledThreadPoolExecutor scheduledThreadPoolExecutor) {
+        this(consoleAppender, consolePublishInterval, consumePublishIntervalUnit, scheduledThreadPoolExecutor,
+            new SystemEnvironment().get(CONSOLE_OUT_FLUSH_THRESHOLD_BYTES), new SystemEnvironment().get(CONSOLE_OUT_MAX_BUFFERED_BYTES));
+    }
+
+    ConsoleOutputTransmitter(ConsoleAppender consoleAppender, long consolePublishInterval, TimeUnit consumePublishIntervalUnit, ScheduledThreadPoolExecutor scheduledThreadPoolExecutor,
+                             int flushThresholdBytes, int maxBufferedBytes) {
         this.consoleAppender = consoleAppender;
+        this.charset = consoleAppender.charset();
         this.executor = scheduledThreadPoolExecutor;
+        this.flushThresholdBytes = flushThresholdBytes;
+        this.maxBufferedBytes = Math.max(maxBufferedBytes, flushThresholdBytes);
+        this.filling = new ConsoleBuffer(flushThresholdBytes);
+        this.sending = new ConsoleBuffer(flushThresholdBytes);
         executor.scheduleAtFixedRate(this, 0L, consolePublishInterval, consumePublishIntervalUnit);
     }
 
@@ -57,18 +82,40 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
 
     @Override
     public void taggedConsumeLine(String tag, String line) {
-        if (tag == null) {
-            tag = "  ";
+        byte[] logLine = timestamped(tag == null ? UNTAGGED : tag, LocalTime.now(), line).getBytes(charset);
+        boolean bufferFull;
+        synchronized (bufferLock) {
+            if (!closed && filling.size() > 0 && filling.size() + logLine.length > maxBufferedBytes) {
+                requestFlush();
+                awaitSpaceFor(logLine.length);
+            }
+            filling.write(logLine, logLine.length);
+            bufferFull = filling.size() >= flushThresholdBytes;
+        }
+        if (bufferFull) {
+            requestFlush();
+        }
+    }
+
+    private void awaitSpaceFor(int length) {
+        try {
+            while (!closed && filling.size() > 0 && filling.size() + length > maxBufferedBytes) {
+                bufferLock.wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        String taggedDate = format("%s|%s", tag, FORMATTER.format(LocalTime.now()));
-        String logLine = format("%s %s", taggedDate, line).replace("\n", "\n" + taggedDate + " ");
-        synchronized (buffer) {
-            buffer.add(logLine);
+    }
+
+    private void requestFlush() {
+        if (!closed && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this);
         }
     }
 
     @Override
     public void run() {
+        flushRequested.set(false);
         try {
             flushToServer();
         } catch (Throwable e) {
@@ -77,23 +124,31 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
     }
 
     public void flushToServer() {
-        if (buffer.isEmpty()) {
-            return;
-        }
+        synchronized (flushLock) {
+            ConsoleBuffer toSend;
+            synchronized (bufferLock) {
+                if (sending.size() == 0) {
+                    ConsoleBuffer emptied = sending;
+                    sending = filling;
+                    filling = emptied;
+                } else if (sending.size() < maxBufferedBytes) {
+                    // the last attempt to send failed, send it again along with whatever was written since
+                    sending.write(filling.bytes(), filling.size());
+                    filling.reset();
+                }
+                bufferLock.notifyAll();
+                toSend = sending;
+            }
 
-        List<String> toFlush;
-        synchronized (buffer) {
-            toFlush = new ArrayList<>(buffer);
-            buffer.clear();
-        }
-        try {
-            consoleAppender.append(toFlush.stream().collect(Collectors.joining("\n", "", "\n")));
-        } catch (IOException e) {
-            LOGGER.warn("Could not send console output to server", e);
-            synchronized (buffer) {
-                toFlush.addAll(buffer);
-                buffer.clear();
-                buffer.addAll(toFlush);
+            if (toSend.size() == 0) {
+                return;
+            }
+
+            try {
+                consoleAppender.append(toSend.bytes(), toSend.size());
+                toSend.reset();
+            } catch (IOException e) {
+                LOGGER.warn("Could not send console output to server", e);
             }
         }
     }
@@ -101,6 +156,61 @@ public final class ConsoleOutputTransmitter implements TaggedStreamConsumer, Run
     @Override
     public void close() {
         flushToServer();
+        synchronized (bufferLock) {
+            closed = true;
+            bufferLock.notifyAll();
+        }
         executor.shutdown();
     }
+
+    static String timestamped(String tag, LocalTime time, String line) {
+        StringBuilder prefix = new StringBuilder(tag.length() + 14).append(tag).append('|');
+        appendTwoDigits(prefix, time.getHour()).append(':');
+        appendTwoDigits(prefix, time.getMinute()).append(':');
+        appendTwoDigits(prefix, time.getSecond()).append('.');
+        int millis = time.getNano() / 1_000_000;
+        prefix.append((char) ('0' + millis / 100)).append((char) ('0' + millis / 10 % 10)).append((char) ('0' + millis % 10)).append(' ');
+
+        StringBuilder logLine = new StringBuilder(prefix.length() + line.length() + 1).append(prefix);
+        int start = 0;
+        int newline;
+        while ((newline = line.indexOf('\n', start)) >= 0) {
+            logLine.append(line, start, newline + 1).append(prefix);
+            start = newline + 1;
+        }
+        return logLine.append(line, start, line.length()).append('\n').toString();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static final class ConsoleBuffer {
+        private byte[] bytes;
+        private int size;
+
+        ConsoleBuffer(int initialCapacity) {
+            this.bytes = new byte[Math.max(initialCapacity, 1024)];
+        }
+
+        void write(byte[] content, int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+            System.arraycopy(content, 0, bytes, size, length);
+            size += length;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void reset() {
+            size = 0;
+        }
+    }
 }
@@ -17,17 +17,23 @@ package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.agent.HttpService;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.HttpHeaders;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.entity.StringEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.util.zip.GZIPOutputStream;
 
 public class RemoteConsoleAppender implements ConsoleAppender {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RemoteConsoleAppender.class);
+    // below this, compressing costs more than it saves
+    private static final int MIN_BYTES_TO_COMPRESS = 1024;
 
     private final String consoleUri;
     private final HttpService httpService;
@@ -52,4 +58,35 @@ public class RemoteConsoleAppender implements ConsoleAppender {
             }
         }
     }
+
+    @Override
+    public void append(byte[] content, int length) throws IOException {
+        LOGGER.debug("Appending {} bytes of console to URL -> {}", length, consoleUri);
+        HttpPut putMethod = new HttpPut(consoleUri);
+        if (length >= MIN_BYTES_TO_COMPRESS) {
+            putMethod.setEntity(new ByteArrayEntity(gzip(content, length)));
+            putMethod.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            putMethod.setEntity(new ByteArrayEntity(content, 0, length));
+        }
+        HttpService.setSizeHeader(putMethod, length);
+        try (CloseableHttpResponse response = httpService.execute(putMethod)) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Got {}", response.getStatusLine().getStatusCode());
+            }
+        }
+    }
+
+    @Override
+    public Charset charset() {
+        return charset;
+    }
+
+    private static byte[] gzip(byte[] content, int length) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content, 0, length);
+        }
+        return compressed.toByteArray();
+    }
 }
@@ -18,6 +18,11 @@ package com.thoughtworks.go.agent;
 import com.thoughtworks.go.agent.common.ssl.GoAgentServerHttpClient;
 import com.thoughtworks.go.config.AgentRegistry;
 import com.thoughtworks.go.domain.FetchHandler;
+import com.thoughtworks.go.publishers.ArtifactUploadChunk;
+import com.thoughtworks.go.util.GoConstants;
+import com.thoughtworks.go.util.ZipUtil;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpVersion;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
@@ -29,14 +34,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 
 import static com.thoughtworks.go.remote.StandardHeaders.*;
-import static org.junit.jupiter.api.Assertions.fail;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 public class HttpServiceTest {
@@ -61,8 +69,8 @@ public class HttpServiceTest {
 
     @Test
     public void shouldPostArtifactsAlongWithMD5() throws IOException, URISyntaxException {
-        File uploadingFile = mock(File.class);
-        java.util.Properties checksums = new java.util.Properties();
+        ArtifactUploadChunk artifact = mock(ArtifactUploadChunk.class);
+        when(artifact.size()).thenReturn(100L);
 
         String uploadUrl = "http://url";
 
@@ -71,17 +79,16 @@ public class HttpServiceTest {
         when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"));
         when(httpClient.execute(mockPostMethod)).thenReturn(response);
 
-        when(uploadingFile.exists()).thenReturn(true);
         when(httpClientFactory.createPost(uploadUrl)).thenReturn(mockPostMethod);
         when(mockPostMethod.getURI()).thenReturn(new URI(uploadUrl));
 
-        service.upload(uploadUrl, 100L, uploadingFile, checksums);
+        service.upload(uploadUrl, artifact);
 
         verify(mockPostMethod).setHeader(REQUEST_ARTIFACT_PAYLOAD_SIZE, "100");
         verify(mockPostMethod).setHeader(REQUEST_CONFIRM_MODIFICATION, "true");
         verify(mockPostMethod).setHeader(REQUEST_UUID, "some-guid");
         verify(mockPostMethod).setHeader(REQUEST_AUTH, "some-token");
-        verify(httpClientFactory).createMultipartRequestEntity(uploadingFile, checksums);
+        verify(httpClientFactory).createMultipartRequestEntity(artifact);
         verify(httpClient).execute(mockPostMethod);
     }
 
@@ -108,31 +115,21 @@ public class HttpServiceTest {
     }
 
     @Test
-    public void shouldNotFailIfChecksumFileIsNotPresent() throws IOException {
+    public void shouldStreamTheZipOfTheArtifactFollowedByTheChecksumsOfItsFiles() throws IOException {
         HttpService.HttpClientFactory factory = new HttpService.HttpClientFactory(null);
-        File artifact = new File(folderToSaveDownloadFiles, "artifact");
-        artifact.createNewFile();
-        try {
-            factory.createMultipartRequestEntity(artifact, null);
-        } catch (FileNotFoundException e) {
-            fail("Nulitpart should be created even in the absence of checksum file");
-        }
-    }
-
-    @Test
-    public void shouldCreateMultipleRequestWithChecksumValues() throws IOException {
-        HttpService.HttpClientFactory factory = new HttpService.HttpClientFactory(null);
-        File artifact = new File(folderToSaveDownloadFiles, "artifact");
-        artifact.createNewFile();
-        try {
-            java.util.Properties artifactChecksums = new java.util.Properties();
-            artifactChecksums.setProperty("foo.txt", "323233333");
-
-            factory.createMultipartRequestEntity(artifact, artifactChecksums);
-
-        } catch (FileNotFoundException e) {
-            fail("Nulitpart should be created even in the absence of checksum file");
-        }
-
+        File artifact = new File(folderToSaveDownloadFiles, "artifact.txt");
+        Files.writeString(artifact.toPath(), "some content", UTF_8);
+        ArtifactUploadChunk chunk = ArtifactUploadChunk.chunksOf(new ZipUtil(), artifact, "dest", Long.MAX_VALUE).get(0);
+
+        HttpEntity entity = factory.createMultipartRequestEntity(chunk);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        entity.writeTo(body);
+
+        String sent = body.toString(ISO_8859_1);
+        assertThat(entity.getContentLength()).isEqualTo(-1L);
+        assertThat(sent).contains("name=\"" + GoConstants.ZIP_MULTIPART_FILENAME + "\"; filename=\"artifact.txt.zip\"");
+        assertThat(sent.indexOf("name=\"" + GoConstants.CHECKSUM_MULTIPART_FILENAME + "\""))
+            .isGreaterThan(sent.indexOf("name=\"" + GoConstants.ZIP_MULTIPART_FILENAME + "\""));
+        assertThat(sent).contains("dest/artifact.txt=" + DigestUtils.md5Hex("some content"));
     }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsoleLogIndexTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void shouldFindWhereLinesStart() throws Exception {
+        Path log = Files.writeString(dir.resolve("console.log"), "first\nsecond\nthird\n");
+        ConsoleLogIndex index = new ConsoleLogIndex();
+
+        try (FileChannel channel = FileChannel.open(log, READ)) {
+            assertThat(index.offsetOfLine(channel, 0)).isEqualTo(0);
+            assertThat(index.offsetOfLine(channel, 2)).isEqualTo(13);
+            assertThat(index.offsetOfLine(channel, 1)).isEqualTo(6);
+            assertThat(index.offsetOfLine(channel, 3)).isEqualTo(19);
+        }
+    }
+
+    @Test
+    void shouldNotFindLinesTheLogDoesNotHaveYet() throws Exception {
+        Path log = Files.writeString(dir.resolve("console.log"), "first\nsecond");
+        ConsoleLogIndex index = new ConsoleLogIndex();
+
+        try (FileChannel channel = FileChannel.open(log, READ)) {
+            assertThat(index.offsetOfLine(channel, 2)).isEqualTo(-1);
+
+            Files.writeString(log, "\nthird\n", StandardOpenOption.APPEND);
+            assertThat(index.offsetOfLine(channel, 2)).isEqualTo(13);
+        }
+    }
+
+    @Test
+    void shouldRememberEveryThousandOrSoLines() throws Exception {
+        int lines = ConsoleLogIndex.LINES_PER_ENTRY * 3 + 10;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            content.append(String.format("line %05d\n", i));
+        }
+        Path log = Files.writeString(dir.resolve("console.log"), content);
+        ConsoleLogIndex index = new ConsoleLogIndex();
+
+        try (FileChannel channel = FileChannel.open(log, READ)) {
+            assertThat(index.offsetOfLine(channel, lines)).isEqualTo(content.length());
+            assertThat(index.entries()).isEqualTo(4);
+            assertThat(index.indexedLines()).isEqualTo(lines);
+
+            assertThat(index.offsetOfLine(channel, 2500)).isEqualTo(2500L * "line 00000\n".length());
+        }
+    }
+
+    @Test
+    void shouldStartOverWhenTheLogGotSmaller() throws Exception {
+        Path log = Files.writeString(dir.resolve("console.log"), "first\nsecond\nthird\n");
+        ConsoleLogIndex index = new ConsoleLogIndex();
+
+        try (FileChannel channel = FileChannel.open(log, READ)) {
+            assertThat(index.offsetOfLine(channel, 3)).isEqualTo(19);
+        }
+
+        Files.writeString(log, "1\n2\n");
+        try (FileChannel channel = FileChannel.open(log, READ)) {
+            assertThat(index.offsetOfLine(channel, 1)).isEqualTo(2);
+            assertThat(index.offsetOfLine(channel, 3)).isEqualTo(-1);
+        }
+    }
+}
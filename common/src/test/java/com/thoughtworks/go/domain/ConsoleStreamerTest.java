@@ -17,13 +17,16 @@ package com.thoughtworks.go.domain;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 import static java.lang.String.join;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ConsoleStreamerTest {
@@ -81,6 +84,63 @@ public class ConsoleStreamerTest {
         }
     }
 
+    @Test
+    public void streamContinuesWithContentAppendedSinceTheLastRead() throws Exception {
+        File consoleFile = makeConsoleFile("first", "second\n");
+        final List<String> actual = new ArrayList<>();
+
+        try (ConsoleStreamer console = new ConsoleStreamer(consoleFile.toPath(), 0L)) {
+            assertEquals(2L, console.stream(actual::add));
+            Files.writeString(consoleFile.toPath(), "third\n", StandardOpenOption.APPEND);
+            assertEquals(1L, console.stream(actual::add));
+
+            assertArrayEquals(new String[]{"first", "second", "third"}, actual.toArray());
+            assertEquals(3L, console.totalLinesConsumed());
+        }
+    }
+
+    @Test
+    public void streamDropsCarriageReturnsEndingLines() throws Exception {
+        final List<String> actual = new ArrayList<>();
+
+        try (ConsoleStreamer console = new ConsoleStreamer(makeConsoleFile("first\r", "second\r\n").toPath(), 0L)) {
+            console.stream(actual::add);
+            assertArrayEquals(new String[]{"first", "second"}, actual.toArray());
+        }
+    }
+
+    @Test
+    public void streamBytesHandsOverLinesAsStored() throws Exception {
+        final ByteArrayOutputStream actual = new ByteArrayOutputStream();
+
+        try (ConsoleStreamer console = new ConsoleStreamer(makeConsoleFile("first", "second", "third").toPath(), 1L)) {
+            long lines = console.streamBytes(bytes -> actual.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining()));
+
+            assertEquals(2L, lines);
+            assertEquals("second\nthird\n", actual.toString(UTF_8));
+        }
+    }
+
+    @Test
+    public void streamStartsFromTheRequestedLineOfALargeLog() throws Exception {
+        String[] lines = new String[5000];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "line " + i;
+        }
+        final List<String> actual = new ArrayList<>();
+        ConsoleLogIndex index = new ConsoleLogIndex();
+        File consoleFile = makeConsoleFile(lines);
+
+        try (ConsoleStreamer console = new ConsoleStreamer(consoleFile.toPath(), 4998L, index)) {
+            console.stream(actual::add);
+        }
+        try (ConsoleStreamer console = new ConsoleStreamer(consoleFile.toPath(), 2048L, index)) {
+            assertEquals(2952L, console.stream(line -> {}));
+        }
+
+        assertArrayEquals(new String[]{"line 4998", "line 4999"}, actual.toArray());
+    }
+
     private File makeConsoleFile(String... message) throws IOException {
         File console = File.createTempFile("console", ".log");
         console.deleteOnExit();
@@ -88,5 +148,4 @@ public class ConsoleStreamerTest {
         Files.writeString(console.toPath(), join("\n", message));
         return console;
     }
-
 }
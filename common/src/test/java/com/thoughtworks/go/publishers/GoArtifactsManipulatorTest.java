@@ -16,6 +16,7 @@
 package com.thoughtworks.go.publishers;
 
 import com.thoughtworks.go.agent.HttpService;
+import com.thoughtworks.go.agent.URLService;
 import com.thoughtworks.go.domain.AgentRuntimeStatus;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.remote.AgentIdentifier;
@@ -24,6 +25,7 @@ import com.thoughtworks.go.remote.work.GoArtifactsManipulatorStub;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import com.thoughtworks.go.util.ReflectionUtil;
 import com.thoughtworks.go.util.TempDirUtils;
+import com.thoughtworks.go.util.ZipUtil;
 import com.thoughtworks.go.work.DefaultGoPublisher;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections4.queue.CircularFifoQueue;
@@ -31,17 +33,27 @@ import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.invocation.InvocationOnMock;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.*;
 
@@ -53,6 +65,8 @@ public class GoArtifactsManipulatorTest {
     private JobIdentifier jobIdentifier;
     private DefaultGoPublisher goPublisher;
     private Path artifactFolder;
+    private final Properties uploadedChecksums = new Properties();
+    private final List<String> uploadedEntries = new ArrayList<>();
 
     @BeforeEach
     public void setUp(@TempDir Path tempDir) throws Exception {
@@ -68,7 +82,7 @@ public class GoArtifactsManipulatorTest {
 
     @Test
     public void shouldBombWithErrorWhenStatusCodeReturnedIsRequestEntityTooLarge() throws IOException {
-        when(httpService.upload(any(), eq(tempFile.toFile().length()), any(), any())).thenReturn(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        when(httpService.upload(any(), argThat(artifact -> artifact.size() == tempFile.toFile().length()))).thenReturn(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
 
         CircularFifoQueue<?> buffer = ReflectionUtil.getField(ReflectionUtil.getField(goPublisher, "consoleOutputTransmitter"), "buffer");
         synchronized (buffer) {
@@ -77,7 +91,7 @@ public class GoArtifactsManipulatorTest {
                 fail("should have thrown request entity too large error");
             } catch (RuntimeException e) {
                 String expectedMessage = "Artifact upload for file " + tempFile.toAbsolutePath() + " (Size: "+ tempFile.toFile().length() +") was denied by the server. This usually happens when server runs out of disk space.";
-                assertThat(e.getMessage()).isEqualTo("java.lang.RuntimeException: " + expectedMessage + ".  HTTP return code is 413");
+                assertThat(e.getMessage()).isEqualTo(expectedMessage + ".  HTTP return code is 413");
                 assertThat(buffer.toString().contains(expectedMessage)).isTrue();
             }
         }
@@ -86,12 +100,12 @@ public class GoArtifactsManipulatorTest {
     @Test
     public void uploadShouldBeGivenFileSize() throws IOException {
 
-        when(httpService.upload(any(), eq(tempFile.toFile().length()), any(), any())).thenReturn(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
+        when(httpService.upload(any(), any())).thenReturn(HttpURLConnection.HTTP_ENTITY_TOO_LARGE);
         try {
             goArtifactsManipulatorStub.publish(goPublisher, "dest", tempFile.toFile(), jobIdentifier);
             fail("should have thrown request entity too large error");
         } catch (RuntimeException e) {
-            verify(httpService).upload(any(), eq(tempFile.toFile().length()), any(), any());
+            verify(httpService).upload(any(), argThat(artifact -> artifact.size() == tempFile.toFile().length()));
         }
     }
 
@@ -103,9 +117,11 @@ public class GoArtifactsManipulatorTest {
         Properties properties = new Properties();
         properties.setProperty("dest/path/file.txt", md5);
 
-        when(httpService.upload(any(), eq(tempFile.toFile().length()), any(), eq(properties))).thenReturn(HttpURLConnection.HTTP_OK);
+        when(httpService.upload(any(), any())).thenAnswer(this::streamUpload);
 
         goArtifactsManipulatorStub.publish(goPublisher, "/dest/path", tempFile.toFile(), jobIdentifier);
+
+        assertThat(uploadedChecksums).isEqualTo(properties);
     }
 
     @Test
@@ -116,9 +132,11 @@ public class GoArtifactsManipulatorTest {
         Properties properties = new Properties();
         properties.setProperty("file.txt", md5);
 
-        when(httpService.upload(any(), eq(tempFile.toFile().length()), any(), eq(properties))).thenReturn(HttpURLConnection.HTTP_OK);
+        when(httpService.upload(any(), any())).thenAnswer(this::streamUpload);
 
         goArtifactsManipulatorStub.publish(goPublisher, "", tempFile.toFile(), jobIdentifier);
+
+        assertThat(uploadedChecksums).isEqualTo(properties);
     }
 
     @Test
@@ -132,9 +150,87 @@ public class GoArtifactsManipulatorTest {
         Files.createDirectories(anotherFile.getParent());
         Files.writeString(anotherFile, secondData, UTF_8);
 
-        when(httpService.upload(any(), eq(FileUtils.sizeOfDirectory(artifactFolder.toFile())), any(), eq(expectedProperties(data, secondData)))).thenReturn(HttpURLConnection.HTTP_OK);
+        when(httpService.upload(any(), argThat(artifact -> artifact.size() == FileUtils.sizeOfDirectory(artifactFolder.toFile())))).thenAnswer(this::streamUpload);
 
         goArtifactsManipulatorStub.publish(goPublisher, "dest", artifactFolder.toFile(), jobIdentifier);
+
+        assertThat(uploadedChecksums).isEqualTo(expectedProperties(data, secondData));
+    }
+
+    @Test
+    public void shouldUploadLargeFoldersInSeveralZipsOfWholeFilesAtOnce() throws IOException {
+        String data = "Some text whose checksum can be asserted";
+        String secondData = "some more";
+        Files.writeString(tempFile, data, UTF_8);
+        Path anotherFile = artifactFolder.resolve("bond/james_bond/another_file");
+        Files.createDirectories(anotherFile.getParent());
+        Files.writeString(anotherFile, secondData, UTF_8);
+        Files.createDirectories(artifactFolder.resolve("empty"));
+
+        when(httpService.upload(any(), any())).thenAnswer(this::streamUpload);
+        GoArtifactsManipulator manipulator = new GoArtifactsManipulator(httpService, new URLService(), new ZipUtil(), 10, 2);
+
+        manipulator.publish(goPublisher, "dest", artifactFolder.toFile(), jobIdentifier);
+
+        verify(httpService, times(2)).upload(any(), any());
+        assertThat(uploadedChecksums).isEqualTo(expectedProperties(data, secondData));
+        assertThat(uploadedEntries).containsExactlyInAnyOrder(
+            "artifact_folder/", "artifact_folder/bond/", "artifact_folder/bond/james_bond/", "artifact_folder/empty/",
+            "artifact_folder/bond/james_bond/another_file", "artifact_folder/file.txt");
+    }
+
+    @Test
+    public void shouldRetryEachPartOfAFolderOnItsOwn() throws IOException {
+        Path anotherFile = artifactFolder.resolve("another_file");
+        Files.writeString(anotherFile, "some more data", UTF_8);
+
+        when(httpService.upload(any(), any()))
+            .thenReturn(HttpURLConnection.HTTP_INTERNAL_ERROR)
+            .thenAnswer(this::streamUpload);
+        GoArtifactsManipulator manipulator = new GoArtifactsManipulator(httpService, new URLService(), new ZipUtil(), 10, 1);
+
+        manipulator.publish(goPublisher, "dest", artifactFolder.toFile(), jobIdentifier);
+
+        verify(httpService, times(3)).upload(any(), any());
+        assertThat(uploadedChecksums).containsOnlyKeys("dest/artifact_folder/another_file", "dest/artifact_folder/file.txt");
+    }
+
+    @Test
+    public void shouldStopUploadingTheOtherPartsOfAFolderOnceOnePartHasFailed() throws IOException {
+        Path anotherFile = artifactFolder.resolve("another_file");
+        Files.writeString(anotherFile, "some more data", UTF_8);
+
+        AtomicBoolean firstPart = new AtomicBoolean(true);
+        when(httpService.upload(any(), any())).thenAnswer(invocation -> {
+            if (!firstPart.getAndSet(false)) {
+                return HttpURLConnection.HTTP_ENTITY_TOO_LARGE;
+            }
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return HttpURLConnection.HTTP_OK;
+        });
+        GoArtifactsManipulator manipulator = new GoArtifactsManipulator(httpService, new URLService(), new ZipUtil(), 10, 2);
+
+        assertThatThrownBy(() -> manipulator.publish(goPublisher, "dest", artifactFolder.toFile(), jobIdentifier))
+            .hasMessageContaining("was denied by the server");
+
+        verify(httpService, times(2)).upload(any(), any());
+    }
+
+    private synchronized int streamUpload(InvocationOnMock invocation) throws IOException {
+        ArtifactUploadChunk artifact = invocation.getArgument(1);
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        artifact.writeTo(zip);
+        uploadedChecksums.putAll(artifact.checksums());
+        try (ZipInputStream entries = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            for (ZipEntry entry = entries.getNextEntry(); entry != null; entry = entries.getNextEntry()) {
+                uploadedEntries.add(entry.getName());
+            }
+        }
+        return HttpURLConnection.HTTP_OK;
     }
 
     private Properties expectedProperties(String data, String secondData) {
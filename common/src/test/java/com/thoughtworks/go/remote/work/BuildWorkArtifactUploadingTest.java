@@ -49,10 +49,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
@@ -317,7 +319,7 @@ public class BuildWorkArtifactUploadingTest {
 
     private static class ZipUtilThatRunsOutOfMemory extends ZipUtil {
         @Override
-        public File zip(File source, File destFile, int level) {
+        public void zip(File source, Collection<File> filesWithinSource, OutputStream output, int level, ZipEntrySource entrySource) {
             throw new OutOfMemoryError("#2824");
         }
     }
@@ -19,13 +19,18 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -33,11 +38,15 @@ import static org.mockito.Mockito.*;
 public class ConsoleOutputTransmitterTest {
     @Mock
     private ConsoleAppender consoleAppender;
+
+    @Mock
+    private ScheduledThreadPoolExecutor executor;
     private ConsoleOutputTransmitter transmitter;
 
     @BeforeEach
     public void setup() {
-        transmitter = new ConsoleOutputTransmitter(consoleAppender, 0, TimeUnit.SECONDS, mock(ScheduledThreadPoolExecutor.class));
+        when(consoleAppender.charset()).thenReturn(UTF_8);
+        transmitter = new ConsoleOutputTransmitter(consoleAppender, 0, TimeUnit.SECONDS, executor, 64, 128);
     }
 
     @AfterEach
@@ -48,23 +57,82 @@ public class ConsoleOutputTransmitterTest {
     @Test
     public void shouldFlushContentsInBufferToServerInOneGo() throws Exception {
 
-        ArgumentCaptor<String> requestArgumentCaptor = ArgumentCaptor.forClass(String.class);
-        doNothing().when(consoleAppender).append(requestArgumentCaptor.capture());
+        List<String> sent = recordSentContent();
 
         transmitter.consumeLine("first line");
         transmitter.consumeLine("second line");
 
         transmitter.flushToServer();
 
-        verify(consoleAppender).append(any());
-        assertThat(requestArgumentCaptor.getValue()).contains("first line\n");
-        assertThat(requestArgumentCaptor.getValue()).contains("second line\n");
+        assertThat(sent).hasSize(1);
+        assertThat(sent.getFirst()).contains("first line\n");
+        assertThat(sent.getFirst()).contains("second line\n");
     }
 
     @Test
     public void shouldNotFlushToServerWhenBufferIsEmpty() throws Exception {
         transmitter.flushToServer();
 
-        verify(consoleAppender, never()).append(any());
+        verify(consoleAppender, never()).append(any(byte[].class), anyInt());
+    }
+
+    @Test
+    public void shouldFlushRightAwayOnceEnoughOutputIsBuffered() {
+        transmitter.consumeLine("a short line");
+        verify(executor, never()).execute(any());
+
+        transmitter.consumeLine("a line long enough to go over the flush threshold of the transmitter");
+        verify(executor).execute(transmitter);
+    }
+
+    @Test
+    public void shouldSendOutputAgainWhenSendingItFailed() throws Exception {
+        List<String> sent = new ArrayList<>();
+        doThrow(new IOException("server unavailable")).doAnswer(invocation -> {
+            sent.add(new String(invocation.getArgument(0), 0, invocation.<Integer>getArgument(1), UTF_8));
+            return null;
+        }).when(consoleAppender).append(any(byte[].class), anyInt());
+
+        transmitter.consumeLine("first line");
+        transmitter.flushToServer();
+        transmitter.consumeLine("second line");
+        transmitter.flushToServer();
+
+        assertThat(sent).hasSize(1);
+        assertThat(sent.getFirst()).containsSubsequence("first line\n", "second line\n");
+    }
+
+    @Test
+    public void shouldHoldBackOutputInsteadOfDroppingItWhenBufferIsFull() throws Exception {
+        List<String> sent = recordSentContent();
+        String line = "x".repeat(40);
+        transmitter.consumeLine(line);
+        transmitter.consumeLine(line);
+
+        CompletableFuture<Void> blockedWriter = CompletableFuture.runAsync(() -> transmitter.consumeLine("written once there is space"));
+        Thread.sleep(100);
+        assertThat(blockedWriter).isNotDone();
+
+        transmitter.flushToServer();
+        blockedWriter.get(5, TimeUnit.SECONDS);
+        transmitter.flushToServer();
+
+        assertThat(String.join("", sent)).containsSubsequence(line, line, "written once there is space");
+    }
+
+    @Test
+    public void shouldPrefixEveryLineOfOutputWithTagAndTime() {
+        String logLine = ConsoleOutputTransmitter.timestamped("##", LocalTime.of(9, 5, 7, 42_000_000), "first\nsecond");
+
+        assertThat(logLine).isEqualTo("##|09:05:07.042 first\n##|09:05:07.042 second\n");
+    }
+
+    private List<String> recordSentContent() throws IOException {
+        List<String> sent = new ArrayList<>();
+        doAnswer(invocation -> {
+            sent.add(new String(invocation.getArgument(0), 0, invocation.<Integer>getArgument(1), UTF_8));
+            return null;
+        }).when(consoleAppender).append(any(byte[].class), anyInt());
+        return sent;
     }
 }
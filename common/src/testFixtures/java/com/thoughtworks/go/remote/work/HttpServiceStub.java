@@ -17,15 +17,16 @@ package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.agent.HttpService;
 import com.thoughtworks.go.domain.FetchHandler;
+import com.thoughtworks.go.publishers.ArtifactUploadChunk;
 
-import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Properties;
 
 public class HttpServiceStub extends HttpService {
-    private final Map<String, File> uploadedFiles = new HashMap<>();
+    private final Map<String, ArtifactUploadChunk> uploadedFiles = new HashMap<>();
 
     private final int returnCode;
 
@@ -39,12 +40,13 @@ public class HttpServiceStub extends HttpService {
     }
 
     @Override
-    public int upload(String url, long size, File artifactFile, Properties artifactChecksums) {
-        uploadedFiles.put(url, artifactFile);
+    public int upload(String url, ArtifactUploadChunk artifact) throws IOException {
+        artifact.writeTo(OutputStream.nullOutputStream());
+        uploadedFiles.put(url, artifact);
         return returnCode;
     }
 
-    public Map<String, File> getUploadedFiles() {
+    public Map<String, ArtifactUploadChunk> getUploadedFiles() {
         return uploadedFiles;
     }
 
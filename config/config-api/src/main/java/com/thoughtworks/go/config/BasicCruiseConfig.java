@@ -1104,6 +1104,17 @@ public class BasicCruiseConfig implements CruiseConfig {
 
     @Override
     public List<ConfigErrors> validateAfterPreprocess() {
+        return validateAfterPreprocess(false);
+    }
+
+    @Override
+    public List<ConfigErrors> validateAfterPreprocess(boolean inParallel) {
+        if (inParallel) {
+            // these are built lazily without any locking, so build them before pipeline groups and templates are validated concurrently
+            getAllPipelineConfigs();
+            pipelineNameToConfigMap = Objects.requireNonNullElseGet(pipelineNameToConfigMap, PipelineNameToConfigMap::new);
+            return new GoConfigGraphWalker(this).walkCollectingErrorsInParallel(Validatable::validate);
+        }
         final List<ConfigErrors> allErrors = new ArrayList<>();
         new GoConfigGraphWalker(this)
             .walk(new ErrorCollectingHandler(allErrors, Validatable::validate));
@@ -28,6 +28,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Understands providing right state required to validate a given config element
@@ -36,8 +37,9 @@ public class ConfigSaveValidationContext implements ValidationContext {
     private final Validatable immediateParent;
     private final ConfigSaveValidationContext parentContext;
 
-    private final Map<Class<?>, Object> objectOfType = new HashMap<>();
-    private final Map<String, MaterialConfigs> fingerprintToMaterials = new HashMap<>();
+    // shared by the contexts of pipeline groups and templates that are validated concurrently
+    private final Map<Class<?>, Object> objectOfType = new ConcurrentHashMap<>();
+    private volatile Map<String, MaterialConfigs> fingerprintToMaterials;
 
     public ConfigSaveValidationContext(Validatable immediateParent) {
         this(immediateParent, null);
@@ -253,19 +255,37 @@ public class ConfigSaveValidationContext implements ValidationContext {
 
     @Override
     public MaterialConfigs getAllMaterialsByFingerPrint(String fingerprint) {
-        if (fingerprintToMaterials.isEmpty()) {
-            primeForMaterialValidations();
+        return Objects.requireNonNullElseGet(materialsByFingerprint(getCruiseConfig()).get(fingerprint), MaterialConfigs::new);
+    }
+
+    /**
+     * The materials are indexed once for the whole chain, by its outermost context, rather than once for every pipeline
+     * whose materials are validated.
+     */
+    private Map<String, MaterialConfigs> materialsByFingerprint(CruiseConfig cruiseConfig) {
+        if (parentContext != null) {
+            return parentContext.materialsByFingerprint(cruiseConfig);
+        }
+        Map<String, MaterialConfigs> materials = fingerprintToMaterials;
+        if (materials == null) {
+            synchronized (this) {
+                materials = fingerprintToMaterials;
+                if (materials == null) {
+                    materials = fingerprintToMaterials = primeForMaterialValidations(cruiseConfig);
+                }
+            }
         }
-        return Objects.requireNonNullElseGet(fingerprintToMaterials.get(fingerprint), MaterialConfigs::new);
+        return materials;
     }
 
-    private void primeForMaterialValidations() {
-        CruiseConfig cruiseConfig = getCruiseConfig();
+    private static Map<String, MaterialConfigs> primeForMaterialValidations(CruiseConfig cruiseConfig) {
+        Map<String, MaterialConfigs> fingerprintToMaterials = new HashMap<>();
         for (PipelineConfig pipelineConfig : cruiseConfig.getAllPipelineConfigs()) {
             for (MaterialConfig material : pipelineConfig.materialConfigs()) {
                 String fingerprint = material.getFingerprint();
                 fingerprintToMaterials.computeIfAbsent(fingerprint, k -> new MaterialConfigs()).add(material);
             }
         }
+        return fingerprintToMaterials;
     }
 }
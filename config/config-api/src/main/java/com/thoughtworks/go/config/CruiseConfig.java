@@ -197,6 +197,8 @@ public interface CruiseConfig extends Validatable, ConfigOriginTraceable {
 
     List<ConfigErrors> validateAfterPreprocess();
 
+    List<ConfigErrors> validateAfterPreprocess(boolean inParallel);
+
     PipelineConfigs findGroupOfPipeline(PipelineConfig pipelineConfig);
 
     Map<CaseInsensitiveString, List<PipelineConfig>> generatePipelineVsDownstreamMap();
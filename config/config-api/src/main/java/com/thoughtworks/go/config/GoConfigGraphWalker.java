@@ -16,10 +16,15 @@
 package com.thoughtworks.go.config;
 
 import com.thoughtworks.go.config.preprocessor.ConcurrentFieldCache;
+import com.thoughtworks.go.domain.ConfigErrors;
+import com.thoughtworks.go.domain.PipelineGroups;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
 
 /**
  * Understands visits all the nodes in the cruise config once using Java reflection
@@ -36,10 +41,33 @@ public class GoConfigGraphWalker {
     }
 
     public void walk(Validatable.Handler handler) {
-        walkSubtree(this.rootValidatable, new ConfigSaveValidationContext(null), handler);
+        walkSubtree(this.rootValidatable, new ConfigSaveValidationContext(null), handler, null);
     }
 
-    private void walkSubtree(Object current, ConfigSaveValidationContext context, Validatable.Handler handler) {
+    /**
+     * Visits the same nodes as {@link #walk(Validatable.Handler)}, except that every pipeline group and every template
+     * is walked on the common fork-join pool once the collection holding them has been handled. The walk only moves on
+     * once all of them are done, and the errors are collected in the same order as a walk on a single thread would have.
+     *
+     * @return the errors of every node which had errors right after it was handled
+     */
+    public List<ConfigErrors> walkCollectingErrorsInParallel(Validatable.Handler handler) {
+        List<ConfigErrors> allErrors = new ArrayList<>();
+        walkSubtree(this.rootValidatable, new ConfigSaveValidationContext(null), new ErrorCollectingHandler(allErrors, handler), (partitions, ctx) -> {
+            List<ForkJoinTask<List<ConfigErrors>>> tasks = partitions.stream()
+                .map(partition -> ForkJoinTask.adapt(() -> {
+                    List<ConfigErrors> partitionErrors = new ArrayList<>();
+                    walkSubtree(partition, ctx, new ErrorCollectingHandler(partitionErrors, handler), null);
+                    return partitionErrors;
+                }))
+                .toList();
+            ForkJoinTask.invokeAll(tasks);
+            tasks.forEach(task -> allErrors.addAll(task.join()));
+        });
+        return allErrors;
+    }
+
+    private void walkSubtree(Object current, ConfigSaveValidationContext context, Validatable.Handler handler, PartitionWalker partitionWalker) {
         if (!shouldWalk(current)) {
             return;
         }
@@ -47,18 +75,18 @@ public class GoConfigGraphWalker {
             handler.handle(validatable, context);
             context = context.withParent(validatable);
         }
-        tryWalkCollection(current, context, handler);
-        tryWalkFields(current, context, handler);
+        tryWalkCollection(current, context, handler, partitionWalker);
+        tryWalkFields(current, context, handler, partitionWalker);
     }
 
-    private void tryWalkFields(Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler) {
+    private void tryWalkFields(Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler, PartitionWalker partitionWalker) {
         for (Field field : ConcurrentFieldCache.nonStaticOrSyntheticFieldsFor(current.getClass())) {
             if (isFinal(field) || field.isAnnotationPresent(IgnoreTraversal.class)) {
                 continue;
             }
             try {
                 field.setAccessible(true);
-                walkSubtree(field.get(current), ctx, handler);
+                walkSubtree(field.get(current), ctx, handler, partitionWalker);
             } catch (IllegalAccessException e) {
                 throw new RuntimeException(e);
             }
@@ -70,14 +98,27 @@ public class GoConfigGraphWalker {
         return Modifier.isFinal(field.getModifiers());
     }
 
-    private void tryWalkCollection(Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler) {
+    private void tryWalkCollection(Object current, ConfigSaveValidationContext ctx, Validatable.Handler handler, PartitionWalker partitionWalker) {
         // We can only expect java to honor the contract of data structure interfaces(read: List),
         // and not depend on how they choose to implement it, so we short-circuit at a level that we know will continue to work(bad, but safe)
         if (current instanceof Collection<?> collection) {
+            if (partitionWalker != null && isPartitioned(collection)) {
+                partitionWalker.walk(collection, ctx);
+                return;
+            }
             for (Object collectionItem : collection) {
-                walkSubtree(collectionItem, ctx, handler);
+                walkSubtree(collectionItem, ctx, handler, partitionWalker);
             }
         }
     }
 
+    private static boolean isPartitioned(Collection<?> collection) {
+        // pipeline groups and templates only look at each other through the cruise config, which is not changed while validating
+        return collection instanceof PipelineGroups || collection instanceof TemplatesConfig;
+    }
+
+    private interface PartitionWalker {
+        void walk(Collection<?> partitions, ConfigSaveValidationContext ctx);
+    }
+
 }
@@ -19,8 +19,9 @@ import com.thoughtworks.go.config.preprocessor.ConcurrentFieldCache;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
+import java.util.List;
 
 import static com.thoughtworks.go.config.GoConfigGraphWalker.shouldWalk;
 
@@ -73,14 +74,29 @@ public class GoConfigParallelGraphWalker {
 
     private void walkCollection(Object raw, Object withErrors, Handler handler) {
         if (raw instanceof Collection<?> rawCollection && withErrors instanceof Collection<?> withErrorsCollection) {
-            rawCollection.stream()
-                .filter(Objects::nonNull)
-                .forEach(rawObject -> withErrorsCollection.stream()
-                    .filter(rawObject::equals)
-                    .findFirst()
-                    .ifPresent(matchingObject -> walkSubtree(rawObject, matchingObject, handler))
-                );
+            List<?> candidates = withErrorsCollection instanceof List<?> list ? list : new ArrayList<>(withErrorsCollection);
+            int next = 0;
+            for (Object rawObject : rawCollection) {
+                if (rawObject == null) {
+                    continue;
+                }
+                // both sides are usually in the same order, so try the element after the last match before searching for it
+                int match = next < candidates.size() && rawObject.equals(candidates.get(next)) ? next : indexOfFirstEqual(candidates, rawObject);
+                if (match >= 0) {
+                    walkSubtree(rawObject, candidates.get(match), handler);
+                    next = match + 1;
+                }
+            }
+        }
+    }
+
+    private static int indexOfFirstEqual(List<?> candidates, Object rawObject) {
+        for (int i = 0; i < candidates.size(); i++) {
+            if (rawObject.equals(candidates.get(i))) {
+                return i;
+            }
         }
+        return -1;
     }
 
     public interface Handler {
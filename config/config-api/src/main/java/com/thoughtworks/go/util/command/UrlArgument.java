@@ -98,6 +98,11 @@ public class UrlArgument extends CommandArgument {
         return toRedact;
     }
 
+    @Override
+    public Replacement replacement() {
+        return null;
+    }
+
     @Override
     public boolean equal(CommandArgument that) {
         //BUG #3276 - on windows svn info includes a password in svn+ssh
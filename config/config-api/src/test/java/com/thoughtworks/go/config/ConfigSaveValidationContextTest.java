@@ -70,6 +70,20 @@ public class ConfigSaveValidationContextTest {
         assertThat(context.getAllMaterialsByFingerPrint(hg.getFingerprint()).size()).isEqualTo(10);
     }
 
+    @Test
+    void shouldIndexMaterialsOnceForAllContextsInTheChain() {
+        CruiseConfig cruiseConfig = new BasicCruiseConfig();
+        HgMaterialConfig hg = hg("url", null);
+        cruiseConfig.addPipeline("defaultGroup", pipelineConfig("pipeline1", new MaterialConfigs(hg)));
+        cruiseConfig.addPipeline("defaultGroup", pipelineConfig("pipeline2", new MaterialConfigs(hg)));
+        ConfigSaveValidationContext context = ConfigSaveValidationContext.forChain(cruiseConfig, cruiseConfig.getGroups());
+
+        MaterialConfigs fromFirstGroup = context.withParent(cruiseConfig.getGroups().getFirst()).getAllMaterialsByFingerPrint(hg.getFingerprint());
+        MaterialConfigs fromPipeline = context.withParent(cruiseConfig.getGroups().getFirst()).withParent(cruiseConfig.getAllPipelineConfigs().getLast()).getAllMaterialsByFingerPrint(hg.getFingerprint());
+
+        assertThat(fromFirstGroup).hasSize(2).isSameAs(fromPipeline);
+    }
+
     @Test
     void shouldReturnEmptyListWhenNoMaterialsMatch() {
         CruiseConfig cruiseConfig = new BasicCruiseConfig();
@@ -258,6 +258,20 @@ public abstract class CruiseConfigTestBase implements FunctionalUtils {
     }
 
 
+    @Test
+    public void shouldCollectTheSameErrorsInTheSameOrderWhenValidatingInParallel() {
+        assertThat(errorsOfPipelinesWithTwoScmMaterials(true)).isEqualTo(errorsOfPipelinesWithTwoScmMaterials(false));
+        assertThat(errorsOfPipelinesWithTwoScmMaterials(true)).isNotEmpty();
+    }
+
+    private List<List<String>> errorsOfPipelinesWithTwoScmMaterials(boolean inParallel) {
+        CruiseConfig config = GoConfigMother.configWithPipelines("pipeline-1", "pipeline-2", "pipeline-3");
+        for (PipelineConfig pipelineConfig : config.getAllPipelineConfigs()) {
+            pipelineConfig.addMaterialConfig(p4("localhost:1999", "view"));
+        }
+        return config.validateAfterPreprocess(inParallel).stream().map(ConfigErrors::getAll).toList();
+    }
+
     @Test
     public void getAllErrors_shouldCollectAllErrorsInTheChildren() {
         CruiseConfig config = GoConfigMother.configWithPipelines("pipeline-1");
@@ -18,13 +18,19 @@ package com.thoughtworks.go.config;
 import com.thoughtworks.go.config.materials.PackageMaterialConfig;
 import com.thoughtworks.go.config.materials.PluggableSCMMaterialConfig;
 import com.thoughtworks.go.config.merge.MergePipelineConfigs;
+import com.thoughtworks.go.domain.ConfigErrors;
 import com.thoughtworks.go.domain.packagerepository.PackageDefinition;
 import com.thoughtworks.go.domain.packagerepository.PackageRepository;
 import com.thoughtworks.go.domain.packagerepository.Packages;
 import com.thoughtworks.go.domain.scm.SCM;
+import com.thoughtworks.go.helper.GoConfigMother;
+import com.thoughtworks.go.helper.PipelineConfigMother;
+import com.thoughtworks.go.helper.StageConfigMother;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import static com.thoughtworks.go.util.ReflectionUtil.setField;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -127,4 +133,24 @@ public class GoConfigGraphWalkerTest {
         new GoConfigGraphWalker(pluggableSCMMaterialConfig).walk((validatable, ctx) -> validatable.validate(context));
         verify(scmConfig, never()).validate(any());
     }
+
+    @Test
+    public void shouldCollectTheSameErrorsInTheSameOrderWhenWalkingPipelineGroupsAndTemplatesInParallel() {
+        List<ConfigErrors> errorsWalkingOnOneThread = new ArrayList<>();
+        new GoConfigGraphWalker(configWithErrorsInManyGroups()).walk(new ErrorCollectingHandler(errorsWalkingOnOneThread, Validatable::validate));
+
+        List<ConfigErrors> errorsWalkingInParallel = new GoConfigGraphWalker(configWithErrorsInManyGroups()).walkCollectingErrorsInParallel(Validatable::validate);
+
+        assertThat(errorsWalkingInParallel).isNotEmpty().isEqualTo(errorsWalkingOnOneThread);
+    }
+
+    private BasicCruiseConfig configWithErrorsInManyGroups() {
+        BasicCruiseConfig config = GoConfigMother.configWithPipelines("pipeline-0");
+        for (int i = 1; i < 20; i++) {
+            config.addPipeline("group-" + i, PipelineConfigMother.pipelineConfig("bad pipeline " + i));
+            config.addPipeline("group-" + i, PipelineConfigMother.pipelineConfig("pipeline-" + i));
+        }
+        config.addTemplate(new PipelineTemplateConfig(new CaseInsensitiveString("bad template"), StageConfigMother.stageConfig("stage")));
+        return config;
+    }
 }
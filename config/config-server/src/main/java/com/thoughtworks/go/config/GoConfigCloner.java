@@ -16,8 +16,11 @@
 package com.thoughtworks.go.config;
 
 import com.rits.cloning.Cloner;
+import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.util.ClonerFactory;
 
+import java.util.List;
+
 // Cloner to handle nullification of specific classes in config objects.
 // A specific field can be ignored from being cloned by setting `cloner.setNullTransient(true)` and marking the field as 'transient',
 // but if the object being cloned has other fields which have transient fields internally,
@@ -27,9 +30,32 @@ import com.thoughtworks.go.util.ClonerFactory;
 // Thing is BasicCruiseConfig.groups is a type of ArrayList.
 // ArrayList.elementData is a transient field which doesn't get cloned, causing NullPointerExceptions when `groups` is accessed from the cloned object.
 // This is one place to mark all the classes to be ignored during clone.
+// Instances of immutable classes, such as CaseInsensitiveString, are shared between a config and its clones rather than copied.
 public class GoConfigCloner extends Cloner {
+    private static final Cloner WITHOUT_PARTIALS = configure(new Cloner());
+
+    static {
+        WITHOUT_PARTIALS.nullInsteadOfClone(PartialConfig.class);
+    }
+
     public GoConfigCloner() {
-        nullInsteadOfClone(BasicCruiseConfig.DO_NOT_CLONE_CLASSES);
-        ClonerFactory.applyFixes(this);
+        configure(this);
+    }
+
+    private static Cloner configure(Cloner cloner) {
+        cloner.nullInsteadOfClone(BasicCruiseConfig.DO_NOT_CLONE_CLASSES);
+        cloner.registerImmutable(CaseInsensitiveString.class);
+        return ClonerFactory.applyFixes(cloner);
+    }
+
+    /**
+     * Clones a config to be edited along with the given partials, rather than the ones it has now. With many config
+     * repositories, most of the pipelines of a config are in its partials, and cloning them only to replace them
+     * straight away would be most of the work.
+     */
+    public CruiseConfig deepCloneForEdit(CruiseConfig configForEdit, List<PartialConfig> partials) {
+        CruiseConfig clone = WITHOUT_PARTIALS.deepClone(configForEdit);
+        clone.setPartials(partials);
+        return clone;
     }
 }
@@ -44,6 +44,7 @@ import java.util.List;
 
 import static com.thoughtworks.go.config.parser.GoConfigClassLoader.classParser;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_CONFIG_VALIDATION_PARALLEL;
 
 public class MagicalGoConfigXmlLoader {
     private static final Logger LOGGER = LoggerFactory.getLogger(MagicalGoConfigXmlLoader.class);
@@ -78,7 +79,7 @@ public class MagicalGoConfigXmlLoader {
 
     public static List<ConfigErrors> validate(CruiseConfig config) {
         preprocess(config);
-        return config.validateAfterPreprocess();
+        return config.validateAfterPreprocess(systemEnvironment.get(GO_CONFIG_VALIDATION_PARALLEL));
     }
 
     public static void preprocess(CruiseConfig cruiseConfig) {
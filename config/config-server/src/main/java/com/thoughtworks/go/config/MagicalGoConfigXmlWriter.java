@@ -105,6 +105,21 @@ public class MagicalGoConfigXmlWriter {
     }
 
     public String toXmlPartial(Object domainObject) {
+        try (ByteArrayOutputStream output = new ByteArrayOutputStream(32 * 1024)) {
+            writeXmlPartial(domainObject, output);
+            // FIXME the lack of charset here looks rather suspicious. But unclear how to fix without possible regressions.
+            // Related to similar issue in GoConfigMigration?
+            return output.toString(Charset.defaultCharset());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Unlikely to happen due to use of ByteArrayOutputStream
+        }
+    }
+
+    /**
+     * Writes the same UTF-8 encoded XML as {@link #toXmlPartial(Object)} straight to the given stream, for callers
+     * that only need the bytes and need not hold the whole partial in memory as a string.
+     */
+    public void writeXmlPartial(Object domainObject, OutputStream output) throws IOException {
         bombIf(!domainObject.getClass().isAnnotationPresent(ConfigTag.class), () -> "Object " + domainObject + " does not have a ConfigTag");
         Element element = elementFor(domainObject.getClass());
         write(domainObject, element, registry);
@@ -119,15 +134,7 @@ public class MagicalGoConfigXmlWriter {
                 write(item, childElement, registry);
             }
         }
-
-        try (ByteArrayOutputStream output = new ByteArrayOutputStream(32 * 1024)) {
-            XmlUtils.writeXml(element, output);
-            // FIXME the lack of charset here looks rather suspicious. But unclear how to fix without possible regressions.
-            // Related to similar issue in GoConfigMigration?
-            return output.toString(Charset.defaultCharset());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e); // Unlikely to happen due to use of ByteArrayOutputStream
-        }
+        XmlUtils.writeXml(element, output);
     }
 
     private static Namespace namespaceFor(ConfigTag annotation) {
@@ -15,7 +15,9 @@
  */
 package com.thoughtworks.go.config;
 
+import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.helper.GoConfigMother;
+import com.thoughtworks.go.helper.PartialConfigMother;
 import com.thoughtworks.go.helper.PipelineConfigMother;
 import com.thoughtworks.go.helper.PipelineTemplateConfigMother;
 import com.thoughtworks.go.util.ReflectionUtil;
@@ -125,4 +127,28 @@ public class GoConfigClonerTest {
         assertThat(cloned.getGroups().size()).isEqualTo(1);
         assertThat(cloned.getGroups().getFirst().getPipelines().size()).isEqualTo(2);
     }
+
+    @Test
+    public void shouldShareImmutableNamesWithTheClone() {
+        BasicCruiseConfig config = GoConfigMother.configWithPipelines("p1");
+        BasicCruiseConfig cloned = new GoConfigCloner().deepClone(config);
+
+        assertThat(cloned.getAllPipelineConfigs().getFirst()).isNotSameAs(config.getAllPipelineConfigs().getFirst());
+        assertThat(cloned.getAllPipelineConfigs().getFirst().name()).isSameAs(config.getAllPipelineConfigs().getFirst().name());
+    }
+
+    @Test
+    public void shouldCloneConfigForEditWithTheGivenPartialsInsteadOfItsOwn() {
+        BasicCruiseConfig config = GoConfigMother.configWithPipelines("p1", "p2");
+        config.setPartials(List.of(PartialConfigMother.withPipeline("p3")));
+        List<PartialConfig> partials = List.of(PartialConfigMother.withPipeline("p4"));
+
+        CruiseConfig cloned = new GoConfigCloner().deepCloneForEdit(config, partials);
+
+        assertThat(cloned).isNotSameAs(config);
+        assertThat(cloned.getGroups().getFirst().getPipelines()).hasSize(2);
+        assertThat(cloned.getGroups().getFirst()).isNotSameAs(config.getGroups().getFirst());
+        assertThat(cloned.getPartials()).isSameAs(partials);
+        assertThat(config.getPartials().getFirst().getGroups().getFirst().getFirst().name()).isEqualTo(new CaseInsensitiveString("p3"));
+    }
 }
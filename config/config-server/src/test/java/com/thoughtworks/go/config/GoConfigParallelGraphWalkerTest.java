@@ -111,6 +111,24 @@ public class GoConfigParallelGraphWalkerTest {
         assertThat(goodObjectWith2ObjectsInList.getSomeOtherObjectList().getFirst().errors().firstError()).isEqualTo("y");
     }
 
+    @Test
+    public void shouldCopyErrorsOfEqualObjectsToTheObjectsAtTheSamePosition() {
+        AValidatableObjectWithAList badObject = new AValidatableObjectWithAList();
+        AValidatableObjectWithAList goodObject = new AValidatableObjectWithAList();
+        for (int i = 0; i < 3; i++) {
+            SomeOtherObject withError = new SomeOtherObject("same");
+            withError.addError("name", "error " + i);
+            badObject.add(withError);
+            goodObject.add(new SomeOtherObject("same"));
+        }
+
+        Validatable.copyErrors(badObject, goodObject);
+
+        assertThat(goodObject.getSomeOtherObjectList())
+            .extracting(soo -> soo.errors().firstError())
+            .containsExactly("error 0", "error 1", "error 2");
+    }
+
     @Test
     public void shouldCopyErrorsForFieldsOnPipelineConfig() {
         PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig("pipeline", MaterialConfigsMother.defaultMaterialConfigs(), new JobConfigs(JobConfigMother.createJobConfigWithJobNameAndEmptyResources()));
@@ -44,8 +44,11 @@ public class NotificationExtension extends AbstractExtension {
     static final String REQUEST_NOTIFICATIONS_INTERESTED_IN = "notifications-interested-in";
     public static final String STAGE_STATUS_CHANGE_NOTIFICATION = "stage-status";
     public static final String AGENT_STATUS_CHANGE_NOTIFICATION = "agent-status";
+    // the latest status of each agent which changed since the previous batch, for plugins on 4.0 which ask for it instead of "agent-status"
+    public static final String AGENT_STATUS_BATCH_NOTIFICATION = "agent-status-batch";
 
-    static final List<String> VALID_NOTIFICATION_TYPES = List.of(STAGE_STATUS_CHANGE_NOTIFICATION, AGENT_STATUS_CHANGE_NOTIFICATION);
+    static final List<String> VALID_NOTIFICATION_TYPES = List.of(STAGE_STATUS_CHANGE_NOTIFICATION, AGENT_STATUS_CHANGE_NOTIFICATION, AGENT_STATUS_BATCH_NOTIFICATION);
+    static final List<String> AGENT_STATUS_BATCH_SUPPORTED_VERSIONS = List.of("4.0");
 
     private Map<String, JsonMessageHandler> messageHandlerMap = new HashMap<>();
 
@@ -78,6 +81,10 @@ public class NotificationExtension extends AbstractExtension {
         });
     }
 
+    public boolean supportsAgentStatusBatches(String pluginId) {
+        return AGENT_STATUS_BATCH_SUPPORTED_VERSIONS.contains(pluginManager.resolveExtensionVersion(pluginId, extensionName(), goSupportedVersions));
+    }
+
     public <T> Result notify(String pluginId, final String requestName, final T data) {
         return pluginRequestHelper.submitRequest(pluginId, requestName, new DefaultPluginInteractionCallback<>() {
             @Override
@@ -23,8 +23,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION;
+
 @Component
 public class NotificationPluginRegistrar implements PluginChangeListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificationPluginRegistrar.class);
@@ -47,6 +50,7 @@ public class NotificationPluginRegistrar implements PluginChangeListener {
                 List<String> notificationsInterestedIn = notificationExtension.getNotificationsOfInterestFor(pluginDescriptor.id());
                 if (notificationsInterestedIn != null && !notificationsInterestedIn.isEmpty()) {
                     checkNotificationTypes(pluginDescriptor, notificationsInterestedIn);
+                    notificationsInterestedIn = withoutUnsupportedBatches(pluginDescriptor, notificationsInterestedIn);
 
                     notificationPluginRegistry.registerPluginInterests(pluginDescriptor.id(), notificationsInterestedIn);
                 }
@@ -64,6 +68,16 @@ public class NotificationPluginRegistrar implements PluginChangeListener {
         }
     }
 
+    private List<String> withoutUnsupportedBatches(GoPluginDescriptor pluginDescriptor, List<String> notificationsInterestedIn) {
+        if (!notificationsInterestedIn.contains(AGENT_STATUS_BATCH_NOTIFICATION) || notificationExtension.supportsAgentStatusBatches(pluginDescriptor.id())) {
+            return notificationsInterestedIn;
+        }
+        LOGGER.warn("Plugin '{}' is trying to register for '{}' which is only supported by notification extension versions {}. It will not receive it.", pluginDescriptor.id(), AGENT_STATUS_BATCH_NOTIFICATION, NotificationExtension.AGENT_STATUS_BATCH_SUPPORTED_VERSIONS);
+        List<String> supported = new ArrayList<>(notificationsInterestedIn);
+        supported.remove(AGENT_STATUS_BATCH_NOTIFICATION);
+        return supported;
+    }
+
     @Override
     public void pluginUnLoaded(GoPluginDescriptor pluginDescriptor) {
         if (notificationExtension.canHandlePlugin(pluginDescriptor.id())) {
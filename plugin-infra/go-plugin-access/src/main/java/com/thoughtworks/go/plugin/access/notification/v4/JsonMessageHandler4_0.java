@@ -80,6 +80,9 @@ public class JsonMessageHandler4_0 implements JsonMessageHandler {
         if (data instanceof AgentNotificationData) {
             return new AgentConverter((AgentNotificationData) data);
         }
+        if (data instanceof List<?> agents && agents.stream().allMatch(AgentNotificationData.class::isInstance)) {
+            return new AgentBatchConverter((List<AgentNotificationData>) agents);
+        }
         throw new UnsupportedOperationException(String.format("Converter for %s not supported", data.getClass().getCanonicalName()));
     }
 
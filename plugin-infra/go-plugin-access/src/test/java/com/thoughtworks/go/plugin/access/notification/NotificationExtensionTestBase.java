@@ -83,6 +83,11 @@ public abstract class NotificationExtensionTestBase {
         assertThat(notificationExtension).isInstanceOf(AbstractExtension.class);
     }
 
+    @Test
+    public void shouldOnlySupportAgentStatusBatchesFromVersion4() {
+        assertThat(notificationExtension.supportsAgentStatusBatches(PLUGIN_ID)).isEqualTo("4.0".equals(apiVersion()));
+    }
+
     @Test
     public void shouldTalkToPluginToGetPluginSettingsConfiguration() {
         PluginSettingsConfiguration deserializedResponse = new PluginSettingsConfiguration();
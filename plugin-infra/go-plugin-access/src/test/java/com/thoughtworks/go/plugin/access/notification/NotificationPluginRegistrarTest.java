@@ -40,6 +40,7 @@ public class NotificationPluginRegistrarTest {
     private static final String PIPELINE_STATUS = "pipeline-status";
     private static final String STAGE_STATUS = "stage-status";
     private static final String JOB_STATUS = "job-status";
+    private static final String AGENT_STATUS_BATCH = "agent-status-batch";
 
     @Mock
     private PluginManager pluginManager;
@@ -109,6 +110,21 @@ public class NotificationPluginRegistrarTest {
         }
     }
 
+    @Test
+    public void shouldOnlyRegisterInterestInAgentStatusBatchesForPluginsWhichSupportThem() {
+        when(notificationExtension.getNotificationsOfInterestFor(PLUGIN_ID_2)).thenReturn(List.of(STAGE_STATUS, AGENT_STATUS_BATCH));
+        when(notificationExtension.getNotificationsOfInterestFor(PLUGIN_ID_3)).thenReturn(List.of(AGENT_STATUS_BATCH));
+        when(notificationExtension.supportsAgentStatusBatches(PLUGIN_ID_2)).thenReturn(false);
+        when(notificationExtension.supportsAgentStatusBatches(PLUGIN_ID_3)).thenReturn(true);
+        NotificationPluginRegistrar notificationPluginRegistrar = new NotificationPluginRegistrar(pluginManager, notificationExtension, notificationPluginRegistry);
+
+        notificationPluginRegistrar.pluginLoaded(GoPluginDescriptor.builder().id(PLUGIN_ID_2).isBundledPlugin(true).build());
+        notificationPluginRegistrar.pluginLoaded(GoPluginDescriptor.builder().id(PLUGIN_ID_3).isBundledPlugin(true).build());
+
+        verify(notificationPluginRegistry).registerPluginInterests(PLUGIN_ID_2, List.of(STAGE_STATUS));
+        verify(notificationPluginRegistry).registerPluginInterests(PLUGIN_ID_3, List.of(AGENT_STATUS_BATCH));
+    }
+
     @Test
     public void shouldRegisterPluginOnPluginLoad() {
         NotificationPluginRegistrar notificationPluginRegistrar = new NotificationPluginRegistrar(pluginManager, notificationExtension, notificationPluginRegistry);
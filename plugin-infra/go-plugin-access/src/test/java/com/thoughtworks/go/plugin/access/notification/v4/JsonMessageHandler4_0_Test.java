@@ -335,6 +335,51 @@ public class JsonMessageHandler4_0_Test {
         assertThatJson(expected).isEqualTo(message);
     }
 
+    @Test
+    public void shouldConstructAgentBatchNotificationRequestMessage() {
+        Date transitionTime = new Date();
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat(DATE_PATTERN_FOR_V3);
+        simpleDateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        String time = simpleDateFormat.format(transitionTime);
+
+        List<AgentNotificationData> agents = List.of(
+            new AgentNotificationData("uuid-1", "host-1", false, "127.0.0.1", "rh", "100", "enabled", "idle", "idle", transitionTime),
+            new AgentNotificationData("uuid-2", "host-2", true, "127.0.0.2", "rh", "200", "enabled", "building", "building", transitionTime));
+
+        String expected = """
+            {
+              "agents": [
+                {
+                  "agent_config_state": "enabled",
+                  "agent_state": "idle",
+                  "build_state": "idle",
+                  "is_elastic": false,
+                  "free_space": "100",
+                  "host_name": "host-1",
+                  "ip_address": "127.0.0.1",
+                  "operating_system": "rh",
+                  "uuid": "uuid-1",
+                  "transition_time": "%1$s"
+                },
+                {
+                  "agent_config_state": "enabled",
+                  "agent_state": "building",
+                  "build_state": "building",
+                  "is_elastic": true,
+                  "free_space": "200",
+                  "host_name": "host-2",
+                  "ip_address": "127.0.0.2",
+                  "operating_system": "rh",
+                  "uuid": "uuid-2",
+                  "transition_time": "%1$s"
+                }
+              ]
+            }
+            """.formatted(time);
+
+        assertThatJson(expected).isEqualTo(messageHandler.requestMessageForNotify(agents));
+    }
+
     private void assertSuccessResult(Result result, List<String> messages) {
         assertThat(result.isSuccessful()).isEqualTo(true);
         assertThat(result.getMessages()).isEqualTo(messages);
@@ -21,6 +21,7 @@ import com.thoughtworks.go.config.exceptions.*;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.config.update.FullConfigUpdateCommand;
+import com.thoughtworks.go.config.update.PartialConfigUpdateCommand;
 import com.thoughtworks.go.domain.GoConfigRevision;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.service.ConfigRepository;
@@ -295,14 +296,14 @@ public class GoFileConfigDataSource {
     }
 
     public synchronized EntityConfigSaveResult<?> writeEntityWithLock(EntityConfigUpdateCommand<?> updatingCommand, GoConfigHolder configHolder, Username currentUser) {
-        CruiseConfig modifiedConfig = cloner.deepClone(configHolder.configForEdit);
+        List<PartialConfig> lastValidPartials = cachedGoPartials.lastValidPartials();
+        List<PartialConfig> lastKnownPartials = cachedGoPartials.lastKnownPartials();
+        CruiseConfig modifiedConfig = cloner.deepCloneForEdit(configHolder.configForEdit, lastValidPartials);
         try {
             updatingCommand.update(modifiedConfig);
         } catch (Exception e) {
             bomb(e);
         }
-        List<PartialConfig> lastValidPartials = cachedGoPartials.lastValidPartials();
-        List<PartialConfig> lastKnownPartials = cachedGoPartials.lastKnownPartials();
         if (lastKnownPartials.isEmpty() || partials.isEquivalent(lastKnownPartials, lastValidPartials)) {
             return trySavingEntity(updatingCommand, currentUser, modifiedConfig, lastValidPartials);
         }
@@ -570,6 +571,12 @@ public class GoFileConfigDataSource {
     }
 
     private GoConfigHolder trySavingConfig(UpdateConfigCommand updatingCommand, GoConfigHolder configHolder, List<PartialConfig> partials) throws IOException, GitAPIException, JDOMException {
+        if (updatingCommand instanceof PartialConfigUpdateCommand) {
+            GoConfigHolder partialsOnlyConfigHolder = trySavingPartialsOnly(updatingCommand, configHolder, partials);
+            if (partialsOnlyConfigHolder != null) {
+                return partialsOnlyConfigHolder;
+            }
+        }
         String configAsXml;
         GoConfigHolder validatedConfigHolder;
         LOGGER.debug("[Config Save] ==-- Getting modified config");
@@ -590,13 +597,36 @@ public class GoFileConfigDataSource {
         return validatedConfigHolder;
     }
 
+    /**
+     * A change to a config repository leaves cruise-config.xml as it is, unless it brings in a pipeline group or an
+     * environment which is not there yet. When it does leave it, the merged config only needs to be validated once;
+     * there is nothing to serialize, parse again, write to disk or check in.
+     *
+     * @return the validated config, or null if cruise-config.xml changes too and has to be saved as usual
+     */
+    private GoConfigHolder trySavingPartialsOnly(UpdateConfigCommand updatingCommand, GoConfigHolder configHolder, List<PartialConfig> partials) {
+        CruiseConfig configForEdit = cloner.deepCloneForEdit(configHolder.configForEdit, partials);
+        int groups = configForEdit.getGroups().size();
+        int environments = configForEdit.getEnvironments().size();
+        updatingCommand.update(configForEdit);
+        if (configForEdit.getGroups().size() != groups || configForEdit.getEnvironments().size() != environments) {
+            return null;
+        }
+
+        LOGGER.debug("[Config Save] ==-- Validating updated partials, cruise-config.xml is unchanged");
+        configForEdit.setPartials(partials);
+        CruiseConfig config = magicalGoConfigXmlLoader.preprocessAndValidate(configForEdit);
+        reloadStrategy.latestState(config);
+        cachedGoPartials.markAsValid(partials);
+        return new GoConfigHolder(config, configForEdit);
+    }
+
     private ConfigModifyingUser getConfigUpdatingUser(UpdateConfigCommand updatingCommand) {
         return updatingCommand instanceof UserAware ? ((UserAware) updatingCommand).user() : new ConfigModifyingUser();
     }
 
     private String getUnmergedConfig(UpdateConfigCommand updatingCommand, GoConfigHolder configHolder, List<PartialConfig> partials) throws IOException, JDOMException {
-        CruiseConfig deepCloneForEdit = cloner.deepClone(configHolder.configForEdit);
-        deepCloneForEdit.setPartials(partials);
+        CruiseConfig deepCloneForEdit = cloner.deepCloneForEdit(configHolder.configForEdit, partials);
         CruiseConfig config = updatingCommand.update(deepCloneForEdit);
         String configAsXml = configAsXml(config, false);
         if (deepCloneForEdit.getPartials().size() < partials.size()) {
@@ -19,13 +19,16 @@ import com.thoughtworks.go.server.service.ArtifactsDirHolder;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Understands serving prepared artifacts and preparing artifact offline
+ * Understands serving prepared artifacts and preparing artifact offline. Artifacts are prepared by a fixed number of
+ * threads, and asking for an artifact which is already being prepared does not prepare it again.
  */
 public abstract class ArtifactCache<T extends Comparable<T>> {
     protected final ArtifactsDirHolder artifactsDirHolder;
@@ -33,8 +36,14 @@ public abstract class ArtifactCache<T extends Comparable<T>> {
     protected ConcurrentMap<T, Exception> pendingExceptions = new ConcurrentHashMap<>();
     public static final String CACHE_ARTIFACTS_FOLDER = "cache/artifacts/";
 
-    public ArtifactCache(ArtifactsDirHolder artifactsDirHolder) {
+    private final ExecutorService cacheCreators;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ArtifactCache(ArtifactsDirHolder artifactsDirHolder, int cacheCreatorThreads) {
         this.artifactsDirHolder = artifactsDirHolder;
+        this.cacheCreators = Executors.newFixedThreadPool(Math.max(1, cacheCreatorThreads),
+            Thread.ofPlatform().name("cache-creator-thread-", 1).daemon().factory());
     }
 
     public boolean cacheCreated(T artifactLocation) throws IOException {
@@ -42,12 +51,30 @@ public abstract class ArtifactCache<T extends Comparable<T>> {
 
         throwOnExceptionFor(artifactLocation);
 
-        if (cacheAlreadyCreated(artifactLocation)) { return true; }
+        if (cacheAlreadyCreated(artifactLocation)) {
+            hits.increment();
+            cacheUsed(artifactLocation);
+            return true;
+        }
 
         startCacheCreationThread(artifactLocation);
         return false;
     }
 
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public double hitRatio() {
+        long served = hits();
+        long total = served + misses();
+        return total == 0 ? 0 : (double) served / total;
+    }
+
     private void throwOnExceptionFor(T artifactLocation) throws IOException {
         Exception e = pendingExceptions.remove(artifactLocation);
         if (e != null) {
@@ -70,22 +97,25 @@ public abstract class ArtifactCache<T extends Comparable<T>> {
     protected void startCacheCreationThread(final T artifactLocation) {
         boolean inserted = pendingCacheFiles.add(artifactLocation);
         if (inserted) {
-            Thread cacheCreatorThread = new Thread("cache-creator-thread-" + UUID.randomUUID()) {
-                @Override
-                public void run() {
-                    try {
-                        createCachedFile(artifactLocation);
-                    } catch (Exception e) {
-                        pendingExceptions.putIfAbsent(artifactLocation, e);
-                    } finally {
-                        pendingCacheFiles.remove(artifactLocation);
-                    }
+            misses.increment();
+            cacheCreators.execute(() -> {
+                try {
+                    createCachedFile(artifactLocation);
+                } catch (Exception e) {
+                    pendingExceptions.putIfAbsent(artifactLocation, e);
+                } finally {
+                    pendingCacheFiles.remove(artifactLocation);
                 }
-            };
-            cacheCreatorThread.start();
+            });
         }
     }
 
+    /**
+     * Called whenever an artifact is served from the cache
+     */
+    protected void cacheUsed(T artifactLocation) {
+    }
+
     public abstract File cachedFile(T artifactLocation);
 
     abstract void createCachedFile(T artifactLocation) throws IOException;
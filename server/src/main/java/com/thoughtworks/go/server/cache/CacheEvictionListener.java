@@ -21,10 +21,10 @@ import net.sf.ehcache.Element;
 import net.sf.ehcache.event.CacheEventListener;
 
 public class CacheEvictionListener implements CacheEventListener {
-    private final GoCache goCache;
+    private final EhcacheBackend backend;
 
-    public CacheEvictionListener(GoCache goCache) {
-        this.goCache = goCache;
+    CacheEvictionListener(EhcacheBackend backend) {
+        this.backend = backend;
     }
 
     @Override
@@ -53,7 +53,7 @@ public class CacheEvictionListener implements CacheEventListener {
     }
 
     private void removeCompositeKeyFromParentCache(Element element) {
-        goCache.removeAssociations((String) element.getObjectKey(), element);
+        backend.removeAssociations((String) element.getObjectKey(), element);
     }
 
     @Override
@@ -0,0 +1,233 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Understands keeping cached values in Caffeine caches, one per named region. The region of a key is the name of the
+ * class that generated it (keys start with the fully qualified class name, as generated by {@link CacheKeyGenerator}),
+ * so that, say, material revisions cached by {@code MaterialRepository} cannot push stages cached by
+ * {@code StageSqlMapDao} out of the cache. Keys of classes without a region of their own share the default region.
+ * <p>
+ * Values cached against sub keys of a key are kept together in a single entry, weighing as much as the values in it,
+ * so that evicting or removing the key takes its sub keys along without any bookkeeping.
+ */
+class CaffeineBackend implements GoCacheBackend {
+    static final String DEFAULT_REGION = "default";
+    private static final Object NULL = new Object();
+
+    private final Map<String, Region> regions = new LinkedHashMap<>();
+    private final Region defaultRegion;
+
+    record RegionConfig(String name, long maximumWeight, Duration timeToLive) {
+    }
+
+    CaffeineBackend(RegionConfig defaultRegionConfig, List<RegionConfig> regionConfigs, Ticker ticker) {
+        this.defaultRegion = new Region(defaultRegionConfig, ticker);
+        for (RegionConfig config : regionConfigs) {
+            regions.put(config.name(), new Region(config, ticker));
+        }
+    }
+
+    @Override
+    public Object get(String key) {
+        Object value = regionFor(key).cache.getIfPresent(key);
+        return value instanceof Family ? null : unmask(value);
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        regionFor(key).cache.put(key, value == null ? NULL : value);
+    }
+
+    @Override
+    public boolean remove(String key) {
+        return regionFor(key).cache.asMap().remove(key) != null;
+    }
+
+    @Override
+    public Object get(String key, String subKey) {
+        return regionFor(key).cache.getIfPresent(key) instanceof Family family ? unmask(family.get(subKey)) : null;
+    }
+
+    @Override
+    public void put(String key, String subKey, Object value) {
+        Object masked = value == null ? NULL : value;
+        regionFor(key).cache.asMap().compute(key, (k, existing) ->
+            (existing instanceof Family family ? family : Family.EMPTY).with(subKey, masked));
+    }
+
+    @Override
+    public void remove(String key, String subKey) {
+        regionFor(key).cache.asMap().computeIfPresent(key, (k, existing) ->
+            existing instanceof Family family ? family.without(subKey) : existing);
+    }
+
+    @Override
+    public boolean isKeyInCache(String key) {
+        return regionFor(key).cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public List<String> getKeys() {
+        List<String> keys = new ArrayList<>(defaultRegion.cache.asMap().keySet());
+        for (Region region : regions.values()) {
+            keys.addAll(region.cache.asMap().keySet());
+        }
+        return keys;
+    }
+
+    @Override
+    public void clear() {
+        defaultRegion.cache.invalidateAll();
+        for (Region region : regions.values()) {
+            region.cache.invalidateAll();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+    }
+
+    @Override
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        for (Region region : regions.values()) {
+            json.put(region.config.name(), region.statistics());
+        }
+        json.put(defaultRegion.config.name(), defaultRegion.statistics());
+        return json;
+    }
+
+    void cleanUp() {
+        defaultRegion.cache.cleanUp();
+        for (Region region : regions.values()) {
+            region.cache.cleanUp();
+        }
+    }
+
+    private Region regionFor(String key) {
+        if (regions.isEmpty()) {
+            return defaultRegion;
+        }
+        String name = regionNameOf(key);
+        return name == null ? defaultRegion : regions.getOrDefault(name, defaultRegion);
+    }
+
+    /**
+     * @return the simple name of the class a key was generated by, such as {@code StageSqlMapDao} for
+     * {@code com.thoughtworks.go.server.dao.StageSqlMapDao.$stageById.$42}, or null if it does not start with a class
+     * name
+     */
+    static String regionNameOf(String key) {
+        int segmentStart = 0;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c == '.') {
+                segmentStart = i + 1;
+            } else if (i == segmentStart && Character.isUpperCase(c)) {
+                int end = i + 1;
+                while (end < key.length() && Character.isLetterOrDigit(key.charAt(end))) {
+                    end++;
+                }
+                return key.substring(i, end);
+            } else if (!Character.isJavaIdentifierPart(c)) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Object unmask(Object value) {
+        return value == NULL ? null : value;
+    }
+
+    private static int weigh(String key, Object value) {
+        return value instanceof Family family ? 1 + family.size() : 1;
+    }
+
+    private static class Region {
+        private final RegionConfig config;
+        private final Cache<String, Object> cache;
+
+        Region(RegionConfig config, Ticker ticker) {
+            this.config = config;
+            Caffeine<String, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(config.maximumWeight())
+                .ticker(ticker)
+                .executor(Runnable::run)
+                .recordStats()
+                .weigher(CaffeineBackend::weigh);
+            if (config.timeToLive() != null && !config.timeToLive().isZero()) {
+                builder.expireAfterWrite(config.timeToLive());
+            }
+            this.cache = builder.build();
+        }
+
+        Map<String, Object> statistics() {
+            CacheStats stats = cache.stats();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("Size", cache.estimatedSize());
+            json.put("Weight", cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L));
+            json.put("Maximum Weight", config.maximumWeight());
+            json.put("Time To Live Seconds", config.timeToLive() == null ? 0 : config.timeToLive().toSeconds());
+            json.put("Hits", stats.hitCount());
+            json.put("Misses", stats.missCount());
+            json.put("Hit Ratio", stats.hitRate());
+            json.put("Evictions", stats.evictionCount());
+            json.put("Evicted Weight", stats.evictionWeight());
+            return json;
+        }
+    }
+
+    /**
+     * Values cached against the sub keys of a key. Never changed once cached, so that its weight stays right.
+     */
+    private record Family(Map<String, Object> values) {
+        static final Family EMPTY = new Family(Map.of());
+
+        Object get(String subKey) {
+            return values.get(subKey);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        Family with(String subKey, Object value) {
+            Map<String, Object> copy = new HashMap<>(values);
+            copy.put(subKey, value);
+            return new Family(copy);
+        }
+
+        Family without(String subKey) {
+            if (!values.containsKey(subKey)) {
+                return this;
+            }
+            Map<String, Object> copy = new HashMap<>(values);
+            copy.remove(subKey);
+            return new Family(copy);
+        }
+    }
+}
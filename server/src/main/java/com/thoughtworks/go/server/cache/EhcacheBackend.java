@@ -0,0 +1,171 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.server.cache.GoCache.KeyList;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.Element;
+import net.sf.ehcache.config.CacheConfiguration;
+import net.sf.ehcache.event.CacheEventListener;
+import net.sf.ehcache.statistics.StatisticsGateway;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+import static org.apache.commons.lang3.StringUtils.splitByWholeSeparator;
+
+/**
+ * Understands keeping everything in a single Ehcache. Sub keys are stored as entries of their own, under a composite
+ * key, with the sub keys of every key kept in a {@link KeyList} cached against the key, which
+ * {@link CacheEvictionListener} keeps in sync as entries are evicted.
+ */
+class EhcacheBackend implements GoCacheBackend {
+    private final Ehcache ehCache;
+
+    EhcacheBackend(Ehcache ehCache) {
+        this.ehCache = ehCache;
+        ehCache.getCacheEventNotificationService().registerListener(new CacheEvictionListener(this));
+    }
+
+    @Override
+    public Object get(String key) {
+        Element element = ehCache.get(key);
+        return element == null ? null : element.getObjectValue();
+    }
+
+    @Override
+    public void put(String key, Object value) {
+        ehCache.put(new Element(key, value));
+    }
+
+    @Override
+    public boolean remove(String key) {
+        synchronized (GoCache.lockFor(key)) {
+            if (get(key) instanceof KeyList keyList) {
+                for (String subKey : keyList) {
+                    ehCache.remove(compositeKey(key, subKey));
+                }
+            }
+            return ehCache.remove(key);
+        }
+    }
+
+    @Override
+    public Object get(String key, String subKey) {
+        return get(compositeKey(key, subKey));
+    }
+
+    @Override
+    public void put(String key, String subKey, Object value) {
+        String compositeKey = compositeKey(key, subKey);
+        synchronized (GoCache.lockFor(key)) {
+            KeyList subKeys = (KeyList) get(key);
+            if (subKeys == null) {
+                subKeys = new KeyList();
+                put(key, subKeys);
+            }
+            subKeys.add(subKey);
+        }
+        put(compositeKey, value);
+    }
+
+    @Override
+    public void remove(String key, String subKey) {
+        synchronized (GoCache.lockFor(key)) {
+            KeyList subKeys = (KeyList) get(key);
+            if (subKeys == null) {
+                return;
+            }
+            subKeys.remove(subKey);
+            remove(compositeKey(key, subKey));
+        }
+    }
+
+    void removeAssociations(String key, Element element) {
+        if (element.getObjectValue() instanceof KeyList keyList) {
+            synchronized (GoCache.lockFor(key)) {
+                for (String subkey : keyList) {
+                    remove(compositeKey(key, subkey));
+                }
+            }
+        } else if (key.contains(GoCache.SUB_KEY_DELIMITER)) {
+            String[] parts = splitByWholeSeparator(key, GoCache.SUB_KEY_DELIMITER);
+            String parentKey = parts[0];
+            String childKey = parts[1];
+            synchronized (GoCache.lockFor(parentKey)) {
+                Element parent = ehCache.get(parentKey);
+                if (parent == null) {
+                    return;
+                }
+                KeyList subKeys = (KeyList) parent.getObjectValue();
+                subKeys.remove(childKey);
+            }
+        }
+    }
+
+    @Override
+    public boolean isKeyInCache(String key) {
+        return ehCache.isKeyInCache(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> getKeys() {
+        return ehCache.getKeys();
+    }
+
+    @Override
+    public void clear() {
+        ehCache.removeAll();
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+        Optional.ofNullable(ehCache.getCacheManager())
+            .ifPresent(cm -> cm.removeCache(ehCache.getName()));
+    }
+
+    @Override
+    public Map<String, Object> statistics() {
+        StatisticsGateway statistics = ehCache.getStatistics();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Size", statistics.getSize());
+        json.put("Hits", statistics.cacheHitCount());
+        json.put("Misses", statistics.cacheMissCount());
+        json.put("Evictions", statistics.cacheEvictedCount());
+        return Map.of(ehCache.getName(), json);
+    }
+
+    CacheConfiguration configuration() {
+        return ehCache.getCacheConfiguration();
+    }
+
+    void addListener(CacheEventListener listener) {
+        ehCache.getCacheEventNotificationService().registerListener(listener);
+    }
+
+    static String compositeKey(String key, String subKey) {
+        String concat = key + subKey;
+        if (concat.contains(GoCache.SUB_KEY_DELIMITER)) {
+            bomb(String.format("Base and sub key concatenation(key = %s, subkey = %s) must not have pattern %s", key, subKey, GoCache.SUB_KEY_DELIMITER));
+        }
+        return key + GoCache.SUB_KEY_DELIMITER + subKey;
+    }
+}
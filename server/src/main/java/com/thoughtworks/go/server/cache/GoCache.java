@@ -19,7 +19,6 @@ import com.thoughtworks.go.domain.NullUser;
 import com.thoughtworks.go.domain.PersistentObject;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import net.sf.ehcache.Ehcache;
-import net.sf.ehcache.Element;
 import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.event.CacheEventListener;
 import org.jetbrains.annotations.TestOnly;
@@ -31,10 +30,9 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 import javax.annotation.PreDestroy;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
-import static org.apache.commons.lang3.StringUtils.splitByWholeSeparator;
 
 /**
  * Understands storing and retrieving objects from an underlying LRU cache
@@ -42,34 +40,44 @@ import static org.apache.commons.lang3.StringUtils.splitByWholeSeparator;
 public class GoCache {
     @VisibleForTesting public static final String SUB_KEY_DELIMITER = "!_#$#_!";
     private static final Logger LOGGER = LoggerFactory.getLogger(GoCache.class);
+    private static final KeyLocks KEY_LOCKS = new KeyLocks();
     private final ThreadLocal<Boolean> doNotServeForTransaction = new ThreadLocal<>();
 
-    private final Ehcache ehCache;
+    private final GoCacheBackend backend;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
 
     @VisibleForTesting static class KeyList extends HashSet<String> { }
 
     @TestOnly
     public GoCache(GoCache goCache) {
-        this(goCache.ehCache, goCache.transactionSynchronizationManager);
+        this(goCache.backend, goCache.transactionSynchronizationManager);
     }
 
     public GoCache(Ehcache cache, TransactionSynchronizationManager transactionSynchronizationManager) {
-        this.ehCache = cache;
+        this(new EhcacheBackend(cache), transactionSynchronizationManager);
+    }
+
+    public GoCache(GoCacheBackend backend, TransactionSynchronizationManager transactionSynchronizationManager) {
+        this.backend = backend;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
-        ehCache.getCacheEventNotificationService().registerListener(new CacheEvictionListener(this));
     }
 
     @PreDestroy
     public void destroy() {
-        clear();
-        Optional.ofNullable(ehCache.getCacheManager())
-            .ifPresent(cm -> cm.removeCache(ehCache.getName()));
+        backend.destroy();
+    }
+
+    /**
+     * @return the monitor to synchronize on when reading and updating what is cached against the given key. Cache
+     * keys are not interned, so they must not be used as monitors themselves.
+     */
+    public static Object lockFor(String key) {
+        return KEY_LOCKS.lockFor(key);
     }
 
     @TestOnly
     public void addListener(CacheEventListener listener) {
-        ehCache.getCacheEventNotificationService().registerListener(listener);
+        ehcacheBackend().addListener(listener);
     }
 
     public void stopServingForTransaction() {
@@ -85,19 +93,25 @@ public class GoCache {
     }
 
     public void put(String key, Object value) {
+        if (skipPut(key, value)) {
+            return;
+        }
+        backend.put(key, value);
+    }
+
+    public List<String> getKeys() {
+        return backend.getKeys();
+    }
+
+    private boolean skipPut(String key, Object value) {
         logUnsavedPersistentObjectInteraction(value, "PersistentObject {} added to cache without an id.");
         if (transactionSynchronizationManager.isActualTransactionActive()) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("transaction active during cache put for {} = {}", key, value, new IllegalStateException());
             }
-            return;
+            return true;
         }
-        ehCache.put(new Element(key, value));
-    }
-
-    @SuppressWarnings("unchecked")
-    public List<String> getKeys() {
-        return ehCache.getKeys();
+        return false;
     }
 
     private void logUnsavedPersistentObjectInteraction(Object value, String message) {
@@ -121,15 +135,11 @@ public class GoCache {
         if (doNotServeForTransaction()) {
             return null;
         }
-        return getWithoutTransactionCheck(key);
+        return served(backend.get(key));
     }
 
-    private <T> T getWithoutTransactionCheck(String key) {
-        Element element = ehCache.get(key);
-        if (element == null) {
-            return null;
-        }
-        @SuppressWarnings("unchecked") T value = (T) element.getObjectValue();
+    private <T> T served(Object cached) {
+        @SuppressWarnings("unchecked") T value = (T) cached;
         logUnsavedPersistentObjectInteraction(value, "PersistentObject {} without an id served out of cache.");
         return value;
     }
@@ -139,36 +149,25 @@ public class GoCache {
     }
 
     public void clear() {
-        ehCache.removeAll();
+        backend.clear();
     }
 
     public boolean remove(String key) {
-        synchronized (key.intern()) {
-            Object value = getWithoutTransactionCheck(key);
-            if (value instanceof KeyList keyList) {
-                for (String subKey : keyList) {
-                    ehCache.remove(compositeKey(key, subKey));
-                }
-            }
-            return ehCache.remove(key);
-        }
+        return backend.remove(key);
     }
 
     public Object get(String key, String subKey) {
-        return get(compositeKey(key, subKey));
+        if (doNotServeForTransaction()) {
+            return null;
+        }
+        return served(backend.get(key, subKey));
     }
 
     public void put(String key, String subKey, Object value) {
-        KeyList subKeys;
-        synchronized (key.intern()) {
-            subKeys = subKeyFamily(key);
-            if (subKeys == null) {
-                subKeys = new KeyList();
-                put(key, subKeys);
-            }
-            subKeys.add(subKey);
+        if (skipPut(key, value)) {
+            return;
         }
-        put(compositeKey(key, subKey), value);
+        backend.put(key, subKey, value);
     }
 
     public void removeAll(List<String> keys) {
@@ -177,56 +176,30 @@ public class GoCache {
         }
     }
 
-    public void removeAssociations(String key, Element element) {
-        if (element.getObjectValue() instanceof KeyList keyList) {
-            synchronized (key.intern()) {
-                for (String subkey : keyList) {
-                    remove(compositeKey(key, subkey));
-                }
-            }
-        } else if (key.contains(SUB_KEY_DELIMITER)) {
-            String[] parts = splitByWholeSeparator(key, SUB_KEY_DELIMITER);
-            String parentKey = parts[0];
-            String childKey = parts[1];
-            synchronized (parentKey.intern()) {
-                Element parent = ehCache.get(parentKey);
-                if (parent == null) {
-                    return;
-                }
-                KeyList subKeys = (KeyList) parent.getObjectValue();
-                subKeys.remove(childKey);
-            }
-        }
-    }
-
     public boolean isKeyInCache(Object key) {
-        return ehCache.isKeyInCache(key);
+        return key instanceof String stringKey && backend.isKeyInCache(stringKey);
     }
 
-    private KeyList subKeyFamily(String parentKey) {
-        return get(parentKey);
+    public void remove(String key, String subKey) {
+        backend.remove(key, subKey);
     }
 
-    private String compositeKey(String key, String subKey) {
-        String concat = key + subKey;
-        if (concat.contains(SUB_KEY_DELIMITER)) {
-            bomb(String.format("Base and sub key concatenation(key = %s, subkey = %s) must not have pattern %s", key, subKey, SUB_KEY_DELIMITER));
-        }
-        return key + SUB_KEY_DELIMITER + subKey;
+    /**
+     * @return sizes and hit, miss and eviction counts of the cache (or of each of its regions)
+     */
+    public Map<String, Object> statistics() {
+        return backend.statistics();
     }
 
-    public void remove(String key, String subKey) {
-        synchronized (key.intern()) {
-            KeyList subKeys = subKeyFamily(key);
-            if (subKeys == null) {
-                return;
-            }
-            subKeys.remove(subKey);
-            remove(compositeKey(key, subKey));
-        }
+    @TestOnly
+    public CacheConfiguration configuration() {
+        return ehcacheBackend().configuration();
     }
 
-    public CacheConfiguration configuration() {
-        return ehCache.getCacheConfiguration();
+    private EhcacheBackend ehcacheBackend() {
+        if (backend instanceof EhcacheBackend ehcacheBackend) {
+            return ehcacheBackend;
+        }
+        throw new UnsupportedOperationException("Not backed by Ehcache: " + backend.getClass().getSimpleName());
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Understands where {@link GoCache} keeps what is cached. Values can be cached against a key, or against a sub key
+ * of a key, in which case removing (or evicting) the key removes every value cached against its sub keys.
+ * Transactions and persistent objects are taken care of by {@link GoCache}, backends only store values.
+ */
+public interface GoCacheBackend {
+    Object get(String key);
+
+    void put(String key, Object value);
+
+    boolean remove(String key);
+
+    Object get(String key, String subKey);
+
+    void put(String key, String subKey, Object value);
+
+    void remove(String key, String subKey);
+
+    boolean isKeyInCache(String key);
+
+    List<String> getKeys();
+
+    void clear();
+
+    void destroy();
+
+    /**
+     * @return sizes and hit, miss and eviction counts, for the support API
+     */
+    Map<String, Object> statistics();
+}
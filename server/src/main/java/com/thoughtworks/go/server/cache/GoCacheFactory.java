@@ -15,7 +15,10 @@
  */
 package com.thoughtworks.go.server.cache;
 
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.thoughtworks.go.server.cache.CaffeineBackend.RegionConfig;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import com.thoughtworks.go.util.SystemEnvironment;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.config.CacheConfiguration;
@@ -26,16 +29,28 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.thoughtworks.go.util.SystemEnvironment.GO_CACHE_BACKEND;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_CACHE_REGIONS;
+
 @Component
 public class GoCacheFactory {
 
     private final CacheConfiguration cacheConfiguration;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
+    private final SystemEnvironment systemEnvironment;
+    private final int maxElementsInMemory;
 
     public GoCacheFactory(TransactionSynchronizationManager transactionSynchronizationManager,
+                          SystemEnvironment systemEnvironment,
                           @Value("${cruise.cache.elements.limit}") int maxElementsInMemory,
                           @Value("${cruise.cache.is.eternal}") boolean eternal) {
         this.transactionSynchronizationManager = transactionSynchronizationManager;
+        this.systemEnvironment = systemEnvironment;
+        this.maxElementsInMemory = maxElementsInMemory;
         cacheConfiguration = new CacheConfiguration("goCache", maxElementsInMemory)
                 .persistence(new PersistenceConfiguration().strategy(PersistenceConfiguration.Strategy.NONE))
                 .eternal(eternal)
@@ -44,10 +59,28 @@ public class GoCacheFactory {
 
     @Bean(name = "goCache")
     public GoCache createCache() {
+        if ("caffeine".equalsIgnoreCase(systemEnvironment.get(GO_CACHE_BACKEND))) {
+            return new GoCache(new CaffeineBackend(regionConfig(CaffeineBackend.DEFAULT_REGION), regionConfigs(), Ticker.systemTicker()), transactionSynchronizationManager);
+        }
         CacheManager cacheManager = CacheManager.newInstance(new Configuration().name(getClass().getName()));
         Cache cache = new Cache(cacheConfiguration);
         cacheManager.addCache(cache);
         return new GoCache(cache, transactionSynchronizationManager);
     }
 
+    private List<RegionConfig> regionConfigs() {
+        return Arrays.stream(systemEnvironment.get(GO_CACHE_REGIONS).split(","))
+            .map(String::trim)
+            .filter(name -> !name.isEmpty())
+            .map(this::regionConfig)
+            .toList();
+    }
+
+    private RegionConfig regionConfig(String name) {
+        String prefix = "go.cache.region." + name;
+        long maxEntries = Long.parseLong(systemEnvironment.getPropertyImpl(prefix + ".max.entries", String.valueOf(maxElementsInMemory)));
+        long timeToLiveSeconds = Long.parseLong(systemEnvironment.getPropertyImpl(prefix + ".ttl.seconds", "0"));
+        return new RegionConfig(name, maxEntries, Duration.ofSeconds(timeToLiveSeconds));
+    }
+
 }
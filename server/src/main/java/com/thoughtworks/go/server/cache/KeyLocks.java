@@ -0,0 +1,77 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Understands handing out one monitor per cache key, so that callers can synchronize on a key without interning it.
+ * Every caller asking for a lock on equal keys gets the same monitor for as long as someone holds on to it; monitors
+ * nobody holds on to anymore are garbage collected and their entries dropped.
+ * <p>
+ * Unlike a fixed table of striped locks, two different keys never share a monitor, so code locking one key while
+ * holding the lock on another (which the DAOs do) cannot deadlock against code locking them the other way around.
+ */
+public class KeyLocks {
+    private final ConcurrentMap<Object, LockRef> locks = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    public Object lockFor(Object key) {
+        expungeCollectedLocks();
+        while (true) {
+            LockRef ref = locks.get(key);
+            if (ref != null) {
+                Object lock = ref.get();
+                if (lock != null) {
+                    return lock;
+                }
+                Object newLock = new Object();
+                if (locks.replace(key, ref, new LockRef(key, newLock, collected))) {
+                    return newLock;
+                }
+            } else {
+                Object newLock = new Object();
+                if (locks.putIfAbsent(key, new LockRef(key, newLock, collected)) == null) {
+                    return newLock;
+                }
+            }
+        }
+    }
+
+    int size() {
+        expungeCollectedLocks();
+        return locks.size();
+    }
+
+    private void expungeCollectedLocks() {
+        LockRef ref;
+        while ((ref = (LockRef) collected.poll()) != null) {
+            locks.remove(ref.key, ref);
+        }
+    }
+
+    private static class LockRef extends WeakReference<Object> {
+        private final Object key;
+
+        LockRef(Object key, Object lock, ReferenceQueue<Object> queue) {
+            super(lock, queue);
+            this.key = key;
+        }
+    }
+}
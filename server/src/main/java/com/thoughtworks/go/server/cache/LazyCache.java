@@ -27,6 +27,7 @@ import java.util.function.Supplier;
 public class LazyCache {
     private final Ehcache ehCache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
+    private final KeyLocks keyLocks = new KeyLocks();
 
     public LazyCache(Ehcache ehCache, TransactionSynchronizationManager transactionSynchronizationManager) {
         this.ehCache = ehCache;
@@ -41,7 +42,7 @@ public class LazyCache {
             return (T) element.getObjectValue();
         }
 
-        synchronized (key.intern()) {
+        synchronized (keyLocks.lockFor(key)) {
             element = ehCache.get(key);
             if (element != null) {
                 return (T) element.getObjectValue();
@@ -17,24 +17,71 @@ package com.thoughtworks.go.server.cache;
 
 import com.thoughtworks.go.server.service.ArtifactsDirHolder;
 import com.thoughtworks.go.server.web.ArtifactFolder;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.ZipUtil;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
 import java.util.zip.Deflater;
 
+import static com.thoughtworks.go.util.SystemEnvironment.*;
+
+/**
+ * Understands zipping artifact folders to be downloaded, and keeping the zips around for whoever downloads the same
+ * folder next. Zips that have not been downloaded for a while are evicted, as are the least recently downloaded ones
+ * once the cache grows beyond its size limit. When streaming, folders are zipped into the response instead.
+ */
 @Component
 public class ZipArtifactCache extends ArtifactCache<ArtifactFolder> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZipArtifactCache.class);
+    private static final String ZIP = ".zip";
+
     private final ZipUtil zipUtil;
+    private final long maxSizeInBytes;
+    private final long maxAgeInMillis;
+    private final boolean streaming;
+    private final LongAdder evictedZips = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
 
     @Autowired
-    public ZipArtifactCache(ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil) {
-        super(artifactsDirHolder);
+    public ZipArtifactCache(ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, SystemEnvironment systemEnvironment) {
+        this(artifactsDirHolder, zipUtil, systemEnvironment.get(GO_ARTIFACT_ZIP_CACHE_THREADS),
+            systemEnvironment.get(GO_ARTIFACT_ZIP_CACHE_MAX_SIZE_IN_MB) * 1024 * 1024,
+            systemEnvironment.get(GO_ARTIFACT_ZIP_CACHE_MAX_AGE_IN_MILLIS),
+            systemEnvironment.get(GO_ARTIFACT_ZIP_STREAMING));
+    }
+
+    @VisibleForTesting
+    ZipArtifactCache(ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, int cacheCreatorThreads, long maxSizeInBytes, long maxAgeInMillis, boolean streaming) {
+        super(artifactsDirHolder, cacheCreatorThreads);
         this.zipUtil = zipUtil;
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.maxAgeInMillis = maxAgeInMillis;
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
     }
 
     private static String removeTrailingSlash(String s) {
@@ -51,7 +98,7 @@ public class ZipArtifactCache extends ArtifactCache<ArtifactFolder> {
         File cachedTempZip = zipToTempFile(cachedZip);
         cachedTempZip.getParentFile().mkdirs();
         try {
-            zipUtil.zip(originalFolder, cachedTempZip, Deflater.DEFAULT_COMPRESSION);
+            zipUtil.zipWithoutRecompressing(originalFolder, cachedTempZip, Deflater.DEFAULT_COMPRESSION);
         } catch (IOException e) {
             cachedTempZip.delete();
             throw e;
@@ -70,4 +117,82 @@ public class ZipArtifactCache extends ArtifactCache<ArtifactFolder> {
         String relativize = FilenameUtils.separatorsToUnix(artifactFolder.getRootFolder().getPath()).replaceFirst(FilenameUtils.separatorsToUnix(root.getPath()), CACHE_ARTIFACTS_FOLDER);
         return new File(root, removeTrailingSlash(relativize) + ".zip");
     }
+
+    @Override
+    protected void cacheUsed(ArtifactFolder artifactFolder) {
+        // the modification time of a cached zip doubles as when it was last downloaded
+        cachedFile(artifactFolder).setLastModified(System.currentTimeMillis());
+    }
+
+    /**
+     * Deletes cached zips which have not been downloaded for longer than the maximum age, and then the least recently
+     * downloaded ones until the cache fits in its maximum size.
+     */
+    @SuppressWarnings("unused") // used via Spring
+    public void evict() {
+        List<CachedZip> zips;
+        try {
+            zips = cachedZips();
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.warn("Failed to list zipped artifacts in the cache", e);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long totalSize = zips.stream().mapToLong(CachedZip::size).sum();
+        zips.sort(Comparator.comparingLong(CachedZip::lastUsed));
+        for (CachedZip zip : zips) {
+            if (totalSize <= maxSizeInBytes && now - zip.lastUsed() <= maxAgeInMillis) {
+                break;
+            }
+            try {
+                if (Files.deleteIfExists(zip.path())) {
+                    evictedZips.increment();
+                    evictedBytes.add(zip.size());
+                }
+                totalSize -= zip.size();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to evict zipped artifact {} from the cache", zip.path(), e);
+            }
+        }
+    }
+
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Hits", hits());
+        json.put("Misses", misses());
+        json.put("Hit ratio", hitRatio());
+        json.put("Zips being created", pendingCacheFiles.size());
+        json.put("Zips evicted", evictedZips.sum());
+        json.put("Bytes evicted", evictedBytes.sum());
+        return json;
+    }
+
+    private List<CachedZip> cachedZips() throws IOException {
+        Path cacheRoot = new File(artifactsDirHolder.getArtifactsDir(), CACHE_ARTIFACTS_FOLDER).toPath();
+        List<CachedZip> zips = new ArrayList<>();
+        if (!Files.isDirectory(cacheRoot)) {
+            return zips;
+        }
+        try (Stream<Path> files = Files.walk(cacheRoot)) {
+            for (Iterator<Path> iterator = files.iterator(); iterator.hasNext(); ) {
+                Path file = iterator.next();
+                if (!file.getFileName().toString().endsWith(ZIP)) {
+                    continue;
+                }
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        zips.add(new CachedZip(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                    }
+                } catch (NoSuchFileException e) {
+                    // purged along with the artifacts of its stage
+                }
+            }
+        }
+        return zips;
+    }
+
+    private record CachedZip(Path path, long size, long lastUsed) {
+    }
 }
@@ -51,6 +51,7 @@ import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import static com.thoughtworks.go.util.ArtifactUtil.*;
 import static com.thoughtworks.go.util.GoConstants.*;
@@ -158,7 +159,7 @@ public class ArtifactsController {
                 return FileModelAndView.invalidUploadRequest();
             }
 
-            boolean success = saveFile(convertedAttempt, artifact, multipartFile, shouldUnzipStream(multipartFile));
+            boolean success = saveFile(convertedAttempt, artifact, multipartFile, shouldUnzipStream(multipartFile), jobIdentifier);
 
             if (!success) {
                 return FileModelAndView.errorSavingFile(filePath);
@@ -191,9 +192,9 @@ public class ArtifactsController {
         return true;
     }
 
-    private boolean saveFile(int convertedAttempt, File artifact, MultipartFile multipartFile, boolean shouldUnzip) throws IOException {
+    private boolean saveFile(int convertedAttempt, File artifact, MultipartFile multipartFile, boolean shouldUnzip, JobIdentifier jobIdentifier) throws IOException, IllegalArtifactLocationException {
         try (InputStream inputStream = multipartFile.getInputStream()) {
-            return artifactsService.saveFile(artifact, inputStream, shouldUnzip, convertedAttempt);
+            return artifactsService.saveFile(artifact, inputStream, shouldUnzip, convertedAttempt, jobIdentifier);
         }
     }
 
@@ -224,7 +225,7 @@ public class ArtifactsController {
         }
 
         if (isConsoleOutput(filePath)) {
-            return putConsoleOutput(jobIdentifier, request.getInputStream());
+            return putConsoleOutput(jobIdentifier, consoleOutputStream(request));
         } else {
             return putArtifact(jobIdentifier, filePath, request.getInputStream());
         }
@@ -310,6 +311,14 @@ public class ArtifactsController {
         return request.getFile(CHECKSUM_MULTIPART_FILENAME);
     }
 
+    private InputStream consoleOutputStream(HttpServletRequest request) throws IOException {
+        // agents compress larger chunks of console output
+        if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+            return new GZIPInputStream(request.getInputStream());
+        }
+        return request.getInputStream();
+    }
+
     private ModelAndView putConsoleOutput(final JobIdentifier jobIdentifier, final InputStream inputStream) throws IllegalArtifactLocationException {
         File consoleLogFile = consoleService.consoleLogFile(jobIdentifier);
         boolean updated = consoleService.appendToConsoleLogIoSafe(consoleLogFile, inputStream);
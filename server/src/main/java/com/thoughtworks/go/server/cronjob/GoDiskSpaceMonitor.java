@@ -25,6 +25,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+
 @Component
 public class GoDiskSpaceMonitor {
     private static final Logger LOG = LoggerFactory.getLogger(GoDiskSpaceMonitor.class);
@@ -40,6 +42,7 @@ public class GoDiskSpaceMonitor {
     private volatile boolean lowOnDisk;
     private DatabaseDiskSpaceFullChecker databaseDiskSpaceFullChecker;
     private ArtifactsDiskSpaceFullChecker artifactsDiskSpaceFullChecker;
+    private ArtifactsDiskCleaner artifactsDiskCleaner;
 
     @Autowired
     public GoDiskSpaceMonitor(GoConfigService goConfigService,
@@ -67,13 +70,14 @@ public class GoDiskSpaceMonitor {
     public void initialize() {
         databaseDiskSpaceFullChecker = new DatabaseDiskSpaceFullChecker(emailSender, systemEnvironment, goConfigService, systemDiskSpaceChecker);
         artifactsDiskSpaceFullChecker = new ArtifactsDiskSpaceFullChecker(systemEnvironment, emailSender, goConfigService, systemDiskSpaceChecker);
+        artifactsDiskCleaner = new ArtifactsDiskCleaner(systemEnvironment, goConfigService, systemDiskSpaceChecker, artifactsService, stageService, configDbStateRepository);
 
         checkers = new DiskSpaceChecker[]{
                 artifactsDiskSpaceFullChecker,
                 new ArtifactsDiskSpaceWarningChecker(systemEnvironment, emailSender, goConfigService, systemDiskSpaceChecker, serverHealthService),
                 databaseDiskSpaceFullChecker,
                 new DatabaseDiskSpaceWarningChecker(emailSender, systemEnvironment, goConfigService, systemDiskSpaceChecker, serverHealthService),
-                new ArtifactsDiskCleaner(systemEnvironment, goConfigService, systemDiskSpaceChecker, artifactsService, stageService, configDbStateRepository)};
+                artifactsDiskCleaner};
     }
 
     //Note: This method is called from a Spring timer task
@@ -100,6 +104,10 @@ public class GoDiskSpaceMonitor {
         return lowOnDisk;
     }
 
+    public Map<String, Object> artifactPurgeStatistics() {
+        return artifactsDiskCleaner == null ? Map.of() : artifactsDiskCleaner.statistics();
+    }
+
     public void checkIfOutOfDisk(OperationResult result) {
         lowOnDisk(false, result, databaseDiskSpaceFullChecker, artifactsDiskSpaceFullChecker);
     }
@@ -38,6 +38,7 @@ import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.config.Configuration;
 import net.sf.ehcache.config.PersistenceConfiguration;
 import net.sf.ehcache.store.MemoryStoreEvictionPolicy;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.jetbrains.annotations.VisibleForTesting;
 import org.slf4j.Logger;
@@ -56,6 +57,7 @@ import static com.thoughtworks.go.util.IBatisUtil.arguments;
 @Component
 public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobInstanceDao, JobStatusListener {
     private static final Logger LOG = LoggerFactory.getLogger(JobInstanceSqlMapDao.class);
+    private static final int BATCH_SIZE_SCHEDULED_PLANS = 500;
     private final LazyCache latestCompletedCache;
     private final CacheKeyGenerator cacheKeyGenerator;
     private final Cache buildDurationCache;
@@ -109,7 +111,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
     @Override
     public JobInstance buildByIdWithTransitions(long buildInstanceId) {
         String cacheKey = cacheKeyForJobInstanceWithTransitions(buildInstanceId);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             JobInstance instance = goCache.get(cacheKey);
             if (instance == null) {
                 instance = job(buildInstanceId, "buildByIdWithTransitions");
@@ -195,6 +197,10 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
     private void loadJobPlanAssociatedEntities(DefaultJobPlan plan) {
         plan.setArtifactPlans(artifactPlanRepository.findByBuildId(plan.getJobId()));
         plan.setResources(resourceRepository.findByBuildId(plan.getJobId()));
+        loadJobPlanVariablesAndAgentMetadata(plan);
+    }
+
+    private void loadJobPlanVariablesAndAgentMetadata(DefaultJobPlan plan) {
         plan.setVariables(environmentVariableDao.load(plan.getJobId(), EnvironmentVariableType.Job));
         plan.setTriggerVariables(environmentVariableDao.load(plan.getPipelineId(), EnvironmentVariableType.Trigger));
         JobAgentMetadata jobAgentMetadata = jobAgentMetadataDao.load(plan.getJobId());
@@ -222,7 +228,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
         JobIdentifier jobIdentifier = goCache.get(key);
         if (jobIdentifier == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 jobIdentifier = goCache.get(key);
                 if (jobIdentifier == null) {
                     Map<String, Object> params =
@@ -298,14 +304,14 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                 @Override
                 public void afterCommit() {
                     // Methods not extracted in order to make synchronization visible.
-                    synchronized (cacheKeyForJobPlan(jobInstance.getId())) {
+                    synchronized (GoCache.lockFor(cacheKeyForJobPlan(jobInstance.getId()))) {
                         removeCachedJobPlan(jobInstance);
                     }
-                    synchronized (cacheKeyForActiveJobIds()) {
+                    synchronized (GoCache.lockFor(cacheKeyForActiveJobIds())) {
                         goCache.remove(cacheKeyForActiveJobIds());
                     }
                     String activeJobKey = cacheKeyForActiveJob(jobInstance.getId());
-                    synchronized (activeJobKey) {
+                    synchronized (GoCache.lockFor(activeJobKey)) {
                         goCache.remove(activeJobKey);
                     }
                     removeCachedJobInstance(jobInstance);
@@ -321,7 +327,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
     private void removeCachedJobInstance(JobInstance jobInstance) {
         String cacheKeyOfJob = cacheKeyForJobInstanceWithTransitions(jobInstance.getId());
-        synchronized (cacheKeyOfJob) {
+        synchronized (GoCache.lockFor(cacheKeyOfJob)) {
             goCache.remove(cacheKeyOfJob);
         }
     }
@@ -401,35 +407,65 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
         return cacheKeyGenerator.generate("latestCompletedJobs", pipelineName.toLowerCase(), stageName.toLowerCase(), jobConfigName.toLowerCase(), count);
     }
 
+    /**
+     * Plans of jobs that are still scheduled are not loaded again, and those of jobs scheduled since the last call are
+     * loaded together. The same plans are handed out every time, so they must not be changed.
+     */
     @Override
     public List<JobPlan> orderedScheduledBuilds() {
         List<Long> jobIds = getSqlMapClientTemplate().queryForList("scheduledPlanIds");
 
-        List<JobPlan> plans = new ArrayList<>();
+        List<JobPlan> plans = new ArrayList<>(jobIds.size());
+        List<Long> jobIdsToLoad = new ArrayList<>();
+        for (Long jobId : jobIds) {
+            JobPlan jobPlan = goCache.get(cacheKeyForJobPlan(jobId));
+            if (jobPlan == null) {
+                jobIdsToLoad.add(jobId);
+            }
+            plans.add(jobPlan);
+        }
+        if (jobIdsToLoad.isEmpty()) {
+            return plans;
+        }
+
+        Map<Long, JobPlan> loadedPlans = loadScheduledPlans(jobIdsToLoad);
+        ListIterator<JobPlan> iterator = plans.listIterator();
         for (Long jobId : jobIds) {
+            if (iterator.next() != null) {
+                continue;
+            }
+            JobPlan jobPlan = loadedPlans.get(jobId);
+            if (jobPlan == null) {
+                iterator.remove();
+                continue;
+            }
             String cacheKey = cacheKeyForJobPlan(jobId);
-            synchronized (cacheKey) {
-                JobPlan jobPlan = goCache.get(cacheKey);
-                if (jobPlan == null) {
-                    jobPlan = _loadJobPlan(jobId);
-                }
-                if (jobPlan != null) {
-                    jobPlan = cloner.deepClone(jobPlan);
-                    goCache.put(cacheKey, jobPlan);
-                    plans.add(jobPlan);
-                }
+            synchronized (GoCache.lockFor(cacheKey)) {
+                goCache.put(cacheKey, jobPlan);
             }
+            iterator.set(jobPlan);
         }
         return plans;
     }
 
-    private JobPlan _loadJobPlan(Long jobId) {
-        DefaultJobPlan jobPlan = getSqlMapClientTemplate().queryForObject("scheduledPlan", arguments("id", jobId).asMap());
-        if (jobPlan == null) {
-            return null;
+    private Map<Long, JobPlan> loadScheduledPlans(List<Long> jobIds) {
+        Map<Long, JobPlan> plans = new HashMap<>();
+        for (List<Long> batch : ListUtils.partition(jobIds, BATCH_SIZE_SCHEDULED_PLANS)) {
+            List<DefaultJobPlan> batchPlans = getSqlMapClientTemplate().queryForList("scheduledPlans", arguments("ids", batch).asMap());
+            if (batchPlans.isEmpty()) {
+                continue;
+            }
+            List<Long> loadedIds = batchPlans.stream().map(DefaultJobPlan::getJobId).toList();
+            Map<Long, List<ArtifactPlan>> artifactPlans = artifactPlanRepository.findByBuildIds(loadedIds);
+            Map<Long, Resources> resources = resourceRepository.findByBuildIds(loadedIds);
+            for (DefaultJobPlan plan : batchPlans) {
+                plan.setArtifactPlans(artifactPlans.getOrDefault(plan.getJobId(), new ArrayList<>()));
+                plan.setResources(resources.getOrDefault(plan.getJobId(), new Resources()));
+                loadJobPlanVariablesAndAgentMetadata(plan);
+                plans.put(plan.getJobId(), plan);
+            }
         }
-        loadJobPlanAssociatedEntities(jobPlan);
-        return jobPlan;
+        return plans;
     }
 
     @VisibleForTesting
@@ -202,7 +202,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForBuildCauseByNameAndCounter(name, counter);
         BuildCause buildCause = goCache.get(cacheKey);
         if (buildCause == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 buildCause = goCache.get(cacheKey);
                 if (buildCause == null) {
                     Pipeline pipeline = findPipelineByNameAndCounter(name, counter);
@@ -226,7 +226,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         if (stage.passed()) {
             StageIdentifier identifier = stage.getIdentifier();
             String cacheKey = latestSuccessfulStageCacheKey(identifier.getPipelineName(), identifier.getStageName());
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 goCache.put(cacheKey, identifier);
             }
         }
@@ -336,7 +336,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPipelineHistoryByNameAndCounter(pipelineName, pipelineCounter);
         PipelineInstanceModel instanceModel = goCache.get(cacheKey);
         if (instanceModel == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 instanceModel = goCache.get(cacheKey);
                 if (instanceModel == null) {
                     instanceModel = getSqlMapClientTemplate().queryForObject("getPipelineHistoryByNameAndCounter",
@@ -425,7 +425,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = pipelineHistoryCacheKey(id);
         PipelineInstanceModel result = goCache.get(cacheKey);
         if (result == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 result = goCache.get(cacheKey);
                 if (result == null) {
                     result = getSqlMapClientTemplate().queryForObject("getPipelineHistoryById", arguments("id", id).asMap());
@@ -513,7 +513,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
             String cacheKey = cacheKeyForLatestPipelineIdByPipelineName(pipelineName);
             List<Long> ids = goCache.get(cacheKey);
             if (ids == null) {
-                synchronized (cacheKey) {
+                synchronized (GoCache.lockFor(cacheKey)) {
                     ids = goCache.get(cacheKey);
                     if (ids == null) {
                         ids = fetchPipelineIds(pipelineName, limit, offset);
@@ -597,7 +597,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     public void pause(String pipelineName, String pauseCause, String pauseBy) {
         String cacheKey = cacheKeyForPauseState(pipelineName);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             Map<String, Object> args = arguments("pipelineName", pipelineName)
                 .and("pauseCause", pauseCause)
                 .and("pauseBy", pauseBy)
@@ -615,7 +615,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     public void unpause(String pipelineName) {
         String cacheKey = cacheKeyForPauseState(pipelineName);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             Map<String, Object> args = arguments("pipelineName", pipelineName)
                 .and("pauseCause", null)
                 .and("pauseBy", null)
@@ -630,7 +630,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPauseState(pipelineName);
         PipelinePauseInfo result = goCache.get(cacheKey);
         if (result == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 result = goCache.get(cacheKey);
                 if (result == null) {
                     result = getSqlMapClientTemplate().queryForObject("getPipelinePauseState", pipelineName);
@@ -655,7 +655,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForLatestPassedStage(pipelineId, stage);
         StageIdentifier result = goCache.get(cacheKey);
         if (result == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 result = goCache.get(cacheKey);
                 if (result == null) {
                     result = getSqlMapClientTemplate().queryForObject("latestPassedStageForPipelineId", arguments("id", pipelineId).and("stage", stage).asMap());
@@ -673,7 +673,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, dependencyPipelineIdentifier.getName(), dependencyPipelineIdentifier.getCounter());
         List<PipelineIdentifier> pipelineIdentifiers = goCache.get(cacheKey);
         if (pipelineIdentifiers == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 pipelineIdentifiers = goCache.get(cacheKey);
                 if (pipelineIdentifiers == null) {
                     pipelineIdentifiers = getSqlMapClientTemplate().queryForList("pipelineInstancesTriggeredOutOfDependencyMaterial",
@@ -694,7 +694,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         String cacheKey = cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, materialInstance.getFingerprint(), revision);
         List<PipelineIdentifier> pipelineIdentifiers = goCache.get(cacheKey);
         if (pipelineIdentifiers == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 pipelineIdentifiers = goCache.get(cacheKey);
                 if (pipelineIdentifiers == null) {
                     pipelineIdentifiers = getSqlMapClientTemplate().queryForList("pipelineInstancesTriggeredOffOfMaterialRevision",
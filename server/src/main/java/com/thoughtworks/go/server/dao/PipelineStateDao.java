@@ -71,7 +71,7 @@ public class PipelineStateDao extends SqlMapClientDaoSupport implements StageSta
     }
 
     public void lockPipeline(final Pipeline pipeline, AfterCompletionCallback... callbacks) {
-        synchronized (pipelineLockStateCacheKey(pipeline.getName())) {
+        synchronized (GoCache.lockFor(pipelineLockStateCacheKey(pipeline.getName()))) {
             transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                 @Override
                 protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -112,7 +112,7 @@ public class PipelineStateDao extends SqlMapClientDaoSupport implements StageSta
     }
 
     public void unlockPipeline(final String pipelineName, AfterCompletionCallback... afterCompletionCallbacks) {
-        synchronized (pipelineLockStateCacheKey(pipelineName)) {
+        synchronized (GoCache.lockFor(pipelineLockStateCacheKey(pipelineName))) {
             transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                 @Override
                 protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -151,7 +151,7 @@ public class PipelineStateDao extends SqlMapClientDaoSupport implements StageSta
         if (pipelineState != null) {
             return pipelineState.equals(PipelineState.NOT_LOCKED) ? null : pipelineState;
         }
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             pipelineState = goCache.get(cacheKey);
             if (pipelineState != null) {
                 return pipelineState.equals(PipelineState.NOT_LOCKED) ? null : pipelineState;
@@ -52,7 +52,7 @@ public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
     @Override
     public void saveOrUpdate(final Plugin plugin) {
         String cacheKey = cacheKeyForPluginSettings(plugin.getPluginId());
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             transactionTemplate.execute(new TransactionCallbackWithoutResult() {
                 @Override
                 protected void doInTransactionWithoutResult(TransactionStatus status) {
@@ -70,7 +70,7 @@ public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
         if (plugin != null) {
             return plugin;
         }
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             plugin = goCache.get(cacheKey);
             if (plugin != null) {
                 return plugin;
@@ -125,7 +125,7 @@ public class PluginSqlMapDao extends HibernateDaoSupport implements PluginDao {
             return;
         }
 
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             Plugin found = this.findPlugin(pluginId);
             if (found instanceof NullPlugin) {
                 return;
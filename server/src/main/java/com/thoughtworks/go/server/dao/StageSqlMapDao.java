@@ -193,7 +193,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     public Stage findStageWithIdentifier(StageIdentifier identifier) {
         String cacheKey = cacheKeyForStageIdentifier(identifier);
         String cacheKeyForIdentifiers = cacheKeyForListOfStageIdentifiers(identifier);
-        synchronized (cacheKeyForIdentifiers) {
+        synchronized (GoCache.lockFor(cacheKeyForIdentifiers)) {
             Stage stage = (Stage) goCache.get(cacheKeyForIdentifiers, cacheKey);
             if (stage == null) {
                 IBatisUtil.IBatisArgument argument = IBatisUtil.arguments("pipelineName", identifier.getPipelineName())
@@ -368,7 +368,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public Stages getAllRunsOfStageForPipelineInstance(String pipelineName, int pipelineCounter, String stageName) {
         String cacheKeyForAllStages = cacheKeyForAllStageOfPipeline(pipelineName, pipelineCounter, stageName);
-        synchronized (cacheKeyForAllStages) {
+        synchronized (GoCache.lockFor(cacheKeyForAllStages)) {
             List<Stage> stages = goCache.get(cacheKeyForAllStages);
             if (stages == null) {
                 Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("pipelineCounter", pipelineCounter).and("stageName", stageName).asMap();
@@ -400,7 +400,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         String key = cacheKeyForStageCountForGraph(pipelineName, stageName);
         Integer total = goCache.get(key);
         if (total == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("stageName", stageName).asMap();
                 total = getSqlMapClientTemplate().queryForObject("getTotalStageCountForChart", toGet);
                 goCache.put(key, total);
@@ -414,7 +414,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         String key = cacheKeyForLatestStageInstances();
         List<StageIdentity> stageIdentities = goCache.get(key);
         if (stageIdentities == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 stageIdentities = goCache.get(key);
                 if (stageIdentities == null) {
                     stageIdentities = getSqlMapClientTemplate().queryForList("latestStageInstances");
@@ -558,7 +558,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
 
     @VisibleForTesting
     String cacheKeyForStageOffset(Stage stage) {
-        return cacheKeyGenerator.generate("stageOffsetMap", stage.getIdentifier().getPipelineName(), stage.getIdentifier().getStageName()).intern();
+        return cacheKeyGenerator.generate("stageOffsetMap", stage.getIdentifier().getPipelineName(), stage.getIdentifier().getStageName());
     }
 
     @Override
@@ -602,7 +602,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         if (id != null) {
             return id;
         }
-        synchronized (key) {
+        synchronized (GoCache.lockFor(key)) {
             id = goCache.get(key);
             if (id != null) {
                 return id;
@@ -631,7 +631,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         Stage stage = goCache.get(key);
 
         if (stage == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 stage = goCache.get(key);
                 if (stage == null) {
                     stage = getSqlMapClientTemplate().queryForObject("getStageById", id);
@@ -653,7 +653,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public boolean isStageActive(String pipelineName, String stageName) {
         String cacheKey = cacheKeyForPipelineAndStage(pipelineName, stageName);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             Boolean isActive = goCache.get(cacheKey);
             if (isActive == null) {
                 final Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("stageName", stageName).asMap();
@@ -693,7 +693,7 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         String key = cacheKeyForPipelineAndCounter(pipelineName, counter);
         List<Stage> stages = goCache.get(key);
         if (stages == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 stages = goCache.get(key);
                 if (stages == null) {
                     Map<String, Object> params = arguments("pipelineName", pipelineName).and("pipelineCounter", counter).asMap();
@@ -741,9 +741,8 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         return cacheKeyGenerator.generate("totalStageCountForChart", pipelineName, stageName);
     }
 
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter") // keys here have always been internred by CacheKeyGenerator
     private void removeFromCache(String key) {
-        synchronized (key) {
+        synchronized (GoCache.lockFor(key)) {
             goCache.remove(key);
         }
     }
@@ -21,10 +21,13 @@ import com.thoughtworks.go.server.persistence.PipelineRepository;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import org.jetbrains.annotations.TestOnly;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
+import javax.annotation.PreDestroy;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
@@ -35,22 +38,31 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  */
 @Component
 public class PipelineTimeline {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineTimeline.class);
     private final PipelineRepository pipelineRepository;
     private final TransactionTemplate transactionTemplate;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
+    private final PipelineTimelineSnapshot snapshot;
 
     private final Map<CaseInsensitiveString, NavigableSet<PipelineTimelineEntry>> naturalOrderPmm = new HashMap<>();
     private final Map<CaseInsensitiveString, List<PipelineTimelineEntry>> scheduleOrderPmm = new HashMap<>();
+    private final Map<CaseInsensitiveString, PipelineTimelineIdIndex> naturalOrderIdIndex = new HashMap<>();
     private final ReadWriteLock naturalOrderLock = new ReentrantReadWriteLock();
     private final ReadWriteLock scheduleOrderLock = new ReentrantReadWriteLock();
 
     private final AtomicLong maximumId = new AtomicLong(-1);
 
-    @Autowired
+    @TestOnly
     public PipelineTimeline(PipelineRepository pipelineRepository, TransactionTemplate transactionTemplate, TransactionSynchronizationManager transactionSynchronizationManager) {
+        this(pipelineRepository, transactionTemplate, transactionSynchronizationManager, null);
+    }
+
+    @Autowired
+    public PipelineTimeline(PipelineRepository pipelineRepository, TransactionTemplate transactionTemplate, TransactionSynchronizationManager transactionSynchronizationManager, PipelineTimelineSnapshot snapshot) {
         this.pipelineRepository = pipelineRepository;
         this.transactionTemplate = transactionTemplate;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
+        this.snapshot = snapshot;
     }
 
     @TestOnly
@@ -70,6 +82,7 @@ public class PipelineTimeline {
     public void add(PipelineTimelineEntry pipelineTimelineEntry) {
         CaseInsensitiveString pipelineName = new CaseInsensitiveString(pipelineTimelineEntry.getPipelineName());
         initializedNaturalOrderCollection(pipelineName).add(pipelineTimelineEntry);
+        initializedIdIndex(pipelineName).add(pipelineTimelineEntry);
         initializedScheduleOrderCollection(pipelineName).add(pipelineTimelineEntry);
         pipelineTimelineEntry.setInsertedBefore(naturalOrderAfter(pipelineTimelineEntry));
         pipelineTimelineEntry.setInsertedAfter(naturalOrderBefore(pipelineTimelineEntry));
@@ -101,6 +114,7 @@ public class PipelineTimeline {
                     private void rollbackNewEntryFor(PipelineTimelineEntry entry) {
                         CaseInsensitiveString pipelineName = new CaseInsensitiveString(entry.getPipelineName());
                         initializedNaturalOrderCollection(pipelineName).remove(entry);
+                        initializedIdIndex(pipelineName).remove(entry);
                         initializedScheduleOrderCollection(pipelineName).remove(entry);
                     }
 
@@ -129,17 +143,77 @@ public class PipelineTimeline {
     }
 
     /**
-     * This is called on system init and is called by Spring. Hence, this is not done in a transaction. At any other time, the method update should be used
+     * This is called on system init and is called by Spring. Hence, this is not done in a transaction. At any other time, the method update should be used.
+     * The timeline is restored from its snapshot, if there is one that matches the database, and only pipelines run since are loaded from the database.
      */
     public void updateTimelineOnInit() {
         acquireAllWriteLocks();
         try {
-            pipelineRepository.updatePipelineTimeline(this, new ArrayList<>());
+            long startedAt = System.currentTimeMillis();
+            int restored = restoreFromSnapshot();
+            long restoredAt = System.currentTimeMillis();
+            List<PipelineTimelineEntry> loaded = new ArrayList<>();
+            pipelineRepository.updatePipelineTimeline(this, loaded);
+            long loadedAt = System.currentTimeMillis();
+            LOGGER.info("Pipeline timeline initialized in {} ms, restored {} entries from snapshot in {} ms and loaded {} entries from the database in {} ms",
+                loadedAt - startedAt, restored, restoredAt - startedAt, loaded.size(), loadedAt - restoredAt);
+            if (!loaded.isEmpty()) {
+                saveSnapshot();
+            }
         } finally {
             releaseAllWriteLocks();
         }
     }
 
+    private int restoreFromSnapshot() {
+        if (snapshot == null) {
+            return 0;
+        }
+        List<PipelineTimelineEntry> entries = snapshot.load();
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        PipelineTimelineEntry last = entries.get(entries.size() - 1);
+        if (!pipelineRepository.isPipelineRun(last.getId(), last.getPipelineName(), last.getCounter())) {
+            LOGGER.warn("Pipeline timeline snapshot does not match the database, loading the whole timeline from the database");
+            return 0;
+        }
+        try {
+            for (PipelineTimelineEntry entry : entries) {
+                add(entry);
+            }
+            return entries.size();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Pipeline timeline snapshot is inconsistent, loading the whole timeline from the database", e);
+            naturalOrderPmm.clear();
+            naturalOrderIdIndex.clear();
+            scheduleOrderPmm.clear();
+            maximumId.set(-1);
+            return 0;
+        }
+    }
+
+    /**
+     * Saves the timeline, so that the next time the server starts it does not need to be loaded from the database.
+     */
+    @PreDestroy
+    public void saveSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+        List<PipelineTimelineEntry> entries = new ArrayList<>();
+        naturalOrderLock.readLock().lock();
+        try {
+            for (NavigableSet<PipelineTimelineEntry> pipelineEntries : naturalOrderPmm.values()) {
+                entries.addAll(pipelineEntries);
+            }
+        } finally {
+            naturalOrderLock.readLock().unlock();
+        }
+        entries.sort(Comparator.comparingLong(PipelineTimelineEntry::getId));
+        snapshot.save(entries);
+    }
+
     /**
      * @param id           for the pipeline
      * @param pipelineName name for the pipeline
@@ -148,16 +222,11 @@ public class PipelineTimeline {
     public PipelineTimelineEntry runBefore(long id, final CaseInsensitiveString pipelineName) {
         naturalOrderLock.readLock().lock();
         try {
-            Set<PipelineTimelineEntry> treeForPipeline = naturalOrderPmm.get(pipelineName);
-            if (treeForPipeline == null) {
+            PipelineTimelineIdIndex idIndex = naturalOrderIdIndex.get(pipelineName);
+            if (idIndex == null) {
                 return null;
             }
-            for (PipelineTimelineEntry pipelineTimelineEntry : treeForPipeline) {
-                if (id == pipelineTimelineEntry.getId()) {
-                    return pipelineTimelineEntry.insertedAfter();
-                }
-            }
-            throw new RuntimeException("Cannot find pipeline with id: " + id);
+            return findById(idIndex, id).insertedAfter();
         } finally {
             naturalOrderLock.readLock().unlock();
         }
@@ -171,21 +240,24 @@ public class PipelineTimeline {
     public PipelineTimelineEntry runAfter(long id, final CaseInsensitiveString pipelineName) {
         naturalOrderLock.readLock().lock();
         try {
-            Set<PipelineTimelineEntry> treeForPipeline = naturalOrderPmm.get(pipelineName);
-            if (treeForPipeline == null) {
+            PipelineTimelineIdIndex idIndex = naturalOrderIdIndex.get(pipelineName);
+            if (idIndex == null) {
                 return null;
             }
-            for (PipelineTimelineEntry pipelineTimelineEntry : treeForPipeline) {
-                if (id == pipelineTimelineEntry.getId()) {
-                    return pipelineTimelineEntry.insertedBefore();
-                }
-            }
-            throw new RuntimeException("Cannot find pipeline with id: " + id);
+            return findById(idIndex, id).insertedBefore();
         } finally {
             naturalOrderLock.readLock().unlock();
         }
     }
 
+    private static PipelineTimelineEntry findById(PipelineTimelineIdIndex idIndex, long id) {
+        PipelineTimelineEntry entry = idIndex.find(id);
+        if (entry == null) {
+            throw new RuntimeException("Cannot find pipeline with id: " + id);
+        }
+        return entry;
+    }
+
     private void updateMaximumId(long id) {
         maximumId.accumulateAndGet(id, Math::max);
     }
@@ -194,6 +266,10 @@ public class PipelineTimeline {
         return naturalOrderPmm.computeIfAbsent(pipelineName, k -> new TreeSet<>());
     }
 
+    private PipelineTimelineIdIndex initializedIdIndex(final CaseInsensitiveString pipelineName) {
+        return naturalOrderIdIndex.computeIfAbsent(pipelineName, k -> new PipelineTimelineIdIndex());
+    }
+
     private List<PipelineTimelineEntry> initializedScheduleOrderCollection(final CaseInsensitiveString pipelineName) {
         return scheduleOrderPmm.computeIfAbsent(pipelineName, k -> new ArrayList<>());
     }
@@ -224,6 +300,7 @@ public class PipelineTimeline {
         acquireAllWriteLocks();
         try {
             naturalOrderPmm.clear();
+            naturalOrderIdIndex.clear();
             scheduleOrderPmm.clear();
         } finally {
             releaseAllWriteLocks();
@@ -0,0 +1,79 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+
+import java.util.Arrays;
+
+/**
+ * Understands finding the timeline entries of a pipeline by id, in logarithmic time. Ids are kept sorted in a
+ * primitive array alongside their entries, rather than boxed in a map, since there is one entry for every run a
+ * pipeline ever had. Entries are almost always added in increasing order of id, which only appends.
+ */
+class PipelineTimelineIdIndex {
+    private long[] ids = new long[16];
+    private PipelineTimelineEntry[] entries = new PipelineTimelineEntry[16];
+    private int size;
+
+    void add(PipelineTimelineEntry entry) {
+        long id = entry.getId();
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size] = id;
+            entries[size++] = entry;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            entries[index] = entry;
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(entries, insertAt, entries, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        entries[insertAt] = entry;
+        size++;
+    }
+
+    void remove(PipelineTimelineEntry entry) {
+        int index = Arrays.binarySearch(ids, 0, size, entry.getId());
+        if (index < 0 || entries[index] != entry) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+        entries[--size] = null;
+    }
+
+    PipelineTimelineEntry find(long id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        return index < 0 ? null : entries[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+    }
+}
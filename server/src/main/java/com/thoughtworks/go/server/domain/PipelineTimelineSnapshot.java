@@ -0,0 +1,201 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import static com.thoughtworks.go.util.SystemEnvironment.GO_PIPELINE_TIMELINE_SNAPSHOT;
+
+/**
+ * Understands keeping a copy of the pipeline timeline on disk, so that the server does not have to load the whole
+ * timeline from the database every time it starts. Entries are written in order of id, along with the largest id in
+ * the snapshot, so that they can be added to the timeline in the same order as they would be from the database, and
+ * only pipelines run since the snapshot was taken need to be loaded from the database. Pipeline names and material
+ * fingerprints are written once and referred to by index, since every entry repeats them.
+ */
+@Component
+public class PipelineTimelineSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PipelineTimelineSnapshot.class);
+    private static final int MAGIC = 0x47505453;
+    private static final int VERSION = 1;
+    private static final int MAX_STRING_BYTES = 1024 * 1024;
+
+    private final File file;
+
+    @Autowired
+    public PipelineTimelineSnapshot(SystemEnvironment systemEnvironment) {
+        this(systemEnvironment.get(GO_PIPELINE_TIMELINE_SNAPSHOT).isBlank() ? null : new File(systemEnvironment.get(GO_PIPELINE_TIMELINE_SNAPSHOT)));
+    }
+
+    @VisibleForTesting
+    PipelineTimelineSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the entries in the snapshot, in order of id, or nothing if there is no snapshot or it cannot be read
+     */
+    public List<PipelineTimelineEntry> load() {
+        if (file == null || !file.isFile()) {
+            return List.of();
+        }
+        try (CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024), new CRC32());
+             DataInputStream in = new DataInputStream(checked)) {
+            List<PipelineTimelineEntry> entries = read(in);
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum) {
+                throw new IOException("checksum mismatch");
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring pipeline timeline snapshot [{}] which could not be read: {}", file, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * @param entries every entry in the timeline, in order of id
+     */
+    public void save(List<PipelineTimelineEntry> entries) {
+        if (file == null) {
+            return;
+        }
+        File parent = file.getAbsoluteFile().getParentFile();
+        File temp = new File(parent, file.getName() + ".tmp");
+        try {
+            Files.createDirectories(parent.toPath());
+            try (CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 64 * 1024), new CRC32());
+                 DataOutputStream out = new DataOutputStream(checked)) {
+                write(out, entries);
+                out.flush();
+                out.writeLong(checked.getChecksum().getValue());
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not save pipeline timeline snapshot to [{}]", file, e);
+            temp.delete();
+        }
+    }
+
+    private static void write(DataOutputStream out, List<PipelineTimelineEntry> entries) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (PipelineTimelineEntry entry : entries) {
+            strings.putIfAbsent(entry.getPipelineName(), strings.size());
+            for (String fingerprint : entry.revisions().keySet()) {
+                strings.putIfAbsent(fingerprint, strings.size());
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(entries.isEmpty() ? -1 : entries.get(entries.size() - 1).getId());
+        out.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            writeString(out, string);
+        }
+        out.writeInt(entries.size());
+        for (PipelineTimelineEntry entry : entries) {
+            out.writeInt(strings.get(entry.getPipelineName()));
+            out.writeLong(entry.getId());
+            out.writeInt(entry.getCounter());
+            out.writeDouble(entry.naturalOrder());
+            out.writeInt(entry.revisions().size());
+            for (Map.Entry<String, List<PipelineTimelineEntry.Revision>> revisions : entry.revisions().entrySet()) {
+                out.writeInt(strings.get(revisions.getKey()));
+                out.writeInt(revisions.getValue().size());
+                for (PipelineTimelineEntry.Revision revision : revisions.getValue()) {
+                    out.writeLong(revision.date().getTime());
+                    writeString(out, revision.revision());
+                    out.writeLong(revision.id());
+                }
+            }
+        }
+    }
+
+    private static List<PipelineTimelineEntry> read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("not a pipeline timeline snapshot");
+        }
+        long maximumId = in.readLong();
+        String[] strings = new String[Math.max(0, in.readInt())];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(in);
+        }
+        int count = in.readInt();
+        List<PipelineTimelineEntry> entries = new ArrayList<>(Math.min(count, 64 * 1024));
+        long previousId = -1;
+        for (int i = 0; i < count; i++) {
+            String pipelineName = strings[in.readInt()];
+            long id = in.readLong();
+            if (id <= previousId) {
+                throw new IOException("entries are not in order of id");
+            }
+            previousId = id;
+            PipelineTimelineEntry entry = new PipelineTimelineEntry(pipelineName, id, in.readInt(), new HashMap<>(), in.readDouble());
+            int fingerprints = in.readInt();
+            for (int f = 0; f < fingerprints; f++) {
+                String fingerprint = strings[in.readInt()];
+                int revisions = in.readInt();
+                for (int r = 0; r < revisions; r++) {
+                    entry.addRevision(fingerprint, new PipelineTimelineEntry.Revision(new Date(in.readLong()), readString(in), in.readLong()));
+                }
+            }
+            entries.add(entry);
+        }
+        if (maximumId != previousId) {
+            throw new IOException("largest id does not match the entries");
+        }
+        return entries;
+    }
+
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("string of " + length + " bytes is too long");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
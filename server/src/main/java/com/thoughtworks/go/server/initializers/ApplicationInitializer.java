@@ -29,6 +29,7 @@ import com.thoughtworks.go.server.domain.PipelineTimeline;
 import com.thoughtworks.go.server.materials.DependencyMaterialUpdateNotifier;
 import com.thoughtworks.go.server.materials.MaterialUpdateService;
 import com.thoughtworks.go.server.materials.SCMMaterialSource;
+import com.thoughtworks.go.server.messaging.scheduling.ScheduledWorkNotifier;
 import com.thoughtworks.go.server.newsecurity.filters.InvalidateAuthenticationOnSecurityConfigChangeFilter;
 import com.thoughtworks.go.server.service.*;
 import com.thoughtworks.go.server.service.support.ResourceMonitoring;
@@ -76,6 +77,7 @@ public class ApplicationInitializer implements ApplicationListener<ContextRefres
     @Autowired private FeatureToggleService featureToggleService;
     @Autowired private CcTrayActivityListener ccTrayActivityListener;
     @Autowired private GoDashboardActivityListener dashboardActivityListener;
+    @Autowired private ScheduledWorkNotifier scheduledWorkNotifier;
     @Autowired private EntityHashingService entityHashingService;
     @Autowired private DependencyMaterialUpdateNotifier dependencyMaterialUpdateNotifier;
     @Autowired private SCMMaterialSource scmMaterialSource;
@@ -138,6 +140,7 @@ public class ApplicationInitializer implements ApplicationListener<ContextRefres
             railsAssetsService.initialize();
             ccTrayActivityListener.initialize();
             dashboardActivityListener.initialize();
+            scheduledWorkNotifier.initialize();
 
             ServletHelper.init();
             // initialize static accessors
@@ -152,6 +155,7 @@ public class ApplicationInitializer implements ApplicationListener<ContextRefres
             if (this.daemonsEnabled) {
                 dashboardActivityListener.start();
                 ccTrayActivityListener.start();
+                scheduledWorkNotifier.start();
             }
         } catch (Throwable throwable) {
             // Raise a Spring exception to ensure that existing beans are disposed of cleanly
@@ -56,6 +56,15 @@ public class BuildRepositoryMessageProducer implements BuildRepositoryRemote {
         return work;
     }
 
+    public Work getWork(AgentRuntimeInfo runtimeInfo, long maxWaitMillis) {
+        long startTime = System.currentTimeMillis();
+
+        Work work = workAssignments.getWork(runtimeInfo, maxWaitMillis);
+
+        workAssignmentPerformanceLogger.retrievedWorkForAgent(runtimeInfo, work, startTime, System.currentTimeMillis());
+        return work;
+    }
+
     @Override
     public void reportCurrentStatus(AgentRuntimeInfo agentRuntimeInfo, JobIdentifier jobIdentifier, JobState jobState) {
         buildRepository.reportCurrentStatus(agentRuntimeInfo, jobIdentifier, jobState);
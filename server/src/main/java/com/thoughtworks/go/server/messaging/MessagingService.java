@@ -15,18 +15,22 @@
  */
 package com.thoughtworks.go.server.messaging;
 
-import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
+import java.util.Map;
 
 public interface MessagingService<T extends GoMessage> {
     MessageSender createSender(String topic);
 
-    JMSMessageListenerAdapter<T> addListener(String topic, GoMessageListener<T> listener);
+    MessageListenerAdapter addListener(String topic, GoMessageListener<T> listener);
 
     void removeQueue(String queueName);
 
     void stop() throws Exception;
-    JMSMessageListenerAdapter<T> addQueueListener(String topic, GoMessageListener<T> listener);
+    MessageListenerAdapter addQueueListener(String topic, GoMessageListener<T> listener);
 
     MessageSender createQueueSender(String queueName);
 
+    default Map<String, Object> statistics() {
+        return Map.of();
+    }
+
 }
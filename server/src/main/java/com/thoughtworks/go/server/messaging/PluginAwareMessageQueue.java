@@ -15,8 +15,6 @@
  */
 package com.thoughtworks.go.server.messaging;
 
-import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
-import jakarta.jms.JMSException;
 import org.jetbrains.annotations.TestOnly;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,7 +26,7 @@ import java.util.stream.IntStream;
 public class PluginAwareMessageQueue<T extends PluginAwareMessage> extends GoMessageQueue<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(PluginAwareMessageQueue.class.getName());
 
-    private final List<JMSMessageListenerAdapter<T>> jmsListeners = new CopyOnWriteArrayList<>();
+    private final List<MessageListenerAdapter> jmsListeners = new CopyOnWriteArrayList<>();
 
     public PluginAwareMessageQueue(MessagingService<GoMessage> messaging, String queueName, int numberOfListeners, ListenerFactory<T> listenerFactory) {
         super(messaging, queueName);
@@ -39,10 +37,10 @@ public class PluginAwareMessageQueue<T extends PluginAwareMessage> extends GoMes
     @Override
     public void stop() {
         super.stop();
-        for (JMSMessageListenerAdapter<T> jmsListener : jmsListeners) {
+        for (MessageListenerAdapter jmsListener : jmsListeners) {
             try {
                 jmsListener.stop();
-            } catch (JMSException e) {
+            } catch (Exception e) {
                 LOGGER.warn("Unable to stop listener for {} {}, ERROR: {}", queueName, jmsListener.listenerThreadName(), e.getMessage(), e);
             }
         }
@@ -65,7 +65,10 @@ public abstract class PluginAwareMessageQueueHandler<T extends PluginAwareMessag
         }
     }
 
-    public void post(T message, long timeToLive) {
+    /**
+     * @return true if the message was posted to the queue of its plugin
+     */
+    public boolean post(T message, long timeToLive) {
         String pluginId = message.pluginId();
         try {
             if (queues.containsKey(pluginId)) {
@@ -73,6 +76,7 @@ public abstract class PluginAwareMessageQueueHandler<T extends PluginAwareMessag
                 LOGGER.debug("Posting message {} to queue {}", message, queue.queueName);
                 queue.post(message, timeToLive);
                 LOGGER.debug("Message {} posted to queue {}", message, queue.queueName);
+                return true;
             } else {
                 LOGGER.error("Could not find a queue for {}", pluginId);
                 //TODO: Add server health error
@@ -80,5 +84,6 @@ public abstract class PluginAwareMessageQueueHandler<T extends PluginAwareMessag
         } catch (Exception e) {
             LOGGER.error("Failed while posting to queue for plugin {}. The error was {}", pluginId, e.getMessage(), e);
         }
+        return false;
     }
 }
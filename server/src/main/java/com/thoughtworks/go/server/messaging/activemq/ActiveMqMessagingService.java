@@ -32,15 +32,11 @@ import org.apache.activemq.command.ActiveMQQueue;
 import org.apache.activemq.util.BrokerSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 
-import javax.annotation.PreDestroy;
 import java.util.List;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
-@Component
 public class ActiveMqMessagingService implements MessagingService<GoMessage> {
     private static final Logger LOG = LoggerFactory.getLogger(ActiveMqMessagingService.class);
 
@@ -52,7 +48,6 @@ public class ActiveMqMessagingService implements MessagingService<GoMessage> {
     private final SystemEnvironment systemEnvironment;
     private final ServerHealthService serverHealthService;
 
-    @Autowired
     public ActiveMqMessagingService(DaemonThreadStatsCollector daemonThreadStatsCollector, SystemEnvironment systemEnvironment, ServerHealthService serverHealthService) throws Exception {
         this.daemonThreadStatsCollector = daemonThreadStatsCollector;
         this.systemEnvironment = systemEnvironment;
@@ -138,7 +133,6 @@ public class ActiveMqMessagingService implements MessagingService<GoMessage> {
         }
     }
 
-    @PreDestroy
     @Override
     public void stop() throws Exception {
         try {
@@ -0,0 +1,63 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Understands how many messages went through a queue or topic, and how long they waited for and took to handle.
+ */
+class DestinationMetrics {
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder handlingNanos = new LongAdder();
+
+    void posted() {
+        posted.increment();
+    }
+
+    void expired() {
+        expired.increment();
+    }
+
+    void delivered(long waitedNanos, long handledNanos) {
+        delivered.increment();
+        waitNanos.add(waitedNanos);
+        maxWaitNanos.accumulate(waitedNanos);
+        handlingNanos.add(handledNanos);
+    }
+
+    Map<String, Object> statistics(long depth) {
+        long deliveredCount = delivered.sum();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Depth", depth);
+        json.put("Posted", posted.sum());
+        json.put("Delivered", deliveredCount);
+        json.put("Expired", expired.sum());
+        json.put("Average Wait Millis", deliveredCount == 0 ? 0 : NANOSECONDS.toMillis(waitNanos.sum() / deliveredCount));
+        json.put("Max Wait Millis", NANOSECONDS.toMillis(maxWaitNanos.get()));
+        json.put("Average Handling Millis", deliveredCount == 0 ? 0 : NANOSECONDS.toMillis(handlingNanos.sum() / deliveredCount));
+        return json;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessage;
+
+/**
+ * Understands a message waiting to be handed to a listener, and when it was posted.
+ *
+ * @param expiresAt when the message should no longer be handed to listeners, in millis since the epoch, or 0 if never
+ */
+record Envelope(GoMessage message, long postedAtNanos, long expiresAt) {
+    static Envelope of(GoMessage message, long timeToLive) {
+        return new Envelope(message, System.nanoTime(), timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0);
+    }
+
+    boolean hasExpired() {
+        return expiresAt != 0 && System.currentTimeMillis() > expiresAt;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessage;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.MessageListenerAdapter;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InMemoryMessageListenerAdapter<T extends GoMessage> implements MessageListenerAdapter, Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(InMemoryMessageListenerAdapter.class);
+    private static final AtomicInteger LISTENER_COUNT = new AtomicInteger();
+    private static final long POLL_MILLIS = 500;
+
+    private final InMemoryQueue queue;
+    private final GoMessageListener<T> listener;
+    private final DaemonThreadStatsCollector daemonThreadStatsCollector;
+    private final Runnable onStop;
+    private final Thread thread;
+    private volatile boolean stopped;
+
+    InMemoryMessageListenerAdapter(InMemoryQueue queue, GoMessageListener<T> listener, DaemonThreadStatsCollector daemonThreadStatsCollector,
+                                   boolean virtualThread, Runnable onStop) {
+        this.queue = queue;
+        this.listener = listener;
+        this.daemonThreadStatsCollector = daemonThreadStatsCollector;
+        this.onStop = onStop;
+
+        String name = String.format("MessageListener-%s-%d", listener.getClass().getSimpleName(), LISTENER_COUNT.incrementAndGet());
+        thread = (virtualThread ? Thread.ofVirtual().name(name) : Thread.ofPlatform().name(name).daemon()).start(this);
+    }
+
+    @Override
+    public void run() {
+        while (!stopped && !queue.isClosed()) {
+            try {
+                Envelope envelope = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (envelope != null) {
+                    handle(envelope);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        LOG.debug("Message consumer was closed.");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handle(Envelope envelope) {
+        long startedAt = System.nanoTime();
+        try {
+            daemonThreadStatsCollector.captureStats(Thread.currentThread().threadId());
+            listener.onMessage((T) envelope.message());
+        } catch (Exception e) {
+            LOG.error("Exception thrown in message handling by listener {}", listener, e);
+        } finally {
+            daemonThreadStatsCollector.clearStats(Thread.currentThread().threadId());
+            queue.metrics().delivered(startedAt - envelope.postedAtNanos(), System.nanoTime() - startedAt);
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        onStop.run();
+    }
+
+    @Override
+    public String listenerThreadName() {
+        return thread.getName();
+    }
+}
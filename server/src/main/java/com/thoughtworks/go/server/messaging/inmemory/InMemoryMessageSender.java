@@ -0,0 +1,39 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessage;
+import com.thoughtworks.go.server.messaging.MessageSender;
+
+import java.util.function.Supplier;
+
+public class InMemoryMessageSender implements MessageSender {
+    private final Supplier<InMemoryDestination> destination;
+
+    InMemoryMessageSender(Supplier<InMemoryDestination> destination) {
+        this.destination = destination;
+    }
+
+    @Override
+    public void sendMessage(GoMessage goMessage) {
+        sendMessage(goMessage, 0);
+    }
+
+    @Override
+    public void sendMessage(GoMessage goMessage, long timeToLive) {
+        destination.get().post(goMessage, timeToLive);
+    }
+}
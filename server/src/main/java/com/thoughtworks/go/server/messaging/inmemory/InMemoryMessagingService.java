@@ -0,0 +1,114 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessage;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.MessageListenerAdapter;
+import com.thoughtworks.go.server.messaging.MessageSender;
+import com.thoughtworks.go.server.messaging.MessagingService;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.jetbrains.annotations.VisibleForTesting;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.thoughtworks.go.util.SystemEnvironment.GO_MESSAGING_QUEUE_CAPACITY;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_MESSAGING_VIRTUAL_THREADS;
+
+/**
+ * Understands handing messages from senders to listeners within the server, without a broker in between. Messages are
+ * handed over as they were posted rather than as copies, so the listeners of a topic share them and must not change
+ * them. Each listener takes messages on a thread of its own, which is a daemon platform thread unless configured to be virtual.
+ * <p>
+ * Like the queues and topics of the embedded broker, they are created when first used, and a queue which has been
+ * removed is created again when posted to.
+ */
+public class InMemoryMessagingService implements MessagingService<GoMessage> {
+    private final ConcurrentMap<String, InMemoryQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, InMemoryTopic> topics = new ConcurrentHashMap<>();
+    private final DaemonThreadStatsCollector daemonThreadStatsCollector;
+    private final int capacity;
+    private final boolean virtualThreads;
+
+    public InMemoryMessagingService(DaemonThreadStatsCollector daemonThreadStatsCollector, SystemEnvironment systemEnvironment) {
+        this(daemonThreadStatsCollector, systemEnvironment.get(GO_MESSAGING_QUEUE_CAPACITY), systemEnvironment.get(GO_MESSAGING_VIRTUAL_THREADS));
+    }
+
+    @VisibleForTesting
+    InMemoryMessagingService(DaemonThreadStatsCollector daemonThreadStatsCollector, int capacity, boolean virtualThreads) {
+        this.daemonThreadStatsCollector = daemonThreadStatsCollector;
+        this.capacity = capacity;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Override
+    public MessageSender createSender(String topic) {
+        return new InMemoryMessageSender(() -> topic(topic));
+    }
+
+    @Override
+    public MessageListenerAdapter addListener(String topic, GoMessageListener<GoMessage> listener) {
+        InMemoryTopic destination = topic(topic);
+        InMemoryQueue subscription = destination.subscribe();
+        return new InMemoryMessageListenerAdapter<>(subscription, listener, daemonThreadStatsCollector, virtualThreads, () -> destination.unsubscribe(subscription));
+    }
+
+    @Override
+    public MessageSender createQueueSender(String queueName) {
+        return new InMemoryMessageSender(() -> queue(queueName));
+    }
+
+    @Override
+    public MessageListenerAdapter addQueueListener(String queueName, GoMessageListener<GoMessage> listener) {
+        return new InMemoryMessageListenerAdapter<>(queue(queueName), listener, daemonThreadStatsCollector, virtualThreads, () -> {});
+    }
+
+    @Override
+    public void removeQueue(String queueName) {
+        InMemoryQueue queue = queues.remove(queueName);
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Override
+    public void stop() {
+        queues.values().forEach(InMemoryQueue::close);
+        queues.clear();
+        topics.values().forEach(InMemoryTopic::close);
+        topics.clear();
+    }
+
+    @Override
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new TreeMap<>();
+        queues.forEach((name, queue) -> json.put("Queue " + name, queue.statistics()));
+        topics.forEach((name, topic) -> json.put("Topic " + name, topic.statistics()));
+        return json;
+    }
+
+    private InMemoryQueue queue(String queueName) {
+        return queues.computeIfAbsent(queueName, name -> new InMemoryQueue(capacity, new DestinationMetrics()));
+    }
+
+    private InMemoryTopic topic(String topicName) {
+        return topics.computeIfAbsent(topicName, name -> new InMemoryTopic(capacity));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessage;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.util.ExceptionUtils.bomb;
+
+/**
+ * Understands holding on to messages until one of the listeners competing for them takes them. Once it holds as many
+ * messages as it can, posting waits for a listener to take one. Topics give each of their listeners a queue of its own.
+ */
+class InMemoryQueue implements InMemoryDestination {
+    private final BlockingQueue<Envelope> messages;
+    private final DestinationMetrics metrics;
+    private volatile boolean closed;
+
+    InMemoryQueue(int capacity, DestinationMetrics metrics) {
+        this.messages = new LinkedBlockingQueue<>(Math.max(1, capacity));
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void post(GoMessage message, long timeToLive) {
+        metrics.posted();
+        put(Envelope.of(message, timeToLive));
+    }
+
+    void put(Envelope envelope) {
+        try {
+            while (!closed && !messages.offer(envelope, 1, TimeUnit.SECONDS)) {
+                // wait for a listener to catch up, unless the queue goes away meanwhile
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw bomb(e);
+        }
+    }
+
+    /**
+     * @return the next message which has not expired, or null if there was none within the timeout
+     */
+    Envelope poll(long timeout, TimeUnit unit) throws InterruptedException {
+        Envelope envelope = messages.poll(timeout, unit);
+        while (envelope != null && envelope.hasExpired()) {
+            metrics.expired();
+            envelope = messages.poll();
+        }
+        return envelope;
+    }
+
+    DestinationMetrics metrics() {
+        return metrics;
+    }
+
+    int depth() {
+        return messages.size();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public Map<String, Object> statistics() {
+        return metrics.statistics(depth());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        messages.clear();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Understands handing every message posted to it to each of its listeners. Like a non-durable JMS topic, listeners only
+ * get messages posted after they started listening.
+ */
+class InMemoryTopic implements InMemoryDestination {
+    private final List<InMemoryQueue> subscriptions = new CopyOnWriteArrayList<>();
+    private final DestinationMetrics metrics = new DestinationMetrics();
+    private final int capacity;
+
+    InMemoryTopic(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void post(GoMessage message, long timeToLive) {
+        metrics.posted();
+        Envelope envelope = Envelope.of(message, timeToLive);
+        for (InMemoryQueue subscription : subscriptions) {
+            subscription.put(envelope);
+        }
+    }
+
+    InMemoryQueue subscribe() {
+        InMemoryQueue subscription = new InMemoryQueue(capacity, metrics);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(InMemoryQueue subscription) {
+        subscriptions.remove(subscription);
+        subscription.close();
+    }
+
+    @Override
+    public Map<String, Object> statistics() {
+        return metrics.statistics(subscriptions.stream().mapToLong(InMemoryQueue::depth).sum());
+    }
+
+    @Override
+    public void close() {
+        subscriptions.forEach(InMemoryQueue::close);
+        subscriptions.clear();
+    }
+}
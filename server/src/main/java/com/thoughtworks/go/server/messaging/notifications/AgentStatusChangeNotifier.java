@@ -21,6 +21,7 @@ import com.thoughtworks.go.plugin.access.notification.NotificationPluginRegistry
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION;
 import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION;
 
 @Component
@@ -42,6 +43,7 @@ public class AgentStatusChangeNotifier implements AgentStatusChangeListener {
     }
 
     private boolean isAnyPluginInterestedInAgentStatus() {
-        return notificationPluginRegistry.isAnyPluginInterestedIn(AGENT_STATUS_CHANGE_NOTIFICATION);
+        return notificationPluginRegistry.isAnyPluginInterestedIn(AGENT_STATUS_CHANGE_NOTIFICATION)
+            || notificationPluginRegistry.isAnyPluginInterestedIn(AGENT_STATUS_BATCH_NOTIFICATION);
     }
 }
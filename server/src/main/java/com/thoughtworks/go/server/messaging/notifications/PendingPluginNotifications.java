@@ -0,0 +1,141 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.notifications;
+
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Understands notifications which are waiting to be delivered to a plugin, so that notifications about the same thing
+ * can be coalesced into the one already waiting rather than each being queued up and delivered on its own. Only one
+ * message is queued for everything waiting under a key; whichever listener takes that message delivers the latest of
+ * what is waiting. What has waited longer than the time to live of the message is assumed to have been dropped along
+ * with it, and is replaced rather than added to.
+ * <p>
+ * Also understands how far behind delivery to each plugin is.
+ */
+@Component
+public class PendingPluginNotifications {
+    private final ConcurrentMap<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PluginStatistics> statisticsByPlugin = new ConcurrentHashMap<>();
+
+    private record Key(String pluginId, String requestName, String key) {
+    }
+
+    private record Pending(long since, LinkedHashMap<String, Serializable> latestById) {
+        boolean hasExpired(long now, long timeToLive) {
+            return timeToLive > 0 && now - since > timeToLive;
+        }
+    }
+
+    /**
+     * @param key  what to coalesce under, notifications under the same key are delivered together
+     * @param id   what the notification is about, only the latest notification about it is delivered
+     * @return true if nothing was waiting under the key, so a message needs to be queued for it
+     */
+    public boolean add(String pluginId, String requestName, String key, String id, Serializable data, long timeToLive) {
+        long now = System.currentTimeMillis();
+        boolean[] needsMessage = {false};
+        pending.compute(new Key(pluginId, requestName, key), (k, waiting) -> {
+            if (waiting == null || waiting.hasExpired(now, timeToLive)) {
+                needsMessage[0] = true;
+                waiting = new Pending(now, new LinkedHashMap<>());
+            }
+            waiting.latestById().put(id, data);
+            return waiting;
+        });
+        PluginStatistics statistics = statisticsFor(pluginId);
+        (needsMessage[0] ? statistics.queued : statistics.coalesced).increment();
+        return needsMessage[0];
+    }
+
+    /**
+     * @return the latest notifications waiting under the key, in the order they first came in, or nothing if they were
+     * already taken
+     */
+    public List<Serializable> take(String pluginId, String requestName, String key) {
+        Pending waiting = pending.remove(new Key(pluginId, requestName, key));
+        return waiting == null ? List.of() : List.copyOf(waiting.latestById().values());
+    }
+
+    /**
+     * Drops everything waiting to be delivered to the plugin, along with its statistics, as it has gone away.
+     */
+    public void forget(String pluginId) {
+        pending.keySet().removeIf(key -> key.pluginId().equals(pluginId));
+        statisticsByPlugin.remove(pluginId);
+    }
+
+    public void queued(String pluginId) {
+        statisticsFor(pluginId).queued.increment();
+    }
+
+    public void delivered(String pluginId, long queuedAt, boolean successful) {
+        long lag = Math.max(0, System.currentTimeMillis() - queuedAt);
+        PluginStatistics statistics = statisticsFor(pluginId);
+        (successful ? statistics.delivered : statistics.failed).increment();
+        statistics.lagMillis.add(lag);
+        statistics.maxLagMillis.accumulate(lag);
+    }
+
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new TreeMap<>();
+        statisticsByPlugin.forEach((pluginId, statistics) -> json.put(pluginId, statistics.asJson(waitingFor(pluginId))));
+        return json;
+    }
+
+    private long waitingFor(String pluginId) {
+        return pending.entrySet().stream()
+            .filter(entry -> entry.getKey().pluginId().equals(pluginId))
+            .mapToLong(entry -> entry.getValue().latestById().size())
+            .sum();
+    }
+
+    private PluginStatistics statisticsFor(String pluginId) {
+        return statisticsByPlugin.computeIfAbsent(pluginId, id -> new PluginStatistics());
+    }
+
+    private static class PluginStatistics {
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder lagMillis = new LongAdder();
+        private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+
+        private Map<String, Object> asJson(long waiting) {
+            long attempted = delivered.sum() + failed.sum();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("Waiting To Be Coalesced", waiting);
+            json.put("Queued", queued.sum());
+            json.put("Coalesced", coalesced.sum());
+            json.put("Delivered", delivered.sum());
+            json.put("Failed", failed.sum());
+            json.put("Average Lag Millis", attempted == 0 ? 0 : lagMillis.sum() / attempted);
+            json.put("Max Lag Millis", maxLagMillis.get());
+            return json;
+        }
+    }
+}
@@ -24,11 +24,23 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
     private String pluginId;
     private final String requestName;
     private final T data;
+    private final String coalescingKey;
+    private final long queuedAt;
 
     public PluginNotificationMessage(String pluginId, String requestName, T data) {
+        this(pluginId, requestName, data, null);
+    }
+
+    /**
+     * @param coalescingKey the key of the notifications waiting in {@link PendingPluginNotifications} to deliver instead
+     *                      of the data, or null to deliver the data
+     */
+    public PluginNotificationMessage(String pluginId, String requestName, T data, String coalescingKey) {
         this.pluginId = pluginId;
         this.requestName = requestName;
         this.data = data;
+        this.coalescingKey = coalescingKey;
+        this.queuedAt = System.currentTimeMillis();
     }
 
     public String getRequestName() {
@@ -39,6 +51,14 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
         return data;
     }
 
+    public String getCoalescingKey() {
+        return coalescingKey;
+    }
+
+    public long getQueuedAt() {
+        return queuedAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -50,13 +70,14 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
         PluginNotificationMessage<?> that = (PluginNotificationMessage<?>) o;
         return Objects.equals(pluginId, that.pluginId) &&
                 Objects.equals(requestName, that.requestName) &&
-                Objects.equals(data, that.data);
+                Objects.equals(data, that.data) &&
+                Objects.equals(coalescingKey, that.coalescingKey);
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(pluginId, requestName, data);
+        return Objects.hash(pluginId, requestName, data, coalescingKey);
     }
 
     @Override
@@ -70,6 +91,7 @@ public class PluginNotificationMessage<T extends Serializable> implements Plugin
                 "pluginId='" + pluginId + '\'' +
                 ", requestName='" + requestName + '\'' +
                 ", data=" + data +
+                ", coalescingKey='" + coalescingKey + '\'' +
                 '}';
     }
 }
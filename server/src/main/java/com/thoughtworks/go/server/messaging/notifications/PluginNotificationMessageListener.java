@@ -25,26 +25,45 @@ import com.thoughtworks.go.serverhealth.ServerHealthState;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION;
 import static java.lang.String.join;
 
 public class PluginNotificationMessageListener implements GoMessageListener<PluginNotificationMessage<?>> {
     private static final Logger LOGGER = LoggerFactory.getLogger(PluginNotificationMessageListener.class);
     private final NotificationExtension notificationExtension;
     private final ServerHealthService serverHealthService;
+    private final PendingPluginNotifications pendingNotifications;
 
-    public PluginNotificationMessageListener(NotificationExtension notificationExtension, ServerHealthService serverHealthService) {
+    public PluginNotificationMessageListener(NotificationExtension notificationExtension, ServerHealthService serverHealthService, PendingPluginNotifications pendingNotifications) {
         this.notificationExtension = notificationExtension;
         this.serverHealthService = serverHealthService;
+        this.pendingNotifications = pendingNotifications;
     }
 
     @Override
     public void onMessage(PluginNotificationMessage<?> message) {
+        Object data = message.getData();
+        if (message.getCoalescingKey() != null) {
+            List<Serializable> latest = pendingNotifications.take(message.pluginId(), message.getRequestName(), message.getCoalescingKey());
+            if (latest.isEmpty()) {
+                LOGGER.debug("Skipping {} notification message {} for plugin {} which was delivered along with a later one", message.getRequestName(), message, message.pluginId());
+                return;
+            }
+            data = AGENT_STATUS_BATCH_NOTIFICATION.equals(message.getRequestName()) ? new ArrayList<>(latest) : latest.getLast();
+        }
+
         HealthStateScope scope = HealthStateScope.aboutPlugin(message.pluginId());
+        boolean successful = false;
         try {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Sending {} notification message {} for plugin {}", message.getRequestName(), message, message.pluginId());
             }
-            Result result = notificationExtension.notify(message.pluginId(), message.getRequestName(), message.getData());
+            Result result = notificationExtension.notify(message.pluginId(), message.getRequestName(), data);
+            successful = result.isSuccessful();
 
             if (result.isSuccessful()) {
                 serverHealthService.removeByScope(scope);
@@ -58,6 +77,8 @@ public class PluginNotificationMessageListener implements GoMessageListener<Plug
         } catch (Exception e) {
             String errorDescription = e.getMessage() == null ? "Unknown error" : e.getMessage();
             handlePluginNotifyError(message.pluginId(), scope, errorDescription, e);
+        } finally {
+            pendingNotifications.delivered(message.pluginId(), message.getQueuedAt(), successful);
         }
     }
 
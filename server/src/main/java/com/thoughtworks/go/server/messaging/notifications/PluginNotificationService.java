@@ -23,7 +23,6 @@ import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.domain.notificationdata.AgentNotificationData;
 import com.thoughtworks.go.domain.notificationdata.StageNotificationData;
-import com.thoughtworks.go.plugin.access.notification.NotificationExtension;
 import com.thoughtworks.go.plugin.access.notification.NotificationPluginRegistry;
 import com.thoughtworks.go.server.dao.PipelineDao;
 import com.thoughtworks.go.server.dao.StageDao;
@@ -33,13 +32,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
+import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION;
+import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION;
+import static com.thoughtworks.go.plugin.access.notification.NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION;
 import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS;
 
+/**
+ * Understands telling notification plugins about stages and agents. The data for a notification is built once and
+ * shared by every plugin interested in it. Agent status notifications are coalesced per plugin (see
+ * {@link PendingPluginNotifications}): a plugin which has not yet been told about an earlier status of an agent is only
+ * told about its latest status, and plugins which ask for {@code agent-status-batch} are told about every agent whose
+ * status changed since they were last told, in one request.
+ */
 @Component
 public class PluginNotificationService {
     private final NotificationPluginRegistry notificationPluginRegistry;
@@ -48,37 +57,61 @@ public class PluginNotificationService {
     private final PipelineDao pipelineSqlMapDao;
     private final StageDao stageDao;
     private final SystemEnvironment systemEnvironment;
-    private final Map<String, NotificationDataCreator<?, ?>> notificationCreators = new HashMap<>();
+    private final PendingPluginNotifications pendingNotifications;
+    private final AgentNotificationDataCreator agentNotificationDataCreator = new AgentNotificationDataCreator();
+    private final StageNotificationDataCreator stageNotificationDataCreator = new StageNotificationDataCreator();
 
     @Autowired
     public PluginNotificationService(NotificationPluginRegistry notificationPluginRegistry,
                                      PluginNotificationsQueueHandler pluginNotificationsQueueHandler,
                                      GoConfigService goConfigService,
-                                     PipelineDao pipelineSqlMapDao, StageDao stageDao, SystemEnvironment systemEnvironment) {
+                                     PipelineDao pipelineSqlMapDao, StageDao stageDao, SystemEnvironment systemEnvironment,
+                                     PendingPluginNotifications pendingNotifications) {
         this.notificationPluginRegistry = notificationPluginRegistry;
         this.pluginNotificationsQueueHandler = pluginNotificationsQueueHandler;
         this.goConfigService = goConfigService;
         this.pipelineSqlMapDao = pipelineSqlMapDao;
         this.stageDao = stageDao;
         this.systemEnvironment = systemEnvironment;
-        notificationCreators.put(NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, new StageNotificationDataCreator());
-        notificationCreators.put(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION, new AgentNotificationDataCreator());
+        this.pendingNotifications = pendingNotifications;
     }
 
     public void notifyAgentStatus(AgentInstance agentInstance) {
-        notify(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION, agentInstance);
+        Set<String> batchingPlugins = notificationPluginRegistry.getPluginsInterestedIn(AGENT_STATUS_BATCH_NOTIFICATION);
+        Set<String> interestedPlugins = notificationPluginRegistry.getPluginsInterestedIn(AGENT_STATUS_CHANGE_NOTIFICATION);
+        if (batchingPlugins.isEmpty() && interestedPlugins.isEmpty()) {
+            return;
+        }
+        long timeToLive = systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS);
+        AgentNotificationData data = agentNotificationDataCreator.notificationDataFor(agentInstance);
+        for (String pluginId : interestedPlugins) {
+            if (!batchingPlugins.contains(pluginId)) {
+                coalesce(pluginId, AGENT_STATUS_CHANGE_NOTIFICATION, data.getUuid(), data, data, timeToLive);
+            }
+        }
+        for (String pluginId : batchingPlugins) {
+            coalesce(pluginId, AGENT_STATUS_BATCH_NOTIFICATION, "", data, new ArrayList<>(List.of(data)), timeToLive);
+        }
     }
 
     public void notifyStageStatus(Stage stage) {
-        notify(NotificationExtension.STAGE_STATUS_CHANGE_NOTIFICATION, stage);
-    }
-
-    private void notify(String requestName, Object instance) {
-        Set<String> interestedPlugins = notificationPluginRegistry.getPluginsInterestedIn(requestName);
+        Set<String> interestedPlugins = notificationPluginRegistry.getPluginsInterestedIn(STAGE_STATUS_CHANGE_NOTIFICATION);
+        if (interestedPlugins.isEmpty()) {
+            return;
+        }
         long timeToLive = systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS);
+        StageNotificationData data = stageNotificationDataCreator.notificationDataFor(stage);
         for (String pluginId : interestedPlugins) {
-            @SuppressWarnings("unchecked") PluginNotificationMessage<?> message = new PluginNotificationMessage<>(pluginId, requestName, ((NotificationDataCreator<Object, ?>) notificationCreators.get(requestName)).notificationDataFor(instance));
-            pluginNotificationsQueueHandler.post(message, timeToLive);
+            pendingNotifications.queued(pluginId);
+            pluginNotificationsQueueHandler.post(new PluginNotificationMessage<>(pluginId, STAGE_STATUS_CHANGE_NOTIFICATION, data), timeToLive);
+        }
+    }
+
+    private <T extends Serializable> void coalesce(String pluginId, String requestName, String key, AgentNotificationData data, T messageData, long timeToLive) {
+        if (pendingNotifications.add(pluginId, requestName, key, data.getUuid(), data, timeToLive)
+            && !pluginNotificationsQueueHandler.post(new PluginNotificationMessage<>(pluginId, requestName, messageData, key), timeToLive)) {
+            // nothing will deliver what is waiting, so the next change has to be posted again
+            pendingNotifications.take(pluginId, requestName, key);
         }
     }
 
@@ -30,10 +30,12 @@ import java.util.Map;
 @Component
 public class PluginNotificationsQueueHandler extends PluginAwareMessageQueueHandler<PluginNotificationMessage<?>> {
     private final static String QUEUE_NAME_PREFIX = PluginNotificationsQueueHandler.class.getSimpleName() + ".";
+    private final PendingPluginNotifications pendingNotifications;
 
     @Autowired
     public PluginNotificationsQueueHandler(final MessagingService<GoMessage> messaging, NotificationExtension notificationExtension,
-        PluginManager pluginManager, final SystemEnvironment systemEnvironment, ServerHealthService serverHealthService) {
+        PluginManager pluginManager, final SystemEnvironment systemEnvironment, ServerHealthService serverHealthService,
+        PendingPluginNotifications pendingNotifications) {
         super(notificationExtension, messaging, pluginManager, new QueueFactory<PluginNotificationMessage<?>>() {
             @Override
             public PluginAwareMessageQueue<PluginNotificationMessage<?>> create(GoPluginDescriptor pluginDescriptor) {
@@ -43,9 +45,19 @@ public class PluginNotificationsQueueHandler extends PluginAwareMessageQueueHand
             }
 
             public ListenerFactory<PluginNotificationMessage<?>> listener() {
-                return () -> new PluginNotificationMessageListener(notificationExtension, serverHealthService);
+                return () -> new PluginNotificationMessageListener(notificationExtension, serverHealthService, pendingNotifications);
             }
         });
+        this.pendingNotifications = pendingNotifications;
+    }
+
+    @Override
+    public void pluginUnLoaded(GoPluginDescriptor pluginDescriptor) {
+        try {
+            super.pluginUnLoaded(pluginDescriptor);
+        } finally {
+            pendingNotifications.forget(pluginDescriptor.id());
+        }
     }
 
     @TestOnly
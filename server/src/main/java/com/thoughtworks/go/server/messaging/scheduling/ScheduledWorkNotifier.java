@@ -0,0 +1,97 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.scheduling;
+
+import com.thoughtworks.go.domain.JobState;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.server.domain.StageStatusListener;
+import com.thoughtworks.go.server.initializers.Daemonized;
+import com.thoughtworks.go.server.initializers.Initializer;
+import com.thoughtworks.go.server.messaging.MultiplexingQueueProcessor;
+import com.thoughtworks.go.server.messaging.MultiplexingQueueProcessor.Action;
+import com.thoughtworks.go.server.service.BuildAssignmentService;
+import com.thoughtworks.go.server.service.StageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Understands finding work for agents waiting on a long-polled get_work request as soon as jobs get scheduled, instead
+ * of when the build assignment timer next fires.
+ */
+@Component
+public class ScheduledWorkNotifier implements Initializer, Daemonized {
+    private final StageService stageService;
+    private final BuildAssignmentService buildAssignmentService;
+    private final WorkAssignments workAssignments;
+    private final MultiplexingQueueProcessor processor;
+    private final AtomicBoolean refreshQueued = new AtomicBoolean(false);
+
+    @Autowired
+    public ScheduledWorkNotifier(StageService stageService, BuildAssignmentService buildAssignmentService, WorkAssignments workAssignments) {
+        this.stageService = stageService;
+        this.buildAssignmentService = buildAssignmentService;
+        this.workAssignments = workAssignments;
+        this.processor = new MultiplexingQueueProcessor("ScheduledWork");
+    }
+
+    @Override
+    public void initialize() {
+        stageService.addStageStatusListener(stageStatusChangedListener());
+    }
+
+    @Override
+    public void start() {
+        processor.start();
+    }
+
+    @PreDestroy
+    @Override
+    public void stop() throws InterruptedException {
+        processor.stop();
+    }
+
+    StageStatusListener stageStatusChangedListener() {
+        return stage -> {
+            if (!hasScheduledJobs(stage) || !workAssignments.hasWaitingAgents()) {
+                return;
+            }
+
+            // a burst of scheduled stages only needs one reload of the job plans
+            if (refreshQueued.compareAndSet(false, true)) {
+                processor.add(new Action() {
+                    @Override
+                    public void call() {
+                        refreshQueued.set(false);
+                        buildAssignmentService.onTimer();
+                        workAssignments.findWorkForWaitingAgents();
+                    }
+
+                    @Override
+                    public String description() {
+                        return "scheduled stage: " + stage.getIdentifier();
+                    }
+                });
+            }
+        };
+    }
+
+    private boolean hasScheduledJobs(Stage stage) {
+        return stage.getJobInstances().stream().anyMatch(job -> job.getState() == JobState.Scheduled);
+    }
+}
@@ -21,44 +21,97 @@ import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.messaging.GoMessageChannel;
 import com.thoughtworks.go.server.messaging.GoMessageListener;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 @Service
 public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
     private GoMessageChannel<IdleAgentMessage> idleAgentsTopic;
     private ConcurrentMap<AgentIdentifier, Work> assignments;
+    private final ConcurrentMap<AgentIdentifier, WaitingAgent> waitingAgents = new ConcurrentHashMap<>();
+    private final SystemEnvironment systemEnvironment;
     private static final NoWork NO_WORK = new NoWork();
 
     @Autowired
     public WorkAssignments(IdleAgentTopic idleAgentsTopic,
-                           WorkAssignedTopic assignedWorkTopic) {
+                           WorkAssignedTopic assignedWorkTopic,
+                           SystemEnvironment systemEnvironment) {
         this.idleAgentsTopic = idleAgentsTopic;
+        this.systemEnvironment = systemEnvironment;
         assignedWorkTopic.addListener(this);
         this.assignments = new ConcurrentHashMap<>();
     }
 
     public Work getWork(AgentRuntimeInfo runtimeInfo) {
+        return getWork(runtimeInfo, 0);
+    }
+
+    /**
+     * Like {@link #getWork(AgentRuntimeInfo)}, but when there is no work for the agent yet, holds on to the request for
+     * up to {@code maxWaitMillis} (capped by the server) and returns as soon as work gets assigned to the agent.
+     */
+    public Work getWork(AgentRuntimeInfo runtimeInfo, long maxWaitMillis) {
         AgentIdentifier agent = runtimeInfo.getIdentifier();
+        long waitMillis = Math.min(maxWaitMillis, systemEnvironment.get(SystemEnvironment.GO_GET_WORK_LONG_POLL_MAX_WAIT_IN_MILLIS));
+        WaitingAgent waitingAgent;
         synchronized (agentMutex(agent)) {
             Work work = assignments.get(agent);
             if (work == null) {
                 assignments.put(agent, NO_WORK);
                 idleAgentsTopic.post(new IdleAgentMessage(runtimeInfo));
-                return NO_WORK;
+            } else if (!(work instanceof NoWork)) {
+                return assignments.remove(agent);
             }
 
-            if (work instanceof NoWork) {
-                return work;
+            if (waitMillis <= 0 || waitingAgents.size() >= systemEnvironment.get(SystemEnvironment.GO_GET_WORK_LONG_POLL_MAX_WAITING_AGENTS)) {
+                return NO_WORK;
             }
+            waitingAgent = new WaitingAgent(runtimeInfo, new CountDownLatch(1));
+            waitingAgents.put(agent, waitingAgent);
+        }
+
+        try {
+            waitingAgent.workAssigned().await(waitMillis, MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
 
+        synchronized (agentMutex(agent)) {
+            waitingAgents.remove(agent, waitingAgent);
+            Work work = assignments.get(agent);
+            if (work == null || work instanceof NoWork) {
+                return NO_WORK;
+            }
             return assignments.remove(agent);
         }
     }
 
+    public boolean hasWaitingAgents() {
+        return !waitingAgents.isEmpty();
+    }
+
+    /**
+     * Asks for work again on behalf of the agents waiting for it, e.g. after new jobs have been scheduled. Agents that
+     * already have an assignment in progress are left alone.
+     */
+    public void findWorkForWaitingAgents() {
+        for (WaitingAgent waitingAgent : waitingAgents.values()) {
+            AgentIdentifier agent = waitingAgent.runtimeInfo().getIdentifier();
+            synchronized (agentMutex(agent)) {
+                if (waitingAgents.get(agent) == waitingAgent && assignments.putIfAbsent(agent, NO_WORK) == null) {
+                    idleAgentsTopic.post(new IdleAgentMessage(waitingAgent.runtimeInfo()));
+                }
+            }
+        }
+    }
+
     private String agentMutex(AgentIdentifier agent) {
         return agent.getUuid().intern();
     }
@@ -73,9 +126,17 @@ public class WorkAssignments implements GoMessageListener<WorkAssignedMessage> {
             }
         } else {
             synchronized (agentMutex(agentIdentifier)) {
-                assignments.replace(agentIdentifier, NO_WORK, work);
+                if (assignments.replace(agentIdentifier, NO_WORK, work)) {
+                    WaitingAgent waitingAgent = waitingAgents.get(agentIdentifier);
+                    if (waitingAgent != null) {
+                        waitingAgent.workAssigned().countDown();
+                    }
+                }
             }
         }
     }
 
+    private record WaitingAgent(AgentRuntimeInfo runtimeInfo, CountDownLatch workAssigned) {
+    }
+
 }
@@ -25,6 +25,7 @@ import com.thoughtworks.go.server.newsecurity.utils.SessionUtils;
 import com.thoughtworks.go.server.service.AuthorizationExtensionCacheService;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.PluginRoleService;
+import com.thoughtworks.go.server.service.VerifiedAccessTokenCache;
 import com.thoughtworks.go.util.Clock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +51,7 @@ public class InvalidateAuthenticationOnSecurityConfigChangeFilter extends OncePe
     private final Clock clock;
     private final AuthorizationExtensionCacheService authorizationExtensionCacheService;
     private final PluginRoleService pluginRoleService;
+    private final VerifiedAccessTokenCache verifiedAccessTokenCache;
 
     private final AtomicReference<SecurityConfig> securityConfig = new AtomicReference<>();
     private final AtomicLong lastChangedTime = new AtomicLong();
@@ -58,11 +60,13 @@ public class InvalidateAuthenticationOnSecurityConfigChangeFilter extends OncePe
     public InvalidateAuthenticationOnSecurityConfigChangeFilter(GoConfigService goConfigService,
                                                                 Clock clock,
                                                                 AuthorizationExtensionCacheService authorizationExtensionCacheService,
-                                                                PluginRoleService pluginRoleService) {
+                                                                PluginRoleService pluginRoleService,
+                                                                VerifiedAccessTokenCache verifiedAccessTokenCache) {
         this.goConfigService = goConfigService;
         this.clock = clock;
         this.authorizationExtensionCacheService = authorizationExtensionCacheService;
         this.pluginRoleService = pluginRoleService;
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
     }
 
     public void initialize() {
@@ -123,6 +127,7 @@ public class InvalidateAuthenticationOnSecurityConfigChangeFilter extends OncePe
     private void invalidateCache() {
         updateLastChangedTime();
         authorizationExtensionCacheService.invalidateCache();
+        verifiedAccessTokenCache.invalidateAll();
     }
 
     private SecurityConfig securityConfig(CruiseConfig config) {
@@ -20,12 +20,27 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Understands logging the progress of every schedule check, and keeping a histogram of how long it took to evaluate
+ * each pipeline for automatic scheduling.
+ */
 @Component
 public class SchedulingPerformanceLogger {
+    private static final int MOST_EXPENSIVE_PIPELINES_TO_REPORT = 50;
+
     private final Logger performanceLogger;
     private final AtomicLong currentTrackingId = new AtomicLong(0);
+    private final Map<Long, Long> autoScheduleStartTimes = new ConcurrentHashMap<>();
+    private final Map<String, EvaluationLatencies> evaluationLatencies = new ConcurrentHashMap<>();
 
     @Autowired
     public SchedulingPerformanceLogger(PerformanceLogger performanceLogger) {
@@ -47,17 +62,47 @@ public class SchedulingPerformanceLogger {
     }
 
     public void autoSchedulePipelineStart(long trackingId, String pipelineName) {
+        autoScheduleStartTimes.put(trackingId, System.nanoTime());
         if (performanceLogger.isDebugEnabled()) {
             performanceLogger.debug("SCH-AUTO-START {} {}", trackingId, pipelineName);
         }
     }
 
     public void autoSchedulePipelineFinish(long trackingId, String pipelineName) {
+        Long startTime = autoScheduleStartTimes.remove(trackingId);
+        long millis = startTime == null ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (millis >= 0) {
+            evaluationLatencies.computeIfAbsent(pipelineName, name -> new EvaluationLatencies()).record(millis);
+        }
         if (performanceLogger.isDebugEnabled()) {
-            performanceLogger.debug("SCH-AUTO-DONE {} {}", trackingId, pipelineName);
+            performanceLogger.debug("SCH-AUTO-DONE {} {} {}", trackingId, pipelineName, millis);
         }
     }
 
+    /**
+     * @return how long the last automatic evaluation of the pipeline took, or 0 if it has not been evaluated yet
+     */
+    public long lastEvaluationMillis(String pipelineName) {
+        EvaluationLatencies latencies = evaluationLatencies.get(pipelineName);
+        return latencies == null ? 0 : latencies.lastMillis;
+    }
+
+    public void forgetPipeline(String pipelineName) {
+        evaluationLatencies.remove(pipelineName);
+    }
+
+    /**
+     * @return the evaluation latency histograms of the pipelines which took the longest to evaluate in total
+     */
+    public Map<String, Object> evaluationLatencyHistograms() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        evaluationLatencies.entrySet().stream()
+            .sorted(Comparator.comparingLong((Map.Entry<String, EvaluationLatencies> entry) -> entry.getValue().totalMillis.sum()).reversed())
+            .limit(MOST_EXPENSIVE_PIPELINES_TO_REPORT)
+            .forEach(entry -> json.put(entry.getKey(), entry.getValue().asJson()));
+        return json;
+    }
+
     public void postingMessageAboutScheduleCheckCompletion(long trackingId, String pipelineName) {
         if (performanceLogger.isDebugEnabled()) {
             performanceLogger.debug("SCH-CHECK-DONE {} {}", trackingId, pipelineName);
@@ -109,4 +154,36 @@ public class SchedulingPerformanceLogger {
             performanceLogger.debug("SCH-SCHEDULED {} {} {} {}", pipelineName, toBeScheduledQueueSize, schedulePipelineStartTime, schedulePipelineEndTime);
         }
     }
+
+    private static class EvaluationLatencies {
+        private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {10, 100, 1_000, 10_000, 60_000};
+        private static final String[] BUCKET_NAMES = {"< 10ms", "< 100ms", "< 1s", "< 10s", "< 1m", ">= 1m"};
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_NAMES.length);
+        private final LongAdder totalMillis = new LongAdder();
+        private volatile long lastMillis;
+
+        void record(long millis) {
+            int bucket = 0;
+            while (bucket < BUCKET_UPPER_BOUNDS_MILLIS.length && millis >= BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            totalMillis.add(millis);
+            lastMillis = millis;
+        }
+
+        Map<String, Object> asJson() {
+            Map<String, Object> json = new LinkedHashMap<>();
+            long count = 0;
+            for (int bucket = 0; bucket < BUCKET_NAMES.length; bucket++) {
+                json.put(BUCKET_NAMES[bucket], buckets.get(bucket));
+                count += buckets.get(bucket);
+            }
+            json.put("Total Millis", totalMillis.sum());
+            json.put("Average Millis", count == 0 ? 0 : totalMillis.sum() / count);
+            json.put("Last Millis", lastMillis);
+            return json;
+        }
+    }
 }
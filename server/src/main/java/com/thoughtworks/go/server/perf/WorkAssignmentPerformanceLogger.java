@@ -24,9 +24,12 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.lang.management.ManagementFactory;
+
 @Component
 public class WorkAssignmentPerformanceLogger {
     private final Logger performanceLogger;
+    private final com.sun.management.ThreadMXBean threadMXBean = ManagementFactory.getPlatformMXBean(com.sun.management.ThreadMXBean.class);
 
     @Autowired
     public WorkAssignmentPerformanceLogger(PerformanceLogger performanceLogger) {
@@ -54,4 +57,20 @@ public class WorkAssignmentPerformanceLogger {
             performanceLogger.debug("WORK-ASSIGNED {} {} {} {}", agentIdentifier.getUuid(), buildWork.identifierForLogging(), assignWorkStartTime, assignWorkEndTime);
         }
     }
+
+    public void reloadedJobPlans(int numberOfJobPlans, long reloadStartTime, long reloadEndTime, long allocatedBytes) {
+        if (performanceLogger.isDebugEnabled()) {
+            performanceLogger.debug("WORK-PLANS-RELOADED {} {} {} {}", numberOfJobPlans, reloadStartTime, reloadEndTime, allocatedBytes);
+        }
+    }
+
+    /**
+     * @return the number of bytes allocated by the current thread so far, or -1 if the JVM cannot tell
+     */
+    public long allocatedBytesOfCurrentThread() {
+        if (!performanceLogger.isDebugEnabled() || threadMXBean == null || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return threadMXBean.getCurrentThreadAllocatedBytes();
+    }
 }
@@ -22,7 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.orm.hibernate3.support.HibernateDaoSupport;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.*;
 
 /**
  * Understands persisting and retrieving artifact plan
@@ -33,6 +33,9 @@ public class ArtifactPlanRepository extends HibernateDaoSupport {
     private static final String GET_ARTIFACT_PLANS_BY_BUILD_ID =
             "SELECT a FROM ArtifactPlan a WHERE a.buildId = ? ORDER BY a.id";
 
+    private static final String GET_ARTIFACT_PLANS_BY_BUILD_IDS =
+            "SELECT a FROM ArtifactPlan a WHERE a.buildId IN (:buildIds) ORDER BY a.buildId, a.id";
+
     @Autowired
     public ArtifactPlanRepository(SessionFactory sessionFactory) {
         setSessionFactory(sessionFactory);
@@ -49,6 +52,15 @@ public class ArtifactPlanRepository extends HibernateDaoSupport {
         return (List<ArtifactPlan>) getHibernateTemplate().find(GET_ARTIFACT_PLANS_BY_BUILD_ID, buildId);
     }
 
+    @SuppressWarnings("unchecked")
+    public Map<Long, List<ArtifactPlan>> findByBuildIds(Collection<Long> buildIds) {
+        Map<Long, List<ArtifactPlan>> artifactPlansByBuildId = new HashMap<>();
+        for (ArtifactPlan artifactPlan : (List<ArtifactPlan>) getHibernateTemplate().findByNamedParam(GET_ARTIFACT_PLANS_BY_BUILD_IDS, "buildIds", buildIds)) {
+            artifactPlansByBuildId.computeIfAbsent(artifactPlan.getBuildId(), buildId -> new ArrayList<>()).add(artifactPlan);
+        }
+        return artifactPlansByBuildId;
+    }
+
     public ArtifactPlan saveCopyOf(long jobId, ArtifactPlan artifactPlan) {
         ArtifactPlan copyOfArtifactPlan = new ArtifactPlan(artifactPlan);
         copyOfArtifactPlan.setBuildId(jobId);
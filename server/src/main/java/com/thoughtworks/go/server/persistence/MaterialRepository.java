@@ -252,7 +252,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public List<PipelineMaterialRevision> findPipelineMaterialRevisions(long pipelineId) {
         String cacheKey = pipelinePmrsKey(pipelineId);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             List<PipelineMaterialRevision> results = goCache.get(cacheKey);
             if (results != null) {
                 return results;
@@ -352,7 +352,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private String pipelinePmrsKey(long pipelineId) {
-        return (MaterialRepository.class.getName() + "_pipelinePMRs_" + pipelineId).intern();
+        return MaterialRepository.class.getName() + "_pipelinePMRs_" + pipelineId;
     }
 
     @SuppressWarnings("unchecked")
@@ -365,7 +365,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String cacheKey = pmrModificationsKey(pmr);
         List<Modification> modifications = goCache.get(cacheKey);
         if (modifications == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 modifications = goCache.get(cacheKey);
                 if (modifications == null) {
                     modifications = (List<Modification>) getHibernateTemplate().find(
@@ -379,8 +379,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private String pmrModificationsKey(PipelineMaterialRevision pmr) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_pmrModifications_" + pmr.getId()).intern();
+        return MaterialRepository.class.getName() + "_pmrModifications_" + pmr.getId();
     }
 
     private List<String> pmrModificationsKey(Modification modification, List<PipelineMaterialRevision> pmrs) {
@@ -400,18 +399,15 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     String latestMaterialModificationsKey(MaterialInstance materialInstance) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_latestMaterialModifications_" + materialInstance.getId()).intern();
+        return MaterialRepository.class.getName() + "_latestMaterialModifications_" + materialInstance.getId();
     }
 
     String materialModificationCountKey(MaterialInstance materialInstance) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_materialModificationCount_" + materialInstance.getId()).intern();
+        return MaterialRepository.class.getName() + "_materialModificationCount_" + materialInstance.getId();
     }
 
     String materialModificationsWithPaginationKey(MaterialInstance materialInstance) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_materialModificationsWithPagination_" + materialInstance.getId()).intern();
+        return MaterialRepository.class.getName() + "_materialModificationsWithPagination_" + materialInstance.getId();
     }
 
     String materialModificationsWithPaginationSubKey(Pagination pagination) {
@@ -420,7 +416,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public void saveOrUpdate(MaterialInstance materialInstance) {
         String cacheKey = materialKey(materialInstance.getFingerprint());
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             getHibernateTemplate().saveOrUpdate(materialInstance);
             goCache.remove(cacheKey);
             goCache.put(cacheKey, materialInstance);
@@ -455,7 +451,7 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public MaterialInstance findOrCreateFrom(@NotNull Material material) {
         String cacheKey = materialKey(material);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             MaterialInstance materialInstance = findMaterialInstance(material);
             if (materialInstance == null) {
                 LOGGER.debug("Material instance for material '{}' not found in the database, creating a new instance now.", material);
@@ -471,15 +467,14 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     private @NotNull String materialKey(String fingerprint) {
-        // we intern() it because we synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_materialInstance_" + fingerprint).intern();
+        return MaterialRepository.class.getName() + "_materialInstance_" + fingerprint;
     }
 
     public MaterialInstance findMaterialInstance(@NotNull Material material) {
         String cacheKey = materialKey(material);
         MaterialInstance materialInstance = goCache.get(cacheKey);
         if (materialInstance == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 materialInstance = goCache.get(cacheKey);
                 if (materialInstance == null) {
                     DetachedCriteria hibernateCriteria = DetachedCriteria.forClass(material.getInstanceType());
@@ -494,7 +489,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String cacheKey = materialKey(materialConfig.getFingerprint());
         MaterialInstance materialInstance = goCache.get(cacheKey);
         if (materialInstance == null) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 materialInstance = goCache.get(cacheKey);
                 if (materialInstance == null) {
                     DetachedCriteria hibernateCriteria = DetachedCriteria.forClass(materialConfigConverter.getInstanceType(materialConfig));
@@ -600,7 +595,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String key = cacheKeyForLatestPmrForPipelineKey(pipelineMaterialRevision.getMaterialId(), pipelineName.toLowerCase());
-                synchronized (key) {
+                synchronized (GoCache.lockFor(key)) {
                     goCache.remove(key);
                 }
             }
@@ -633,7 +628,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     public List<Modification> findModificationsSince(Material material, MaterialRevision revision) {
         MaterialInstance materialInstance = findOrCreateFrom(material);
         String cacheKey = latestMaterialModificationsKey(materialInstance);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             long sinceModificationId = revision.getLatestModification().getId();
             Modifications modifications = cachedModifications(materialInstance);
             if (!modificationExists(sinceModificationId, modifications)) {
@@ -669,7 +664,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String cacheKey = latestMaterialModificationsKey(materialInstance);
-                synchronized (cacheKey) {
+                synchronized (GoCache.lockFor(cacheKey)) {
                     goCache.remove(cacheKey);
                 }
             }
@@ -681,7 +676,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String key = materialModificationCountKey(materialInstance);
-                synchronized (key) {
+                synchronized (GoCache.lockFor(key)) {
                     goCache.remove(key);
                 }
             }
@@ -693,7 +688,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             @Override
             public void afterCommit() {
                 String key = materialModificationsWithPaginationKey(materialInstance);
-                synchronized (key) {
+                synchronized (GoCache.lockFor(key)) {
                     goCache.remove(key);
                 }
             }
@@ -728,7 +723,7 @@ public class MaterialRepository extends HibernateDaoSupport {
             return modifications.getFirst();
         }
         String cacheKey = latestMaterialModificationsKey(expandedInstance);
-        synchronized (cacheKey) {
+        synchronized (GoCache.lockFor(cacheKey)) {
             Modification modification = (Modification) getHibernateTemplate().execute(session -> {
                 Query query = session.createQuery("FROM Modification WHERE materialId = ? ORDER BY id DESC");
                 query.setMaxResults(1);
@@ -813,7 +808,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = cacheKeyForModificationWithRevision(materialId, revision);
         modification = goCache.get(key);
         if (modification == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 modification = goCache.get(key);
                 if (modification == null) {
                     Query query = session.createQuery("FROM Modification WHERE materialId = ? and revision = ? ORDER BY id DESC");
@@ -914,7 +909,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = cacheKeyForModificationsForStageLocator(stageIdentifier);
         List<Modification> modifications = goCache.get(key);
         if (modifications == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 modifications = goCache.get(key);
                 if (modifications == null) {
                     modifications = getHibernateTemplate().execute(session -> {
@@ -935,7 +930,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = materialModificationCountKey(materialInstance);
         Long totalCount = goCache.get(key);
         if (totalCount == null || totalCount == 0) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 totalCount = goCache.get(key);
                 if (totalCount == null || totalCount == 0) {
                     totalCount = getHibernateTemplate().execute(session -> {
@@ -955,7 +950,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String subKey = materialModificationsWithPaginationSubKey(pagination);
         Modifications modifications = (Modifications) goCache.get(key, subKey);
         if (modifications == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 modifications = (Modifications) goCache.get(key, subKey);
                 if (modifications == null) {
                     @SuppressWarnings("unchecked") List<Modification> modificationsList = getHibernateTemplate().execute(session -> {
@@ -980,7 +975,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         String key = cacheKeyForLatestPmrForPipelineKey(materialId, pipelineName.toLower());
         Long modificationId = goCache.get(key);
         if (modificationId == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 modificationId = goCache.get(key);
                 if (modificationId == null) {
                     modificationId = (Long) getHibernateTemplate().execute(session -> {
@@ -183,6 +183,22 @@ public class PipelineRepository extends HibernateDaoSupport {
         });
     }
 
+    /**
+     * @return whether the pipeline with the given id in the database is the given run of the given pipeline
+     */
+    public boolean isPipelineRun(final long pipelineId, final String pipelineName, final int counter) {
+        return getHibernateTemplate().execute(session -> {
+            SQLQuery query = session.createSQLQuery("SELECT name, counter FROM pipelines WHERE id = :pipelineId");
+            query.setLong("pipelineId", pipelineId);
+            Object[] row = (Object[]) query.uniqueResult();
+            if (row == null) {
+                return false;
+            }
+            int actualCounter = row[1] == null ? -1 : ((Number) row[1]).intValue();
+            return pipelineName.equalsIgnoreCase((String) row[0]) && actualCounter == counter;
+        });
+    }
+
     private void addEntriesToPipelineTimeline(List<PipelineTimelineEntry> newEntries, PipelineTimeline pipelineTimeline, List<PipelineTimelineEntry> tempEntriesForRollback) {
         for (PipelineTimelineEntry newEntry : newEntries) {
             tempEntriesForRollback.add(newEntry);
@@ -205,7 +221,7 @@ public class PipelineRepository extends HibernateDaoSupport {
             return goCache.get(key);
         }
 
-        synchronized (key) {
+        synchronized (GoCache.lockFor(key)) {
             if (goCache.isKeyInCache(key)) {
                 return goCache.get(key);
             }
@@ -236,7 +252,7 @@ public class PipelineRepository extends HibernateDaoSupport {
         if (goCache.isKeyInCache(key)) {
             return goCache.get(key);
         }
-        synchronized (key) {
+        synchronized (GoCache.lockFor(key)) {
             if (goCache.isKeyInCache(key)) {
                 return goCache.get(key);
             }
@@ -250,23 +266,23 @@ public class PipelineRepository extends HibernateDaoSupport {
 
     private void removePipelineSelectionFromCacheForCookie(PipelineSelections pipelineSelections) {
         String pipelineSelectionCookieKey = pipelineSelectionForCookieKey(pipelineSelections.getId());
-        synchronized (pipelineSelectionCookieKey) {
+        synchronized (GoCache.lockFor(pipelineSelectionCookieKey)) {
             goCache.remove(pipelineSelectionCookieKey);
         }
     }
 
     private void removePipelineSelectionFromCacheForUserId(PipelineSelections pipelineSelections) {
         String pipelineSelectionUserIdKey = pipelineSelectionForUserIdKey(pipelineSelections.userId());
-        synchronized (pipelineSelectionUserIdKey) {
+        synchronized (GoCache.lockFor(pipelineSelectionUserIdKey)) {
             goCache.remove(pipelineSelectionUserIdKey);
         }
     }
 
     String pipelineSelectionForUserIdKey(Long userId) {
-        return (PipelineRepository.class.getName() + "_userIdPipelineSelection_" + userId).intern();
+        return PipelineRepository.class.getName() + "_userIdPipelineSelection_" + userId;
     }
 
     String pipelineSelectionForCookieKey(long id) {
-        return (PipelineRepository.class.getName() + "_cookiePipelineSelection_" + id).intern();
+        return PipelineRepository.class.getName() + "_cookiePipelineSelection_" + id;
     }
 }
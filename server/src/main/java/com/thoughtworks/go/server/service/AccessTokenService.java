@@ -46,13 +46,15 @@ public class AccessTokenService {
 
     private final AccessTokenDao accessTokenDao;
     private final SecurityService securityService;
+    private final VerifiedAccessTokenCache verifiedAccessTokenCache;
     private final ConcurrentMap<Long, Timestamp> accessTokenIdToLastUsedTimestampCache = new ConcurrentHashMap<>();
 
     @Autowired
-    public AccessTokenService(AccessTokenDao accessTokenDao, Clock clock, SecurityService securityService) {
+    public AccessTokenService(AccessTokenDao accessTokenDao, Clock clock, SecurityService securityService, VerifiedAccessTokenCache verifiedAccessTokenCache) {
         this.accessTokenDao = accessTokenDao;
         this.timeProvider = clock;
         this.securityService = securityService;
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
     }
 
     public AccessToken.AccessTokenWithDisplayValue create(String description, String username, String authConfigId) {
@@ -103,9 +105,7 @@ public class AccessTokenService {
             throw new InvalidAccessTokenException();
         }
 
-        boolean isValid = token.isValidToken(actualToken);
-
-        if (!isValid) {
+        if (!isValidToken(actualToken, token)) {
             throw new InvalidAccessTokenException();
         }
 
@@ -116,6 +116,20 @@ public class AccessTokenService {
         return token;
     }
 
+    private boolean isValidToken(String actualToken, AccessToken token) {
+        long start = System.nanoTime();
+        if (verifiedAccessTokenCache.isVerified(actualToken, token)) {
+            verifiedAccessTokenCache.recordVerification(true, System.nanoTime() - start);
+            return true;
+        }
+        boolean isValid = token.isValidToken(actualToken);
+        if (isValid) {
+            verifiedAccessTokenCache.verified(actualToken, token);
+        }
+        verifiedAccessTokenCache.recordVerification(false, System.nanoTime() - start);
+        return isValid;
+    }
+
     // for APIs
     public AccessToken revokeAccessToken(long id, String username, String revokeCause) {
         AccessToken fetchedAccessToken = find(Long.parseLong(String.valueOf(id)), username);
@@ -136,6 +150,7 @@ public class AccessTokenService {
         ACCESS_TOKEN_LOGGER.debug("[Access Token] Revoking access token with id: '{}' for user '{}' with revoked cause '{}'.", fetchedAccessToken.getId(), username, revokeCause);
         fetchedAccessToken.revoke(username, revokeCause, timeProvider.currentSqlTimestamp());
         accessTokenDao.saveOrUpdate(fetchedAccessToken);
+        verifiedAccessTokenCache.invalidateToken(fetchedAccessToken.getId());
 
         ACCESS_TOKEN_LOGGER.debug("[Access Token] Done revoking access token with id: '{}' for user '{}' with revoked cause '{}'.", fetchedAccessToken.getId(), username, revokeCause);
 
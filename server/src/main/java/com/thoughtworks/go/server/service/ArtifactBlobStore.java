@@ -0,0 +1,217 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.server.cache.KeyLocks;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.jetbrains.annotations.VisibleForTesting;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import static com.thoughtworks.go.util.ArtifactUtil.CRUISE_OUTPUT_FOLDER;
+import static com.thoughtworks.go.util.ArtifactUtil.artifactDirectoryIsSystemManaged;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_DEDUPLICATION;
+
+/**
+ * Understands keeping a single copy of every artifact file uploaded to the server, however many jobs upload it. Blobs
+ * are kept under the artifacts directory by the SHA-256 of their content, which the server works out itself, since
+ * checksums sent by agents cannot be trusted to tell the files of one job from another's. Every artifact file becomes
+ * a hard link to its blob, so artifacts are still read from where they always were, and the number of links to a blob
+ * is the number of jobs referring to it. Each job keeps a manifest of the blobs its artifacts link to, so that blobs
+ * only the store itself still links to can be removed when the artifacts of the job are purged.
+ */
+@Component
+public class ArtifactBlobStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactBlobStore.class);
+    public static final String BLOBS_FOLDER = "blobs/sha256";
+    public static final String MANIFEST_FILENAME = "blobs.manifest";
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern DIGEST = Pattern.compile("[0-9a-f]{64}");
+
+    private final ArtifactsDirHolder artifactsDirHolder;
+    private final boolean enabled;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final KeyLocks manifestLocks = new KeyLocks();
+    private final LongAdder blobsStored = new LongAdder();
+    private final LongAdder filesDeduplicated = new LongAdder();
+    private final LongAdder bytesDeduplicated = new LongAdder();
+    private final LongAdder blobsReleased = new LongAdder();
+    private final LongAdder bytesReclaimed = new LongAdder();
+
+    @Autowired
+    public ArtifactBlobStore(ArtifactsDirHolder artifactsDirHolder, SystemEnvironment systemEnvironment) {
+        this(artifactsDirHolder, systemEnvironment.get(GO_ARTIFACT_DEDUPLICATION));
+    }
+
+    @VisibleForTesting
+    ArtifactBlobStore(ArtifactsDirHolder artifactsDirHolder, boolean enabled) {
+        this.artifactsDirHolder = artifactsDirHolder;
+        this.enabled = enabled && FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+        Arrays.setAll(locks, i -> new Object());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Replaces each of the files just saved for a job with a link to the blob with the same content, storing the file
+     * as a new blob if there is none. Files which cannot be linked are left as they are.
+     *
+     * @param digests the SHA-256 of each of the files, by file
+     */
+    public void deduplicate(File jobRoot, Map<File, String> digests) {
+        Map<File, String> toDeduplicate = new LinkedHashMap<>();
+        digests.forEach((file, digest) -> {
+            if (file.length() > 0 && !isSystemManaged(jobRoot, file)) {
+                toDeduplicate.put(file, digest);
+            }
+        });
+        if (toDeduplicate.isEmpty()) {
+            return;
+        }
+
+        try {
+            // recorded before linking, so that a blob a job links to is never missing from its manifest
+            appendToManifest(manifestOf(jobRoot), new TreeSet<>(toDeduplicate.values()));
+        } catch (IOException e) {
+            LOGGER.warn("Not deduplicating artifacts of [{}] as its blob manifest could not be written", jobRoot, e);
+            return;
+        }
+        toDeduplicate.forEach(this::deduplicate);
+    }
+
+    private void deduplicate(File file, String digest) {
+        Path artifact = file.toPath();
+        Path blob = blobPath(digest);
+        try {
+            synchronized (lockFor(digest)) {
+                if (Files.exists(blob)) {
+                    long size = Files.size(artifact);
+                    Path link = artifact.resolveSibling(artifact.getFileName() + ".blob");
+                    Files.createLink(link, blob);
+                    Files.move(link, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    filesDeduplicated.increment();
+                    bytesDeduplicated.add(size);
+                } else {
+                    Files.createDirectories(blob.getParent());
+                    Files.createLink(blob, artifact);
+                    blobsStored.increment();
+                }
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.debug("Keeping artifact [{}] as it is, as it could not be linked to blob [{}]", file, blob, e);
+        }
+    }
+
+    /**
+     * Gives an artifact file which is linked to a blob a copy of its own, so that it can be changed without changing
+     * the blob or the artifacts of other jobs linked to it. The blob stays in the manifest of the job, and is released
+     * along with the others when the job is purged.
+     */
+    public void unlink(File file) throws IOException {
+        if (!enabled || !file.isFile()) {
+            return;
+        }
+        Path artifact = file.toPath();
+        if (((Number) Files.getAttribute(artifact, "unix:nlink")).intValue() <= 1) {
+            return;
+        }
+        Path copy = artifact.resolveSibling(artifact.getFileName() + ".unlinked");
+        Files.copy(artifact, copy, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(copy, artifact, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Removes the blobs the purged artifacts of a job linked to, which no other job links to, along with its manifest.
+     */
+    public void release(File jobRoot) {
+        File manifest = manifestOf(jobRoot);
+        if (!manifest.isFile()) {
+            return;
+        }
+        try {
+            for (String digest : new TreeSet<>(Files.readAllLines(manifest.toPath(), StandardCharsets.UTF_8))) {
+                if (DIGEST.matcher(digest).matches()) {
+                    release(digest);
+                }
+            }
+            Files.delete(manifest.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Could not release the blobs of the artifacts of [{}]", jobRoot, e);
+        }
+    }
+
+    private void release(String digest) throws IOException {
+        Path blob = blobPath(digest);
+        synchronized (lockFor(digest)) {
+            if (Files.exists(blob) && ((Number) Files.getAttribute(blob, "unix:nlink")).intValue() <= 1) {
+                long size = Files.size(blob);
+                Files.delete(blob);
+                blobsReleased.increment();
+                bytesReclaimed.add(size);
+            }
+        }
+    }
+
+    public Map<String, Object> statistics() {
+        long stored = blobsStored.sum();
+        long deduplicated = filesDeduplicated.sum();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Enabled", enabled);
+        json.put("Blobs Stored", stored);
+        json.put("Files Deduplicated", deduplicated);
+        json.put("Deduplication Ratio", stored + deduplicated == 0 ? 0.0 : (double) deduplicated / (stored + deduplicated));
+        json.put("Bytes Deduplicated", bytesDeduplicated.sum());
+        json.put("Blobs Released", blobsReleased.sum());
+        json.put("Bytes Reclaimed", bytesReclaimed.sum());
+        return json;
+    }
+
+    private void appendToManifest(File manifest, Collection<String> digests) throws IOException {
+        synchronized (manifestLocks.lockFor(manifest.getAbsolutePath())) {
+            Files.createDirectories(manifest.getParentFile().toPath());
+            Files.write(manifest.toPath(), digests, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    private static File manifestOf(File jobRoot) {
+        return new File(new File(jobRoot, CRUISE_OUTPUT_FOLDER), MANIFEST_FILENAME);
+    }
+
+    private static boolean isSystemManaged(File jobRoot, File file) {
+        Path relative = jobRoot.getAbsoluteFile().toPath().normalize().relativize(file.getAbsoluteFile().toPath().normalize());
+        return relative.startsWith("..") || (relative.getNameCount() > 1 && artifactDirectoryIsSystemManaged(relative.getName(0).toString()));
+    }
+
+    private Path blobPath(String digest) {
+        return artifactsDirHolder.getArtifactsDir().toPath().resolve(BLOBS_FOLDER).resolve(digest.substring(0, 2)).resolve(digest);
+    }
+
+    private Object lockFor(String digest) {
+        return locks[Math.floorMod(digest.hashCode(), LOCK_STRIPES)];
+    }
+}
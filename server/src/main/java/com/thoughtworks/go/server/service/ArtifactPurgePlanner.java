@@ -0,0 +1,140 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
+import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
+import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
+import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
+import com.thoughtworks.go.util.ArtifactUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Understands choosing just enough of the oldest stages to purge the artifacts of to free up the disk space needed,
+ * rather than purging one stage after another and checking the disk after each of them. The space the artifacts of
+ * each stage take up, leaving out the folders purging keeps, is remembered once it has been measured, since the
+ * artifacts of the oldest stages do not change until they are purged.
+ */
+class ArtifactPurgePlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactPurgePlanner.class);
+
+    private final ArtifactDirectoryChooser chooser = new ArtifactDirectoryChooser();
+    private final Map<Long, Long> sizesByStageId = new ConcurrentHashMap<>();
+    private final boolean canMeasure;
+
+    ArtifactPurgePlanner(File artifactsDir) {
+        this.canMeasure = artifactsDir != null;
+        if (canMeasure) {
+            chooser.add(new PathBasedArtifactsLocator(artifactsDir));
+            chooser.add(new BuildIdArtifactLocator(artifactsDir));
+        }
+    }
+
+    /**
+     * @param oldestStages the stages to choose from, oldest first
+     * @return the oldest of the stages whose artifacts take up at least the given number of bytes. A stage the size of
+     * whose artifacts is not known ends the plan, since purging it might free up enough space on its own.
+     */
+    List<Stage> plan(List<Stage> oldestStages, long bytesToFree) {
+        List<Stage> plan = new ArrayList<>();
+        long plannedBytes = 0;
+        for (Stage stage : oldestStages) {
+            long size = sizeOf(stage);
+            plan.add(stage);
+            plannedBytes += size;
+            if (size <= 0 || plannedBytes >= bytesToFree) {
+                break;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return the bytes taken up by the artifacts of the stage which purging it frees up, or 0 if not known
+     */
+    long sizeOf(Stage stage) {
+        Long known = sizesByStageId.get(stage.getId());
+        if (known != null) {
+            return known;
+        }
+        long size = measure(stage);
+        if (size > 0) {
+            sizesByStageId.put(stage.getId(), size);
+        }
+        return size;
+    }
+
+    void purged(Stage stage) {
+        sizesByStageId.remove(stage.getId());
+    }
+
+    int indexedStages() {
+        return sizesByStageId.size();
+    }
+
+    private long measure(Stage stage) {
+        if (!canMeasure) {
+            return 0;
+        }
+        try {
+            File[] jobs = chooser.findArtifact(stage.getIdentifier(), "").listFiles();
+            long size = 0;
+            for (File jobRoot : jobs == null ? new File[0] : jobs) {
+                File[] artifacts = jobRoot.listFiles();
+                for (File artifact : artifacts == null ? new File[0] : artifacts) {
+                    if (!artifact.isDirectory() || !ArtifactUtil.artifactDirectoryIsSystemManaged(artifact.getName())) {
+                        size += sizeOf(artifact.toPath());
+                    }
+                }
+            }
+            return size;
+        } catch (IllegalArtifactLocationException | IOException e) {
+            LOGGER.debug("Could not measure the artifacts of stage '{}'", stage.getIdentifier().entityLocator(), e);
+            return 0;
+        }
+    }
+
+    private static long sizeOf(Path artifact) throws IOException {
+        long[] size = {0};
+        Files.walkFileTree(artifact, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                size[0] += attributes.size();
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+}
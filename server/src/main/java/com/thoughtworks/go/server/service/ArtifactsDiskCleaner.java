@@ -25,7 +25,19 @@ import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_PURGE_PROACTIVE_PERCENT;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_PURGE_THREADS;
 
 public class ArtifactsDiskCleaner extends DiskSpaceChecker {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactsDiskCleaner.class);
@@ -34,6 +46,12 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
     private final ArtifactsService artifactService;
     private final StageService stageService;
     private final ConfigDbStateRepository configDbStateRepository;
+    private final ArtifactPurgePlanner planner;
+    private final ExecutorService purgers;
+    private final LongAdder stagesPurged = new LongAdder();
+    private final LongAdder bytesPurged = new LongAdder();
+    private final LongAdder purgeNanos = new LongAdder();
+    private final LongAdder planningNanos = new LongAdder();
 
     public ArtifactsDiskCleaner(SystemEnvironment systemEnvironment, GoConfigService goConfigService, final SystemDiskSpaceChecker diskSpaceChecker, ArtifactsService artifactService,
                                 StageService stageService, ConfigDbStateRepository configDbStateRepository) {
@@ -41,6 +59,8 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
         this.artifactService = artifactService;
         this.stageService = stageService;
         this.configDbStateRepository = configDbStateRepository;
+        this.planner = new ArtifactPurgePlanner(goConfigService.artifactsDir());
+        this.purgers = Executors.newFixedThreadPool(Math.max(1, systemEnvironment.get(GO_ARTIFACT_PURGE_THREADS)), Thread.ofPlatform().name("goArtifactsPurger-", 1).daemon().factory());
         cleaner = new Thread(() -> {
             try {
                 while (true) {
@@ -66,22 +86,79 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
             LOGGER.info("Clearing old artifacts as the disk space is low. Current space: '{}'. Need to clear till we hit: '{}'.", availableSpace(), requiredSpace);
             List<Stage> stages;
             int numberOfStagesPurged = 0;
+            long bytesPurgedNow = 0;
+            long planningNanosNow = 0;
+            long startedAt = System.nanoTime();
             do {
                 configDbStateRepository.flushConfigState();
                 stages = stageService.oldestStagesWithDeletableArtifacts();
-                for (Stage stage : stages) {
-                    if (availableSpace() > requiredSpace) {
-                        break;
-                    }
-                    numberOfStagesPurged++;
-                    artifactService.purgeArtifactsForStage(stage);
+                List<Stage> remaining = stages;
+                while (!remaining.isEmpty() && availableSpace() <= requiredSpace) {
+                    long planningStartedAt = System.nanoTime();
+                    List<Stage> plan = planner.plan(remaining, (long) (requiredSpace - availableSpace()));
+                    planningNanosNow += System.nanoTime() - planningStartedAt;
+                    bytesPurgedNow += purge(plan);
+                    numberOfStagesPurged += plan.size();
+                    remaining = remaining.subList(plan.size(), remaining.size());
                 }
             } while (availableSpace() < requiredSpace && !stages.isEmpty());
+            long purgeNanosNow = System.nanoTime() - startedAt;
+            stagesPurged.add(numberOfStagesPurged);
+            bytesPurged.add(bytesPurgedNow);
+            purgeNanos.add(purgeNanosNow);
+            planningNanos.add(planningNanosNow);
             if (availableSpace() < requiredSpace) {
                 LOGGER.warn("Ran out of stages to clear artifacts from but the disk space is still low");
             }
-            LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages. Current space: '{}'", numberOfStagesPurged, availableSpace());
+            LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages ('{}' MB at '{}' MB/s, planned in '{}' ms). Current space: '{}'",
+                numberOfStagesPurged, bytesPurgedNow / GoConstants.MEGA_BYTE, megabytesPerSecond(bytesPurgedNow, purgeNanosNow),
+                TimeUnit.NANOSECONDS.toMillis(planningNanosNow), availableSpace());
+        }
+    }
+
+    /**
+     * @return the bytes the artifacts of the stages took up, as far as they are known
+     */
+    private long purge(List<Stage> plan) {
+        long bytes = plan.stream().mapToLong(planner::sizeOf).sum();
+        if (plan.size() == 1) {
+            purge(plan.getFirst());
+            return bytes;
+        }
+        try {
+            List<Callable<Void>> purges = plan.stream().<Callable<Void>>map(stage -> () -> {
+                purge(stage);
+                return null;
+            }).toList();
+            for (Future<Void> purged : purgers.invokeAll(purges)) {
+                purged.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
         }
+        return bytes;
+    }
+
+    private void purge(Stage stage) {
+        artifactService.purgeArtifactsForStage(stage);
+        planner.purged(stage);
+    }
+
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Stages Purged", stagesPurged.sum());
+        json.put("MB Purged", bytesPurged.sum() / GoConstants.MEGA_BYTE);
+        json.put("MB Purged Per Second", megabytesPerSecond(bytesPurged.sum(), purgeNanos.sum()));
+        json.put("Planning Millis", TimeUnit.NANOSECONDS.toMillis(planningNanos.sum()));
+        json.put("Stages Measured", planner.indexedStages());
+        return json;
+    }
+
+    private static long megabytesPerSecond(long bytes, long nanos) {
+        return nanos == 0 ? 0 : bytes * TimeUnit.SECONDS.toNanos(1) / nanos / GoConstants.MEGA_BYTE;
     }
 
     @Override
@@ -99,7 +176,12 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
     @Override
     protected long limitInMb() {
         ServerConfig serverConfig = goConfigService.serverConfig();
-        return serverConfig.isArtifactPurgingAllowed() ? Double.valueOf(serverConfig.getPurgeStart() * GoConstants.MEGABYTES_IN_GIGABYTE).longValue() : Integer.MAX_VALUE;
+        if (!serverConfig.isArtifactPurgingAllowed()) {
+            return Integer.MAX_VALUE;
+        }
+        double proactivePercent = Math.clamp(systemEnvironment.get(GO_ARTIFACT_PURGE_PROACTIVE_PERCENT), 0, 100);
+        double lowWaterMark = serverConfig.getPurgeStart() + Math.max(0, serverConfig.getPurgeUpto() - serverConfig.getPurgeStart()) * proactivePercent / 100;
+        return Double.valueOf(lowWaterMark * GoConstants.MEGABYTES_IN_GIGABYTE).longValue();
     }
 
     @Override
@@ -25,13 +25,17 @@ import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
 import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
 import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
 import com.thoughtworks.go.util.*;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.Strings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.ZipInputStream;
 
 import static java.lang.String.format;
@@ -44,19 +48,21 @@ public class ArtifactsService implements ArtifactUrlReader {
     private final JobResolverService jobResolverService;
     private final StageDao stageDao;
     private final ArtifactDirectoryChooser chooser;
+    private final ArtifactBlobStore artifactBlobStore;
 
     @Autowired
     public ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                            ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil) {
-        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, new ArtifactDirectoryChooser());
+                            ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactBlobStore artifactBlobStore) {
+        this(jobResolverService, stageDao, artifactsDirHolder, zipUtil, artifactBlobStore, new ArtifactDirectoryChooser());
     }
 
     protected ArtifactsService(JobResolverService jobResolverService, StageDao stageDao,
-                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactDirectoryChooser chooser) {
+                               ArtifactsDirHolder artifactsDirHolder, ZipUtil zipUtil, ArtifactBlobStore artifactBlobStore, ArtifactDirectoryChooser chooser) {
         this.artifactsDirHolder = artifactsDirHolder;
         this.zipUtil = zipUtil;
         this.jobResolverService = jobResolverService;
         this.stageDao = stageDao;
+        this.artifactBlobStore = artifactBlobStore;
 
         //This is a Chain of Responsibility to decide which view should be shown for a particular artifact URL
         this.chooser = chooser;
@@ -69,6 +75,36 @@ public class ArtifactsService implements ArtifactUrlReader {
     }
 
     public boolean saveFile(File dest, InputStream stream, boolean shouldUnzip, int attempt) {
+        return saveFile(dest, stream, shouldUnzip, attempt, zipUtil);
+    }
+
+    /**
+     * Saves an artifact uploaded for a job, keeping a single copy of each of its files for all jobs uploading the same
+     * files when artifacts are deduplicated.
+     */
+    public boolean saveFile(File dest, InputStream stream, boolean shouldUnzip, int attempt, JobIdentifier jobIdentifier) throws IllegalArtifactLocationException {
+        if (!artifactBlobStore.isEnabled()) {
+            return saveFile(dest, stream, shouldUnzip, attempt);
+        }
+        File jobRoot = chooser.findArtifact(jobIdentifier, "");
+        Map<File, String> digests = new LinkedHashMap<>();
+        ZipUtil digestingZipUtil = new ZipUtil((entry, contents) -> digests.put(new File(dest, Strings.CS.removeStart(entry.getName(), "/")), DigestUtils.sha256Hex(contents)));
+        if (!saveFile(dest, stream, shouldUnzip, attempt, digestingZipUtil)) {
+            return false;
+        }
+        if (!shouldUnzip) {
+            try (InputStream saved = new FileInputStream(dest)) {
+                digests.put(dest, DigestUtils.sha256Hex(saved));
+            } catch (IOException e) {
+                LOGGER.warn("Not deduplicating artifact [{}] which could not be read back", dest.getAbsolutePath(), e);
+                return true;
+            }
+        }
+        artifactBlobStore.deduplicate(jobRoot, digests);
+        return true;
+    }
+
+    private boolean saveFile(File dest, InputStream stream, boolean shouldUnzip, int attempt, ZipUtil zipUtil) {
         String destPath = dest.getAbsolutePath();
         try {
             LOGGER.trace("Saving file [{}]", destPath);
@@ -100,6 +136,8 @@ public class ArtifactsService implements ArtifactUrlReader {
         String destPath = dest.getAbsolutePath();
         try {
             LOGGER.trace("Appending file [{}]", destPath);
+            // appending to a file linked to a blob would change the artifacts of every other job linked to it
+            artifactBlobStore.unlink(dest);
             try (FileOutputStream out = FileUtils.openOutputStream(dest, true)) {
                 stream.transferTo(out);
             }
@@ -189,6 +227,7 @@ public class ArtifactsService implements ArtifactUrlReader {
                     deletePartiallyFailed = true;
                 }
             }
+            artifactBlobStore.release(jobRoot);
         }
         return !deletePartiallyFailed;
     }
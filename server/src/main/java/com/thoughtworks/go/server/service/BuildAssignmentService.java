@@ -31,6 +31,7 @@ import com.thoughtworks.go.server.exceptions.RulesViolationException;
 import com.thoughtworks.go.server.materials.StaleMaterialsOnBuildCause;
 import com.thoughtworks.go.server.messaging.JobStatusMessage;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
+import com.thoughtworks.go.server.perf.WorkAssignmentPerformanceLogger;
 import com.thoughtworks.go.server.service.builders.BuilderFactory;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -41,10 +42,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
 
 import static com.thoughtworks.go.util.command.EnvironmentVariableContext.GO_ENVIRONMENT_NAME;
 import static java.lang.String.format;
@@ -61,6 +63,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
     public static final NoWork NO_WORK = new NoWork();
     public static final String GO_PIPELINE_GROUP_NAME = "GO_PIPELINE_GROUP_NAME";
     public static final String GO_AGENT_RESOURCES = "GO_AGENT_RESOURCES";
+    private static final int AGENT_LOCK_STRIPES = 64;
 
     private final GoConfigService goConfigService;
     private final JobInstanceService jobInstanceService;
@@ -78,8 +81,15 @@ public class BuildAssignmentService implements ConfigChangedListener {
     private final SecretParamResolver secretParamResolver;
     private final JobStatusTopic jobStatusTopic;
     private final ConsoleService consoleService;
+    private final WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger;
 
-    private List<JobPlan> jobPlans = new ArrayList<>();
+    /*
+     * Assigning work only needs the read lock, agents then claim job plans from the index without blocking each other.
+     * Replacing the index or removing job plans because of config changes needs the write lock.
+     */
+    private final ReadWriteLock jobPlansLock = new ReentrantReadWriteLock();
+    private final Object[] agentLocks = Stream.generate(Object::new).limit(AGENT_LOCK_STRIPES).toArray();
+    private volatile JobPlanIndex jobPlans = JobPlanIndex.EMPTY;
 
     @Autowired
     public BuildAssignmentService(GoConfigService goConfigService, JobInstanceService jobInstanceService,
@@ -89,7 +99,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
                                   BuilderFactory builderFactory,
                                   MaintenanceModeService maintenanceModeService, ElasticAgentPluginService elasticAgentPluginService,
                                   SystemEnvironment systemEnvironment, SecretParamResolver secretParamResolver, JobStatusTopic jobStatusTopic,
-                                  ConsoleService consoleService) {
+                                  ConsoleService consoleService, WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger) {
         this.goConfigService = goConfigService;
         this.jobInstanceService = jobInstanceService;
         this.scheduleService = scheduleService;
@@ -105,6 +115,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
         this.secretParamResolver = secretParamResolver;
         this.jobStatusTopic = jobStatusTopic;
         this.consoleService = consoleService;
+        this.workAssignmentPerformanceLogger = workAssignmentPerformanceLogger;
     }
 
     public void initialize() {
@@ -119,16 +130,16 @@ public class BuildAssignmentService implements ConfigChangedListener {
             public void onEntityConfigChange(PipelineConfig pipelineConfig) {
                 LOGGER.info("[Configuration Changed] Removing deleted jobs for pipeline {}.", pipelineConfig.name());
 
-                synchronized (BuildAssignmentService.this) {
+                withJobPlansWriteLock(() -> {
                     List<JobPlan> jobsToRemove;
                     if (goConfigService.hasPipelineNamed(pipelineConfig.name())) {
-                        jobsToRemove = getMismatchingJobPlansFromUpdatedPipeline(pipelineConfig, jobPlans);
+                        jobsToRemove = getMismatchingJobPlansFromUpdatedPipeline(pipelineConfig, jobPlans.jobPlans());
                     } else {
-                        jobsToRemove = getAllJobPlansFromDeletedPipeline(pipelineConfig, jobPlans);
+                        jobsToRemove = getAllJobPlansFromDeletedPipeline(pipelineConfig, jobPlans.jobPlans());
                     }
 
                     jobsToRemove.forEach(o -> tryRemoveJob(o));
-                }
+                });
             }
         };
     }
@@ -172,57 +183,78 @@ public class BuildAssignmentService implements ConfigChangedListener {
             return new DeniedAgentWork(agent.getUuid());
         }
 
-        synchronized (this) {
-//          check to ensure agent is not disabled after entering the synchronized block
-            if (agent.isDisabled()) {
-                return new DeniedAgentWork(agent.getUuid());
-            }
-            //check if agent already has assigned build, if so, reschedule it
-            scheduleService.rescheduleAbandonedBuildIfNecessary(agent.getAgentIdentifier());
-            final JobPlan job = findMatchingJob(agent);
-            if (job != null) {
-                Work buildWork = createWork(agent, job);
-                AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(), job.getIdentifier().buildLocator());
-                agentService.building(agent.getUuid(), buildingInfo);
-                if (!NO_WORK.equals(buildWork)) {
-                    LOGGER.info("[Agent Assignment] Assigned job [{}] to agent [{}]", job.getIdentifier(), agent.getAgent().getAgentIdentifier());
+        Lock readLock = jobPlansLock.readLock();
+        readLock.lock();
+        try {
+            synchronized (agentLockFor(agent.getUuid())) {
+//              check to ensure agent is not disabled after entering the synchronized block
+                if (agent.isDisabled()) {
+                    return new DeniedAgentWork(agent.getUuid());
+                }
+                //check if agent already has assigned build, if so, reschedule it
+                scheduleService.rescheduleAbandonedBuildIfNecessary(agent.getAgentIdentifier());
+                final JobPlan job = findMatchingJob(agent);
+                if (job != null) {
+                    Work buildWork = createWork(agent, job);
+                    AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(), job.getIdentifier().buildLocator());
+                    agentService.building(agent.getUuid(), buildingInfo);
+                    if (!NO_WORK.equals(buildWork)) {
+                        LOGGER.info("[Agent Assignment] Assigned job [{}] to agent [{}]", job.getIdentifier(), agent.getAgent().getAgentIdentifier());
+                    }
+                    return buildWork;
                 }
-                return buildWork;
             }
+        } finally {
+            readLock.unlock();
         }
         return NO_WORK;
     }
 
+    private Object agentLockFor(String agentUuid) {
+        return agentLocks[Math.floorMod(Objects.hashCode(agentUuid), AGENT_LOCK_STRIPES)];
+    }
+
+    private void withJobPlansWriteLock(Runnable runnable) {
+        Lock writeLock = jobPlansLock.writeLock();
+        writeLock.lock();
+        try {
+            runnable.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     @VisibleForTesting
     JobPlan findMatchingJob(AgentInstance agent) {
-        List<JobPlan> filteredJobPlans = environmentConfigService.filterJobsByAgent(jobPlans, agent.getUuid());
-        JobPlan match = null;
-        if (!agent.isElastic()) {
-            match = agent.firstMatching(filteredJobPlans);
-        } else {
-            for (JobPlan jobPlan : filteredJobPlans) {
-                try {
-                    if (jobPlan.requiresElasticAgent() && elasticAgentPluginService.shouldAssignWork(agent.elasticAgentMetadata(), environmentConfigService.envForPipeline(jobPlan.getPipelineName()), jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier())) {
-                        match = jobPlan;
-                        break;
-                    }
-                } catch (RulesViolationException | SecretResolutionFailureException e) {
-                    JobInstance instance = jobInstanceService.buildById(jobPlan.getJobId());
-                    JobIdentifier jobIdentifier = jobPlan.getIdentifier();
-                    String failureMessage = format("""
-                        
-                        This job was failed by GoCD. This job is configured to run on an elastic agent, there were errors while resolving secrets for the the associated elastic configurations.
-                        Reasons: %s""", e.getMessage());
-                    consoleService.appendToConsoleLogSafe(jobIdentifier, failureMessage);
-                    scheduleService.failJob(instance);
-                    jobStatusTopic.post(new JobStatusMessage(jobIdentifier, instance.getState(), agent.getUuid()));
+        JobPlanIndex index = jobPlans;
+        JobPlan match;
+        do {
+            List<JobPlan> filteredJobPlans = environmentConfigService.filterJobsByAgent(index.candidatesFor(agent.isElastic()), agent.getUuid());
+            match = agent.isElastic() ? firstElasticMatch(agent, filteredJobPlans) : agent.firstMatching(filteredJobPlans);
+            // another agent may have claimed the same job plan in the meantime, in which case look again
+        } while (match != null && !index.claim(match));
+        return match;
+    }
+
+    private JobPlan firstElasticMatch(AgentInstance agent, List<JobPlan> filteredJobPlans) {
+        for (JobPlan jobPlan : filteredJobPlans) {
+            try {
+                if (jobPlan.requiresElasticAgent() && elasticAgentPluginService.shouldAssignWork(agent.elasticAgentMetadata(), environmentConfigService.envForPipeline(jobPlan.getPipelineName()), jobPlan.getElasticProfile(), jobPlan.getClusterProfile(), jobPlan.getIdentifier())) {
+                    return jobPlan;
                 }
+            } catch (RulesViolationException | SecretResolutionFailureException e) {
+                JobInstance instance = jobInstanceService.buildById(jobPlan.getJobId());
+                JobIdentifier jobIdentifier = jobPlan.getIdentifier();
+                String failureMessage = format("""
+                    
+                    This job was failed by GoCD. This job is configured to run on an elastic agent, there were errors while resolving secrets for the the associated elastic configurations.
+                    Reasons: %s""", e.getMessage());
+                consoleService.appendToConsoleLogSafe(jobIdentifier, failureMessage);
+                scheduleService.failJob(instance);
+                jobStatusTopic.post(new JobStatusMessage(jobIdentifier, instance.getState(), agent.getUuid()));
             }
         }
-        if (match != null) {
-            jobPlans.remove(match);
-        }
-        return match;
+        return null;
     }
 
     @SuppressWarnings("unused") // used by spring scheduler
@@ -236,34 +268,34 @@ public class BuildAssignmentService implements ConfigChangedListener {
     }
 
     private void reloadJobPlans() {
-        synchronized (this) {
-            if (jobPlans == null) {
-                jobPlans = jobInstanceService.orderedScheduledBuilds();
-                elasticAgentPluginService.createAgentsFor(jobPlans, new ArrayList<>());
-            } else {
-                List<JobPlan> old = jobPlans;
-                List<JobPlan> newPlan = jobInstanceService.orderedScheduledBuilds();
-                jobPlans = newPlan;
-                elasticAgentPluginService.createAgentsFor(old, newPlan);
-            }
-        }
+        long reloadStartTime = System.currentTimeMillis();
+        long allocatedBytesBefore = workAssignmentPerformanceLogger.allocatedBytesOfCurrentThread();
+        withJobPlansWriteLock(() -> {
+            List<JobPlan> old = jobPlans.jobPlans();
+            List<JobPlan> newPlan = jobInstanceService.orderedScheduledBuilds();
+            jobPlans = new JobPlanIndex(newPlan, environmentConfigService::envForPipeline);
+            elasticAgentPluginService.createAgentsFor(old, newPlan);
+        });
+        long allocatedBytes = allocatedBytesBefore < 0 ? -1 : workAssignmentPerformanceLogger.allocatedBytesOfCurrentThread() - allocatedBytesBefore;
+        workAssignmentPerformanceLogger.reloadedJobPlans(jobPlans.size(), reloadStartTime, System.currentTimeMillis(), allocatedBytes);
     }
 
     @Override
     public void onConfigChange(CruiseConfig cruiseConfig) {
-        synchronized (this) {
-            if (jobPlans.isEmpty()) {
+        withJobPlansWriteLock(() -> {
+            List<JobPlan> currentJobPlans = jobPlans.jobPlans();
+            if (currentJobPlans.isEmpty()) {
                 return;
             }
             LOGGER.info("[Configuration Changed] Removing jobs for pipelines that no longer exist in configuration.");
             List<JobPlan> jobsToRemove = new ArrayList<>();
-            for (JobPlan jobPlan : jobPlans) {
+            for (JobPlan jobPlan : currentJobPlans) {
                 if (!cruiseConfig.hasBuildPlan(new CaseInsensitiveString(jobPlan.getPipelineName()), new CaseInsensitiveString(jobPlan.getStageName()), jobPlan.getName(), true)) {
                     jobsToRemove.add(jobPlan);
                 }
             }
             jobsToRemove.forEach(this::tryRemoveJob);
-        }
+        });
     }
 
     private void removeJobIfNotPresentInCruiseConfig(CruiseConfig cruiseConfig, JobPlan jobPlan) {
@@ -274,7 +306,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
 
     private void tryRemoveJob(JobPlan jobPlan) {
         try {
-            jobPlans.remove(jobPlan);
+            jobPlans.claim(jobPlan);
             LOGGER.info("Removing job plan {} that no longer exists in the config", jobPlan);
             JobInstance instance = jobInstanceService.buildByIdWithTransitions(jobPlan.getJobId());
             //#2846 - remove this hack
@@ -392,7 +424,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
     }
 
     List<JobPlan> jobPlans() {
-        return jobPlans;
+        return jobPlans.jobPlans();
     }
 
     // This method will resolve secrets in all the pluggable scm materials if any
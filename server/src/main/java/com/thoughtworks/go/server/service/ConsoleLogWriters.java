@@ -0,0 +1,144 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.thoughtworks.go.util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Understands keeping console logs of running jobs open for appending, so that every chunk of console output sent
+ * by an agent does not have to open the file again. Logs not appended to for a while are closed.
+ */
+class ConsoleLogWriters {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleLogWriters.class);
+
+    private final Cache<Path, ConsoleLogWriter> writers;
+
+    ConsoleLogWriters(int maxOpenLogs, Duration closeAfterIdle, Ticker ticker) {
+        this.writers = Caffeine.newBuilder()
+            .maximumSize(maxOpenLogs)
+            .expireAfterAccess(closeAfterIdle)
+            .ticker(ticker)
+            .executor(Runnable::run)
+            .<Path, ConsoleLogWriter>removalListener((path, writer, cause) -> {
+                if (writer != null) {
+                    writer.close();
+                }
+            })
+            .build();
+    }
+
+    void append(File dest, InputStream in) throws IOException {
+        Path path = dest.toPath().toAbsolutePath();
+        while (true) {
+            ConsoleLogWriter writer;
+            try {
+                writer = writers.get(path, ConsoleLogWriter::open);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            try {
+                if (writer.append(in)) {
+                    return;
+                }
+            } catch (IOException e) {
+                writers.asMap().remove(path, writer);
+                writer.close();
+                throw e;
+            }
+            // closed between looking it up and appending to it, nothing was read from the stream yet
+            writers.asMap().remove(path, writer);
+        }
+    }
+
+    void close(File dest) {
+        ConsoleLogWriter writer = writers.asMap().remove(dest.toPath().toAbsolutePath());
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    void cleanUp() {
+        writers.cleanUp();
+    }
+
+    long openLogs() {
+        return writers.estimatedSize();
+    }
+
+    private static class ConsoleLogWriter {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        private boolean closed;
+
+        private ConsoleLogWriter(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        static ConsoleLogWriter open(Path path) {
+            FileUtil.mkdirsParentQuietly(path.toFile());
+            try {
+                return new ConsoleLogWriter(path, FileChannel.open(path, CREATE, WRITE, APPEND));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized boolean append(InputStream in) throws IOException {
+            if (closed) {
+                return false;
+            }
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+                buffer.limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            return true;
+        }
+
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close console log at : [{}]", path, e);
+            }
+        }
+    }
+}
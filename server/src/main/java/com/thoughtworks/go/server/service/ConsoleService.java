@@ -15,7 +15,11 @@
  */
 package com.thoughtworks.go.server.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.thoughtworks.go.domain.ConsoleConsumer;
+import com.thoughtworks.go.domain.ConsoleLogIndex;
 import com.thoughtworks.go.domain.ConsoleStreamer;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.LocatableEntity;
@@ -24,7 +28,6 @@ import com.thoughtworks.go.server.view.artifacts.ArtifactDirectoryChooser;
 import com.thoughtworks.go.server.view.artifacts.BuildIdArtifactLocator;
 import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
 import com.thoughtworks.go.util.ArtifactUtil;
-import com.thoughtworks.go.util.FileUtil;
 import org.apache.commons.io.FileUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.VisibleForTesting;
@@ -34,15 +37,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
 
 @Component
 public class ConsoleService {
     private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleService.class);
 
+    private static final int MAX_OPEN_CONSOLE_LOGS = 1000;
+    private static final int MAX_INDEXED_CONSOLE_LOGS = 1000;
+    private static final Duration CLOSE_CONSOLE_LOG_AFTER_IDLE = Duration.ofMinutes(1);
+
     private final ArtifactDirectoryChooser chooser;
     private final ArtifactsDirHolder artifactsDirHolder;
+    private final ConsoleLogWriters consoleLogWriters;
+    private final Cache<Path, ConsoleLogIndex> consoleLogIndexes = Caffeine.newBuilder()
+        .maximumSize(MAX_INDEXED_CONSOLE_LOGS)
+        .expireAfterAccess(Duration.ofMinutes(30))
+        .build();
 
     @Autowired
     public ConsoleService(ArtifactsDirHolder artifactsDirHolder) {
@@ -51,8 +66,14 @@ public class ConsoleService {
 
     @VisibleForTesting
     ConsoleService(ArtifactDirectoryChooser chooser, ArtifactsDirHolder artifactsDirHolder) {
+        this(chooser, artifactsDirHolder, new ConsoleLogWriters(MAX_OPEN_CONSOLE_LOGS, CLOSE_CONSOLE_LOG_AFTER_IDLE, Ticker.systemTicker()));
+    }
+
+    @VisibleForTesting
+    ConsoleService(ArtifactDirectoryChooser chooser, ArtifactsDirHolder artifactsDirHolder, ConsoleLogWriters consoleLogWriters) {
         this.chooser = chooser;
         this.artifactsDirHolder = artifactsDirHolder;
+        this.consoleLogWriters = consoleLogWriters;
     }
 
     public void initialize() {
@@ -61,8 +82,23 @@ public class ConsoleService {
     }
 
     public ConsoleConsumer getStreamer(long startingLine, JobIdentifier identifier) throws IllegalArtifactLocationException {
-        Path path = consoleLogFile(identifier).toPath();
-        return new ConsoleStreamer(path, startingLine);
+        Path path = consoleLogFile(identifier).toPath().toAbsolutePath();
+        return new ConsoleStreamer(path, startingLine, consoleLogIndex(path));
+    }
+
+    /**
+     * @return the byte offset at which the given line of the console log of a job starts, or -1 if the console log
+     * does not have that many complete lines yet
+     */
+    public long consoleLogOffsetOfLine(JobIdentifier identifier, long line) throws IllegalArtifactLocationException, IOException {
+        Path path = consoleLogFile(identifier).toPath().toAbsolutePath();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return consoleLogIndex(path).offsetOfLine(channel, line);
+        }
+    }
+
+    private ConsoleLogIndex consoleLogIndex(Path path) {
+        return consoleLogIndexes.get(path, p -> new ConsoleLogIndex());
     }
 
     public boolean doesLogExist(JobIdentifier jobIdentifier) {
@@ -95,9 +131,8 @@ public class ConsoleService {
     }
 
     public boolean appendToConsoleLogIoSafe(File dest, InputStream in) {
-        FileUtil.mkdirsParentQuietly(dest);
-        try (OutputStream out = new FileOutputStream(dest, dest.exists())) {
-            in.transferTo(out);
+        try {
+            consoleLogWriters.append(dest, in);
         } catch (IOException e) {
             LOGGER.error("Failed to update console log at : [{}]", dest.getAbsolutePath(), e);
             return false;
@@ -124,6 +159,7 @@ public class ConsoleService {
     public void moveConsoleArtifacts(LocatableEntity locatableEntity) {
         File from = chooser.temporaryConsoleFile(locatableEntity);
         File to = consoleLogArtifactUnchecked(locatableEntity);
+        consoleLogWriters.close(from);
         try {
             // Job cancellation can skip temporary file creation. Force create one if it does not exist.
             FileUtils.touch(from);
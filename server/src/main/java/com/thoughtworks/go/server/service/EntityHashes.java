@@ -28,9 +28,16 @@ import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.plugin.api.info.PluginDescriptor;
 import com.thoughtworks.go.plugin.domain.common.PluginInfo;
 import com.thoughtworks.go.server.util.DigestMixin;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -65,16 +72,29 @@ public class EntityHashes implements DigestMixin {
         return digest(entities.stream().map(this::digestDomainConfigEntity).collect(Collectors.joining(SEP_CHAR)));
     }
 
+    /**
+     * Digests the XML form of a config entity as it is being written, rather than building it as a string first. This
+     * gives the same digest as {@link #digest(String)} would for the XML, without keeping a copy of it around.
+     *
+     * @param entity a config entity, i.e. one with a {@link com.thoughtworks.go.config.ConfigTag}
+     * @return a cryptographic hex digest ({@link String})
+     */
     public String digestDomainConfigEntity(Object entity) {
-        return digest(serializeDomainEntity(entity));
+        MessageDigest digest = DigestUtils.getSha512_256Digest();
+        try (OutputStream output = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            serializeDomainEntity(entity, output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Unlikely to happen as nothing is actually written anywhere
+        }
+        return Hex.encodeHexString(digest.digest());
     }
 
     public String digestDomainNonConfigEntity(Object entity) {
         return digest(GSON.toJson(entity));
     }
 
-    protected String serializeDomainEntity(Object domainObject) {
-        return xmlSerializer.toXmlPartial(domainObject);
+    protected void serializeDomainEntity(Object domainObject, OutputStream output) throws IOException {
+        xmlSerializer.writeXmlPartial(domainObject, output);
     }
 
     private interface Serializers {
@@ -335,18 +335,15 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
     }
 
     public String hashForEntity(PipelineConfig pipelineConfig, String groupName) {
-        return getFromCache(
-                cacheKey(pipelineConfig, pipelineConfig.name()),
-                () -> hashes.digest(
-                        hashes.digestDomainConfigEntity(pipelineConfig),
-                        groupName
-                )
+        return hashes.digest(
+                hashForPipelineConfig(pipelineConfig),
+                groupName
         );
     }
 
     public String hashForEntity(PipelineConfig pipelineConfig, String groupName, String pluginId) {
         return hashes.digest(
-                hashes.digestDomainConfigEntity(pipelineConfig),
+                hashForPipelineConfig(pipelineConfig),
                 groupName,
                 pluginId
         );
@@ -395,6 +392,15 @@ public class EntityHashingService implements ConfigChangedListener, Initializer
         );
     }
 
+    /**
+     * Only the pipeline itself is digested and cached, so that the group it is in and the plugin it is exported with
+     * can be mixed in without having to serialize the pipeline again for every combination of them.
+     */
+    private String hashForPipelineConfig(PipelineConfig pipelineConfig) {
+        String cacheKey = cacheKey(pipelineConfig, pipelineConfig.name());
+        return getConfigEntityDigestFromCache(cacheKey, pipelineConfig);
+    }
+
     public void removeFromCache(Object domainObject, CaseInsensitiveString name) {
         removeFromCache(domainObject, name.toLower());
     }
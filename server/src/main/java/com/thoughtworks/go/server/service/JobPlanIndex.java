@@ -0,0 +1,166 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.elastic.ElasticProfile;
+import com.thoughtworks.go.domain.JobPlan;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.toCollection;
+
+/**
+ * Understands grouping scheduled job plans by what they need from an agent (environment, resources, elastic profile
+ * or a specific agent). All job plans in a group match exactly the same agents, so only the oldest unclaimed plan
+ * of each group has to be considered when looking for work for a non-elastic agent.
+ * <p>
+ * The index is immutable once built, apart from job plans being claimed. Claiming is a compare-and-set on the plan
+ * itself, so agents polling for work concurrently only contend when they race for the very same job plan.
+ */
+class JobPlanIndex {
+    static final JobPlanIndex EMPTY = new JobPlanIndex(List.of(), pipelineName -> null);
+
+    private final List<Entry> entries;
+    private final List<Group> groups;
+    private final Map<JobPlan, Entry> entriesByPlan = new IdentityHashMap<>();
+
+    JobPlanIndex(List<JobPlan> jobPlans, Function<String, String> environmentForPipeline) {
+        this.entries = new ArrayList<>(jobPlans.size());
+        Map<Signature, Group> groupsBySignature = new LinkedHashMap<>();
+        for (JobPlan jobPlan : jobPlans) {
+            Entry entry = new Entry(entries.size(), jobPlan);
+            entries.add(entry);
+            entriesByPlan.put(jobPlan, entry);
+            Signature signature = Signature.of(jobPlan, environmentForPipeline.apply(jobPlan.getPipelineName()));
+            groupsBySignature.computeIfAbsent(signature, Group::new).add(entry);
+        }
+        this.groups = List.copyOf(groupsBySignature.values());
+    }
+
+    /**
+     * @return the number of job plans in the index, claimed or not
+     */
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the job plans which have not been claimed yet, in the order they were scheduled
+     */
+    List<JobPlan> jobPlans() {
+        return entries.stream().filter(Entry::isUnclaimed).map(Entry::jobPlan).collect(toCollection(ArrayList::new));
+    }
+
+    /**
+     * For non-elastic agents, returns the oldest unclaimed job plan of every group which does not need an elastic
+     * agent. For elastic agents, returns every unclaimed elastic job plan, since the elastic agent plugin decides on
+     * each job individually. Both are in the order the job plans were scheduled.
+     */
+    List<JobPlan> candidatesFor(boolean elasticAgent) {
+        if (elasticAgent) {
+            return entries.stream()
+                .filter(entry -> entry.isUnclaimed() && entry.jobPlan().requiresElasticAgent())
+                .map(Entry::jobPlan)
+                .toList();
+        }
+
+        return groups.stream()
+            .filter(group -> !group.signature().requiresElasticAgent())
+            .map(Group::oldestUnclaimed)
+            .filter(Objects::nonNull)
+            .sorted(comparingInt(Entry::position))
+            .map(Entry::jobPlan)
+            .toList();
+    }
+
+    /**
+     * @return true if the job plan was claimed by this call, false if it was claimed by someone else before, or was
+     * never part of this index
+     */
+    boolean claim(JobPlan jobPlan) {
+        Entry entry = entriesByPlan.get(jobPlan);
+        return entry != null && entry.claim();
+    }
+
+    int groupCount() {
+        return groups.size();
+    }
+
+    record Signature(String environment, Set<String> resources, String agentUuid, String elasticProfileId, String clusterProfileId, boolean requiresElasticAgent) {
+        static Signature of(JobPlan jobPlan, String environment) {
+            if (jobPlan.requiresElasticAgent()) {
+                ElasticProfile elasticProfile = jobPlan.getElasticProfile();
+                return new Signature(environment, Set.of(), null, elasticProfile.getId(), elasticProfile.getClusterProfileId(), true);
+            }
+
+            if (!jobPlan.assignedToAgent()) {
+                // job plans meant for a specific agent (e.g. run on all agents) are matched on the agent alone
+                return new Signature(environment, Set.of(), jobPlan.getAgentUuid(), null, null, false);
+            }
+
+            Set<String> resources = jobPlan.getResources().toResourceConfigs().resourceNames().stream()
+                .map(String::toLowerCase)
+                .collect(toCollection(TreeSet::new));
+            return new Signature(environment, resources, null, null, null, false);
+        }
+    }
+
+    private static class Group {
+        private final Signature signature;
+        private final List<Entry> entries = new ArrayList<>();
+        private final AtomicInteger head = new AtomicInteger();
+
+        Group(Signature signature) {
+            this.signature = signature;
+        }
+
+        Signature signature() {
+            return signature;
+        }
+
+        void add(Entry entry) {
+            entries.add(entry);
+        }
+
+        Entry oldestUnclaimed() {
+            int current = head.get();
+            while (current < entries.size() && !entries.get(current).isUnclaimed()) {
+                current++;
+            }
+            // only ever moves forward, claimed entries never become unclaimed again
+            head.accumulateAndGet(current, Math::max);
+            return current < entries.size() ? entries.get(current) : null;
+        }
+    }
+
+    private record Entry(int position, JobPlan jobPlan, AtomicBoolean claimed) {
+        Entry(int position, JobPlan jobPlan) {
+            this(position, jobPlan, new AtomicBoolean(false));
+        }
+
+        boolean isUnclaimed() {
+            return !claimed.get();
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
@@ -102,7 +102,7 @@ public class MaterialExpansionService {
         String cacheKey = cacheKeyForSubversionMaterialCommand(materialConfig.getFingerprint());
         Subversion svnLazyLoaded = goCache.get(cacheKey);
         if (svnLazyLoaded == null || !svnLazyLoaded.getUrl().originalArgument().equals(materialConfig.getUrl())) {
-            synchronized (cacheKey) {
+            synchronized (GoCache.lockFor(cacheKey)) {
                 svnLazyLoaded = goCache.get(cacheKey);
                 if (svnLazyLoaded == null || !svnLazyLoaded.getUrl().originalArgument().equals(materialConfig.getUrl())) {
                     svnLazyLoaded = new SvnCommand(materialConfig.getFingerprint(), materialConfig.getUrl(),
@@ -29,12 +29,14 @@ import com.thoughtworks.go.server.service.result.ServerHealthServiceUpdatingOper
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,7 +55,11 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
     private ScheduleCheckQueue scheduleCheckQueue;
     private ScheduleCheckCompletedTopic scheduleCheckCompletedTopic;
     private SchedulingPerformanceLogger schedulingPerformanceLogger;
+    private SystemEnvironment systemEnvironment;
     private final Map<String, ScheduleCheckState> pipelines = new HashMap<>();
+    // when each pipeline was last sent to be checked, in the order they were sent, so that deferred slow pipelines take turns
+    private final Map<String, Long> lastPosted = new HashMap<>();
+    private long postings;
 
     protected PipelineScheduler() {
     }
@@ -65,7 +71,8 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
                       BuildCauseProducerService buildCauseProducerService,
                       ScheduleCheckQueue scheduleCheckQueue,
                       ScheduleCheckCompletedTopic scheduleCheckCompletedTopic,
-                      SchedulingPerformanceLogger schedulingPerformanceLogger) {
+                      SchedulingPerformanceLogger schedulingPerformanceLogger,
+                      SystemEnvironment systemEnvironment) {
         this.goConfigService = goConfigService;
         this.serverHealthService = serverHealthService;
         this.schedulingChecker = schedulingChecker;
@@ -73,6 +80,7 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
         this.scheduleCheckQueue = scheduleCheckQueue;
         this.scheduleCheckCompletedTopic = scheduleCheckCompletedTopic;
         this.schedulingPerformanceLogger = schedulingPerformanceLogger;
+        this.systemEnvironment = systemEnvironment;
     }
 
     public void initialize() {
@@ -90,6 +98,8 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
                     addPipelineIfNotPresent(pipelineConfig, pipelines);
                     if (!goConfigService.getAllPipelineConfigs().contains(pipelineConfig)) {
                         pipelines.remove(pipelineConfig.name().toString());
+                        lastPosted.remove(pipelineConfig.name().toString());
+                        schedulingPerformanceLogger.forgetPipeline(pipelineConfig.name().toString());
                     }
                 }
             }
@@ -126,21 +136,54 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
     }
 
     void checkPipelines() {
+        long slowPipelineMillis = systemEnvironment.get(SystemEnvironment.GO_SCHEDULE_CHECK_SLOW_PIPELINE_MILLIS);
+        int maximumSlowPipelinesBeingChecked = Math.max(1, systemEnvironment.getNumberOfMaterialCheckListener() / 2);
+
         synchronized (pipelines) {
+            List<String> idleSlowPipelines = new ArrayList<>();
+            int slowPipelinesBeingChecked = 0;
             for (Map.Entry<String, ScheduleCheckState> entry : pipelines.entrySet()) {
+                boolean slow = schedulingPerformanceLogger.lastEvaluationMillis(entry.getKey()) >= slowPipelineMillis;
                 if (entry.getValue().equals(ScheduleCheckState.IDLE)) {
-                    long trackingId = schedulingPerformanceLogger.pipelineSentToScheduleCheckQueue(entry.getKey());
-
-                    scheduleCheckQueue.post(new ScheduleCheckMessage(entry.getKey(), trackingId));
-                    pipelines.put(entry.getKey(), ScheduleCheckState.BUSY);
-
+                    if (slow) {
+                        idleSlowPipelines.add(entry.getKey());
+                    } else {
+                        postScheduleCheck(entry.getKey());
+                    }
+                } else {
+                    if (slow) {
+                        slowPipelinesBeingChecked++;
+                    }
                     if (LOGGER.isTraceEnabled()) {
-                        LOGGER.trace("try to schedule pipeline {}, current pipeline state: {}", entry.getKey(), pipelines);
+                        LOGGER.trace("skipping scheduling pipeline {} because it's busy scheduling, current pipelines state: {}", entry.getKey(), pipelines);
                     }
-                } else if (LOGGER.isTraceEnabled()) {
-                    LOGGER.trace("skipping scheduling pipeline {} because it's busy scheduling, current pipelines state: {}", entry.getKey(), pipelines);
                 }
             }
+
+            // pipelines which are slow to evaluate (usually because of deep fan-in) are checked last, and only a few at a time,
+            // so that they cannot keep every schedule check listener busy while other pipelines wait. The ones which have
+            // waited longest go first, so that none of them is deferred forever.
+            idleSlowPipelines.sort(Comparator.comparingLong(pipelineName -> lastPosted.getOrDefault(pipelineName, 0L)));
+            for (String pipelineName : idleSlowPipelines) {
+                if (slowPipelinesBeingChecked >= maximumSlowPipelinesBeingChecked) {
+                    LOGGER.debug("deferring scheduling pipeline {} because {} slow pipelines are being checked already", pipelineName, slowPipelinesBeingChecked);
+                    continue;
+                }
+                postScheduleCheck(pipelineName);
+                slowPipelinesBeingChecked++;
+            }
+        }
+    }
+
+    private void postScheduleCheck(String pipelineName) {
+        long trackingId = schedulingPerformanceLogger.pipelineSentToScheduleCheckQueue(pipelineName);
+
+        scheduleCheckQueue.post(new ScheduleCheckMessage(pipelineName, trackingId));
+        pipelines.put(pipelineName, ScheduleCheckState.BUSY);
+        lastPosted.put(pipelineName, ++postings);
+
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("try to schedule pipeline {}, current pipeline state: {}", pipelineName, pipelines);
         }
     }
 
@@ -221,6 +264,8 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
 
             for (String pipelineName : deletedPipeline) {
                 pipelines.remove(pipelineName);
+                lastPosted.remove(pipelineName);
+                schedulingPerformanceLogger.forgetPipeline(pipelineName);
             }
         }
     }
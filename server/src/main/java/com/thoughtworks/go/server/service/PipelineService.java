@@ -29,12 +29,14 @@ import com.thoughtworks.go.server.domain.PipelineConfigDependencyGraph;
 import com.thoughtworks.go.server.domain.PipelineTimeline;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.dd.FanInGraph;
+import com.thoughtworks.go.server.service.dd.FanInResolutionCache;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.SystemEnvironment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Queue;
 import java.util.function.IntSupplier;
@@ -54,6 +56,7 @@ public class PipelineService implements UpstreamPipelineResolver {
     private final MaterialRepository materialRepository;
     private final MaterialConfigConverter materialConfigConverter;
     private final IntSupplier maxBackTrackLimit;
+    private final FanInResolutionCache fanInResolutionCache = new FanInResolutionCache();
 
     @Autowired
     public PipelineService(PipelineSqlMapDao pipelineDao, StageService stageService, PipelineLockService pipelineLockService, PipelineTimeline pipelineTimeline, MaterialRepository materialRepository,
@@ -209,11 +212,15 @@ public class PipelineService implements UpstreamPipelineResolver {
 
     public MaterialRevisions getRevisionsBasedOnDependencies(MaterialRevisions actualRevisions, CruiseConfig cruiseConfig, CaseInsensitiveString pipelineName) {
         FanInGraph fanInGraph = new FanInGraph(cruiseConfig, pipelineName, materialRepository, pipelineDao, materialConfigConverter, maxBackTrackLimit);
-        final MaterialRevisions computedRevisions = fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+        final MaterialRevisions computedRevisions = fanInResolutionCache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline);
         fillUpNonOverridableRevisions(actualRevisions, computedRevisions);
         return restoreOriginalMaterialConfigAndMaterialOrderUsingFingerprint(actualRevisions, computedRevisions);
     }
 
+    public Map<String, Object> fanInResolutionStatistics() {
+        return fanInResolutionCache.statistics();
+    }
+
     private void fillUpNonOverridableRevisions(MaterialRevisions actualRevisions, MaterialRevisions computedRevisions) {
         for (int i = 0; i < actualRevisions.numberOfRevisions(); i++) {
             MaterialRevision actualRev = actualRevisions.getMaterialRevision(i);
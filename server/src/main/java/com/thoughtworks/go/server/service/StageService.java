@@ -331,7 +331,7 @@ public class StageService implements StageFinder {
         String key = cacheKeyForLatestStageFeedForPipeline(pipelineName);
         List<StageFeedEntry> feedEntries = goCache.get(key);
         if (feedEntries == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 feedEntries = goCache.get(key);//Double check locking is done because the query is expensive (takes about 2 seconds)
                 if (feedEntries == null) {
                     feedEntries = stageDao.findCompletedStagesFor(pipelineName, FeedModifier.Latest, -1, FEED_PAGE_SIZE);
@@ -356,7 +356,7 @@ public class StageService implements StageFinder {
         List<StageFeedEntry> feedEntries = goCache.get(key);
 
         if (feedEntries == null) {
-            synchronized (key) {
+            synchronized (GoCache.lockFor(key)) {
                 feedEntries = goCache.get(key);
                 if (feedEntries == null) {
                     feedEntries = stageDao.findStageFeedBy(pipelineName, null, null, FEED_PAGE_SIZE);
@@ -379,12 +379,12 @@ public class StageService implements StageFinder {
 
     private void clearCachedCompletedStageFeeds(String pipelineName) {
         String key = cacheKeyForLatestStageFeedForPipeline(pipelineName);
-        synchronized (key) {
+        synchronized (GoCache.lockFor(key)) {
             goCache.remove(key);
         }
 
         key = cacheKeyForLatestStageFeedForPipelineSortedByPipelineCounter(pipelineName);
-        synchronized (key) {
+        synchronized (GoCache.lockFor(key)) {
             goCache.remove(key);
         }
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.thoughtworks.go.domain.AccessToken;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ACCESS_TOKEN_CACHE_SIZE;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ACCESS_TOKEN_CACHE_TTL_SECONDS;
+
+/**
+ * Understands remembering which access tokens have already been checked against their PBKDF2 digest, so that API
+ * requests presenting the same token again do not have to pay for digesting it again. Presented tokens are never kept;
+ * they are remembered by their HMAC under a key that only lives as long as the server does. A remembered token still has
+ * to match the id and digest of the token stored in the database, so revoking or replacing a token cannot be bypassed.
+ */
+@Component
+public class VerifiedAccessTokenCache {
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, VerifiedToken> verifiedTokens;
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hitNanos = new LongAdder();
+    private final LongAdder missNanos = new LongAdder();
+
+    private record VerifiedToken(long id, String username, String digest) {
+    }
+
+    @Autowired
+    public VerifiedAccessTokenCache(SystemEnvironment systemEnvironment) {
+        this(systemEnvironment.get(GO_ACCESS_TOKEN_CACHE_SIZE), systemEnvironment.get(GO_ACCESS_TOKEN_CACHE_TTL_SECONDS));
+    }
+
+    VerifiedAccessTokenCache(int maximumSize, int timeToLiveSeconds) {
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(Math.max(0, maximumSize))
+            .expireAfterWrite(Math.max(0, timeToLiveSeconds), TimeUnit.SECONDS)
+            .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, MAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @return true if the presented token was verified against this very token before
+     */
+    public boolean isVerified(String presentedToken, AccessToken token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(hmacOf(presentedToken));
+        return verified != null && verified.id() == token.getId() && verified.digest().equals(token.getValue());
+    }
+
+    public void verified(String presentedToken, AccessToken token) {
+        verifiedTokens.put(hmacOf(presentedToken), new VerifiedToken(token.getId(), token.getUsername(), token.getValue()));
+    }
+
+    public void recordVerification(boolean wasCached, long nanos) {
+        if (wasCached) {
+            hits.increment();
+            hitNanos.add(nanos);
+        } else {
+            misses.increment();
+            missNanos.add(nanos);
+        }
+    }
+
+    public void invalidateToken(long id) {
+        verifiedTokens.asMap().values().removeIf(verified -> verified.id() == id);
+    }
+
+    public void invalidateUsers(Collection<String> usernames) {
+        verifiedTokens.asMap().values().removeIf(verified -> usernames.stream().anyMatch(username -> username.equalsIgnoreCase(verified.username())));
+    }
+
+    public void invalidateAll() {
+        verifiedTokens.invalidateAll();
+    }
+
+    public Map<String, Object> statistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Size", verifiedTokens.estimatedSize());
+        json.put("Hits", hitCount);
+        json.put("Misses", missCount);
+        json.put("Hit Ratio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        json.put("Average Verification Micros When Cached", hitCount == 0 ? 0 : hitNanos.sum() / hitCount / 1000);
+        json.put("Average Verification Micros When Not Cached", missCount == 0 ? 0 : missNanos.sum() / missCount / 1000);
+        return json;
+    }
+
+    private String hmacOf(String presentedToken) {
+        return Base64.getEncoder().encodeToString(macs.get().doFinal(presentedToken.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -55,10 +55,12 @@ public class FanInGraph {
     private final Map<String, MaterialConfig> fingerprintScmMaterialMap = new HashMap<>();
     private final Map<String, DependencyMaterialConfig> fingerprintDepMaterialMap = new HashMap<>();
     private final Map<DependencyMaterialConfig, Set<String>> dependencyMaterialFingerprintMap = new HashMap<>();
+    private final SortedSet<String> edges = new TreeSet<>();
 
     private final DependencyFanInNode root;
     private final CaseInsensitiveString pipelineName;
     private final IntSupplier maxBackTrackLimit;
+    private int backTracks;
 
     public FanInGraph(CruiseConfig cruiseConfig, CaseInsensitiveString root, MaterialRepository materialRepository, PipelineDao pipelineDao,
                       MaterialConfigConverter materialConfigConverter, IntSupplier maxBackTrackLimit) {
@@ -86,6 +88,7 @@ public class FanInGraph {
         for (MaterialConfig material : target.materialConfigs()) {
             FanInNode<?> node = nodes.computeIfAbsent(material.getFingerprint(), k -> FanInNode.create(material));
             root.addChild(node);
+            edges.add(root.materialConfig.getFingerprint() + ">" + material.getFingerprint());
             if (node instanceof DependencyFanInNode) {
                 DependencyMaterialConfig dependencyMaterial = (DependencyMaterialConfig) material;
                 fingerprintDepMaterialMap.put(dependencyMaterial.getFingerprint(), dependencyMaterial);
@@ -126,6 +129,52 @@ public class FanInGraph {
         return scmMaterials;
     }
 
+    public CaseInsensitiveString pipelineName() {
+        return pipelineName;
+    }
+
+    public boolean needsFanIn() {
+        return !FanInNode.ByType.from(root.children).isAllScm();
+    }
+
+    /**
+     * @return how many times the revision of an upstream had to be changed to make the revisions of the graph agree,
+     * when the revisions were last computed
+     */
+    public int backTracks() {
+        return backTracks;
+    }
+
+    /**
+     * @return something which changes whenever the revisions computed for this graph could: the shape of the graph, how
+     * many times each pipeline in it has run, and the latest modification of every material in it
+     */
+    public String watermark(PipelineTimeline pipelineTimeline) {
+        StringBuilder watermark = new StringBuilder();
+        for (String edge : edges) {
+            watermark.append(edge).append('\n');
+        }
+        watermark.append(pipelineName).append('=').append(pipelineTimeline.instanceCount(pipelineName)).append('\n');
+        MaterialConfigs upstreamMaterials = new MaterialConfigs();
+        for (FanInNode<?> node : new TreeMap<>(nodes).values()) {
+            if (node == root) {
+                continue;
+            }
+            upstreamMaterials.add(node.materialConfig);
+            if (node.materialConfig instanceof DependencyMaterialConfig dependencyMaterial) {
+                watermark.append(dependencyMaterial.getPipelineName()).append('=').append(pipelineTimeline.instanceCount(dependencyMaterial.getPipelineName())).append('\n');
+            }
+        }
+        for (MaterialRevision revision : materialRepository.findLatestRevisions(upstreamMaterials)) {
+            watermark.append(revision.getMaterial().getFingerprint()).append('@');
+            if (!revision.getModifications().isEmpty()) {
+                watermark.append(revision.getLatestModification().getId());
+            }
+            watermark.append('\n');
+        }
+        return watermark.toString();
+    }
+
     private Map<DependencyMaterialConfig, Set<MaterialConfig>> getPipelineScmDepMap() {
         Map<DependencyMaterialConfig, Set<MaterialConfig>> dependencyMaterialListMap = new HashMap<>();
 
@@ -150,6 +199,7 @@ public class FanInGraph {
             return actualRevisions;
         }
 
+        backTracks = 0;
         FanInGraphContext context = contextFor(pipelineTimeline);
         root.initialize(context);
 
@@ -221,6 +271,7 @@ public class FanInGraph {
     private void iterateAndMakeAllUniqueScmRevisionsForChildrenSame(List<DependencyFanInNode> depChildren, CaseInsensitiveString pipelineName, FanInGraphContext context) {
         StageIdFaninScmMaterialPair revisionToSet = getRevisionToSet();
         while (revisionToSet != null) {
+            backTracks++;
             for (DependencyFanInNode child : depChildren) {
                 final DependencyFanInNode.RevisionAlteration revisionAlteration = child.setRevisionTo(revisionToSet, context);
                 if (revisionAlteration == ALL_OPTIONS_EXHAUSTED) {
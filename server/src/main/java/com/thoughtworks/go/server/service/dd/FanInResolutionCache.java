@@ -0,0 +1,113 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Understands remembering what the fan-in graph of each pipeline was last resolved to, so that it does not have to be
+ * resolved again, back-tracking through the same upstream runs, until something the resolution depends on changes.
+ * Only the latest resolution of every pipeline is kept, along with the {@link FanInGraph#watermark} and revisions it
+ * was computed from. Failing to find compatible upstream revisions is remembered just like a successful resolution.
+ */
+public class FanInResolutionCache {
+    private final Map<CaseInsensitiveString, Resolution> resolutions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder backTracks = new LongAdder();
+    private final LongAdder backTracksSaved = new LongAdder();
+    private final LongAdder nanosSaved = new LongAdder();
+
+    private record Resolution(String key, MaterialRevisions revisions, RuntimeException failure, int backTracks, long nanos) {
+        MaterialRevisions result() {
+            if (failure != null) {
+                throw failure;
+            }
+            return copyOf(revisions);
+        }
+    }
+
+    public MaterialRevisions computeRevisions(FanInGraph fanInGraph, MaterialRevisions actualRevisions, PipelineTimeline pipelineTimeline) {
+        if (!fanInGraph.needsFanIn()) {
+            return fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+        }
+        String key = fanInGraph.watermark(pipelineTimeline) + keyOf(actualRevisions);
+        Resolution resolution = resolutions.get(fanInGraph.pipelineName());
+        if (resolution != null && resolution.key().equals(key)) {
+            hits.increment();
+            backTracksSaved.add(resolution.backTracks());
+            nanosSaved.add(resolution.nanos());
+            return resolution.result();
+        }
+
+        misses.increment();
+        long startTime = System.nanoTime();
+        try {
+            MaterialRevisions revisions = fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+            resolutions.put(fanInGraph.pipelineName(), new Resolution(key, copyOf(revisions), null, fanInGraph.backTracks(), System.nanoTime() - startTime));
+            return revisions;
+        } catch (NoCompatibleUpstreamRevisionsException | MaxBackTrackLimitReachedException e) {
+            resolutions.put(fanInGraph.pipelineName(), new Resolution(key, null, e, fanInGraph.backTracks(), System.nanoTime() - startTime));
+            throw e;
+        } catch (RuntimeException e) {
+            resolutions.remove(fanInGraph.pipelineName());
+            throw e;
+        } finally {
+            backTracks.add(fanInGraph.backTracks());
+        }
+    }
+
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Pipelines", resolutions.size());
+        json.put("Hits", hits.sum());
+        json.put("Misses", misses.sum());
+        json.put("Back-tracks", backTracks.sum());
+        json.put("Back-tracks Saved", backTracksSaved.sum());
+        json.put("Millis Saved", TimeUnit.NANOSECONDS.toMillis(nanosSaved.sum()));
+        return json;
+    }
+
+    private static String keyOf(MaterialRevisions actualRevisions) {
+        StringBuilder key = new StringBuilder();
+        for (MaterialRevision revision : actualRevisions) {
+            key.append(revision.getMaterial().getFingerprint()).append(revision.isChanged() ? '+' : '=');
+            for (Modification modification : revision.getModifications()) {
+                key.append(modification.getId()).append(':').append(modification.getRevision()).append(',');
+            }
+            key.append('\n');
+        }
+        return key.toString();
+    }
+
+    private static MaterialRevisions copyOf(MaterialRevisions revisions) {
+        List<MaterialRevision> copies = revisions.getRevisions().stream()
+            .map(revision -> new MaterialRevision(revision.getMaterial(), revision.isChanged(), revision.getModifications()))
+            .toList();
+        return new MaterialRevisions(copies);
+    }
+}
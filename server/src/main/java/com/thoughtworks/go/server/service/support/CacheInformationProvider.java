@@ -15,10 +15,13 @@
  */
 package com.thoughtworks.go.server.service.support;
 
+import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.service.VerifiedAccessTokenCache;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.config.CacheConfiguration;
 import net.sf.ehcache.statistics.StatisticsGateway;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.LinkedHashMap;
@@ -26,6 +29,14 @@ import java.util.Map;
 
 @Component
 public class CacheInformationProvider implements ServerInfoProvider {
+    private final GoCache goCache;
+    private final VerifiedAccessTokenCache verifiedAccessTokenCache;
+
+    @Autowired
+    public CacheInformationProvider(GoCache goCache, VerifiedAccessTokenCache verifiedAccessTokenCache) {
+        this.goCache = goCache;
+        this.verifiedAccessTokenCache = verifiedAccessTokenCache;
+    }
 
     @Override
     public double priority() {
@@ -35,6 +46,8 @@ public class CacheInformationProvider implements ServerInfoProvider {
     @Override
     public Map<String, Object> asJsonCompatibleMap() {
         LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("GoCache regions", goCache.statistics());
+        json.put("Verified access tokens", verifiedAccessTokenCache.statistics());
 
         for (CacheManager cacheManager : CacheManager.ALL_CACHE_MANAGERS) {
             LinkedHashMap<String, Object> jsonForManager = new LinkedHashMap<>();
@@ -0,0 +1,47 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.messaging.notifications.PendingPluginNotifications;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class PluginNotificationInformationProvider implements ServerInfoProvider {
+    private final PendingPluginNotifications pendingNotifications;
+
+    @Autowired
+    public PluginNotificationInformationProvider(PendingPluginNotifications pendingNotifications) {
+        this.pendingNotifications = pendingNotifications;
+    }
+
+    @Override
+    public double priority() {
+        return 12.75;
+    }
+
+    @Override
+    public Map<String, Object> asJsonCompatibleMap() {
+        return pendingNotifications.statistics();
+    }
+
+    @Override
+    public String name() {
+        return "Plugin Notifications";
+    }
+}
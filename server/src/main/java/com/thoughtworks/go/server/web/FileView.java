@@ -67,7 +67,7 @@ public class FileView implements View, ServletContextAware {
     private void setOutput(boolean needToZip, File file, HttpServletResponse response) throws IOException {
         ServletOutputStream out = response.getOutputStream();
         if (needToZip) {
-            new ZipUtil().zip(file, out, Deflater.NO_COMPRESSION);
+            new ZipUtil().zipWithoutRecompressing(file, out, Deflater.BEST_SPEED);
         } else {
             try (FileInputStream input = new FileInputStream(file)) {
                 input.transferTo(out);
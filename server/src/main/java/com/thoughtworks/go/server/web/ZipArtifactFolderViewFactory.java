@@ -33,6 +33,12 @@ public class ZipArtifactFolderViewFactory implements ArtifactFolderViewFactory {
 
     @Override
     public ModelAndView createView(JobIdentifier identifier, ArtifactFolder artifactFolder) throws IOException {
+        if (zipArtifactCache.isStreaming()) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("targetFile", artifactFolder.getRootFolder());
+            data.put(FileView.NEED_TO_ZIP, true);
+            return new ModelAndView("fileView", data);
+        }
         if (zipArtifactCache.cacheCreated(artifactFolder)) {
             Map<String, Object> data = new HashMap<>();
             data.put("targetFile", zipArtifactCache.cachedFile(artifactFolder));
@@ -21,7 +21,6 @@ import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
 import com.thoughtworks.go.server.dao.JobInstanceDao;
 import com.thoughtworks.go.server.service.ConsoleService;
 import com.thoughtworks.go.server.util.Retryable;
-import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.commons.io.output.ProxyOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +31,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
-import java.nio.charset.Charset;
-import java.util.zip.GZIPOutputStream;
 
 @Component
 public class ConsoleLogSender {
@@ -42,17 +39,16 @@ public class ConsoleLogSender {
     private static final int LOG_DOES_NOT_EXIST = 4004;
     private static final int LOG_FILE_DOES_NOT_EXIST = 4410;
     private static final int BUF_SIZE = 1024 * 1024; // 1MB
-    private static final int FILL_INTERVAL_MILLIS = 500;
 
-    private final Charset charset;
     private final ConsoleService consoleService;
     private final JobInstanceDao jobInstanceDao;
+    private final ConsoleLogTailer consoleLogTailer;
 
     @Autowired
-    ConsoleLogSender(ConsoleService consoleService, JobInstanceDao jobInstanceDao, SystemEnvironment systemEnvironment) {
+    ConsoleLogSender(ConsoleService consoleService, JobInstanceDao jobInstanceDao, ConsoleLogTailer consoleLogTailer) {
         this.consoleService = consoleService;
         this.jobInstanceDao = jobInstanceDao;
-        this.charset = systemEnvironment.consoleLogCharset();
+        this.consoleLogTailer = consoleLogTailer;
     }
 
     public void process(final SocketEndpoint webSocket, JobIdentifier jobIdentifier, long start) throws IllegalArtifactLocationException, IOException {
@@ -68,8 +64,6 @@ public class ConsoleLogSender {
             return;
         }
 
-        boolean isRunningBuild = !detectCompleted;
-
         // Sometimes the log file may not have been created yet; leave it up to the client to handle reconnect logic.
         try {
             waitForLogToExist(webSocket, jobIdentifier);
@@ -78,43 +72,17 @@ public class ConsoleLogSender {
             return;
         }
 
-        try (ConsoleConsumer streamer = consoleService.getStreamer(start, jobIdentifier)) {
-            do {
-                start += sendLogs(webSocket, streamer, jobIdentifier);
-
-                // allow buffers to fill to avoid sending 1 line at a time for running builds
-                if (isRunningBuild) {
-                    try {
-                        //noinspection BusyWait
-                        Thread.sleep(FILL_INTERVAL_MILLIS);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            } while (webSocket.isOpen() && !detectCompleted(jobIdentifier) && !Thread.currentThread().isInterrupted());
+        if (!detectCompleted) {
+            // the tailer sends the rest of the log as it gets written, and closes the socket once the job completes
+            consoleLogTailer.follow(webSocket, jobIdentifier, start);
+            return;
+        }
 
+        try (ConsoleConsumer streamer = consoleService.getStreamer(start, jobIdentifier)) {
+            sendLogs(webSocket, streamer, jobIdentifier);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Sent {} log lines for {} from {}", streamer.totalLinesConsumed(), jobIdentifier, consoleService.consoleLogFile(jobIdentifier).toPath());
             }
-            // empty the tail end of the file because the build could have been marked completed, and exited the
-            // loop before we've seen the last content update
-            if (isRunningBuild) {
-                sendLogs(webSocket, streamer, jobIdentifier);
-            }
-
-            //send the remaining logs if any
-            if (detectCompleted(jobIdentifier)) {
-                try (ConsoleConsumer consoleFileStreamer = consoleService.getStreamer(start, jobIdentifier)) {
-                    start += sendLogs(webSocket, consoleFileStreamer, jobIdentifier);
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Sent {} log lines for {} from {}", streamer.totalLinesConsumed(), jobIdentifier, consoleService.consoleLogFile(jobIdentifier).toPath());
-                    }
-                }
-            }
-
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Sent {} log lines for {} from all sources", start, jobIdentifier);
-            }
         } finally {
             webSocket.close();
         }
@@ -135,15 +103,12 @@ public class ConsoleLogSender {
     private long sendLogs(final SocketEndpoint webSocket, final ConsoleConsumer console, final JobIdentifier jobIdentifier) throws IOException {
         final ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUF_SIZE);
         final OutputStream proxyOutputStream = new AutoFlushingStream(buffer, webSocket, BUF_SIZE);
-        long linesProcessed = console.stream(line -> {
+        // lines are sent as they are stored in the console log, there is no need to decode and encode them again
+        long linesProcessed = console.streamBytes(lines -> {
             try {
-                byte[] bytes = line.getBytes(charset);
-                ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(bytes.length);
-                byteArrayOutputStream.write(bytes);
-                byteArrayOutputStream.write('\n');
-                proxyOutputStream.write(byteArrayOutputStream.toByteArray());
+                proxyOutputStream.write(lines.array(), lines.arrayOffset() + lines.position(), lines.remaining());
             } catch (IOException e) {
-                LOGGER.error("Failed to send log line {} for {}", console.totalLinesConsumed(), jobIdentifier, e);
+                LOGGER.error("Failed to send log lines after line {} for {}", console.totalLinesConsumed(), jobIdentifier, e);
             }
         });
 
@@ -160,17 +125,7 @@ public class ConsoleLogSender {
     }
 
     byte[] maybeGzipIfLargeEnough(byte[] input) {
-        if (input.length < 512) {
-            return input;
-        }
-        // To avoid having to re-allocate the internal byte array, allocate an initial buffer assuming a safe 10:1 compression ratio
-        final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream(input.length / 10);
-        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzipBytes, 1024 * 8)) {
-            gzipOutputStream.write(input);
-        } catch (IOException e) {
-            LOGGER.error("Could not gzip {}", input);
-        }
-        return gzipBytes.toByteArray();
+        return ConsoleLogTailer.maybeGzipIfLargeEnough(input);
     }
 
     // Flushes stream just before it becomes larger than `bufSize`
@@ -0,0 +1,424 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.websocket;
+
+import com.thoughtworks.go.domain.JobIdentifier;
+import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
+import com.thoughtworks.go.server.dao.JobInstanceDao;
+import com.thoughtworks.go.server.service.ConsoleService;
+import com.thoughtworks.go.server.service.JobInstanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Understands following the console logs of running jobs on behalf of every socket watching them. Each console log
+ * being watched is read once per tick, however many sockets are watching it, and what was appended to it is handed
+ * to every socket to be sent from a thread of its own, so that a slow client holds up neither the others nor the
+ * tick. Sockets are aligned on byte offsets into the log: one that joins late first catches up by reading the log
+ * itself, and starts receiving what the tick reads once it has caught up.
+ */
+@Component
+public class ConsoleLogTailer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConsoleLogTailer.class);
+
+    // console_log_socket.js reconnects from the last line it has received when closed with this code
+    static final int CONSOLE_LOG_FELL_BEHIND = 4409;
+    static final int MAX_CHUNK_BYTES = 1024 * 1024; // 1MB
+    static final int MAX_PENDING_CHUNKS = 32;
+    // completion is normally noticed through job status changes, the database is only asked every once in a while
+    static final int TICKS_BETWEEN_COMPLETION_CHECKS = 60;
+    private static final int MAX_TICKS_WITHOUT_LOG = 10;
+
+    private static final byte[] END = new byte[0];
+    private static final byte[] FELL_BEHIND = new byte[0];
+
+    private final ConsoleService consoleService;
+    private final JobInstanceDao jobInstanceDao;
+    private final JobInstanceService jobInstanceService;
+    private final Map<Long, Tail> tails = new ConcurrentHashMap<>();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    @Autowired
+    public ConsoleLogTailer(ConsoleService consoleService, JobInstanceDao jobInstanceDao, JobInstanceService jobInstanceService) {
+        this.consoleService = consoleService;
+        this.jobInstanceDao = jobInstanceDao;
+        this.jobInstanceService = jobInstanceService;
+    }
+
+    @PostConstruct
+    public void init() {
+        jobInstanceService.registerJobStateChangeListener(job -> {
+            if (job.isCompleted()) {
+                Tail tail = tails.get(job.getId());
+                if (tail != null) {
+                    tail.completed = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends the console log of a running job to the socket from the given line onwards, as it is being written, and
+     * closes the socket once the job has completed and all of the log has been sent. Returns without waiting for any
+     * of that.
+     */
+    public void follow(SocketEndpoint socket, JobIdentifier jobIdentifier, long startLine) throws IllegalArtifactLocationException, IOException {
+        long offset = consoleService.consoleLogOffsetOfLine(jobIdentifier, startLine);
+        if (offset < 0) {
+            // asked for lines that have not been written yet, carry on from whatever gets written next
+            offset = endOfCompleteLines(consoleService.consoleLogFile(jobIdentifier).toPath());
+        }
+
+        long startOffset = offset;
+        Subscriber[] subscriber = {null};
+        boolean[] created = {false};
+        // subscribe while the tail is being looked up, so the timer never sees a new tail without subscribers and drops it
+        Tail followed = tails.compute(jobIdentifier.getBuildId(), (id, existing) -> {
+            if (existing != null) {
+                subscriber[0] = existing.subscribe(socket, startOffset);
+                if (subscriber[0] != null) {
+                    return existing;
+                }
+            }
+            created[0] = true;
+            Tail tail = new Tail(jobIdentifier, startOffset);
+            subscriber[0] = tail.subscribe(socket, startOffset);
+            return tail;
+        });
+        if (created[0] && jobInstanceDao.isJobCompleted(jobIdentifier)) {
+            followed.completed = true;
+        }
+
+        Thread.ofVirtual().name("console-log-" + socket.key()).start(subscriber[0]);
+    }
+
+    @SuppressWarnings("unused") // used via Spring
+    public void onTimer() {
+        for (Map.Entry<Long, Tail> entry : tails.entrySet()) {
+            Tail tail = entry.getValue();
+            tail.tick();
+            tails.computeIfPresent(entry.getKey(), (id, current) -> current == tail && tail.isDone() ? null : current);
+        }
+    }
+
+    public Map<String, Object> statistics() {
+        int sockets = 0;
+        int mostSockets = 0;
+        for (Tail tail : tails.values()) {
+            int subscribers = tail.subscriberCount();
+            sockets += subscribers;
+            mostSockets = Math.max(mostSockets, subscribers);
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Console logs being tailed", tails.size());
+        json.put("Sockets tailing console logs", sockets);
+        json.put("Most sockets tailing one console log", mostSockets);
+        json.put("Bytes read from console logs", bytesRead.sum());
+        json.put("Bytes sent to sockets", bytesSent.sum());
+        return json;
+    }
+
+    static byte[] maybeGzipIfLargeEnough(byte[] input) {
+        if (input.length < 512) {
+            return input;
+        }
+        // To avoid having to re-allocate the internal byte array, allocate an initial buffer assuming a safe 10:1 compression ratio
+        final ByteArrayOutputStream gzipBytes = new ByteArrayOutputStream(input.length / 10);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(gzipBytes, 1024 * 8)) {
+            gzipOutputStream.write(input);
+        } catch (IOException e) {
+            LOGGER.error("Could not gzip {}", input);
+        }
+        return gzipBytes.toByteArray();
+    }
+
+    /**
+     * Reads what is in the log between the two offsets, up to {@link #MAX_CHUNK_BYTES} at a time. Unless asked to
+     * include it, a line which has not been completely written yet is left to be read the next time.
+     */
+    static byte[] readLines(FileChannel channel, long from, long to, boolean includePartialLine) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(to - from, MAX_CHUNK_BYTES));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+            // keep reading until the buffer is full or the end of the log has been reached
+        }
+        int read = buffer.position();
+        if (includePartialLine) {
+            return Arrays.copyOf(buffer.array(), read);
+        }
+        for (int i = read - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return Arrays.copyOf(buffer.array(), i + 1);
+            }
+        }
+        // a line longer than a chunk has to be sent in pieces
+        return read == MAX_CHUNK_BYTES ? buffer.array() : new byte[0];
+    }
+
+    static long endOfCompleteLines(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            long end = channel.size();
+            while (end > 0) {
+                long from = Math.max(0, end - buffer.capacity());
+                buffer.clear().limit((int) (end - from));
+                channel.read(buffer, from);
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return from + i + 1;
+                    }
+                }
+                end = from;
+            }
+            return 0;
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] payload(byte[] lines) {
+        if (lines[lines.length - 1] != '\n') {
+            // the last line of a completed job might not be terminated, or a line was too long for a single chunk
+            lines = Arrays.copyOf(lines, lines.length + 1);
+            lines[lines.length - 1] = '\n';
+        }
+        return maybeGzipIfLargeEnough(lines);
+    }
+
+    private class Tail {
+        private final JobIdentifier jobIdentifier;
+        private final List<Subscriber> subscribers = new ArrayList<>();
+        private long position;
+        private boolean ended;
+        private volatile boolean completed;
+        private int ticks;
+        private int missingTicks;
+
+        Tail(JobIdentifier jobIdentifier, long position) {
+            this.jobIdentifier = jobIdentifier;
+            this.position = position;
+        }
+
+        /**
+         * @return the new subscriber, or nothing if the tail has already ended
+         */
+        synchronized Subscriber subscribe(SocketEndpoint socket, long offset) {
+            if (ended) {
+                return null;
+            }
+            Subscriber subscriber = new Subscriber(this, socket, offset);
+            // one joining where the tail is has nothing to catch up on
+            subscriber.live = offset >= position;
+            subscribers.add(subscriber);
+            return subscriber;
+        }
+
+        synchronized void unsubscribe(Subscriber subscriber) {
+            subscribers.remove(subscriber);
+        }
+
+        synchronized boolean isDone() {
+            return ended || subscribers.isEmpty();
+        }
+
+        synchronized int subscriberCount() {
+            return subscribers.size();
+        }
+
+        private synchronized long position() {
+            return position;
+        }
+
+        private synchronized boolean dropClosedSubscribers() {
+            subscribers.removeIf(subscriber -> {
+                if (subscriber.socket.isOpen()) {
+                    return false;
+                }
+                subscriber.stop(END);
+                return true;
+            });
+            return !subscribers.isEmpty();
+        }
+
+        void tick() {
+            if (!dropClosedSubscribers()) {
+                return;
+            }
+
+            boolean jobCompleted = completed || ++ticks % TICKS_BETWEEN_COMPLETION_CHECKS == 0 && jobInstanceDao.isJobCompleted(jobIdentifier);
+            try (FileChannel channel = FileChannel.open(consoleService.consoleLogFile(jobIdentifier).toPath(), READ)) {
+                long from = position();
+                long size = channel.size();
+                byte[] lines;
+                while (from < size && (lines = readLines(channel, from, size, jobCompleted)).length > 0) {
+                    bytesRead.add(lines.length);
+                    fanOut(from, lines);
+                    from += lines.length;
+                }
+            } catch (NoSuchFileException e) {
+                // being moved to the artifacts of the job, unless it has been deleted
+                if (!jobCompleted || ++missingTicks < MAX_TICKS_WITHOUT_LOG) {
+                    return;
+                }
+            } catch (IOException | IllegalArtifactLocationException e) {
+                LOGGER.warn("Failed to tail the console log for {}", jobIdentifier, e);
+            }
+
+            if (jobCompleted) {
+                end();
+            }
+        }
+
+        private void fanOut(long from, byte[] lines) {
+            byte[] payload = payload(lines);
+            long to = from + lines.length;
+            synchronized (this) {
+                subscribers.removeIf(subscriber -> subscriber.live && !subscriber.deliver(from, to, lines, payload));
+                position = to;
+            }
+        }
+
+        private synchronized void end() {
+            ended = true;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.live) {
+                    subscriber.pending.add(END);
+                }
+            }
+            subscribers.clear();
+        }
+    }
+
+    private class Subscriber implements Runnable {
+        private final Tail tail;
+        private final SocketEndpoint socket;
+        private final BlockingQueue<byte[]> pending = new LinkedBlockingQueue<>();
+        // the offset in the log up to which lines have been sent, or queued to be sent once live
+        private long position;
+        private boolean live;
+
+        Subscriber(Tail tail, SocketEndpoint socket, long position) {
+            this.tail = tail;
+            this.socket = socket;
+            this.position = position;
+        }
+
+        @Override
+        public void run() {
+            boolean fellBehind = false;
+            try {
+                if (catchUp()) {
+                    byte[] payload;
+                    while ((payload = pending.take()) != END && !(fellBehind = payload == FELL_BEHIND)) {
+                        send(payload);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalArtifactLocationException e) {
+                LOGGER.debug("Stopped sending the console log for {} to {}", tail.jobIdentifier, socket.key(), e);
+            } finally {
+                tail.unsubscribe(this);
+                if (fellBehind) {
+                    socket.close(CONSOLE_LOG_FELL_BEHIND, "Console log is being written faster than it can be sent, reconnect to carry on.");
+                } else if (socket.isOpen()) {
+                    socket.close();
+                }
+            }
+        }
+
+        /**
+         * Sends what was written before the tail got to where this socket started, without holding up the tail.
+         *
+         * @return true once caught up with the tail, false if the job has completed and all of the log has been sent
+         */
+        private boolean catchUp() throws IOException, IllegalArtifactLocationException {
+            while (true) {
+                long until;
+                boolean ended;
+                synchronized (tail) {
+                    ended = tail.ended;
+                    if (!ended && position >= tail.position) {
+                        live = true;
+                        return true;
+                    }
+                    until = ended ? Long.MAX_VALUE : tail.position;
+                }
+
+                try (FileChannel channel = FileChannel.open(consoleService.consoleLogFile(tail.jobIdentifier).toPath(), READ)) {
+                    long to = Math.min(until, channel.size());
+                    byte[] lines;
+                    while (position < to && socket.isOpen() && (lines = readLines(channel, position, to, true)).length > 0) {
+                        send(payload(lines));
+                        position += lines.length;
+                    }
+                }
+
+                if (ended || !socket.isOpen()) {
+                    return false;
+                }
+            }
+        }
+
+        // called with the tail locked
+        private boolean deliver(long from, long to, byte[] lines, byte[] payload) {
+            if (position >= to) {
+                return true;
+            }
+            if (pending.size() >= MAX_PENDING_CHUNKS) {
+                stop(FELL_BEHIND);
+                return false;
+            }
+            pending.add(position > from ? payload(Arrays.copyOfRange(lines, (int) (position - from), lines.length)) : payload);
+            position = to;
+            return true;
+        }
+
+        private void stop(byte[] reason) {
+            live = false;
+            pending.clear();
+            pending.add(reason);
+        }
+
+        private void send(byte[] payload) throws IOException {
+            socket.send(ByteBuffer.wrap(payload));
+            bytesSent.add(payload.length);
+        }
+    }
+}
@@ -20,6 +20,7 @@
   function ConsoleLogSocket(fallbackObserver, transformer, options) {
     var CONSOLE_LOG_DOES_NOT_EXISTS = 4410;
     var CONSOLE_LOG_NOT_AVAILABLE   = 4004;
+    var CONSOLE_LOG_FELL_BEHIND     = 4409;
     var startLine                   = 0, socket;
     var encoder;
 
@@ -99,7 +100,7 @@
         }
       }
 
-      if (e.code === CONSOLE_LOG_NOT_AVAILABLE) {
+      if (e.code === CONSOLE_LOG_NOT_AVAILABLE || e.code === CONSOLE_LOG_FELL_BEHIND) {
         start();
       }
     }
@@ -132,7 +133,8 @@
 
         lines = consoleOutput.split(/\r?\n/);
 
-        startLine += lines.length;
+        // every line is terminated, so the empty string after the last one is not a line
+        startLine += _.last(lines) === "" ? lines.length - 1 : lines.length;
 
         while (lines.length) {
           slice = lines.splice(0, 1000);
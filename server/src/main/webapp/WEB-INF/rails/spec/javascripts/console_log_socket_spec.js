@@ -0,0 +1,87 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+describe("ConsoleLogSocket", function () {
+  var originalWebSocketWrapper, sockets, transformer;
+
+  function FakeWebSocketWrapper(options) {
+    var handlers = {};
+
+    this.url = options.url;
+    this.on  = function (event, handler) {
+      (handlers[event] = handlers[event] || []).push(handler);
+    };
+    this.emit = function (event, e) {
+      _.each(handlers[event], function (handler) {
+        handler(e);
+      });
+    };
+
+    sockets.push(this);
+  }
+
+  function lastSocket() {
+    return _.last(sockets);
+  }
+
+  function receiveLines(socket, lines, done) {
+    transformer.transform.and.callFake(function () {
+      done();
+    });
+    socket.emit("message", {data: JSON.stringify({charset: "utf-8"})});
+    socket.emit("message", {data: new Blob([lines])});
+  }
+
+  beforeEach(function () {
+    setFixtures(`
+      <div class="job_details_content" data-pipeline="up42" data-pipeline-counter="1" data-stage="build" data-stage-counter="1" data-build="unit"></div>
+    `);
+
+    sockets                  = [];
+    transformer              = jasmine.createSpyObj("transformer", ["transform", "invoke"]);
+    originalWebSocketWrapper = window.WebSocketWrapper;
+    window.WebSocketWrapper  = FakeWebSocketWrapper;
+    FakeWebSocketWrapper.CLOSE_NORMAL = originalWebSocketWrapper.CLOSE_NORMAL;
+  });
+
+  afterEach(function () {
+    window.WebSocketWrapper = originalWebSocketWrapper;
+  });
+
+  it("should reconnect from the line after the last one received when the server says it fell behind", function (done) {
+    new ConsoleLogSocket({}, transformer, {});
+    expect(lastSocket().url).toMatch(/\/console-websocket\/up42\/1\/build\/1\/unit\?startLine=0$/);
+
+    receiveLines(lastSocket(), "one\ntwo\n", function () {
+      lastSocket().emit("close", {code: 4409, reason: "fell behind"});
+
+      expect(sockets.length).toEqual(2);
+      expect(lastSocket().url).toMatch(/\?startLine=2$/);
+      expect(transformer.invoke).not.toHaveBeenCalled();
+      done();
+    });
+  });
+
+  it("should complete without reconnecting when the console log does not exist", function () {
+    var onComplete = jasmine.createSpy("onComplete");
+    new ConsoleLogSocket({}, transformer, {onComplete: onComplete});
+
+    lastSocket().emit("close", {code: 4410, reason: "purged"});
+
+    expect(sockets.length).toEqual(1);
+    expect(transformer.transform).toHaveBeenCalledWith(["purged"]);
+    expect(transformer.invoke).toHaveBeenCalledWith(onComplete);
+  });
+});
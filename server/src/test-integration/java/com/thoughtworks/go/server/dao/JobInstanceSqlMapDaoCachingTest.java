@@ -99,16 +99,16 @@ public class JobInstanceSqlMapDaoCachingTest {
         when(mockTemplate.queryForList(eq("scheduledPlanIds"))).thenReturn(List.of(1L, 2L));
 
         final DefaultJobPlan firstJob = jobPlan(1);
-        when(mockTemplate.queryForObject("scheduledPlan", Map.of("id", 1L))).thenReturn(firstJob);
-        when(mockTemplate.queryForObject("scheduledPlan", Map.of("id", 2L))).thenReturn(null);
+        when(mockTemplate.queryForList("scheduledPlans", Map.of("ids", List.of(1L, 2L)))).thenReturn(List.of(firstJob));
 
         jobInstanceDao.setSqlMapClientTemplate(mockTemplate);
 
         List<JobPlan> plans = jobInstanceDao.orderedScheduledBuilds();
 
         assertThat(plans).isEqualTo(List.of(firstJob));
+        assertThat(goCache.isKeyInCache(jobInstanceDao.cacheKeyForJobPlan(2L))).isFalse();
 
-        verify(mockTemplate, times(2)).queryForObject(eq("scheduledPlan"), any());
+        verify(mockTemplate, times(1)).queryForList(eq("scheduledPlans"), any());
         verify(mockTemplate, times(1)).queryForList(eq("scheduledPlanIds"));
     }
 
@@ -119,26 +119,45 @@ public class JobInstanceSqlMapDaoCachingTest {
         final DefaultJobPlan firstJob = jobPlan(1);
         final DefaultJobPlan secondJob = jobPlan(2);
 
-        when(mockTemplate.queryForObject("scheduledPlan", Map.of("id", 1L))).thenReturn(firstJob);
-        when(mockTemplate.queryForObject("scheduledPlan", Map.of("id", 2L))).thenReturn(secondJob);
+        when(mockTemplate.queryForList("scheduledPlans", Map.of("ids", List.of(1L, 2L)))).thenReturn(List.of(firstJob, secondJob));
 
         jobInstanceDao.setSqlMapClientTemplate(mockTemplate);
-        jobInstanceDao.orderedScheduledBuilds();
+        List<JobPlan> first = jobInstanceDao.orderedScheduledBuilds();
 
         List<JobPlan> plans = jobInstanceDao.orderedScheduledBuilds();
 
         assertThat(plans).isEqualTo(List.of(firstJob, secondJob));
+        assertThat(plans.get(0)).isSameAs(first.get(0));
 
-        verify(mockTemplate, times(2)).queryForObject(eq("scheduledPlan"), any());
+        verify(mockTemplate, times(1)).queryForList(eq("scheduledPlans"), any());
         verify(mockTemplate, times(2)).queryForList(eq("scheduledPlanIds"));
     }
 
+    @Test
+    public void orderedScheduledBuilds_shouldOnlyLoadPlansOfJobsScheduledSinceTheLastCall() {
+        when(mockTemplate.queryForList(eq("scheduledPlanIds"))).thenReturn(List.of(1L), List.of(1L, 2L));
+
+        final DefaultJobPlan firstJob = jobPlan(1);
+        final DefaultJobPlan secondJob = jobPlan(2);
+        when(mockTemplate.queryForList("scheduledPlans", Map.of("ids", List.of(1L)))).thenReturn(List.of(firstJob));
+        when(mockTemplate.queryForList("scheduledPlans", Map.of("ids", List.of(2L)))).thenReturn(List.of(secondJob));
+
+        jobInstanceDao.setSqlMapClientTemplate(mockTemplate);
+        jobInstanceDao.orderedScheduledBuilds();
+
+        List<JobPlan> plans = jobInstanceDao.orderedScheduledBuilds();
+
+        assertThat(plans).isEqualTo(List.of(firstJob, secondJob));
+        verify(mockTemplate, times(1)).queryForList("scheduledPlans", Map.of("ids", List.of(1L)));
+        verify(mockTemplate, times(1)).queryForList("scheduledPlans", Map.of("ids", List.of(2L)));
+    }
+
     @Test
     public void updateStatus_shouldRemoveCachedJobPlan() {
         when(mockTemplate.queryForList(eq("scheduledPlanIds"))).thenReturn(List.of(1L));
 
         final DefaultJobPlan firstJob = jobPlan(1);
-        when(mockTemplate.queryForObject("scheduledPlan", Map.of("id", 1L))).thenReturn(firstJob);
+        when(mockTemplate.queryForList("scheduledPlans", Map.of("ids", List.of(1L)))).thenReturn(List.of(firstJob));
 
         jobInstanceDao.setSqlMapClientTemplate(mockTemplate);
         jobInstanceDao.orderedScheduledBuilds();//populate the cache
@@ -150,7 +169,7 @@ public class JobInstanceSqlMapDaoCachingTest {
 
         assertThat(plans).isEqualTo(List.of(firstJob));
 
-        verify(mockTemplate, times(2)).queryForObject("scheduledPlan", Map.of("id", 1L));//because the cache is cleared
+        verify(mockTemplate, times(2)).queryForList("scheduledPlans", Map.of("ids", List.of(1L)));//because the cache is cleared
         verify(mockTemplate, times(2)).queryForList(eq("scheduledPlanIds"));
     }
 
@@ -48,6 +48,7 @@ import com.thoughtworks.go.server.domain.ServerMaintenanceMode;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.materials.DependencyMaterialUpdateNotifier;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
+import com.thoughtworks.go.server.perf.WorkAssignmentPerformanceLogger;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.scheduling.ScheduleHelper;
 import com.thoughtworks.go.server.service.builders.BuilderFactory;
@@ -144,6 +145,8 @@ public class BuildAssignmentServiceIntegrationTest {
     @Autowired
     private JobStatusTopic jobStatusTopic;
     @Autowired
+    private WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger;
+    @Autowired
     private EntityHashingService entityHashingService;
 
     private PipelineConfig evolveConfig;
@@ -406,7 +409,7 @@ public class BuildAssignmentServiceIntegrationTest {
 
         final BuildAssignmentService buildAssignmentServiceUnderTest = new BuildAssignmentService(goConfigService, mockJobInstanceService, scheduleService,
                 agentService, environmentConfigService, transactionTemplate, scheduledPipelineLoader, pipelineService, builderFactory,
-                maintenanceModeService, elasticAgentPluginService, systemEnvironment, secretParamResolver, jobStatusTopic, consoleService);
+                maintenanceModeService, elasticAgentPluginService, systemEnvironment, secretParamResolver, jobStatusTopic, consoleService, workAssignmentPerformanceLogger);
 
         final Throwable[] fromThread = new Throwable[1];
         buildAssignmentServiceUnderTest.onTimer();
@@ -445,7 +448,7 @@ public class BuildAssignmentServiceIntegrationTest {
 
         buildAssignmentService = new BuildAssignmentService(mockGoConfigService, jobInstanceService, scheduleService, agentService, environmentConfigService,
                 transactionTemplate, scheduledPipelineLoader, pipelineService, builderFactory, maintenanceModeService, elasticAgentPluginService,
-                systemEnvironment, secretParamResolver, jobStatusTopic, consoleService);
+                systemEnvironment, secretParamResolver, jobStatusTopic, consoleService, workAssignmentPerformanceLogger);
         buildAssignmentService.onTimer();
 
         Agent agent = AgentMother.localAgent();
@@ -21,6 +21,7 @@ import com.thoughtworks.go.config.remote.ConfigRepoConfig;
 import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.config.remote.RepoConfigOrigin;
 import com.thoughtworks.go.config.update.FullConfigUpdateCommand;
+import com.thoughtworks.go.config.update.PartialConfigUpdateCommand;
 import com.thoughtworks.go.domain.ConfigErrors;
 import com.thoughtworks.go.helper.GoConfigMother;
 import com.thoughtworks.go.helper.MaterialConfigsMother;
@@ -259,4 +260,43 @@ public class GoFileConfigDataSourceTest {
         assertThat(listArgumentCaptor.getValue()).isEqualTo(lastValidPartials);
         assertThat(stringArgumentCaptor.getValue()).isEqualTo("Filesystem");
     }
+
+    @Test
+    public void shouldOnlyValidateTheMergedConfigWhenAPartialUpdateLeavesCruiseConfigXmlAsItIs() throws Exception {
+        BasicCruiseConfig configForEdit = new BasicCruiseConfig();
+        configForEdit.getGroups().add(new BasicPipelineConfigs("group", new Authorization()));
+        MagicalGoConfigXmlLoader.setMd5(configForEdit, "md5");
+        PartialConfig partial = PartialConfigMother.withPipeline("p1");
+        List<PartialConfig> lastKnownPartials = new ArrayList<>(List.of(partial));
+        BasicCruiseConfig validated = new BasicCruiseConfig();
+
+        when(cachedGoPartials.lastKnownPartials()).thenReturn(lastKnownPartials);
+        when(xmlLoader.preprocessAndValidate(any())).thenReturn(validated);
+
+        GoFileConfigDataSource.GoConfigSaveResult result = dataSource.writeWithLock(new PartialConfigUpdateCommand(partial, "fingerprint", cachedGoPartials), new GoConfigHolder(configForEdit, configForEdit));
+
+        assertThat(result.getConfigHolder().config).isSameAs(validated);
+        assertThat(result.getConfigHolder().configForEdit.getMd5()).isEqualTo("md5");
+        verify(xmlLoader, times(1)).preprocessAndValidate(any());
+        verify(cachedGoPartials).markAsValid(lastKnownPartials);
+        verifyNoInteractions(xmlWriter, configRepository, goConfigFileWriter);
+    }
+
+    @Test
+    public void shouldSaveCruiseConfigXmlAsUsualWhenAPartialUpdateAddsAPipelineGroupToIt() throws Exception {
+        BasicCruiseConfig configForEdit = new BasicCruiseConfig();
+        MagicalGoConfigXmlLoader.setMd5(configForEdit, "md5");
+        PartialConfig partial = PartialConfigMother.withPipeline("p1");
+        List<PartialConfig> lastKnownPartials = new ArrayList<>(List.of(partial));
+        BasicCruiseConfig saved = new BasicCruiseConfig();
+
+        when(cachedGoPartials.lastKnownPartials()).thenReturn(lastKnownPartials);
+        when(xmlLoader.loadConfigHolder(any(), any())).thenReturn(new GoConfigHolder(saved, configForEdit));
+
+        GoFileConfigDataSource.GoConfigSaveResult result = dataSource.writeWithLock(new PartialConfigUpdateCommand(partial, "fingerprint", cachedGoPartials), new GoConfigHolder(configForEdit, configForEdit));
+
+        assertThat(result.getConfigHolder().config).isSameAs(saved);
+        verify(xmlLoader, never()).preprocessAndValidate(any());
+        verify(goConfigFileWriter).writeToConfigXmlFile(any());
+    }
 }
@@ -28,6 +28,7 @@ import com.thoughtworks.go.plugin.access.packagematerial.PackageRepositoryExtens
 import com.thoughtworks.go.plugin.access.pluggabletask.TaskExtension;
 import com.thoughtworks.go.plugin.access.scm.SCMExtension;
 import com.thoughtworks.go.plugin.infra.PluginRequestProcessorRegistry;
+import com.thoughtworks.go.publishers.ArtifactUploadChunk;
 import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
 import com.thoughtworks.go.server.service.GoConfigService;
@@ -382,10 +383,10 @@ class BuildWorkTest {
 
         assertThat(actual.toLowerCase()).contains(("Uploading artifacts from " + new File(basedir, artifactFile).getCanonicalPath()).toLowerCase());
 
-        Map<String, File> uploadedFiles = httpService.getUploadedFiles();
+        Map<String, ArtifactUploadChunk> uploadedFiles = httpService.getUploadedFiles();
 
         assertThat(uploadedFiles.size()).isEqualTo(1);
-        assertThat(uploadedFiles.get(url).getAbsolutePath()).contains(artifactFile + ".zip");
+        assertThat(uploadedFiles.get(url).fileName()).isEqualTo(artifactFile + ".zip");
     }
 
     @Test
@@ -65,22 +65,16 @@ class CacheKeyGeneratorTest {
     }
 
     @Test
-    void shouldAlwaysReturnInternedString() {
-        assertThat(cacheKeyGenerator.generate("foo", "bar", new CaseInsensitiveString("1"), 1L))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$1.$1");
-
-        assertThat(cacheKeyGenerator.generate("foo", 1))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$1");
-
-        assertThat(cacheKeyGenerator.generate("foo", "bar"))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar");
-
-        assertThat(cacheKeyGenerator.generate("foo", "bar", "baz"))
-            .describedAs("Using '==' to check returned key is interned String")
-            .isSameAs("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$baz");
+    void shouldReturnKeysThatLockTheSameWayWithoutInterningThem() {
+        String key = cacheKeyGenerator.generate("foo", "bar", new CaseInsensitiveString("1"), 1L);
+        String sameKey = cacheKeyGenerator.generate("foo", "bar", new CaseInsensitiveString("1"), 1L);
+
+        assertThat(key)
+            .isEqualTo("com.thoughtworks.go.domain.Pipeline.$foo.$bar.$1.$1")
+            .isEqualTo(sameKey)
+            .isNotSameAs(sameKey);
+        assertThat(GoCache.lockFor(key)).isSameAs(GoCache.lockFor(sameKey));
+        assertThat(GoCache.lockFor(key)).isNotSameAs(GoCache.lockFor(cacheKeyGenerator.generate("foo", 1)));
     }
 
     @Test
@@ -0,0 +1,142 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.server.cache.CaffeineBackend.RegionConfig;
+import com.thoughtworks.go.server.dao.StageSqlMapDao;
+import com.thoughtworks.go.server.persistence.MaterialRepository;
+import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CaffeineBackendTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final CacheKeyGenerator stageKeys = new CacheKeyGenerator(StageSqlMapDao.class);
+    private final CacheKeyGenerator materialKeys = new CacheKeyGenerator(MaterialRepository.class);
+    private CaffeineBackend backend;
+    private GoCache goCache;
+
+    @BeforeEach
+    void setUp() {
+        backend = new CaffeineBackend(
+            new RegionConfig(CaffeineBackend.DEFAULT_REGION, 2, Duration.ZERO),
+            List.of(new RegionConfig("StageSqlMapDao", 3, Duration.ZERO), new RegionConfig("MaterialRepository", 10, Duration.ofMinutes(1))),
+            nanos::get);
+        goCache = new GoCache(backend, mock(TransactionSynchronizationManager.class));
+    }
+
+    @Test
+    void shouldWorkOutTheRegionOfAKeyFromTheClassThatGeneratedIt() {
+        assertThat(CaffeineBackend.regionNameOf(stageKeys.generate("stageById", 42L))).isEqualTo("StageSqlMapDao");
+        assertThat(CaffeineBackend.regionNameOf(MaterialRepository.class.getName() + "_pipelinePMRs_1")).isEqualTo("MaterialRepository");
+        assertThat(CaffeineBackend.regionNameOf("loser_user")).isNull();
+        assertThat(CaffeineBackend.regionNameOf("some key")).isNull();
+    }
+
+    @Test
+    void shouldSizeEachRegionSeparately() {
+        for (int i = 0; i < 10; i++) {
+            goCache.put(materialKeys.generate("material", i), "material " + i);
+        }
+        goCache.put(stageKeys.generate("stageById", 1L), "stage 1");
+        goCache.put(stageKeys.generate("stageById", 2L), "stage 2");
+        goCache.put("unrelated", "value");
+        backend.cleanUp();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(goCache.<String>get(materialKeys.generate("material", i))).isEqualTo("material " + i);
+        }
+        assertThat(goCache.<String>get(stageKeys.generate("stageById", 1L))).isEqualTo("stage 1");
+        assertThat(goCache.<String>get("unrelated")).isEqualTo("value");
+    }
+
+    @Test
+    void shouldRemoveValuesOfSubKeysAlongWithTheirKey() {
+        String key = stageKeys.generate("stageHistories", "up42", "dev");
+        goCache.put(key, "1-10", "page 1");
+        goCache.put(key, "2-10", "page 2");
+        assertThat(goCache.get(key, "1-10")).isEqualTo("page 1");
+        assertThat(goCache.isKeyInCache(key)).isTrue();
+
+        goCache.remove(key, "1-10");
+        assertThat(goCache.get(key, "1-10")).isNull();
+        assertThat(goCache.get(key, "2-10")).isEqualTo("page 2");
+
+        goCache.remove(key);
+        assertThat(goCache.get(key, "2-10")).isNull();
+        assertThat(goCache.isKeyInCache(key)).isFalse();
+    }
+
+    @Test
+    void shouldWeighKeysByTheNumberOfValuesCachedAgainstTheirSubKeys() {
+        String key = stageKeys.generate("stageHistories", "up42", "dev");
+        String other = stageKeys.generate("stageById", 1L);
+        goCache.put(other, "stage 1");
+        goCache.put(key, "1-10", "page 1");
+        goCache.put(key, "2-10", "page 2");
+        goCache.put(key, "3-10", "page 3");
+        backend.cleanUp();
+
+        assertThat(goCache.get(key, "3-10")).isNull();
+        assertThat((Long) statisticsOf("StageSqlMapDao").get("Evictions")).isPositive();
+    }
+
+    @Test
+    void shouldExpireValuesOfRegionsWithATimeToLive() {
+        String key = materialKeys.generate("material", 1);
+        goCache.put(key, "material 1");
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertThat(goCache.<String>get(key)).isNull();
+    }
+
+    @Test
+    void shouldCacheNullValues() {
+        goCache.put("unrelated", null);
+
+        assertThat(goCache.isKeyInCache("unrelated")).isTrue();
+        assertThat(goCache.<Object>get("unrelated")).isNull();
+    }
+
+    @Test
+    void shouldKeepStatisticsForEachRegion() {
+        String key = stageKeys.generate("stageById", 1L);
+        goCache.put(key, "stage 1");
+        goCache.get(key);
+        goCache.get(stageKeys.generate("stageById", 2L));
+
+        assertThat(goCache.statistics()).containsOnlyKeys("StageSqlMapDao", "MaterialRepository", "default");
+        assertThat(statisticsOf("StageSqlMapDao"))
+            .containsEntry("Size", 1L)
+            .containsEntry("Maximum Weight", 3L)
+            .containsEntry("Hits", 1L)
+            .containsEntry("Misses", 1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> statisticsOf(String region) {
+        return (Map<String, Object>) goCache.statistics().get(region);
+    }
+}
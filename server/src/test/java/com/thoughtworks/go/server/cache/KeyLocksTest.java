@@ -0,0 +1,85 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyLocksTest {
+    private final KeyLocks keyLocks = new KeyLocks();
+
+    @Test
+    void shouldHandOutTheSameLockForEqualKeys() {
+        Object lock = keyLocks.lockFor(new String("pipeline.$up42"));
+
+        assertThat(keyLocks.lockFor(new String("pipeline.$up42"))).isSameAs(lock);
+        assertThat(keyLocks.lockFor("pipeline.$up43")).isNotSameAs(lock);
+    }
+
+    @Test
+    void shouldForgetLocksNobodyHoldsOnTo() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            keyLocks.lockFor("key-" + i);
+        }
+        Object held = keyLocks.lockFor("held");
+
+        for (int attempt = 0; attempt < 50 && keyLocks.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(keyLocks.size()).isLessThan(1001);
+        assertThat(keyLocks.lockFor("held")).isSameAs(held);
+    }
+
+    @Test
+    void shouldLetOnlyOneThreadAtATimeIntoTheSameKey() throws Exception {
+        int threads = 32;
+        int iterations = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CyclicBarrier start = new CyclicBarrier(threads);
+        int[] counters = new int[4];
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < iterations; i++) {
+                        int counter = i % counters.length;
+                        synchronized (keyLocks.lockFor("counter-" + counter)) {
+                            counters[counter]++;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int counter : counters) {
+            assertThat(counter).isEqualTo(threads * iterations / counters.length);
+        }
+    }
+}
@@ -26,12 +26,13 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 
 import static com.thoughtworks.go.util.TestUtils.doInterruptiblyQuietlyRethrowInterrupt;
-import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.concurrent.TimeUnit.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
@@ -42,6 +43,7 @@ public class ZipArtifactCacheTest {
     private static final String JOB_FOLDERS = "pipelines/pipeline-name/label-111/stage-name/1/job-name/666";
 
     private ZipArtifactCache zipArtifactCache;
+    private ArtifactsDirHolder artifactsDirHolder;
     @TempDir
     File folder;
     private ArtifactFolder artifactFolder;
@@ -53,9 +55,9 @@ public class ZipArtifactCacheTest {
         TestFileUtil.createTestFolder(artifact, "dir");
         TestFileUtil.createTestFile(artifact, "dir/file1");
 
-        ArtifactsDirHolder artifactsDirHolder = mock(ArtifactsDirHolder.class);
+        artifactsDirHolder = mock(ArtifactsDirHolder.class);
         when(artifactsDirHolder.getArtifactsDir()).thenReturn(folder);
-        zipArtifactCache = new ZipArtifactCache(artifactsDirHolder, new ZipUtil());
+        zipArtifactCache = new ZipArtifactCache(artifactsDirHolder, new ZipUtil(), 2, Long.MAX_VALUE, Long.MAX_VALUE, false);
         artifactFolder = new ArtifactFolder(JOB_IDENTIFIER, new File(artifact, "dir"), "dir");
     }
 
@@ -111,6 +113,71 @@ public class ZipArtifactCacheTest {
         assertThat(new File(cacheDir, "dir/file1")).exists();
     }
 
+    @Test
+    public void shouldCountHitsAndMisses() throws Exception {
+        waitForCacheCreated();
+        zipArtifactCache.cacheCreated(artifactFolder);
+
+        assertThat(zipArtifactCache.misses()).isEqualTo(1);
+        assertThat(zipArtifactCache.hits()).isEqualTo(2);
+        assertThat(zipArtifactCache.statistics())
+            .containsEntry("Hits", 2L)
+            .containsEntry("Misses", 1L)
+            .containsEntry("Hit ratio", 2.0 / 3);
+    }
+
+    @Test
+    public void shouldEvictZipsNotDownloadedForLongerThanTheMaximumAge() throws Exception {
+        zipArtifactCache = new ZipArtifactCache(artifactsDirHolder, new ZipUtil(), 1, Long.MAX_VALUE, HOURS.toMillis(1), false);
+        File stale = cachedZip("stale", 100, HOURS.toMillis(2));
+        File fresh = cachedZip("fresh", 100, MINUTES.toMillis(1));
+
+        zipArtifactCache.evict();
+
+        assertThat(stale).doesNotExist();
+        assertThat(fresh).exists();
+        assertThat(zipArtifactCache.statistics())
+            .containsEntry("Zips evicted", 1L)
+            .containsEntry("Bytes evicted", 100L);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyDownloadedZipsUntilTheCacheFits() throws Exception {
+        zipArtifactCache = new ZipArtifactCache(artifactsDirHolder, new ZipUtil(), 1, 250, Long.MAX_VALUE, false);
+        File oldest = cachedZip("oldest", 100, MINUTES.toMillis(30));
+        File older = cachedZip("older", 100, MINUTES.toMillis(20));
+        File recent = cachedZip("recent", 100, MINUTES.toMillis(10));
+        File unrelated = new File(oldest.getParentFile(), "not-a-zip.txt");
+        Files.write(unrelated.toPath(), new byte[1000]);
+
+        zipArtifactCache.evict();
+
+        assertThat(oldest).doesNotExist();
+        assertThat(older).exists();
+        assertThat(recent).exists();
+        assertThat(unrelated).exists();
+    }
+
+    @Test
+    public void shouldTreatDownloadingAZipAsUsingItForEviction() throws Exception {
+        waitForCacheCreated();
+        File zip = zipArtifactCache.cachedFile(artifactFolder);
+        zip.setLastModified(System.currentTimeMillis() - HOURS.toMillis(2));
+
+        zipArtifactCache.cacheCreated(artifactFolder);
+
+        assertThat(System.currentTimeMillis() - zip.lastModified()).isLessThan(MINUTES.toMillis(1));
+    }
+
+    private File cachedZip(String name, int size, long unusedFor) throws IOException {
+        File cacheDir = new File(folder, "cache/artifacts/" + JOB_FOLDERS);
+        cacheDir.mkdirs();
+        File zip = new File(cacheDir, name + ".zip");
+        Files.write(zip.toPath(), new byte[size]);
+        zip.setLastModified(System.currentTimeMillis() - unusedFor);
+        return zip;
+    }
+
     private void waitForCacheCreated() throws Exception {
         long waitUntil = System.currentTimeMillis() + SECONDS.toMillis(2);
         while (System.currentTimeMillis() <= waitUntil && !zipArtifactCache.cacheCreated(artifactFolder)) {
@@ -33,12 +33,16 @@ import org.springframework.mock.web.MockMultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.util.zip.GZIPOutputStream;
 
 import static com.thoughtworks.go.remote.StandardHeaders.REQUEST_CONFIRM_MODIFICATION;
 import static com.thoughtworks.go.util.GoConstants.*;
 import static java.net.HttpURLConnection.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -82,6 +86,29 @@ public class ArtifactsControllerTest {
         verify(consoleActivityMonitor).consoleUpdatedFor(jobIdentifier);
     }
 
+    @Test
+    public void shouldDecompressConsoleLogSentCompressed() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write("Testing:".getBytes(UTF_8));
+        }
+        request.setContent(compressed.toByteArray());
+        request.addHeader("Content-Encoding", "gzip");
+        JobIdentifier jobIdentifier = new JobIdentifier("pipeline", 10, "label-10", "stage", "2", "build", 103L);
+        when(restfulService.findJob("pipeline", "10", "stage", "2", "build", 103L)).thenReturn(jobIdentifier);
+        File artifactFile = new File("junk");
+        when(consoleService.consoleLogFile(jobIdentifier)).thenReturn(artifactFile);
+        when(consoleService.appendToConsoleLogIoSafe(eq(artifactFile), argThat(in -> {
+            try {
+                return new String(in.readAllBytes(), UTF_8).equals("Testing:");
+            } catch (IOException e) {
+                return false;
+            }
+        }))).thenReturn(true);
+
+        assertThat(((ResponseCodeView) artifactsController.putArtifact("pipeline", "10", "stage", "2", "build", 103L, "cruise-output/console.log", "agent-id", request).getView()).getStatusCode()).isEqualTo(HttpURLConnection.HTTP_OK);
+    }
+
     @Test
     public void testConsoleOutShouldReturnErrorWhenJobHasBeenCompletedAndLogsNotFound() {
         JobIdentifier jobIdentifier = new JobIdentifier("pipeline", 10, "label-10", "stage", "2", "build", 103L);
@@ -103,7 +130,7 @@ public class ArtifactsControllerTest {
         JobIdentifier jobIdentifier = new JobIdentifier("pipeline-1", 1, "1", "stage-1", "2", "job-1", 122L);
         when(restfulService.findJob("pipeline-1", "1", "stage-1", "2", "job-1", 122L)).thenReturn(jobIdentifier);
         when(artifactService.findArtifact(any(), eq("some-path"))).thenReturn(artifactFile);
-        when(artifactService.saveFile(any(), any(), eq(false), eq(1))).thenReturn(true);
+        when(artifactService.saveFile(any(), any(), eq(false), eq(1), eq(jobIdentifier))).thenReturn(true);
         when(artifactService.saveOrAppendFile(any(), any())).thenReturn(false);
 
         MockMultipartHttpServletRequest request = newMultiPartRequest();
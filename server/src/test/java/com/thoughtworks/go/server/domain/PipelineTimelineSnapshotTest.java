@@ -0,0 +1,70 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.thoughtworks.go.domain.PipelineTimelineEntry;
+import com.thoughtworks.go.helper.PipelineTimelineEntryMother;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineTimelineSnapshotTest {
+    private final ZonedDateTime now = ZonedDateTime.now();
+    private final List<String> materials = List.of("git-fingerprint", "hg-fingerprint");
+
+    @Test
+    void shouldReadBackWhatWasSaved(@TempDir Path tempDir) {
+        PipelineTimelineSnapshot snapshot = new PipelineTimelineSnapshot(tempDir.resolve("db/timeline.snapshot").toFile());
+        PipelineTimelineEntry first = PipelineTimelineEntryMother.timelineEntry(1, materials, List.of(now, now.plusMinutes(1)), 1, "r1", "up42");
+        PipelineTimelineEntry second = PipelineTimelineEntryMother.timelineEntry(5, materials, List.of(now.plusMinutes(2), now.plusMinutes(1)), 2, "r2", "down42");
+
+        snapshot.save(List.of(first, second));
+        List<PipelineTimelineEntry> loaded = snapshot.load();
+
+        assertThat(loaded).hasSize(2);
+        assertThat(loaded.get(0).getPipelineName()).isEqualTo("up42");
+        assertThat(loaded.get(0).getId()).isEqualTo(1L);
+        assertThat(loaded.get(0).getCounter()).isEqualTo(1);
+        assertThat(loaded.get(0).revisions()).isEqualTo(first.revisions());
+        assertThat(loaded.get(1).getPipelineName()).isEqualTo("down42");
+        assertThat(loaded.get(1).getId()).isEqualTo(5L);
+        assertThat(loaded.get(1).revisions()).isEqualTo(second.revisions());
+    }
+
+    @Test
+    void shouldIgnoreAMissingSnapshot(@TempDir Path tempDir) {
+        assertThat(new PipelineTimelineSnapshot(tempDir.resolve("missing").toFile()).load()).isEmpty();
+    }
+
+    @Test
+    void shouldIgnoreACorruptSnapshot(@TempDir Path tempDir) throws Exception {
+        Path file = tempDir.resolve("timeline.snapshot");
+        PipelineTimelineSnapshot snapshot = new PipelineTimelineSnapshot(file.toFile());
+        snapshot.save(List.of(PipelineTimelineEntryMother.timelineEntry(1, materials, List.of(now, now), 1, "r1", "up42")));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7f;
+        Files.write(file, bytes);
+
+        assertThat(snapshot.load()).isEmpty();
+    }
+}
@@ -23,10 +23,12 @@ import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.stubbing.Answer;
 import org.springframework.transaction.support.TransactionCallback;
 import org.springframework.transaction.support.TransactionSynchronization;
 
+import java.nio.file.Path;
 import java.time.ZonedDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -167,6 +169,40 @@ public class PipelineTimelineTest {
         assertThat(timeline.maximumId()).isEqualTo(2L);
     }
 
+    @Test
+    public void updateOnInitShouldRestoreTheTimelineFromItsSnapshotAndOnlyLoadNewerEntriesFromTheDatabase(@TempDir Path tempDir) {
+        PipelineTimelineSnapshot snapshot = new PipelineTimelineSnapshot(tempDir.resolve("timeline.snapshot").toFile());
+        PipelineTimeline beforeRestart = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager, snapshot);
+        stubPipelineRepository(beforeRestart, true, first, second);
+        beforeRestart.updateTimelineOnInit();
+
+        when(pipelineRepository.isPipelineRun(2L, "pipeline", 2)).thenReturn(true);
+        PipelineTimeline afterRestart = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager, snapshot);
+        stubPipelineRepository(afterRestart, true, third);
+        afterRestart.updateTimelineOnInit();
+
+        assertThat(afterRestart.maximumId()).isEqualTo(3L);
+        assertThat(afterRestart.getEntriesFor("pipeline")).extracting(PipelineTimelineEntry::getId).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(afterRestart.runAfter(1L, new CaseInsensitiveString("pipeline")).getId()).isEqualTo(2L);
+        assertThat(afterRestart.instanceFor(new CaseInsensitiveString("pipeline"), 0).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    public void updateOnInitShouldLoadTheWholeTimelineFromTheDatabaseWhenTheSnapshotDoesNotMatchIt(@TempDir Path tempDir) {
+        PipelineTimelineSnapshot snapshot = new PipelineTimelineSnapshot(tempDir.resolve("timeline.snapshot").toFile());
+        PipelineTimeline beforeRestore = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager, snapshot);
+        stubPipelineRepository(beforeRestore, true, first, second);
+        beforeRestore.updateTimelineOnInit();
+
+        when(pipelineRepository.isPipelineRun(2L, "pipeline", 2)).thenReturn(false);
+        PipelineTimeline afterRestore = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager, snapshot);
+        stubPipelineRepository(afterRestore, true, first);
+        afterRestore.updateTimelineOnInit();
+
+        assertThat(afterRestore.maximumId()).isEqualTo(1L);
+        assertThat(afterRestore.getEntriesFor("pipeline")).containsExactly(first);
+    }
+
     @Test
     public void updateShouldLoadNewInstancesFromTheDatabase() {
         stubTransactionSynchronization();
@@ -219,6 +255,24 @@ public class PipelineTimelineTest {
         assertThat(timeline.instanceCount(new CaseInsensitiveString("pipeline"))).isEqualTo(2);
         assertThat(timeline.instanceFor(new CaseInsensitiveString("pipeline"), 0)).isEqualTo(first);
         assertThat(timeline.instanceFor(new CaseInsensitiveString("pipeline"), 1)).isEqualTo(second);
+        assertThat(timeline.runAfter(first.getId(), new CaseInsensitiveString("pipeline"))).isEqualTo(second);
+        assertThatThrownBy(() -> timeline.runBefore(third.getId(), new CaseInsensitiveString("pipeline")))
+            .hasMessage("Cannot find pipeline with id: 3");
+    }
+
+    @Test
+    public void shouldFindEntriesByIdWhicheverOrderTheyWereAddedIn() {
+        PipelineTimeline timeline = new PipelineTimeline(pipelineRepository, transactionTemplate, transactionSynchronizationManager);
+        timeline.add(fourth);
+        timeline.add(second);
+        timeline.add(first);
+        timeline.add(third);
+
+        for (PipelineTimelineEntry entry : List.of(first, second, third, fourth)) {
+            assertBeforeAfter(timeline, entry, entry.insertedAfter(), entry.insertedBefore());
+        }
+        assertThatThrownBy(() -> timeline.runAfter(5, new CaseInsensitiveString(pipelineName)))
+            .hasMessage("Cannot find pipeline with id: 5");
     }
 
     @SuppressWarnings("unchecked")
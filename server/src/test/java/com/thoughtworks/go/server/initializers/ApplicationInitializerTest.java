@@ -29,6 +29,7 @@ import com.thoughtworks.go.server.domain.PipelineTimeline;
 import com.thoughtworks.go.server.materials.DependencyMaterialUpdateNotifier;
 import com.thoughtworks.go.server.materials.MaterialUpdateService;
 import com.thoughtworks.go.server.materials.SCMMaterialSource;
+import com.thoughtworks.go.server.messaging.scheduling.ScheduledWorkNotifier;
 import com.thoughtworks.go.server.newsecurity.filters.InvalidateAuthenticationOnSecurityConfigChangeFilter;
 import com.thoughtworks.go.server.service.*;
 import com.thoughtworks.go.server.service.support.ResourceMonitoring;
@@ -112,6 +113,8 @@ public class ApplicationInitializerTest {
     @Mock
     private GoDashboardActivityListener dashboardActivityListener;
     @Mock
+    private ScheduledWorkNotifier scheduledWorkNotifier;
+    @Mock
     private ConsoleService consoleService;
     @Mock
     private ContextRefreshedEvent contextRefreshedEvent;
@@ -15,12 +15,9 @@
  */
 package com.thoughtworks.go.server.messaging;
 
-
 import com.thoughtworks.go.plugin.access.common.settings.GoPluginExtension;
 import com.thoughtworks.go.plugin.infra.PluginManager;
 import com.thoughtworks.go.plugin.infra.plugininfo.GoPluginDescriptor;
-import com.thoughtworks.go.server.messaging.activemq.JMSMessageListenerAdapter;
-import jakarta.jms.JMSException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -41,7 +38,7 @@ public class PluginAwareMessageQueueHandlerTest {
     @Mock
     private MessagingService<GoMessage> messaging;
     @Mock
-    private JMSMessageListenerAdapter<GoMessage> listenerAdapter;
+    private MessageListenerAdapter listenerAdapter;
     @Captor
     private ArgumentCaptor<GoMessageListener<GoMessage>> argumentCaptor;
 
@@ -71,7 +68,7 @@ public class PluginAwareMessageQueueHandlerTest {
     }
 
     @Test
-    public void shouldRemoveListenerWhenAPluginIsUnloaded() throws JMSException {
+    public void shouldRemoveListenerWhenAPluginIsUnloaded() throws Exception {
         String pluginId = PLUGIN_ID;
         String queueName = QUEUE_NAME_PREFIX + pluginId;
         when(extension.canHandlePlugin(pluginId)).thenReturn(true);
@@ -105,6 +102,22 @@ public class PluginAwareMessageQueueHandlerTest {
         verify(messaging, never()).addQueueListener(any(), any());
     }
 
+    @Test
+    public void shouldTellWhetherAMessageCouldBePostedToTheQueueOfItsPlugin() {
+        when(extension.canHandlePlugin(PLUGIN_ID)).thenReturn(true);
+        when(messaging.addQueueListener(eq(QUEUE_NAME_PREFIX + PLUGIN_ID), any())).thenReturn(listenerAdapter);
+        when(messaging.createQueueSender(QUEUE_NAME_PREFIX + PLUGIN_ID)).thenReturn(mock(MessageSender.class));
+        GoPluginDescriptor pluginDescriptor = GoPluginDescriptor.builder().id(PLUGIN_ID).build();
+
+        assertThat(handler.post(new FooMessage(), 0L)).isFalse();
+
+        handler.pluginLoaded(pluginDescriptor);
+        assertThat(handler.post(new FooMessage(), 0L)).isTrue();
+
+        handler.pluginUnLoaded(pluginDescriptor);
+        assertThat(handler.post(new FooMessage(), 0L)).isFalse();
+    }
+
     private class MyQueueFactory implements QueueFactory<FooMessage> {
         @Override
         public PluginAwareMessageQueue<FooMessage> create(GoPluginDescriptor pluginDescriptor) {
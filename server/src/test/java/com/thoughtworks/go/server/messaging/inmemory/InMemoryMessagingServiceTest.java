@@ -0,0 +1,188 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.messaging.inmemory;
+
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.GoMessageQueue;
+import com.thoughtworks.go.server.messaging.GoMessageTopic;
+import com.thoughtworks.go.server.messaging.GoTextMessage;
+import com.thoughtworks.go.server.service.support.DaemonThreadStatsCollector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.util.TestUtils.doInterruptiblyQuietly;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class InMemoryMessagingServiceTest {
+    private InMemoryMessagingService messaging;
+
+    @BeforeEach
+    void setUp() {
+        messaging = new InMemoryMessagingService(new DaemonThreadStatsCollector(), 100, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        messaging.stop();
+    }
+
+    @Test
+    void shouldHandEveryMessageOnATopicToEachListener() {
+        GoMessageTopic<GoTextMessage> topic = new GoMessageTopic<>(messaging, "topic-name");
+        FastListener first = new FastListener();
+        FastListener second = new FastListener();
+        topic.addListener(first);
+        topic.addListener(second);
+
+        topic.post(new GoTextMessage("Hello World!"));
+
+        await()
+            .timeout(2, TimeUnit.SECONDS)
+            .untilAsserted(() -> {
+                assertThat(first.receivedMessages).extracting(GoTextMessage::getText).containsExactly("Hello World!");
+                assertThat(second.receivedMessages).extracting(GoTextMessage::getText).containsExactly("Hello World!");
+            });
+    }
+
+    @Test
+    void shouldSupportCompetingConsumers() {
+        HangingListener hanging = new HangingListener();
+        FastListener fast = new FastListener();
+
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue-name");
+        queue.addListener(hanging);
+        queue.addListener(fast);
+
+        for (int i = 1; i <= 5; i++) {
+            queue.post(new GoTextMessage("Hello World" + i));
+        }
+
+        try {
+            await()
+                .timeout(2, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(fast.receivedMessages).hasSize(4));
+        } finally {
+            hanging.finish();
+        }
+    }
+
+    @Test
+    void shouldStillReceiveMessagesIfAnExceptionIsThrown() {
+        ExceptionListener exceptionListener = new ExceptionListener();
+
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue-name");
+        queue.addListener(exceptionListener);
+
+        for (int i = 1; i <= 5; i++) {
+            queue.post(new GoTextMessage("Hello World" + i));
+        }
+
+        await()
+            .timeout(2, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(exceptionListener.receivedMessages).hasSize(5));
+    }
+
+    @Test
+    void shouldNotHandOverMessagesWhichHaveExpired() throws InterruptedException {
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue-name");
+        queue.post(new GoTextMessage("expired"), 1);
+        Thread.sleep(20);
+        queue.post(new GoTextMessage("still fresh"), TimeUnit.MINUTES.toMillis(1));
+
+        FastListener listener = new FastListener();
+        queue.addListener(listener);
+
+        await()
+            .timeout(2, TimeUnit.SECONDS)
+            .untilAsserted(() -> assertThat(statisticsOf("Queue queue-name"))
+                .containsEntry("Posted", 2L)
+                .containsEntry("Delivered", 1L)
+                .containsEntry("Expired", 1L)
+                .containsEntry("Depth", 0L));
+        assertThat(listener.receivedMessages).extracting(GoTextMessage::getText).containsExactly("still fresh");
+    }
+
+    @Test
+    void shouldStopListenersWhenTheirQueueIsRemoved() throws InterruptedException {
+        GoMessageQueue<GoTextMessage> queue = new GoMessageQueue<>(messaging, "queue-name");
+        FastListener listener = new FastListener();
+        queue.addListener(listener);
+
+        queue.stop();
+        Thread.sleep(100);
+        queue.post(new GoTextMessage("after removal"));
+        Thread.sleep(100);
+
+        assertThat(listener.receivedMessages).isEmpty();
+        assertThat(statisticsOf("Queue queue-name")).containsEntry("Depth", 1L);
+    }
+
+    @Test
+    void shouldStopHandingOverMessagesToAListenerOnceItIsStopped() throws Exception {
+        GoMessageTopic<GoTextMessage> topic = new GoMessageTopic<>(messaging, "topic-name");
+        FastListener listener = new FastListener();
+        topic.addListener(listener).stop();
+
+        topic.post(new GoTextMessage("Hello World!"));
+        Thread.sleep(100);
+
+        assertThat(listener.receivedMessages).isEmpty();
+        assertThat(statisticsOf("Topic topic-name")).containsEntry("Posted", 1L).containsEntry("Depth", 0L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> statisticsOf(String destination) {
+        return (Map<String, Object>) messaging.statistics().get(destination);
+    }
+
+    private static class FastListener implements GoMessageListener<GoTextMessage> {
+        public final Queue<GoTextMessage> receivedMessages = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public void onMessage(GoTextMessage message) {
+            receivedMessages.add(message);
+        }
+    }
+
+    private static class ExceptionListener extends FastListener {
+        @Override
+        public void onMessage(GoTextMessage message) {
+            super.onMessage(message);
+            throw new RuntimeException(message.getText());
+        }
+    }
+
+    private static class HangingListener implements GoMessageListener<GoTextMessage> {
+        private final CountDownLatch finish = new CountDownLatch(1);
+
+        @Override
+        public void onMessage(GoTextMessage message) {
+            doInterruptiblyQuietly(finish::await);
+        }
+
+        public void finish() {
+            finish.countDown();
+        }
+    }
+}
@@ -80,9 +80,22 @@ public class AgentStatusChangeNotifierTest {
         AgentInstance agentInstance = AgentInstanceMother.building();
 
         when(notificationPluginRegistry.isAnyPluginInterestedIn("agent-status")).thenReturn(false);
+        when(notificationPluginRegistry.isAnyPluginInterestedIn("agent-status-batch")).thenReturn(false);
 
         agentStatusChangeNotifier.onAgentStatusChange(agentInstance);
 
         verifyNoInteractions(pluginNotificationService);
     }
+
+    @Test
+    public void shouldNotifyIfPluginsAreOnlyInterestedInBatchesOfAgentStatusNotifications() {
+        AgentInstance agentInstance = AgentInstanceMother.building();
+
+        when(notificationPluginRegistry.isAnyPluginInterestedIn("agent-status")).thenReturn(false);
+        when(notificationPluginRegistry.isAnyPluginInterestedIn("agent-status-batch")).thenReturn(true);
+
+        agentStatusChangeNotifier.onAgentStatusChange(agentInstance);
+
+        verify(pluginNotificationService).notifyAgentStatus(agentInstance);
+    }
 }
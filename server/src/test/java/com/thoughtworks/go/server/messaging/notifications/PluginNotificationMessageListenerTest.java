@@ -23,6 +23,7 @@ import com.thoughtworks.go.serverhealth.ServerHealthState;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,7 +34,7 @@ public class PluginNotificationMessageListenerTest {
     public void shouldNotifyPluginOnMessage() {
         NotificationExtension notificationExtension = mock(NotificationExtension.class);
         ServerHealthService serverHealthService = mock(ServerHealthService.class);
-        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService);
+        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService, new PendingPluginNotifications());
 
         PluginNotificationMessage<?> message = new PluginNotificationMessage<>("pid", "request-name", "data");
         when(notificationExtension.notify(message.pluginId(), message.getRequestName(), message.getData())).thenReturn(new Result());
@@ -47,7 +48,7 @@ public class PluginNotificationMessageListenerTest {
     public void shouldAddErrorReturnedByPluginToHealthMessage() {
         NotificationExtension notificationExtension = mock(NotificationExtension.class);
         ServerHealthService serverHealthService = mock(ServerHealthService.class);
-        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService);
+        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService, new PendingPluginNotifications());
 
         PluginNotificationMessage<?> message = new PluginNotificationMessage<>("pid", "request-name", "data");
         Result result = new Result();
@@ -68,7 +69,7 @@ public class PluginNotificationMessageListenerTest {
     public void shouldHandleExceptionDuringPluginNotificationCorrectly() {
         NotificationExtension notificationExtension = mock(NotificationExtension.class);
         ServerHealthService serverHealthService = mock(ServerHealthService.class);
-        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService);
+        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService, new PendingPluginNotifications());
 
         PluginNotificationMessage<?> message = new PluginNotificationMessage<>("pid", "request-name", "data");
         when(notificationExtension.notify(message.pluginId(), message.getRequestName(), message.getData())).thenThrow(new RuntimeException("error!"));
@@ -83,4 +84,38 @@ public class PluginNotificationMessageListenerTest {
         verify(notificationExtension).notify("pid", "request-name", message.getData());
     }
 
+    @Test
+    public void shouldNotifyPluginWithTheLatestDataWaitingForACoalescedMessage() {
+        NotificationExtension notificationExtension = mock(NotificationExtension.class);
+        ServerHealthService serverHealthService = mock(ServerHealthService.class);
+        PendingPluginNotifications pendingNotifications = new PendingPluginNotifications();
+        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService, pendingNotifications);
+
+        pendingNotifications.add("pid", "agent-status", "uuid", "uuid", "building", 60_000L);
+        pendingNotifications.add("pid", "agent-status", "uuid", "uuid", "idle", 60_000L);
+        PluginNotificationMessage<?> message = new PluginNotificationMessage<>("pid", "agent-status", "building", "uuid");
+        when(notificationExtension.notify("pid", "agent-status", "idle")).thenReturn(new Result());
+        listener.onMessage(message);
+        listener.onMessage(message);
+
+        verify(notificationExtension).notify("pid", "agent-status", "idle");
+        verifyNoMoreInteractions(notificationExtension);
+    }
+
+    @Test
+    public void shouldNotifyPluginWithEverythingWaitingForABatchMessage() {
+        NotificationExtension notificationExtension = mock(NotificationExtension.class);
+        ServerHealthService serverHealthService = mock(ServerHealthService.class);
+        PendingPluginNotifications pendingNotifications = new PendingPluginNotifications();
+        PluginNotificationMessageListener listener = new PluginNotificationMessageListener(notificationExtension, serverHealthService, pendingNotifications);
+
+        pendingNotifications.add("pid", "agent-status-batch", "", "uuid1", "building", 60_000L);
+        pendingNotifications.add("pid", "agent-status-batch", "", "uuid2", "idle", 60_000L);
+        PluginNotificationMessage<?> message = new PluginNotificationMessage<>("pid", "agent-status-batch", new ArrayList<>(List.of("building")), "");
+        when(notificationExtension.notify("pid", "agent-status-batch", List.of("building", "idle"))).thenReturn(new Result());
+        listener.onMessage(message);
+
+        verify(notificationExtension).notify("pid", "agent-status-batch", List.of("building", "idle"));
+        assertThat(pendingNotifications.statistics()).containsKey("pid");
+    }
 }
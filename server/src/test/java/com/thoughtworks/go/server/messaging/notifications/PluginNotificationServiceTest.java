@@ -45,6 +45,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import static com.thoughtworks.go.util.SystemEnvironment.NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -69,16 +70,19 @@ public class PluginNotificationServiceTest {
     private StageDao stageDao;
     @Mock
     private SystemEnvironment systemEnvironment;
+    private PendingPluginNotifications pendingNotifications;
     private PluginNotificationService pluginNotificationService;
 
     @BeforeEach
     public void setUp() {
-        pluginNotificationService = new PluginNotificationService(notificationPluginRegistry, pluginNotificationsQueueHandler, goConfigService, pipelineDao, stageDao, systemEnvironment);
+        pendingNotifications = new PendingPluginNotifications();
+        pluginNotificationService = new PluginNotificationService(notificationPluginRegistry, pluginNotificationsQueueHandler, goConfigService, pipelineDao, stageDao, systemEnvironment, pendingNotifications);
     }
 
     @Test
     public void shouldConstructDataForAgentNotification() {
         when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION)).thenReturn(Set.of());
         when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(1000L);
 
         AgentInstance agentInstance = AgentInstanceMother.building();
@@ -104,6 +108,7 @@ public class PluginNotificationServiceTest {
     @Test
     public void shouldConstructDataForElasticAgentNotification() {
         when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION)).thenReturn(Set.of());
         when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(1000L);
         ElasticAgentRuntimeInfo agentRuntimeInfo = new ElasticAgentRuntimeInfo(new AgentIdentifier("localhost", "127.0.0.1", "uuid"), AgentRuntimeStatus.Idle, "/foo/one", null, "42", "go.cd.elastic-agent-plugin.docker");
 
@@ -249,6 +254,7 @@ public class PluginNotificationServiceTest {
         Result result = new Result();
         result.withSuccessMessages("success message");
         when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1, PLUGIN_ID_2)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION)).thenReturn(Set.of());
         when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(1000L);
 
         AgentInstance agentInstance = AgentInstanceMother.lostContact();
@@ -262,6 +268,68 @@ public class PluginNotificationServiceTest {
         assertMessage(messages.getLast(), PLUGIN_ID_2, NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION, agentInstance);
     }
 
+    @Test
+    public void shouldOnlyQueueOneNotificationPerAgentUntilThePluginHasBeenToldAboutIt() {
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION)).thenReturn(Set.of());
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(60_000L);
+        when(pluginNotificationsQueueHandler.post(any(), eq(60_000L))).thenReturn(true);
+
+        AgentInstance building = AgentInstanceMother.building();
+        AgentInstance idle = AgentInstanceMother.idle();
+        pluginNotificationService.notifyAgentStatus(building);
+        pluginNotificationService.notifyAgentStatus(building);
+        pluginNotificationService.notifyAgentStatus(idle);
+
+        @SuppressWarnings("unchecked") ArgumentCaptor<PluginNotificationMessage<?>> captor = ArgumentCaptor.forClass(PluginNotificationMessage.class);
+        verify(pluginNotificationsQueueHandler, times(2)).post(captor.capture(), eq(60_000L));
+        assertThat(captor.getAllValues()).extracting(PluginNotificationMessage::getCoalescingKey).containsExactly(building.getUuid(), idle.getUuid());
+
+        List<?> latest = pendingNotifications.take(PLUGIN_ID_1, NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION, building.getUuid());
+        assertThat(latest).hasSize(1);
+        assertThat(((AgentNotificationData) latest.getFirst()).getAgentState()).isEqualTo(building.getStatus().toString());
+
+        pluginNotificationService.notifyAgentStatus(building);
+        verify(pluginNotificationsQueueHandler, times(3)).post(any(), eq(60_000L));
+    }
+
+    @Test
+    public void shouldBatchAgentNotificationsForPluginsInterestedInBatches() {
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1, PLUGIN_ID_2)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION)).thenReturn(Set.of(PLUGIN_ID_2));
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(60_000L);
+        when(pluginNotificationsQueueHandler.post(any(), eq(60_000L))).thenReturn(true);
+
+        AgentInstance building = AgentInstanceMother.building();
+        AgentInstance idle = AgentInstanceMother.idle();
+        pluginNotificationService.notifyAgentStatus(building);
+        pluginNotificationService.notifyAgentStatus(idle);
+
+        @SuppressWarnings("unchecked") ArgumentCaptor<PluginNotificationMessage<?>> captor = ArgumentCaptor.forClass(PluginNotificationMessage.class);
+        verify(pluginNotificationsQueueHandler, times(3)).post(captor.capture(), eq(60_000L));
+        List<PluginNotificationMessage<?>> batches = captor.getAllValues().stream().filter(message -> message.pluginId().equals(PLUGIN_ID_2)).toList();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.getFirst().getRequestName()).isEqualTo(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION);
+
+        List<?> batch = pendingNotifications.take(PLUGIN_ID_2, NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION, "");
+        assertThat(batch).extracting(data -> ((AgentNotificationData) data).getUuid()).containsExactly(building.getUuid(), idle.getUuid());
+    }
+
+    @Test
+    public void shouldPostTheNextAgentNotificationAgainIfThePreviousOneCouldNotBePosted() {
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION)).thenReturn(new LinkedHashSet<>(List.of(PLUGIN_ID_1)));
+        when(notificationPluginRegistry.getPluginsInterestedIn(NotificationExtension.AGENT_STATUS_BATCH_NOTIFICATION)).thenReturn(Set.of());
+        when(systemEnvironment.get(NOTIFICATION_PLUGIN_MESSAGES_TTL_IN_MILLIS)).thenReturn(60_000L);
+        when(pluginNotificationsQueueHandler.post(any(), eq(60_000L))).thenReturn(false);
+
+        AgentInstance agentInstance = AgentInstanceMother.building();
+        pluginNotificationService.notifyAgentStatus(agentInstance);
+        pluginNotificationService.notifyAgentStatus(agentInstance);
+
+        verify(pluginNotificationsQueueHandler, times(2)).post(any(), eq(60_000L));
+        assertThat(pendingNotifications.take(PLUGIN_ID_1, NotificationExtension.AGENT_STATUS_CHANGE_NOTIFICATION, agentInstance.getUuid())).isEmpty();
+    }
+
     private void assertMessage(PluginNotificationMessage<?> notificationMessage, String pluginId, String requestName, AgentInstance agentInstance) {
         assertThat(notificationMessage.pluginId()).isEqualTo(pluginId);
         assertThat(notificationMessage.getRequestName()).isEqualTo(requestName);
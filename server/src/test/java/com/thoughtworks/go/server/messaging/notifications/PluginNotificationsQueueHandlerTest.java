@@ -45,11 +45,13 @@ public class PluginNotificationsQueueHandlerTest {
     private SystemEnvironment systemEnvironment;
     @Mock
     private ServerHealthService serverHealthService;
+    private PendingPluginNotifications pendingNotifications;
     private PluginNotificationsQueueHandler handler;
 
     @BeforeEach
     public void setUp() {
-        handler = new PluginNotificationsQueueHandler(messagingService, notificationExtension, pluginManager, systemEnvironment, serverHealthService);
+        pendingNotifications = new PendingPluginNotifications();
+        handler = new PluginNotificationsQueueHandler(messagingService, notificationExtension, pluginManager, systemEnvironment, serverHealthService, pendingNotifications);
     }
 
     @Test
@@ -73,6 +75,20 @@ public class PluginNotificationsQueueHandlerTest {
         assertThat(queueForPlugin3.numberListeners()).isEqualTo(2);
     }
 
+    @Test
+    public void shouldForgetNotificationsWaitingForAPluginWhenItIsUnloaded() {
+        String pluginId = "plugin-1";
+        when(notificationExtension.canHandlePlugin(pluginId)).thenReturn(true);
+        handler.pluginLoaded(getPluginDescriptor(pluginId));
+        pendingNotifications.add(pluginId, "agent-status", "uuid", "uuid", "building", 0L);
+
+        handler.pluginUnLoaded(getPluginDescriptor(pluginId));
+
+        assertThat(handler.getQueues()).isEmpty();
+        assertThat(pendingNotifications.statistics()).isEmpty();
+        assertThat(pendingNotifications.add(pluginId, "agent-status", "uuid", "uuid", "idle", 0L)).isTrue();
+    }
+
     private GoPluginDescriptor getPluginDescriptor(String pluginId) {
         return GoPluginDescriptor.builder().id(pluginId).build();
     }
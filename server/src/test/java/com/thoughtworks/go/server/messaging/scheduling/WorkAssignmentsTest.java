@@ -20,13 +20,17 @@ import com.thoughtworks.go.remote.AgentIdentifier;
 import com.thoughtworks.go.remote.work.NoWork;
 import com.thoughtworks.go.remote.work.Work;
 import com.thoughtworks.go.server.service.AgentRuntimeInfo;
+import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.work.FakeWork;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+
 import static com.thoughtworks.go.util.SystemUtil.currentWorkingDirectory;
 import static org.assertj.core.api.Assertions.assertThat;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -44,7 +48,7 @@ public class WorkAssignmentsTest {
     public void setup() {
         idleAgentsTopic = mock(IdleAgentTopic.class, "idle_topic");
         assignedWorkTopic = mock(WorkAssignedTopic.class, "assigned_work_topic");
-        assignments = new WorkAssignments(idleAgentsTopic, assignedWorkTopic);
+        assignments = new WorkAssignments(idleAgentsTopic, assignedWorkTopic, new SystemEnvironment());
         agentIdentifier = new AgentIdentifier("localhost", "127.0.0.1", "uuid");
         agent = new AgentRuntimeInfo(agentIdentifier, AgentRuntimeStatus.Idle, currentWorkingDirectory(), "cookie");
     }
@@ -100,4 +104,52 @@ public class WorkAssignmentsTest {
         assertThat(assignments.getWork(agent)).isEqualTo(NO_WORK);
         verify(idleAgentsTopic, times(2)).post(new IdleAgentMessage(agent));
     }
+
+    @Test
+    public void shouldReturnWorkAssignedWhileTheAgentIsWaitingForIt() throws Exception {
+        CompletableFuture<Work> work = CompletableFuture.supplyAsync(() -> assignments.getWork(agent, SECONDS.toMillis(10)));
+        verify(idleAgentsTopic, timeout(5000)).post(new IdleAgentMessage(agent));
+        while (!assignments.hasWaitingAgents()) {
+            Thread.onSpinWait();
+        }
+
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, REAL_WORK));
+
+        assertThat(work.get(5, SECONDS)).isEqualTo(REAL_WORK);
+        assertThat(assignments.hasWaitingAgents()).isFalse();
+    }
+
+    @Test
+    public void shouldReturnNoWorkWhenNothingIsAssignedWhileTheAgentIsWaiting() {
+        assertThat(assignments.getWork(agent, 50)).isEqualTo(NO_WORK);
+        assertThat(assignments.hasWaitingAgents()).isFalse();
+        verify(idleAgentsTopic).post(new IdleAgentMessage(agent));
+    }
+
+    @Test
+    public void shouldNotWaitWhenWorkIsAlreadyAssigned() {
+        assertThat(assignments.getWork(agent)).isEqualTo(NO_WORK);
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, REAL_WORK));
+
+        assertThat(assignments.getWork(agent, SECONDS.toMillis(10))).isEqualTo(REAL_WORK);
+    }
+
+    @Test
+    public void shouldAskForWorkAgainOnBehalfOfWaitingAgentsWithNoAssignmentInProgress() throws Exception {
+        CompletableFuture<Work> work = CompletableFuture.supplyAsync(() -> assignments.getWork(agent, SECONDS.toMillis(10)));
+        verify(idleAgentsTopic, timeout(5000)).post(new IdleAgentMessage(agent));
+        while (!assignments.hasWaitingAgents()) {
+            Thread.onSpinWait();
+        }
+
+        assignments.findWorkForWaitingAgents();
+        verify(idleAgentsTopic, times(1)).post(new IdleAgentMessage(agent));
+
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, NO_WORK));
+        assignments.findWorkForWaitingAgents();
+        verify(idleAgentsTopic, times(2)).post(new IdleAgentMessage(agent));
+
+        assignments.onMessage(new WorkAssignedMessage(agentIdentifier, REAL_WORK));
+        assertThat(work.get(5, SECONDS)).isEqualTo(REAL_WORK);
+    }
 }
@@ -113,7 +113,7 @@ public class AuthenticationFilterChainTest {
             request.getSession(false).setAttribute(SECURITY_CONFIG_LAST_CHANGE, clock.currentTimeMillis());
 
             final InvalidateAuthenticationOnSecurityConfigChangeFilter invalidateAuthenticationOnSecurityConfigChangeFilter = new InvalidateAuthenticationOnSecurityConfigChangeFilter(
-                    mock(GoConfigService.class), clock, mock(AuthorizationExtensionCacheService.class), mock(PluginRoleService.class));
+                    mock(GoConfigService.class), clock, mock(AuthorizationExtensionCacheService.class), mock(PluginRoleService.class), mock(VerifiedAccessTokenCache.class));
 
             clock.addSeconds(1000);
             invalidateAuthenticationOnSecurityConfigChangeFilter.onPluginRoleChange();
@@ -20,6 +20,8 @@ import com.thoughtworks.go.config.exceptions.RecordNotFoundException;
 import com.thoughtworks.go.domain.AccessToken;
 import com.thoughtworks.go.server.dao.AccessTokenDao;
 import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.server.exceptions.InvalidAccessTokenException;
+import com.thoughtworks.go.server.exceptions.RevokedAccessTokenException;
 import com.thoughtworks.go.server.service.result.HttpLocalizedOperationResult;
 import com.thoughtworks.go.util.Clock;
 import com.thoughtworks.go.util.TestingClock;
@@ -47,6 +49,7 @@ class AccessTokenServiceTest {
     @Mock
     private SecurityService securityService;
     private AccessTokenService accessTokenService;
+    private VerifiedAccessTokenCache verifiedAccessTokenCache;
     private HttpLocalizedOperationResult result;
     private String username;
     private String authConfigId;
@@ -54,7 +57,8 @@ class AccessTokenServiceTest {
 
     @BeforeEach
     void setUp() {
-        accessTokenService = new AccessTokenService(accessTokenDao, clock, securityService);
+        verifiedAccessTokenCache = new VerifiedAccessTokenCache(100, 3600);
+        accessTokenService = new AccessTokenService(accessTokenDao, clock, securityService, verifiedAccessTokenCache);
         result = new HttpLocalizedOperationResult();
 
         username = "Bob";
@@ -123,6 +127,61 @@ class AccessTokenServiceTest {
         verifyNoMoreInteractions(accessTokenDao);
     }
 
+    @Nested
+    class FindByAccessToken {
+        private AccessToken.AccessTokenWithDisplayValue accessToken;
+
+        @BeforeEach
+        void setUp() {
+            accessToken = spy(randomAccessTokenForUser(username));
+            accessToken.setId(42);
+            lenient().when(accessTokenDao.findAccessTokenBySaltId(accessToken.getSaltId())).thenReturn(accessToken);
+        }
+
+        @Test
+        void shouldDigestAPresentedTokenOnlyTheFirstTime() {
+            assertThat(accessTokenService.findByAccessToken(accessToken.getDisplayValue())).isSameAs(accessToken);
+            assertThat(accessTokenService.findByAccessToken(accessToken.getDisplayValue())).isSameAs(accessToken);
+
+            verify(accessToken, times(1)).isValidToken(accessToken.getDisplayValue());
+            assertThat(verifiedAccessTokenCache.statistics())
+                .containsEntry("Hits", 1L)
+                .containsEntry("Misses", 1L);
+        }
+
+        @Test
+        void shouldNotRememberTokensWhichAreNotValid() {
+            String wrongToken = accessToken.getSaltId() + "0".repeat(32);
+
+            assertThatCode(() -> accessTokenService.findByAccessToken(wrongToken)).isInstanceOf(InvalidAccessTokenException.class);
+            assertThatCode(() -> accessTokenService.findByAccessToken(wrongToken)).isInstanceOf(InvalidAccessTokenException.class);
+
+            verify(accessToken, times(2)).isValidToken(wrongToken);
+        }
+
+        @Test
+        void shouldForgetATokenOnceItIsRevoked() {
+            when(accessTokenDao.loadForAdminUser(42)).thenReturn(accessToken);
+            accessTokenService.findByAccessToken(accessToken.getDisplayValue());
+
+            accessTokenService.revokeAccessTokenByGoCD(42, "compromised");
+
+            assertThatCode(() -> accessTokenService.findByAccessToken(accessToken.getDisplayValue())).isInstanceOf(RevokedAccessTokenException.class);
+            verify(accessToken, times(2)).isValidToken(accessToken.getDisplayValue());
+        }
+
+        @Test
+        void shouldNotTrustARememberedTokenIfTheStoredTokenChanged() {
+            accessTokenService.findByAccessToken(accessToken.getDisplayValue());
+            AccessToken.AccessTokenWithDisplayValue otherToken = spy(randomAccessTokenForUser(username));
+            otherToken.setId(42);
+            when(accessTokenDao.findAccessTokenBySaltId(accessToken.getSaltId())).thenReturn(otherToken);
+
+            assertThatCode(() -> accessTokenService.findByAccessToken(accessToken.getDisplayValue())).isInstanceOf(InvalidAccessTokenException.class);
+            verify(otherToken).isValidToken(accessToken.getDisplayValue());
+        }
+    }
+
     @Nested
     class OnTimer {
 
@@ -22,6 +22,7 @@ import com.thoughtworks.go.server.service.result.DiskSpaceOperationResult;
 import com.thoughtworks.go.server.service.result.HttpOperationResult;
 import com.thoughtworks.go.server.service.result.OperationResult;
 import com.thoughtworks.go.server.service.result.ServerHealthStateOperationResult;
+import com.thoughtworks.go.server.view.artifacts.PathBasedArtifactsLocator;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.util.GoConstants;
 import com.thoughtworks.go.util.ReflectionUtil;
@@ -29,12 +30,20 @@ import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.stubbing.Answer;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_PURGE_PROACTIVE_PERCENT;
+import static com.thoughtworks.go.util.SystemEnvironment.GO_ARTIFACT_PURGE_THREADS;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -52,6 +61,8 @@ public class ArtifactsDiskCleanerTest {
     @BeforeEach
     public void setUp() {
         sysEnv = mock(SystemEnvironment.class);
+        when(sysEnv.get(GO_ARTIFACT_PURGE_THREADS)).thenReturn(2);
+        when(sysEnv.get(GO_ARTIFACT_PURGE_PROACTIVE_PERCENT)).thenReturn(0);
 
         serverConfig = new ServerConfig();
         goConfigService = mock(GoConfigService.class);
@@ -79,6 +90,19 @@ public class ArtifactsDiskCleanerTest {
         assertThat(artifactsDiskCleaner.limitInMb()).isEqualTo(15 * GoConstants.MEGABYTES_IN_GIGABYTE);
     }
 
+    @Test
+    public void shouldTriggerProactivelyPartOfTheWayFromPurgeStartToPurgeUpto() {
+        when(sysEnv.get(GO_ARTIFACT_PURGE_PROACTIVE_PERCENT)).thenReturn(25);
+        serverConfig.setPurgeLimits(20.0, 30.0);
+        assertThat(artifactsDiskCleaner.limitInMb()).isEqualTo((long) (22.5 * GoConstants.MEGABYTES_IN_GIGABYTE));
+
+        when(sysEnv.get(GO_ARTIFACT_PURGE_PROACTIVE_PERCENT)).thenReturn(250);
+        assertThat(artifactsDiskCleaner.limitInMb()).isEqualTo(30 * GoConstants.MEGABYTES_IN_GIGABYTE);
+
+        serverConfig.setPurgeLimits(20.0, 10.0);
+        assertThat(artifactsDiskCleaner.limitInMb()).isEqualTo(20 * GoConstants.MEGABYTES_IN_GIGABYTE);
+    }
+
     @Test
     @Timeout(20)
     public void shouldTriggerCleanupWhenLimitReached() throws InterruptedException {
@@ -173,10 +197,46 @@ public class ArtifactsDiskCleanerTest {
         verifyNoMoreInteractions(stageService);
     }
 
+    @Test
+    public void shouldPurgeJustEnoughOfTheOldestStagesAtOnceToFreeUpTheSpaceNeeded(@TempDir Path artifactsDir) throws IOException {
+        serverConfig.setPurgeLimits(1.0, 2.0);
+        when(goConfigService.artifactsDir()).thenReturn(artifactsDir.toFile());
+        Stage stageOne = stageWithArtifacts(1, "stage", "build", "pipeline", artifactsDir, 1000);
+        Stage stageTwo = stageWithArtifacts(2, "another", "job", "with-pipeline", artifactsDir, 1000);
+        Stage stageThree = stageWithArtifacts(3, "yet-another", "job1", "foo-pipeline", artifactsDir, 1500);
+        Stage stageFour = stageWithArtifacts(4, "foo-stage", "bar-job", "baz-pipeline", artifactsDir, 1000);
+
+        AtomicLong usableSpace = new AtomicLong(2 * GoConstants.GIGA_BYTE - 3000);
+        when(diskSpaceChecker.getUsableSpace(artifactsDir.toFile())).thenAnswer(invocation -> usableSpace.get());
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenReturn(List.of(stageOne, stageTwo, stageThree, stageFour));
+        doAnswer(invocation -> usableSpace.addAndGet(1500)).when(artifactService).purgeArtifactsForStage(any(Stage.class));
+
+        artifactsDiskCleaner = new ArtifactsDiskCleaner(sysEnv, goConfigService, diskSpaceChecker, artifactService, stageService, configDbStateRepository);
+        artifactsDiskCleaner.deleteOldArtifacts();
+
+        verify(artifactService).purgeArtifactsForStage(stageOne);
+        verify(artifactService).purgeArtifactsForStage(stageTwo);
+        verify(artifactService).purgeArtifactsForStage(stageThree);
+        verifyNoMoreInteractions(artifactService);
+        assertThat(artifactsDiskCleaner.statistics())
+            .containsEntry("Stages Purged", 3L)
+            .containsEntry("Stages Measured", 0);
+    }
+
     @Test
     public void shouldUseA_NonServerHealthAware_result() {
         serverHealthService = mock(ServerHealthService.class);
         OperationResult operationResult = artifactsDiskCleaner.resultFor(new DiskSpaceOperationResult(serverHealthService));
         assertThat(operationResult).isInstanceOf(ServerHealthStateOperationResult.class);
     }
+
+    private static Stage stageWithArtifacts(long id, String stageName, String jobName, String pipelineName, Path artifactsDir, int bytes) throws IOException {
+        Stage stage = StageMother.passedStageInstance(stageName, jobName, pipelineName);
+        stage.setId(id);
+        File jobRoot = new File(new PathBasedArtifactsLocator(artifactsDir.toFile()).directoryFor(stage.getIdentifier()), jobName);
+        Files.createDirectories(jobRoot.toPath().resolve("cruise-output"));
+        Files.write(jobRoot.toPath().resolve("artifact.bin"), new byte[bytes]);
+        Files.write(jobRoot.toPath().resolve("cruise-output/console.log"), new byte[10_000]);
+        return stage;
+    }
 }
@@ -37,6 +37,7 @@ import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.event.Level;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -66,6 +67,7 @@ public class ArtifactsServiceTest {
     private File fakeRoot;
     private JobResolverService resolverService;
     private StageDao stageService;
+    private ArtifactBlobStore artifactBlobStore;
 
     @BeforeEach
     void setUp() throws IOException {
@@ -73,6 +75,7 @@ public class ArtifactsServiceTest {
         zipUtil = mock(ZipUtil.class);
         resolverService = mock(JobResolverService.class);
         stageService = mock(StageDao.class);
+        artifactBlobStore = new ArtifactBlobStore(artifactsDirHolder, false);
 
         fakeRoot = TempDirUtils.createTempDirectoryIn(tempDir, "ArtifactsServiceTest").toFile();
     }
@@ -92,7 +95,7 @@ public class ArtifactsServiceTest {
         final File destFile = new File(logsDir, buildInstanceId + File.separator + TEST_ARTIFACT_FILE);
 
         assumeArtifactsRoot(logsDir);
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.saveFile(destFile.getParentFile(), stream, true, 1);
 
         verify(zipUtil).unzip(any(ZipInputStream.class), eq(destFile.getParentFile()));
@@ -106,7 +109,7 @@ public class ArtifactsServiceTest {
             String buildInstanceId = "1";
             final File destFile = new File(logsDir, buildInstanceId + File.separator + TEST_ARTIFACT_FILE);
             assumeArtifactsRoot(logsDir);
-            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil());
+            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil(), artifactBlobStore);
             boolean saved = artifactsService.saveFile(destFile, stream, true, 1);
             assertThat(saved).isFalse();
         }
@@ -124,7 +127,7 @@ public class ArtifactsServiceTest {
         doThrow(ioException).when(zipUtil).unzip(any(ZipInputStream.class), any(File.class));
 
         try (LogFixture logFixture = logFixtureFor(ArtifactsService.class, Level.DEBUG)) {
-            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
             artifactsService.saveFile(destFile, stream, true, 1);
             String result;
             synchronized (logFixture) {
@@ -145,7 +148,7 @@ public class ArtifactsServiceTest {
         doThrow(ioException).when(zipUtil).unzip(any(ZipInputStream.class), any(File.class));
 
         try (LogFixture logFixture = logFixtureFor(ArtifactsService.class, Level.DEBUG)) {
-            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+            ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
             artifactsService.saveFile(destFile, stream, true, PUBLISH_MAX_RETRIES);
             String result;
             synchronized (logFixture) {
@@ -159,7 +162,7 @@ public class ArtifactsServiceTest {
     void shouldConvertArtifactPathToFileSystemLocation() throws Exception {
         File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
         assumeArtifactsRoot(artifactsRoot);
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         File location = artifactsService.getArtifactLocation("foo/bar/baz");
         assertThat(location).isEqualTo(new File(artifactsRoot + "/foo/bar/baz"));
     }
@@ -169,7 +172,7 @@ public class ArtifactsServiceTest {
         File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
         assumeArtifactsRoot(artifactsRoot);
 
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         JobIdentifier identifier = JobIdentifierMother.jobIdentifier("p", 1, "s", "2", "j");
         when(resolverService.actualJobIdentifier(identifier)).thenReturn(identifier);
 
@@ -182,7 +185,7 @@ public class ArtifactsServiceTest {
         File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
         assumeArtifactsRoot(artifactsRoot);
 
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         JobIdentifier identifier = JobIdentifierMother.jobIdentifier("p", 1, "s", "2", "j");
         when(resolverService.actualJobIdentifier(identifier)).thenReturn(identifier);
 
@@ -195,7 +198,7 @@ public class ArtifactsServiceTest {
         File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
         assumeArtifactsRoot(artifactsRoot);
 
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         File artifact = artifactsService.findArtifact(
                 new JobIdentifier("cruise", 1, "1.1", "dev", "2", "linux-firefox", 0), "pkg.zip");
@@ -206,7 +209,7 @@ public class ArtifactsServiceTest {
     @DisabledOnOs(OS.WINDOWS)
     void shouldProvideArtifactRootForAJobOnLinux() throws Exception {
         assumeArtifactsRoot(fakeRoot);
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         JobIdentifier oldId = new JobIdentifier("cruise", 1, "1.1", "dev", "2", "linux-firefox", 0);
         when(resolverService.actualJobIdentifier(oldId)).thenReturn(new JobIdentifier("cruise", 2, "2.2", "functional", "3", "mac-safari"));
@@ -218,7 +221,7 @@ public class ArtifactsServiceTest {
     @EnabledOnOs(OS.WINDOWS)
     void shouldProvideArtifactRootForAJobOnWindows() throws Exception {
         assumeArtifactsRoot(fakeRoot);
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         JobIdentifier oldId = new JobIdentifier("cruise", 1, "1.1", "dev", "2", "linux-firefox", 0);
         when(resolverService.actualJobIdentifier(oldId)).thenReturn(new JobIdentifier("cruise", 1, "1.1", "dev", "2", "linux-firefox", 0));
@@ -229,7 +232,7 @@ public class ArtifactsServiceTest {
     @Test
     void shouldProvideArtifactUrlForAJob() {
         assumeArtifactsRoot(fakeRoot);
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         JobIdentifier oldId = new JobIdentifier("cruise", 1, "1.1", "dev", "2", "linux-firefox");
         when(resolverService.actualJobIdentifier(oldId)).thenReturn(new JobIdentifier("cruise", 2, "2.2", "functional", "3", "windows-ie"));
         String artifactUrl = artifactsService.findArtifactUrl(oldId);
@@ -241,7 +244,7 @@ public class ArtifactsServiceTest {
         File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
         assumeArtifactsRoot(artifactsRoot);
         willCleanUp(artifactsRoot);
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         File artifact = artifactsService.findArtifact(new JobIdentifier("cruise", -2, "1.1", "dev", "2", "linux-firefox", 0), "pkg.zip");
         assertThat(artifact).isEqualTo(new File(artifactsRoot, "pipelines/cruise/1.1/dev/2/linux-firefox/pkg.zip"));
@@ -269,7 +272,7 @@ public class ArtifactsServiceTest {
         Files.writeString(checksumFile.toPath(), "foo:25463254625346", UTF_8);
 
 
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         Stage stage = StageMother.createPassedStage("pipeline", 10, "stage", 20, "job", Instant.now());
         artifactsService.purgeArtifactsForStage(stage);
@@ -304,7 +307,7 @@ public class ArtifactsServiceTest {
         File metadataJson = new File(pluggableArtifactMetadataDir, "cd.go.artifact.docker.json");
         Files.writeString(metadataJson.toPath(), "{\"image\": \"alpine:foo\", \"digest\": \"sha\"}", UTF_8);
 
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         Stage stage = StageMother.createPassedStage("pipeline", 10, "stage", 20, "job", Instant.now());
         artifactsService.purgeArtifactsForStage(stage);
@@ -325,7 +328,7 @@ public class ArtifactsServiceTest {
         assumeArtifactsRoot(artifactsRoot);
         willCleanUp(artifactsRoot);
 
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         artifactsService.initialize();
         Stage stage = StageMother.createPassedStage("pipeline", 10, "stage", 20, "job1", Instant.now());
         File job1Dir = createJobArtifactFolder(artifactsRoot + "/pipelines/pipeline/10/stage/20/job1");
@@ -348,6 +351,84 @@ public class ArtifactsServiceTest {
         assertThat(job1CacheDirFromADifferentStageRun).exists();
     }
 
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void shouldKeepASingleCopyOfTheSameFilesUploadedByDifferentJobsUntilTheyArePurged() throws Exception {
+        File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
+        assumeArtifactsRoot(artifactsRoot);
+        ArtifactBlobStore blobStore = new ArtifactBlobStore(artifactsDirHolder, true);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil(), blobStore);
+        artifactsService.initialize();
+        JobIdentifier job1 = new JobIdentifier("pipeline", 10, "10", "stage", "20", "job1");
+        JobIdentifier job2 = new JobIdentifier("pipeline", 10, "10", "stage", "20", "job2");
+        byte[] zip = zipOf("dist", "app.jar", "the same jar");
+
+        assertThat(artifactsService.saveFile(artifactsService.findArtifact(job1, "dest"), new ByteArrayInputStream(zip), true, 1, job1)).isTrue();
+        assertThat(artifactsService.saveFile(artifactsService.findArtifact(job2, "dest"), new ByteArrayInputStream(zip), true, 1, job2)).isTrue();
+
+        Path job1Jar = artifactsService.findArtifact(job1, "dest/dist/app.jar").toPath();
+        Path job2Jar = artifactsService.findArtifact(job2, "dest/dist/app.jar").toPath();
+        assertThat(job1Jar).hasContent("the same jar");
+        assertThat(Files.isSameFile(job1Jar, job2Jar)).isTrue();
+        assertThat(blobStore.statistics())
+            .containsEntry("Blobs Stored", 1L)
+            .containsEntry("Files Deduplicated", 1L)
+            .containsEntry("Bytes Deduplicated", 12L);
+
+        artifactsService.purgeArtifactsForStage(StageMother.createPassedStage("pipeline", 10, "stage", 20, "job1", Instant.now()));
+
+        assertThat(job1Jar).doesNotExist();
+        assertThat(new File(artifactsRoot, ArtifactBlobStore.BLOBS_FOLDER).toPath()).isEmptyDirectory();
+        assertThat(blobStore.statistics())
+            .containsEntry("Blobs Released", 1L)
+            .containsEntry("Bytes Reclaimed", 12L);
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void shouldNotChangeTheArtifactsOfOtherJobsWhenADeduplicatedArtifactIsUploadedAgain() throws Exception {
+        File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
+        assumeArtifactsRoot(artifactsRoot);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil(), new ArtifactBlobStore(artifactsDirHolder, true));
+        artifactsService.initialize();
+        JobIdentifier job1 = new JobIdentifier("pipeline", 10, "10", "stage", "20", "job1");
+        JobIdentifier job2 = new JobIdentifier("pipeline", 10, "10", "stage", "20", "job2");
+        artifactsService.saveFile(artifactsService.findArtifact(job1, "dest"), new ByteArrayInputStream(zipOf("dist", "app.jar", "the same jar")), true, 1, job1);
+        artifactsService.saveFile(artifactsService.findArtifact(job2, "dest"), new ByteArrayInputStream(zipOf("dist", "app.jar", "the same jar")), true, 1, job2);
+
+        artifactsService.saveFile(artifactsService.findArtifact(job1, "dest"), new ByteArrayInputStream(zipOf("dist", "app.jar", "another jar")), true, 2, job1);
+
+        assertThat(artifactsService.findArtifact(job1, "dest/dist/app.jar").toPath()).hasContent("another jar");
+        assertThat(artifactsService.findArtifact(job2, "dest/dist/app.jar").toPath()).hasContent("the same jar");
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void shouldNotChangeTheArtifactsOfOtherJobsWhenAppendingToADeduplicatedArtifact() throws Exception {
+        File artifactsRoot = TempDirUtils.createRandomDirectoryIn(tempDir).toFile();
+        assumeArtifactsRoot(artifactsRoot);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, new ZipUtil(), new ArtifactBlobStore(artifactsDirHolder, true));
+        artifactsService.initialize();
+        JobIdentifier job1 = new JobIdentifier("pipeline", 10, "10", "stage", "20", "job1");
+        JobIdentifier job2 = new JobIdentifier("pipeline", 10, "10", "stage", "20", "job2");
+        artifactsService.saveFile(artifactsService.findArtifact(job1, "dest"), new ByteArrayInputStream(zipOf("dist", "app.log", "the same log")), true, 1, job1);
+        artifactsService.saveFile(artifactsService.findArtifact(job2, "dest"), new ByteArrayInputStream(zipOf("dist", "app.log", "the same log")), true, 1, job2);
+
+        assertThat(artifactsService.saveOrAppendFile(artifactsService.findArtifact(job1, "dest/dist/app.log"), new ByteArrayInputStream(" and more".getBytes(UTF_8)))).isTrue();
+
+        assertThat(artifactsService.findArtifact(job1, "dest/dist/app.log").toPath()).hasContent("the same log and more");
+        assertThat(artifactsService.findArtifact(job2, "dest/dist/app.log").toPath()).hasContent("the same log");
+    }
+
+    private byte[] zipOf(String folderName, String fileName, String content) throws IOException {
+        File folder = TempDirUtils.createRandomDirectoryIn(tempDir).resolve(folderName).toFile();
+        folder.mkdirs();
+        Files.writeString(new File(folder, fileName).toPath(), content, UTF_8);
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        new ZipUtil().zip(folder, zip, 0);
+        return zip.toByteArray();
+    }
+
     private File createJobArtifactFolder(final String path) throws IOException {
         File jobDir = new File(path);
         jobDir.mkdirs();
@@ -358,7 +439,7 @@ public class ArtifactsServiceTest {
 
     @Test
     void shouldLogAndIgnoreExceptionsWhenDeletingStageArtifacts() throws IllegalArtifactLocationException {
-        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil);
+        ArtifactsService artifactsService = new ArtifactsService(resolverService, stageService, artifactsDirHolder, zipUtil, artifactBlobStore);
         Stage stage = StageMother.createPassedStage("pipeline", 10, "stage", 20, "job", Instant.now());
 
         ArtifactDirectoryChooser chooser = mock(ArtifactDirectoryChooser.class);
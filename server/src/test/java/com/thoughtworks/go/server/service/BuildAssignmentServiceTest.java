@@ -35,6 +35,7 @@ import com.thoughtworks.go.server.domain.ElasticAgentMetadata;
 import com.thoughtworks.go.server.exceptions.RulesViolationException;
 import com.thoughtworks.go.server.messaging.JobStatusMessage;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
+import com.thoughtworks.go.server.perf.WorkAssignmentPerformanceLogger;
 import com.thoughtworks.go.server.service.builders.BuilderFactory;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -43,7 +44,6 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentMatchers;
 import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -91,6 +91,8 @@ class BuildAssignmentServiceTest {
     private JobStatusTopic jobStatusTopic;
     @Mock
     private ConsoleService consoleService;
+    @Mock
+    private WorkAssignmentPerformanceLogger workAssignmentPerformanceLogger;
 
     private BuildAssignmentService buildAssignmentService;
     private SchedulingContext schedulingContext;
@@ -106,7 +108,7 @@ class BuildAssignmentServiceTest {
         buildAssignmentService = new BuildAssignmentService(goConfigService, jobInstanceService, scheduleService, agentService,
                 environmentConfigService, transactionTemplate, scheduledPipelineLoader, pipelineService, builderFactory,
                 maintenanceModeService, elasticAgentPluginService, systemEnvironment, secretParamResolver,
-                jobStatusTopic, consoleService);
+                jobStatusTopic, consoleService, workAssignmentPerformanceLogger);
         elasticProfileId1 = "elastic.profile.id.1";
         elasticProfileId2 = "elastic.profile.id.2";
         Agent elasticAgent = AgentMother.elasticAgent();
@@ -120,7 +122,7 @@ class BuildAssignmentServiceTest {
         profiles.put(elasticProfile2.getId(), elasticProfile2);
         schedulingContext = new DefaultSchedulingContext("me", new Agents(elasticAgent), profiles);
         lenient().when(jobInstanceService.orderedScheduledBuilds()).thenReturn(jobPlans);
-        lenient().when(environmentConfigService.filterJobsByAgent(ArgumentMatchers.eq(jobPlans), any(String.class))).thenReturn(jobPlans);
+        lenient().when(environmentConfigService.filterJobsByAgent(anyList(), any(String.class))).thenAnswer(invocation -> invocation.getArgument(0));
         lenient().when(environmentConfigService.envForPipeline(any(String.class))).thenReturn("");
         lenient().when(maintenanceModeService.isMaintenanceMode()).thenReturn(false);
     }
@@ -218,24 +220,20 @@ class BuildAssignmentServiceTest {
         JobPlan jobPlan2 = getJobPlan(pipeline.getName(), pipeline.getLast().name(), pipeline.getLast().getJobs().getFirst());
         JobPlan jobPlan3 = getJobPlan(irrelevantPipeline.getName(), irrelevantPipeline.getFirst().name(), irrelevantPipeline.getFirst().getJobs().getFirst());
 
-        //need to get hold of original jobPlans in the tests
-        jobPlans = buildAssignmentService.jobPlans();
-
         jobPlans.add(jobPlan1);
         jobPlans.add(jobPlan2);
         jobPlans.add(jobPlan3);
+        buildAssignmentService.onTimer();
 
         //delete a stage
         pipeline.remove(1);
 
-        assertThat(jobPlans.size()).isEqualTo(3);
+        assertThat(buildAssignmentService.jobPlans().size()).isEqualTo(3);
 
         when(goConfigService.hasPipelineNamed(pipeline.getName())).thenReturn(true);
         buildAssignmentService.pipelineConfigChangedListener().onEntityConfigChange(pipeline);
 
-        assertThat(jobPlans.size()).isEqualTo(2);
-        assertThat(jobPlans.getFirst()).isEqualTo(jobPlan1);
-        assertThat(jobPlans.getLast()).isEqualTo(jobPlan3);
+        assertThat(buildAssignmentService.jobPlans()).containsExactly(jobPlan1, jobPlan3);
     }
 
     @Test
@@ -254,18 +252,15 @@ class BuildAssignmentServiceTest {
         JobPlan jobPlan2 = getJobPlan(pipeline.getName(), pipeline.getLast().name(), pipeline.getLast().getJobs().getFirst());
         JobPlan jobPlan3 = getJobPlan(irrelevantPipeline.getName(), irrelevantPipeline.getFirst().name(), irrelevantPipeline.getFirst().getJobs().getFirst());
 
-        //need to get hold of original jobPlans in the tests
-        jobPlans = buildAssignmentService.jobPlans();
-
         jobPlans.add(jobPlan1);
         jobPlans.add(jobPlan2);
         jobPlans.add(jobPlan3);
+        buildAssignmentService.onTimer();
 
         when(goConfigService.hasPipelineNamed(pipeline.getName())).thenReturn(false);
         buildAssignmentService.pipelineConfigChangedListener().onEntityConfigChange(pipeline);
 
-        assertThat(jobPlans.size()).isEqualTo(1);
-        assertThat(jobPlans.getFirst()).isEqualTo(jobPlan3);
+        assertThat(buildAssignmentService.jobPlans()).containsExactly(jobPlan3);
     }
 
     @Nested
@@ -301,6 +296,9 @@ class BuildAssignmentServiceTest {
                 return config;
             }).when(secretParamResolver).resolve(environmentConfig);
 
+            jobPlans.add(jobPlan1);
+            buildAssignmentService.onTimer();
+
             BuildWork work = (BuildWork) buildAssignmentService.assignWorkToAgent(agentInstance);
             EnvironmentVariableContext environmentVariableContext = work.getAssignment().initialEnvironmentVariableContext();
             assertThat(environmentVariableContext.getProperty("GIT_USERNAME")).isEqualTo("bob");
@@ -340,6 +338,9 @@ class BuildAssignmentServiceTest {
                 return assignment;
             }).when(secretParamResolver).resolve(any(BuildAssignment.class));
 
+            jobPlans.add(jobPlan1);
+            buildAssignmentService.onTimer();
+
             BuildWork work = (BuildWork) buildAssignmentService.assignWorkToAgent(agentInstance);
 
             assertThat(gitMaterial.hasSecretParams()).isTrue();
@@ -373,6 +374,9 @@ class BuildAssignmentServiceTest {
             lenient().doThrow(new SecretResolutionFailureException("Failed resolving params for keys: 'key1'"))
                     .when(secretParamResolver).resolve(any(BuildAssignment.class));
 
+            jobPlans.add(jobPlan1);
+            buildAssignmentService.onTimer();
+
             assertThatCode(() -> buildAssignmentService.assignWorkToAgent(agentInstance))
                     .isInstanceOf(SecretResolutionFailureException.class);
 
@@ -403,6 +407,9 @@ class BuildAssignmentServiceTest {
             doThrow(new RulesViolationException("Failed resolving params for keys: 'key1'"))
                     .when(secretParamResolver).resolve(any(EnvironmentConfig.class));
 
+            jobPlans.add(jobPlan1);
+            buildAssignmentService.onTimer();
+
             assertThatCode(() -> buildAssignmentService.assignWorkToAgent(agentInstance))
                     .isInstanceOf(RulesViolationException.class);
 
@@ -456,6 +463,9 @@ class BuildAssignmentServiceTest {
 
             InOrder inOrder = inOrder(goConfigService, secretParamResolver);
 
+            jobPlans.add(jobPlan1);
+            buildAssignmentService.onTimer();
+
             BuildWork work = (BuildWork) buildAssignmentService.assignWorkToAgent(agentInstance);
 
             inOrder.verify(secretParamResolver).resolve(List.of(pluggableSCMMaterial, packageMaterial));
@@ -0,0 +1,79 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsoleLogWritersTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private ConsoleLogWriters writers;
+
+    @BeforeEach
+    void setUp() {
+        writers = new ConsoleLogWriters(2, Duration.ofMinutes(1), nanos::get);
+    }
+
+    @Test
+    void shouldKeepConsoleLogOpenBetweenAppends(@TempDir Path dir) throws Exception {
+        File consoleLog = dir.resolve("console.log").toFile();
+
+        writers.append(consoleLog, stream("first\n"));
+        writers.append(consoleLog, stream("second\n"));
+
+        assertThat(writers.openLogs()).isEqualTo(1);
+        assertThat(consoleLog).hasContent("first\nsecond\n");
+    }
+
+    @Test
+    void shouldCloseConsoleLogsNotAppendedToForAWhile(@TempDir Path dir) throws Exception {
+        File consoleLog = dir.resolve("console.log").toFile();
+        writers.append(consoleLog, stream("first\n"));
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        writers.cleanUp();
+        assertThat(writers.openLogs()).isZero();
+
+        writers.append(consoleLog, stream("second\n"));
+        assertThat(consoleLog).hasContent("first\nsecond\n");
+    }
+
+    @Test
+    void shouldReopenConsoleLogOnceClosed(@TempDir Path dir) throws Exception {
+        File consoleLog = dir.resolve("console.log").toFile();
+        writers.append(consoleLog, stream("first\n"));
+
+        writers.close(consoleLog);
+        assertThat(writers.openLogs()).isZero();
+
+        writers.append(consoleLog, stream("second\n"));
+        assertThat(consoleLog).hasContent("first\nsecond\n");
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(UTF_8));
+    }
+}
@@ -23,11 +23,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static com.thoughtworks.go.util.ArtifactUtil.CONSOLE_LOG_FILE_RELATIVE_PATH;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
@@ -152,4 +154,31 @@ public class ConsoleServiceTest {
             .hasMessageContaining("File element in parameter 'destFile' already exists");
     }
 
+    @Test
+    public void shouldKeepAppendingToTheSameConsoleLog(@TempDir Path testFolder) throws Exception {
+        File consoleLog = testFolder.resolve("cruise-output").resolve("console.log").toFile();
+
+        assertThat(service.appendToConsoleLogIoSafe(consoleLog, new ByteArrayInputStream("first\n".getBytes(UTF_8)))).isTrue();
+        assertThat(service.appendToConsoleLogIoSafe(consoleLog, new ByteArrayInputStream("second\n".getBytes(UTF_8)))).isTrue();
+
+        assertThat(consoleLog).hasContent("first\nsecond\n");
+    }
+
+    @Test
+    public void shouldMoveConsoleArtifactsBeingAppendedTo(@TempDir Path testFolder) throws Exception {
+        JobIdentifier jobIdentifier = JobIdentifierMother.anyBuildIdentifier();
+
+        File temporaryConsoleLog = testFolder.resolve("temporary_console.log").toFile();
+        File finalConsoleLog = testFolder.resolve("final_console.log").toFile();
+
+        when(chooser.temporaryConsoleFile(jobIdentifier)).thenReturn(temporaryConsoleLog);
+        when(chooser.findArtifact(jobIdentifier, CONSOLE_LOG_FILE_RELATIVE_PATH)).thenReturn(finalConsoleLog);
+
+        service.appendToConsoleLogIoSafe(temporaryConsoleLog, new ByteArrayInputStream("before\n".getBytes(UTF_8)));
+        service.moveConsoleArtifacts(jobIdentifier);
+        service.appendToConsoleLogIoSafe(finalConsoleLog, new ByteArrayInputStream("after\n".getBytes(UTF_8)));
+
+        assertThat(temporaryConsoleLog.exists()).isFalse();
+        assertThat(finalConsoleLog).hasContent("before\nafter\n");
+    }
 }
@@ -25,6 +25,9 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.mockito.stubbing.Answer;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +56,14 @@ class EntityHashesTest {
         assertEquals(sha512_256Hex("{\"hello\":\"world\"}"), hashes.digestDomainNonConfigEntity(Map.of("hello", "world")));
     }
 
+    @Test
+    void digestDomainConfigEntity_isTheDigestOfItsXml() {
+        final AdminUser user = new AdminUser("bilbo");
+        final String xml = new MagicalGoConfigXmlWriter(ConfigElementImplementationRegistryMother.withNoPlugins()).toXmlPartial(user);
+
+        assertEquals(sha512_256Hex(xml), hashes.digestDomainConfigEntity(user));
+    }
+
     @Nested
     class ConfigEntities {
         @BeforeEach
@@ -61,8 +72,8 @@ class EntityHashesTest {
 
             hashes = new EntityHashes(mock(ConfigElementImplementationRegistry.class)) {
                 @Override
-                protected String serializeDomainEntity(Object domainObject) {
-                    return writer.toXmlPartial(domainObject);
+                protected void serializeDomainEntity(Object domainObject, OutputStream output) throws IOException {
+                    output.write(writer.toXmlPartial(domainObject).getBytes(StandardCharsets.UTF_8));
                 }
             };
 
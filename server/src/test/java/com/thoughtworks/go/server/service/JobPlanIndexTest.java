@@ -0,0 +1,151 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.elastic.ElasticProfile;
+import com.thoughtworks.go.domain.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobPlanIndexTest {
+    private final AtomicInteger jobIds = new AtomicInteger();
+
+    @Test
+    void shouldOfferOnlyTheOldestJobPlanOfEachGroupToNonElasticAgents() {
+        JobPlan linux1 = job("up42", "linux", null, null);
+        JobPlan windows1 = job("up42", "windows", null, null);
+        JobPlan linux2 = job("up42", "Linux", null, null);
+        JobPlan elastic = job("up42", "", null, "docker");
+        JobPlan windows2 = job("up42", "windows", null, null);
+
+        JobPlanIndex index = new JobPlanIndex(List.of(linux1, windows1, linux2, elastic, windows2), pipeline -> null);
+
+        assertThat(index.groupCount()).isEqualTo(3);
+        assertThat(index.candidatesFor(false)).containsExactly(linux1, windows1);
+    }
+
+    @Test
+    void shouldGroupJobPlansByEnvironmentOfTheirPipeline() {
+        JobPlan prod = job("prod-pipeline", "linux", null, null);
+        JobPlan uat = job("uat-pipeline", "linux", null, null);
+
+        JobPlanIndex index = new JobPlanIndex(List.of(prod, uat), pipeline -> pipeline.startsWith("prod") ? "prod" : "uat");
+
+        assertThat(index.candidatesFor(false)).containsExactly(prod, uat);
+    }
+
+    @Test
+    void shouldGroupJobPlansMeantForASpecificAgentByThatAgent() {
+        JobPlan onAgent1 = job("up42", "", "agent-1", null);
+        JobPlan onAgent2 = job("up42", "", "agent-2", null);
+        JobPlan anotherOnAgent1 = job("up42", "", "agent-1", null);
+
+        JobPlanIndex index = new JobPlanIndex(List.of(onAgent1, onAgent2, anotherOnAgent1), pipeline -> null);
+
+        assertThat(index.candidatesFor(false)).containsExactly(onAgent1, onAgent2);
+    }
+
+    @Test
+    void shouldOfferEveryElasticJobPlanToElasticAgents() {
+        JobPlan elastic1 = job("up42", "", null, "docker");
+        JobPlan regular = job("up42", "linux", null, null);
+        JobPlan elastic2 = job("up42", "", null, "docker");
+
+        JobPlanIndex index = new JobPlanIndex(List.of(elastic1, regular, elastic2), pipeline -> null);
+
+        assertThat(index.candidatesFor(true)).containsExactly(elastic1, elastic2);
+    }
+
+    @Test
+    void shouldMoveToTheNextJobPlanOfAGroupOnceTheOldestIsClaimed() {
+        JobPlan linux1 = job("up42", "linux", null, null);
+        JobPlan linux2 = job("up42", "linux", null, null);
+        JobPlan windows = job("up42", "windows", null, null);
+
+        JobPlanIndex index = new JobPlanIndex(List.of(linux1, linux2, windows), pipeline -> null);
+
+        assertThat(index.claim(linux1)).isTrue();
+
+        assertThat(index.candidatesFor(false)).containsExactly(linux2, windows);
+        assertThat(index.jobPlans()).containsExactly(linux2, windows);
+    }
+
+    @Test
+    void shouldClaimAJobPlanOnlyOnce() {
+        JobPlan jobPlan = job("up42", "linux", null, null);
+        JobPlanIndex index = new JobPlanIndex(List.of(jobPlan), pipeline -> null);
+
+        assertThat(index.claim(jobPlan)).isTrue();
+        assertThat(index.claim(jobPlan)).isFalse();
+        assertThat(index.jobPlans()).isEmpty();
+        assertThat(index.candidatesFor(false)).isEmpty();
+    }
+
+    @Test
+    void shouldNotClaimJobPlansThatAreNotPartOfTheIndex() {
+        JobPlanIndex index = new JobPlanIndex(List.of(job("up42", "linux", null, null)), pipeline -> null);
+
+        assertThat(index.claim(job("up42", "linux", null, null))).isFalse();
+        assertThat(index.jobPlans()).hasSize(1);
+    }
+
+    @Test
+    void shouldHandOutEveryJobPlanExactlyOnceToAgentsClaimingConcurrently() throws InterruptedException {
+        List<JobPlan> queue = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            queue.add(job("pipeline-" + (i % 50), "resource-" + (i % 20), null, null));
+        }
+        JobPlanIndex index = new JobPlanIndex(queue, pipeline -> "env-" + pipeline.hashCode() % 3);
+        Map<JobPlan, Boolean> assigned = new ConcurrentHashMap<>();
+        AtomicInteger duplicateAssignments = new AtomicInteger();
+
+        ExecutorService agents = Executors.newFixedThreadPool(32);
+        for (int agent = 0; agent < 32; agent++) {
+            agents.submit(() -> {
+                List<JobPlan> candidates;
+                while (!(candidates = index.candidatesFor(false)).isEmpty()) {
+                    JobPlan candidate = candidates.getFirst();
+                    if (index.claim(candidate) && assigned.put(candidate, true) != null) {
+                        duplicateAssignments.incrementAndGet();
+                    }
+                }
+            });
+        }
+        agents.shutdown();
+        assertThat(agents.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(duplicateAssignments.get()).isZero();
+        assertThat(assigned).hasSize(queue.size());
+        assertThat(index.jobPlans()).isEmpty();
+    }
+
+    private JobPlan job(String pipelineName, String resources, String agentUuid, String elasticProfileId) {
+        int jobId = jobIds.incrementAndGet();
+        JobIdentifier identifier = new JobIdentifier(pipelineName, 1, "1", "stage", "1", "job-" + jobId, jobId);
+        ElasticProfile elasticProfile = elasticProfileId == null ? null : new ElasticProfile(elasticProfileId, "cluster");
+        return new DefaultJobPlan(new Resources(resources), new ArrayList<>(), jobId, identifier, agentUuid, new EnvironmentVariables(), new EnvironmentVariables(), elasticProfile, null);
+    }
+}
@@ -36,6 +36,7 @@ import com.thoughtworks.go.server.service.result.OperationResult;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -54,6 +55,7 @@ public class PipelineSchedulerTest {
     private PipelineScheduler scheduler;
     private GoConfigService configService;
     private BuildCauseProducerService buildCauseProducerService;
+    private SchedulingPerformanceLogger schedulingPerformanceLogger;
 
     @BeforeEach
     public void setUp() {
@@ -63,9 +65,9 @@ public class PipelineSchedulerTest {
         SchedulingCheckerService schedulingCheckerService = mock(SchedulingCheckerService.class);
         buildCauseProducerService = mock(BuildCauseProducerService.class);
         ScheduleCheckCompletedTopic topic = mock(ScheduleCheckCompletedTopic.class);
-        SchedulingPerformanceLogger schedulingPerformanceLogger = mock(SchedulingPerformanceLogger.class);
+        schedulingPerformanceLogger = mock(SchedulingPerformanceLogger.class);
         scheduler = new PipelineScheduler(configService, serverHealthService, schedulingCheckerService,
-                buildCauseProducerService, queue, topic, schedulingPerformanceLogger);
+                buildCauseProducerService, queue, topic, schedulingPerformanceLogger, new SystemEnvironment());
     }
 
     @Test
@@ -103,6 +105,49 @@ public class PipelineSchedulerTest {
         verify(queue, times(2)).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("cruise"));
     }
 
+    @Test
+    public void shouldOnlyCheckSomeOfThePipelinesWhichAreSlowToEvaluateAtATime() {
+        String[] slowPipelines = {"slow-1", "slow-2", "slow-3", "slow-4", "slow-5", "slow-6", "slow-7"};
+        for (String slowPipeline : slowPipelines) {
+            when(schedulingPerformanceLogger.lastEvaluationMillis(slowPipeline)).thenReturn(60_000L);
+        }
+        List<String> pipelineNames = new ArrayList<>(List.of(slowPipelines));
+        pipelineNames.add("fast");
+        scheduler.onConfigChange(configWithPipelines(pipelineNames.toArray(new String[0])));
+
+        scheduler.checkPipelines();
+
+        verify(queue).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("fast"));
+        verify(queue, times(new SystemEnvironment().getNumberOfMaterialCheckListener() / 2 + 1)).post(any(ScheduleCheckMessage.class));
+
+        scheduler.onMessage(new ScheduleCheckCompletedMessage("fast", 1));
+        scheduler.checkPipelines();
+
+        verify(queue, times(2)).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("fast"));
+        verify(queue, times(new SystemEnvironment().getNumberOfMaterialCheckListener() / 2 + 2)).post(any(ScheduleCheckMessage.class));
+    }
+
+    @Test
+    public void shouldLetDeferredSlowPipelinesTakeTurnsToBeChecked() {
+        String[] slowPipelines = {"slow-1", "slow-2", "slow-3", "slow-4", "slow-5", "slow-6", "slow-7", "slow-8", "slow-9"};
+        for (String slowPipeline : slowPipelines) {
+            when(schedulingPerformanceLogger.lastEvaluationMillis(slowPipeline)).thenReturn(60_000L);
+        }
+        scheduler.onConfigChange(configWithPipelines(slowPipelines));
+
+        ArgumentCaptor<ScheduleCheckMessage> captor = ArgumentCaptor.forClass(ScheduleCheckMessage.class);
+        for (int round = 0; round < slowPipelines.length; round++) {
+            clearInvocations(queue);
+            scheduler.checkPipelines();
+            verify(queue, atLeastOnce()).post(captor.capture());
+            for (ScheduleCheckMessage message : captor.getAllValues()) {
+                scheduler.onMessage(new ScheduleCheckCompletedMessage(message.getPipelineName(), 1));
+            }
+        }
+
+        assertThat(captor.getAllValues()).extracting(ScheduleCheckMessage::getPipelineName).contains(slowPipelines);
+    }
+
     @Test
     public void shouldAddErrorIfPipelineIsNotFound() {
         when(configService.hasPipelineNamed(new CaseInsensitiveString("invalid"))).thenReturn(false);
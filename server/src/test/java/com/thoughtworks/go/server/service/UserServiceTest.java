@@ -50,6 +50,7 @@ public class UserServiceTest {
     private UserDao userDao;
     private GoConfigService goConfigService;
     private SecurityService securityService;
+    private VerifiedAccessTokenCache verifiedAccessTokenCache;
     private UserService userService;
 
     @BeforeEach
@@ -57,7 +58,8 @@ public class UserServiceTest {
         userDao = mock(UserDao.class);
         goConfigService = mock(GoConfigService.class);
         securityService = mock(SecurityService.class);
-        userService = new UserService(userDao, securityService, goConfigService, new TestTransactionTemplate(new TestTransactionSynchronizationManager()));
+        verifiedAccessTokenCache = mock(VerifiedAccessTokenCache.class);
+        userService = new UserService(userDao, securityService, goConfigService, new TestTransactionTemplate(new TestTransactionSynchronizationManager()), verifiedAccessTokenCache);
     }
 
     @Test
@@ -106,6 +108,26 @@ public class UserServiceTest {
         assertThat(result.hasMessage()).isTrue();
     }
 
+    @Test
+    void shouldForgetVerifiedAccessTokensOfADeletedUser() {
+        String username = "username";
+        when(userDao.deleteUser(username, "currentUser")).thenReturn(true);
+
+        userService.deleteUser(username, "currentUser", new HttpLocalizedOperationResult());
+
+        verify(verifiedAccessTokenCache).invalidateUsers(List.of(username));
+    }
+
+    @Test
+    void shouldRememberVerifiedAccessTokensOfAUserWhichCouldNotBeDeleted() {
+        String username = "username";
+        when(userDao.deleteUser(username, "currentUser")).thenThrow(new UserEnabledException());
+
+        userService.deleteUser(username, "currentUser", new HttpLocalizedOperationResult());
+
+        verifyNoInteractions(verifiedAccessTokenCache);
+    }
+
     @Test
     void shouldFailWithErrorWhenDeletingAUserFails() {
         String username = "username";
@@ -0,0 +1,89 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.MaterialRevisions;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.thoughtworks.go.helper.MaterialsMother.gitMaterial;
+import static com.thoughtworks.go.helper.ModificationsMother.oneModifiedFile;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class FanInResolutionCacheTest {
+    private final PipelineTimeline pipelineTimeline = mock(PipelineTimeline.class);
+    private final MaterialRevisions actualRevisions = new MaterialRevisions(new MaterialRevision(gitMaterial("url"), oneModifiedFile("r2")));
+    private final MaterialRevisions resolvedRevisions = new MaterialRevisions(new MaterialRevision(gitMaterial("url"), oneModifiedFile("r1")));
+    private FanInResolutionCache cache;
+    private FanInGraph fanInGraph;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new FanInResolutionCache();
+        fanInGraph = mock(FanInGraph.class);
+        when(fanInGraph.pipelineName()).thenReturn(new CaseInsensitiveString("downstream"));
+        when(fanInGraph.needsFanIn()).thenReturn(true);
+        when(fanInGraph.watermark(pipelineTimeline)).thenReturn("up=1");
+        when(fanInGraph.backTracks()).thenReturn(3);
+    }
+
+    @Test
+    public void shouldResolveAgainOnlyWhenTheWatermarkChanges() {
+        when(fanInGraph.computeRevisions(actualRevisions, pipelineTimeline)).thenReturn(resolvedRevisions);
+
+        assertThat(cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline)).isEqualTo(resolvedRevisions);
+        MaterialRevisions remembered = cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline);
+        assertThat(remembered).isEqualTo(resolvedRevisions).isNotSameAs(resolvedRevisions);
+        verify(fanInGraph, times(1)).computeRevisions(actualRevisions, pipelineTimeline);
+
+        when(fanInGraph.watermark(pipelineTimeline)).thenReturn("up=2");
+        cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline);
+        verify(fanInGraph, times(2)).computeRevisions(actualRevisions, pipelineTimeline);
+
+        assertThat(cache.statistics())
+            .containsEntry("Hits", 1L)
+            .containsEntry("Misses", 2L)
+            .containsEntry("Back-tracks", 6L)
+            .containsEntry("Back-tracks Saved", 3L);
+    }
+
+    @Test
+    public void shouldRememberThatThereWereNoCompatibleUpstreamRevisions() {
+        NoCompatibleUpstreamRevisionsException failure = NoCompatibleUpstreamRevisionsException.doesNotHaveValidRevisions(new CaseInsensitiveString("downstream"), null);
+        when(fanInGraph.computeRevisions(actualRevisions, pipelineTimeline)).thenThrow(failure);
+
+        assertThatThrownBy(() -> cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline)).isSameAs(failure);
+        assertThatThrownBy(() -> cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline)).isSameAs(failure);
+        verify(fanInGraph, times(1)).computeRevisions(actualRevisions, pipelineTimeline);
+    }
+
+    @Test
+    public void shouldNotRememberPipelinesWhichNeedNoFanIn() {
+        when(fanInGraph.needsFanIn()).thenReturn(false);
+        when(fanInGraph.computeRevisions(actualRevisions, pipelineTimeline)).thenReturn(actualRevisions);
+
+        cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline);
+        cache.computeRevisions(fanInGraph, actualRevisions, pipelineTimeline);
+
+        verify(fanInGraph, times(2)).computeRevisions(actualRevisions, pipelineTimeline);
+        verify(fanInGraph, never()).watermark(any());
+    }
+}
@@ -18,6 +18,7 @@ package com.thoughtworks.go.server.web;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.server.cache.ZipArtifactCache;
 import com.thoughtworks.go.server.view.artifacts.PreparingArtifactFile;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -28,6 +29,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
 
 public class ZipArtifactFolderViewFactoryTest {
     private static final JobIdentifier JOB_IDENTIFIER = new JobIdentifier("pipeline-name", 1, "label-111", "stage-name", "1", "job-name", 666L);
@@ -60,8 +62,23 @@ public class ZipArtifactFolderViewFactoryTest {
         assertThat(targetFile).isEqualTo(cacheZipFile);
     }
 
+    @Test
+    public void shouldZipFolderIntoTheResponseWhenStreaming() throws Exception {
+        ZipArtifactCache streaming = mock(ZipArtifactCache.class);
+        when(streaming.isStreaming()).thenReturn(true);
+        folderViewFactory = new ZipArtifactFolderViewFactory(streaming);
+
+        ModelAndView modelAndView = folderViewFactory.createView(JOB_IDENTIFIER, new ArtifactFolder(JOB_IDENTIFIER, folder.toFile(), "dir"));
+
+        assertThat(modelAndView.getViewName()).isEqualTo("fileView");
+        assertThat(modelAndView.getModel())
+            .containsEntry("targetFile", folder.toFile())
+            .containsKey(FileView.NEED_TO_ZIP);
+        verify(streaming, never()).cacheCreated(any());
+    }
+
     private ZipArtifactCache cacheAlreadyCreated() {
-        return new ZipArtifactCache(null, null) {
+        return new ZipArtifactCache(null, null, new SystemEnvironment()) {
             @Override
             public boolean cacheCreated(ArtifactFolder artifactFolder) {
                 return true;
@@ -75,7 +92,7 @@ public class ZipArtifactFolderViewFactoryTest {
     }
 
     private ZipArtifactCache cacheNotCreated() {
-        return new ZipArtifactCache(null, null) {
+        return new ZipArtifactCache(null, null, new SystemEnvironment()) {
             @Override
             public boolean cacheCreated(ArtifactFolder artifactFolder) {
                 return false;
@@ -15,13 +15,11 @@
  */
 package com.thoughtworks.go.server.websocket;
 
-import com.thoughtworks.go.domain.ConsoleConsumer;
 import com.thoughtworks.go.domain.ConsoleStreamer;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
 import com.thoughtworks.go.server.dao.JobInstanceDao;
 import com.thoughtworks.go.server.service.ConsoleService;
-import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,7 +30,6 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
-import java.util.function.Consumer;
 import java.util.zip.GZIPInputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -45,8 +42,7 @@ public class ConsoleLogSenderTest {
     private SocketEndpoint socket;
     private JobIdentifier jobIdentifier;
     private JobInstanceDao jobInstanceDao;
-    private SystemEnvironment systemEnvironment;
-
+    private ConsoleLogTailer consoleLogTailer;
 
     @BeforeEach
     public void setUp() {
@@ -54,9 +50,8 @@ public class ConsoleLogSenderTest {
         jobInstanceDao = mock(JobInstanceDao.class);
         socket = mock(SocketEndpoint.class);
         when(socket.isOpen()).thenReturn(true);
-        systemEnvironment = mock(SystemEnvironment.class);
-        when(systemEnvironment.consoleLogCharset()).thenReturn(UTF_8);
-        consoleLogSender = new ConsoleLogSender(consoleService, jobInstanceDao, systemEnvironment);
+        consoleLogTailer = mock(ConsoleLogTailer.class);
+        consoleLogSender = new ConsoleLogSender(consoleService, jobInstanceDao, consoleLogTailer);
         jobIdentifier = mock(JobIdentifier.class);
     }
 
@@ -94,69 +89,43 @@ public class ConsoleLogSenderTest {
     }
 
     @Test
-    public void shouldSendConsoleLogInMultipleMessagesIfBuildInProgress() throws Exception {
-        File fakeFile = mock(File.class);
-        when(consoleService.consoleLogFile(jobIdentifier)).thenReturn(fakeFile);
-
-        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(false).thenReturn(true);
+    public void shouldHandRunningBuildsOverToTheTailer() throws Exception {
+        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(false);
         when(consoleService.doesLogExist(jobIdentifier)).thenReturn(true);
 
-        when(consoleService.getStreamer(anyLong(), eq(jobIdentifier)))
-            .thenReturn(new FakeConsoleStreamer("First Output", "Second Output"));
+        consoleLogSender.process(socket, jobIdentifier, 3L);
 
-        consoleLogSender.process(socket, jobIdentifier, 0L);
-
-        verify(socket, times(1)).send(ByteBuffer.wrap(consoleLogSender.maybeGzipIfLargeEnough("First Output\n".getBytes(UTF_8))));
-        verify(socket, times(1)).send(ByteBuffer.wrap(consoleLogSender.maybeGzipIfLargeEnough("Second Output\n".getBytes(UTF_8))));
+        verify(consoleLogTailer).follow(socket, jobIdentifier, 3L);
+        verify(consoleService, never()).getStreamer(anyLong(), any());
+        verify(socket, never()).send(any());
+        verify(socket, never()).close();
     }
 
     @Test
-    public void shouldSendConsoleLogEvenAfterBuildCompletion() throws Exception {
-        File fakeFile = mock(File.class);
-        when(consoleService.consoleLogFile(jobIdentifier)).thenReturn(fakeFile);
-
-        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(false).thenReturn(true);
-        when(consoleService.doesLogExist(jobIdentifier)).thenReturn(true);
-
-        when(consoleService.getStreamer(0L, jobIdentifier))
-            .thenReturn(new FakeConsoleStreamer("First Output", "Second Output"));
-        when(consoleService.getStreamer(1L, jobIdentifier))
-            .thenReturn(new FakeConsoleStreamer("More Output"));
-
-        consoleLogSender.process(socket, jobIdentifier, 0L);
-
-        verify(socket, times(1)).send(ByteBuffer.wrap(consoleLogSender.maybeGzipIfLargeEnough("First Output\n".getBytes(UTF_8))));
-        verify(socket, times(1)).send(ByteBuffer.wrap(consoleLogSender.maybeGzipIfLargeEnough("Second Output\n".getBytes(UTF_8))));
-        verify(socket, times(1)).send(ByteBuffer.wrap(consoleLogSender.maybeGzipIfLargeEnough("More Output\n".getBytes(UTF_8))));
-    }
+    public void shouldCloseSocketAfterProcessingMessage() throws Exception {
+        File console = makeConsoleFile("foo");
 
-    @Test
-    public void shouldNotSendMessagesWhenOutputHasNotAdvanced() throws Exception {
-        File console = makeConsoleFile("First Output");
-        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(false).thenReturn(true);
+        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(true);
         when(consoleService.doesLogExist(jobIdentifier)).thenReturn(true);
-
-        when(consoleService.getStreamer(anyLong(), eq(jobIdentifier)))
-            .thenReturn(new ConsoleStreamer(console.toPath(), 0L));
+        when(consoleService.getStreamer(0L, jobIdentifier)).thenReturn(new ConsoleStreamer(console.toPath(), 0L));
+        when(consoleService.getStreamer(1L, jobIdentifier)).thenReturn(new ConsoleStreamer(console.toPath(), 1L));
 
         consoleLogSender.process(socket, jobIdentifier, 0L);
 
-        verify(jobInstanceDao, times(3)).isJobCompleted(jobIdentifier);
-        verify(socket, times(1)).send(any());
+        verify(socket).close();
     }
 
     @Test
-    public void shouldCloseSocketAfterProcessingMessage() throws Exception {
-        File console = makeConsoleFile("foo");
+    public void shouldSendConsoleLogFromTheRequestedLine() throws Exception {
+        File console = makeConsoleFile("first\nsecond\nthird\n");
 
         when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(true);
         when(consoleService.doesLogExist(jobIdentifier)).thenReturn(true);
-        when(consoleService.getStreamer(0L, jobIdentifier)).thenReturn(new ConsoleStreamer(console.toPath(), 0L));
-        when(consoleService.getStreamer(1L, jobIdentifier)).thenReturn(new ConsoleStreamer(console.toPath(), 1L));
+        when(consoleService.getStreamer(anyLong(), eq(jobIdentifier))).thenAnswer(invocation -> new ConsoleStreamer(console.toPath(), invocation.getArgument(0)));
 
-        consoleLogSender.process(socket, jobIdentifier, 0L);
+        consoleLogSender.process(socket, jobIdentifier, 1L);
 
-        verify(socket).close();
+        verify(socket).send(ByteBuffer.wrap(consoleLogSender.maybeGzipIfLargeEnough("second\nthird\n".getBytes(UTF_8))));
     }
 
     @Test
@@ -188,36 +157,4 @@ public class ConsoleLogSenderTest {
         Files.write(console.toPath(), message.getBytes());
         return console;
     }
-
-    /**
-     * allows us to simulate log appending by doing reads with multiple invocations to stream()
-     */
-    private static class FakeConsoleStreamer implements ConsoleConsumer {
-
-        private final String[] mockedLines;
-        private int count = 0;
-
-        FakeConsoleStreamer(String... mockedLines) {
-            this.mockedLines = mockedLines;
-        }
-
-        @Override
-        public long stream(Consumer<String> action) {
-            // this is necessary for showing no logs has been missed out even after job completion
-            if (mockedLines.length <= count) {
-                return mockedLines.length;
-            }
-            action.accept(mockedLines[count]);
-            return ++count;
-        }
-
-        @Override
-        public long totalLinesConsumed() {
-            return count;
-        }
-
-        @Override
-        public void close() {
-        }
-    }
 }
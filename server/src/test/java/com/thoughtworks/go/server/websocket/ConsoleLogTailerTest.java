@@ -0,0 +1,268 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.websocket;
+
+import com.thoughtworks.go.domain.JobIdentifier;
+import com.thoughtworks.go.domain.JobInstance;
+import com.thoughtworks.go.server.dao.JobInstanceDao;
+import com.thoughtworks.go.server.domain.JobStatusListener;
+import com.thoughtworks.go.server.service.ConsoleService;
+import com.thoughtworks.go.server.service.JobInstanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+class ConsoleLogTailerTest {
+    private final JobIdentifier jobIdentifier = new JobIdentifier("up42", 1, "1", "stage", "1", "job", 42L);
+    private ConsoleService consoleService;
+    private JobInstanceDao jobInstanceDao;
+    private ConsoleLogTailer tailer;
+    private JobStatusListener jobStatusListener;
+    private Path console;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws Exception {
+        console = Files.createFile(tempDir.resolve("console.log"));
+        consoleService = mock(ConsoleService.class);
+        jobInstanceDao = mock(JobInstanceDao.class);
+        JobInstanceService jobInstanceService = mock(JobInstanceService.class);
+        when(consoleService.consoleLogFile(jobIdentifier)).thenReturn(console.toFile());
+
+        tailer = new ConsoleLogTailer(consoleService, jobInstanceDao, jobInstanceService);
+        tailer.init();
+
+        ArgumentCaptor<JobStatusListener> listener = ArgumentCaptor.forClass(JobStatusListener.class);
+        verify(jobInstanceService).registerJobStateChangeListener(listener.capture());
+        jobStatusListener = listener.getValue();
+    }
+
+    @Test
+    void shouldReadWhatGetsAppendedOnceForAllSocketsFollowingTheLog() throws Exception {
+        FakeSocket first = follow(0L, 0L);
+        FakeSocket second = follow(0L, 0L);
+
+        append("first line\nsecond line\n");
+        tailer.onTimer();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> first.received().equals("first line\nsecond line\n") && second.received().equals("first line\nsecond line\n"));
+        assertThat(tailer.statistics())
+            .containsEntry("Console logs being tailed", 1)
+            .containsEntry("Sockets tailing console logs", 2)
+            .containsEntry("Bytes read from console logs", 23L);
+    }
+
+    @Test
+    void shouldNotSendALineUntilItHasBeenCompletelyWritten() throws Exception {
+        FakeSocket socket = follow(0L, 0L);
+
+        append("complete\nincompl");
+        tailer.onTimer();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> socket.received().equals("complete\n"));
+
+        append("ete\n");
+        tailer.onTimer();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> socket.received().equals("complete\nincomplete\n"));
+    }
+
+    @Test
+    void shouldLetSocketsJoiningLateCatchUpBeforeSendingThemNewLines() throws Exception {
+        FakeSocket early = follow(0L, 0L);
+        append("one\ntwo\n");
+        tailer.onTimer();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> early.received().equals("one\ntwo\n"));
+
+        FakeSocket late = follow(1L, 4L);
+        append("three\n");
+        tailer.onTimer();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> late.received().equals("two\nthree\n"));
+        assertThat(early.received()).isEqualTo("one\ntwo\nthree\n");
+    }
+
+    @Test
+    void shouldSendTheRestOfTheLogAndCloseSocketsOnceTheJobCompletes() throws Exception {
+        FakeSocket socket = follow(0L, 0L);
+        append("done\nno newline");
+
+        JobInstance job = mock(JobInstance.class);
+        when(job.isCompleted()).thenReturn(true);
+        when(job.getId()).thenReturn(42L);
+        jobStatusListener.jobStatusChanged(job);
+        tailer.onTimer();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> socket.closeCode == 1000);
+        assertThat(socket.received()).isEqualTo("done\nno newline\n");
+        assertThat(tailer.statistics()).containsEntry("Console logs being tailed", 0);
+    }
+
+    @Test
+    void shouldKeepTailingALogWhenTheTimerRunsWhileTheFirstSocketIsJoining() throws Exception {
+        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenAnswer(invocation -> {
+            tailer.onTimer();
+            return false;
+        });
+        FakeSocket socket = follow(0L, 0L);
+        assertThat(tailer.statistics())
+            .containsEntry("Console logs being tailed", 1)
+            .containsEntry("Sockets tailing console logs", 1);
+
+        append("line\n");
+        tailer.onTimer();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> socket.received().equals("line\n"));
+    }
+
+    @Test
+    void shouldCheckWhetherTheJobHasCompletedEveryOnceInAWhile() throws Exception {
+        FakeSocket socket = follow(0L, 0L);
+        when(jobInstanceDao.isJobCompleted(jobIdentifier)).thenReturn(true);
+
+        for (int i = 1; i < ConsoleLogTailer.TICKS_BETWEEN_COMPLETION_CHECKS; i++) {
+            tailer.onTimer();
+        }
+        assertThat(socket.open).isTrue();
+
+        tailer.onTimer();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> !socket.open);
+    }
+
+    @Test
+    void shouldStopTailingTheLogOnceEverySocketHasClosed() throws Exception {
+        FakeSocket socket = follow(0L, 0L);
+        socket.close();
+
+        tailer.onTimer();
+
+        assertThat(tailer.statistics())
+            .containsEntry("Console logs being tailed", 0)
+            .containsEntry("Sockets tailing console logs", 0);
+    }
+
+    @Test
+    void shouldCloseSocketsThatFallTooFarBehindSoTheyReconnect() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        FakeSocket slow = new FakeSocket() {
+            @Override
+            public void send(ByteBuffer data) throws IOException {
+                try {
+                    stuck.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                super.send(data);
+            }
+        };
+        FakeSocket fast = new FakeSocket();
+        when(consoleService.consoleLogOffsetOfLine(jobIdentifier, 0L)).thenReturn(0L);
+        tailer.follow(slow, jobIdentifier, 0L);
+        tailer.follow(fast, jobIdentifier, 0L);
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < ConsoleLogTailer.MAX_PENDING_CHUNKS + 2; i++) {
+            append("line " + i + "\n");
+            expected.append("line ").append(i).append("\n");
+            tailer.onTimer();
+        }
+        stuck.countDown();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> slow.closeCode == 4409);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> fast.received().contentEquals(expected));
+        assertThat(fast.open).isTrue();
+    }
+
+    @Test
+    void shouldKeepLinesTogetherWhenReadingInChunks() throws Exception {
+        Files.writeString(console, "one\ntwo\nthr");
+        try (FileChannel channel = FileChannel.open(console, StandardOpenOption.READ)) {
+            assertThat(new String(ConsoleLogTailer.readLines(channel, 0, channel.size(), false), UTF_8)).isEqualTo("one\ntwo\n");
+            assertThat(new String(ConsoleLogTailer.readLines(channel, 4, channel.size(), false), UTF_8)).isEqualTo("two\n");
+            assertThat(new String(ConsoleLogTailer.readLines(channel, 8, channel.size(), false), UTF_8)).isEmpty();
+            assertThat(new String(ConsoleLogTailer.readLines(channel, 8, channel.size(), true), UTF_8)).isEqualTo("thr");
+        }
+        assertThat(ConsoleLogTailer.endOfCompleteLines(console)).isEqualTo(8L);
+        assertThat(ConsoleLogTailer.endOfCompleteLines(console.resolveSibling("missing.log"))).isZero();
+    }
+
+    private FakeSocket follow(long startLine, long offset) throws Exception {
+        FakeSocket socket = new FakeSocket();
+        when(consoleService.consoleLogOffsetOfLine(jobIdentifier, startLine)).thenReturn(offset);
+        tailer.follow(socket, jobIdentifier, startLine);
+        return socket;
+    }
+
+    private void append(String content) throws IOException {
+        Files.writeString(console, content, StandardOpenOption.APPEND);
+    }
+
+    private static class FakeSocket implements SocketEndpoint {
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private volatile boolean open = true;
+        private volatile int closeCode;
+
+        @Override
+        public void send(ByteBuffer data) throws IOException {
+            synchronized (received) {
+                received.write(data.array(), data.position(), data.remaining());
+            }
+        }
+
+        String received() {
+            synchronized (received) {
+                return received.toString(UTF_8);
+            }
+        }
+
+        @Override
+        public void ping() {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            close(1000, null);
+        }
+
+        @Override
+        public void close(int code, String reason) {
+            closeCode = code;
+            open = false;
+        }
+
+        @Override
+        public String key() {
+            return String.valueOf(hashCode());
+        }
+    }
+}